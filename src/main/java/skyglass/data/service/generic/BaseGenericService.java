@@ -2,18 +2,37 @@ package skyglass.data.service.generic;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
 import skyglass.data.service.generic.jpa.BaseJpaGenericService;
+import skyglass.query.composer.search.TrigramIndex;
 
 public abstract class BaseGenericService extends BaseJpaGenericService implements IBaseGenericService {
 
 	@PersistenceContext
 	protected EntityManager entityManager;
 
+	private final Map<Class<?>, TrigramIndex<?>> trigramIndexes = new ConcurrentHashMap<>();
+
+	/**
+	 * Loads all entities of the index type into the index, which is then kept current by save and remove of this service.
+	 * Changes are passed to the index after the commit of the transaction, so rolled back changes are not indexed.
+	 * The index is local to this node: changes made outside of this service require to invalidate or load the index again.
+	 */
+	protected <T> TrigramIndex<T> addTrigramIndex(TrigramIndex<T> trigramIndex) {
+		trigramIndex.load(_all(trigramIndex.getType()));
+		trigramIndexes.put(trigramIndex.getType(), trigramIndex);
+		return trigramIndex;
+	}
+
 	@Override
 	public <T> int countAll(Class<T> type) {
 		return _count(type);
@@ -66,38 +85,104 @@ public abstract class BaseGenericService extends BaseJpaGenericService implement
 
 	@Override
 	public boolean remove(Object entity) {
-		return _deleteEntity(entity);
+		boolean result = _deleteEntity(entity);
+		removeFromTrigramIndexes(entity);
+		return result;
 	}
 
 	@Override
 	public void remove(Object... entities) {
 		_deleteEntities(entities);
+		for (Object entity : entities) {
+			removeFromTrigramIndexes(entity);
+		}
 	}
 
 	@Override
 	public <T> boolean removeById(Class<T> type, Serializable id) {
-		return _deleteById(type, id);
+		boolean result = _deleteById(type, id);
+		removeFromTrigramIndex(type, id);
+		return result;
 	}
 
 	@Override
 	public <T> void removeByIds(Class<T> type, Serializable... ids) {
 		_deleteById(type, ids);
+		for (Serializable id : ids) {
+			removeFromTrigramIndex(type, id);
+		}
 	}
 
 	@Override
 	public Object save(Object entity) {
-		return _saveOrUpdateIsNew(entity);
+		Object result = _saveOrUpdateIsNew(entity);
+		putToTrigramIndexes(entity);
+		return result;
 	}
 
 	@Override
 	public boolean[] save(Object... entities) {
-		return _saveOrUpdateIsNew(entities);
+		boolean[] result = _saveOrUpdateIsNew(entities);
+		for (Object entity : entities) {
+			putToTrigramIndexes(entity);
+		}
+		return result;
 	}
 
 	@Override
 	public <T> void deleteAll(Class<T> type) {
 		Query q = entityManager.createQuery("delete" + generateFromClause(type));
 		q.executeUpdate();
+		TrigramIndex<?> trigramIndex = trigramIndexes.get(type);
+		if (trigramIndex != null) {
+			afterCommit(trigramIndex, trigramIndex::clear);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void putToTrigramIndexes(Object entity) {
+		for (TrigramIndex<?> trigramIndex : trigramIndexes.values()) {
+			if (trigramIndex.getType().isInstance(entity)) {
+				afterCommit(trigramIndex, () -> ((TrigramIndex<Object>) trigramIndex).put(entity));
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void removeFromTrigramIndexes(Object entity) {
+		for (TrigramIndex<?> trigramIndex : trigramIndexes.values()) {
+			if (trigramIndex.getType().isInstance(entity)) {
+				afterCommit(trigramIndex, () -> ((TrigramIndex<Object>) trigramIndex).remove(entity));
+			}
+		}
+	}
+
+	// the id is the uuid of the indexed entity, otherwise the removed entity stays in the index as a candidate, which the query filters out
+	private void removeFromTrigramIndex(Class<?> type, Serializable id) {
+		TrigramIndex<?> trigramIndex = trigramIndexes.get(type);
+		if (trigramIndex != null && id != null) {
+			afterCommit(trigramIndex, () -> trigramIndex.remove(id.toString()));
+		}
+	}
+
+	// without the transaction synchronization the change is applied at once
+	private static void afterCommit(TrigramIndex<?> trigramIndex, Runnable indexUpdate) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			indexUpdate.run();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			@Override
+			public void afterCommit() {
+				try {
+					indexUpdate.run();
+				} catch (RuntimeException ex) {
+					// the transaction is already committed, so the index, which missed the change, only stops narrowing the search
+					trigramIndex.invalidate();
+				}
+			}
+		});
 	}
 
 	protected <T> String generateFromClause(Class<T> type) {
@@ -0,0 +1,142 @@
+package skyglass.query.composer;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token of keyset paging: the order key values of the last row of the previous page.
+ * Values are written as typed text (type tag, length, value) and encoded with URL safe Base64, so no Java deserialization is involved.
+ * Null values are written with the N tag and no text.
+ */
+public final class ContinuationToken {
+
+	private static final char NULL_TAG = 'N';
+
+	private ContinuationToken() {
+	}
+
+	public static String encode(Object... values) {
+		StringBuilder sb = new StringBuilder();
+		for (Object value : values) {
+			if (value == null) {
+				sb.append(NULL_TAG).append("0:");
+				continue;
+			}
+			String text = toText(value);
+			sb.append(getTag(value)).append(text.length()).append(':').append(text);
+		}
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static Object[] decode(String token) {
+		try {
+			String text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			List<Object> result = new ArrayList<>();
+			int i = 0;
+			while (i < text.length()) {
+				char tag = text.charAt(i);
+				int separator = text.indexOf(':', i + 1);
+				int length = Integer.parseInt(text.substring(i + 1, separator));
+				int end = separator + 1 + length;
+				result.add(fromText(tag, text.substring(separator + 1, end)));
+				i = end;
+			}
+			return result.toArray();
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+		}
+	}
+
+	private static char getTag(Object value) {
+		if (value instanceof String) {
+			return 'S';
+		} else if (value instanceof Integer) {
+			return 'I';
+		} else if (value instanceof Long) {
+			return 'J';
+		} else if (value instanceof Short) {
+			return 'H';
+		} else if (value instanceof Double) {
+			return 'D';
+		} else if (value instanceof Float) {
+			return 'F';
+		} else if (value instanceof BigDecimal) {
+			return 'B';
+		} else if (value instanceof BigInteger) {
+			return 'G';
+		} else if (value instanceof Boolean) {
+			return 'Z';
+		} else if (value instanceof Timestamp) {
+			return 'P';
+		} else if (value instanceof Date) {
+			return 'T';
+		} else if (value instanceof LocalDate) {
+			return 'L';
+		} else if (value instanceof LocalDateTime) {
+			return 'M';
+		} else if (value instanceof UUID) {
+			return 'U';
+		}
+		throw new IllegalStateException("Keyset paging doesn't support order field values of type " + value.getClass().getName());
+	}
+
+	private static String toText(Object value) {
+		if (value instanceof Timestamp) {
+			Timestamp timestamp = (Timestamp) value;
+			return timestamp.getTime() + "." + timestamp.getNanos();
+		} else if (value instanceof Date) {
+			return Long.toString(((Date) value).getTime());
+		}
+		return value.toString();
+	}
+
+	private static Object fromText(char tag, String text) {
+		switch (tag) {
+		case NULL_TAG:
+			return null;
+		case 'S':
+			return text;
+		case 'I':
+			return Integer.valueOf(text);
+		case 'J':
+			return Long.valueOf(text);
+		case 'H':
+			return Short.valueOf(text);
+		case 'D':
+			return Double.valueOf(text);
+		case 'F':
+			return Float.valueOf(text);
+		case 'B':
+			return new BigDecimal(text);
+		case 'G':
+			return new BigInteger(text);
+		case 'Z':
+			return Boolean.valueOf(text);
+		case 'P':
+			int separator = text.indexOf('.');
+			Timestamp timestamp = new Timestamp(Long.parseLong(text.substring(0, separator)));
+			timestamp.setNanos(Integer.parseInt(text.substring(separator + 1)));
+			return timestamp;
+		case 'T':
+			return new Date(Long.parseLong(text));
+		case 'L':
+			return LocalDate.parse(text);
+		case 'M':
+			return LocalDateTime.parse(text);
+		case 'U':
+			return UUID.fromString(text);
+		default:
+			throw new IllegalArgumentException("Unknown value type: " + tag);
+		}
+	}
+
+}
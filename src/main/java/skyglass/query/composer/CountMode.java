@@ -0,0 +1,12 @@
+package skyglass.query.composer;
+
+public enum CountMode {
+
+    Exact, None, ShortCircuit, Capped,
+
+    // exact count, selected with the page rows by the window function (see QueryComposer.buildWindowCountPart()).
+    // Supported by native queries only: JPQL has no window functions, so JPA queries and pages after the keyset seek
+    // fall back to Exact, which reads the count by a separate statement
+    Window;
+
+}
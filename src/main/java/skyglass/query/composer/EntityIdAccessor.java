@@ -0,0 +1,99 @@
+package skyglass.query.composer;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.persistence.EntityManager;
+
+/**
+ * Reads the uuid property of entities. The accessor is resolved once per (entity type, property) from the JPA metamodel,
+ * or from the declared fields if the type is not managed.
+ */
+final class EntityIdAccessor {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final ClassValue<Map<String, EntityIdAccessor>> ACCESSORS = new ClassValue<Map<String, EntityIdAccessor>>() {
+
+		@Override
+		protected Map<String, EntityIdAccessor> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private final String property;
+
+	private final MethodHandle getter;
+
+	private EntityIdAccessor(String property, MethodHandle getter) {
+		this.property = property;
+		this.getter = getter;
+	}
+
+	static EntityIdAccessor get(EntityManager entityManager, Class<?> type, String property) {
+		Map<String, EntityIdAccessor> accessors = ACCESSORS.get(type);
+		EntityIdAccessor result = accessors.get(property);
+		if (result == null) {
+			result = new EntityIdAccessor(property, createGetter(getMember(entityManager, type, property), type, property));
+			accessors.put(property, result);
+		}
+		return result;
+	}
+
+	String getId(Object entity) {
+		Object result;
+		try {
+			result = (Object) getter.invokeExact(entity);
+		} catch (RuntimeException | Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			throw new IllegalStateException("Could not read property " + property + " of " + entity, ex);
+		}
+		return result == null ? null : result.toString();
+	}
+
+	private static Member getMember(EntityManager entityManager, Class<?> type, String property) {
+		try {
+			return entityManager.getMetamodel().managedType(type).getAttribute(property).getJavaMember();
+		} catch (IllegalArgumentException ex) {
+			// not a managed type or attribute
+			return getDeclaredField(type, property);
+		}
+	}
+
+	private static Field getDeclaredField(Class<?> type, String name) {
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (field.getName().equals(name)) {
+					return field;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static MethodHandle createGetter(Member member, Class<?> type, String property) {
+		try {
+			if (member instanceof Field) {
+				Field field = (Field) member;
+				field.setAccessible(true);
+				return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+			}
+			if (member instanceof Method) {
+				Method method = (Method) member;
+				method.setAccessible(true);
+				return MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+			}
+		} catch (IllegalAccessException | RuntimeException ex) {
+			throw new IllegalArgumentException("Could not access property " + property + " of " + type.getName(), ex);
+		}
+		throw new IllegalArgumentException("Property " + property + " was not found in " + type.getName());
+	}
+
+}
@@ -1,5 +1,7 @@
 package skyglass.query.composer;
 
+import java.util.Objects;
+
 public class FieldItem {
 
 	private String innerPath;
@@ -38,4 +40,21 @@ public class FieldItem {
 		return fieldItemType == FieldItemType.Search;
 	}
 
+	@Override
+	public int hashCode() {
+		return Objects.hash(alias, innerPath, addRootAlias, useAsAlias, fieldItemType);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof FieldItem)) {
+			return false;
+		}
+		FieldItem other = (FieldItem) obj;
+		return alias.equals(other.alias) && innerPath.equals(other.innerPath) && addRootAlias == other.addRootAlias
+				&& useAsAlias == other.useAsAlias && fieldItemType == other.fieldItemType;
+	}
+
 }
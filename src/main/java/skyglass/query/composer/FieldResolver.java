@@ -1,5 +1,6 @@
 package skyglass.query.composer;
 
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -50,4 +51,32 @@ public class FieldResolver {
 		}
 	}
 
+	@Override
+	public int hashCode() {
+		return fieldResolvers.hashCode();
+	}
+
+	/**
+	 * Resolvers are compared in their insertion order, because the order matters for multiple resolvers (see QueryOrderUtil)
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof FieldResolver)) {
+			return false;
+		}
+		FieldResolver other = (FieldResolver) obj;
+		if (fieldResolvers.size() != other.fieldResolvers.size()) {
+			return false;
+		}
+		Iterator<String> otherIterator = other.fieldResolvers.iterator();
+		for (String fieldResolver : fieldResolvers) {
+			if (!fieldResolver.equals(otherIterator.next())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 }
@@ -0,0 +1,129 @@
+package skyglass.query.composer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import skyglass.query.composer.result.QueryResultProvider;
+import skyglass.query.composer.util.QueryResultUtil;
+
+/**
+ * Reads JPA query rows as Tuple projections of the select fields, without loading managed entities.
+ * Rows have the same layout as native rows (uuid first, unless skipped, then the select fields),
+ * so they are mapped to DTOs through the same converters. The composer should be in projection mode (see QueryComposer.setProjection()).
+ */
+public class JpaProjectionResultProvider implements QueryResultProvider<Object[]> {
+
+	private EntityManager entityManager;
+
+	public JpaProjectionResultProvider(EntityManager entityManager) {
+		this.entityManager = entityManager;
+	}
+
+	@Override
+	public List<Object[]> getResult(QueryComposer builder, List<String> uuidList) {
+		if (uuidList.isEmpty()) {
+			return new ArrayList<>();
+		}
+		if (builder.isSkipUuid()) {
+			throw new IllegalStateException("Distinct projection requires the uuid field to restore the order of the uuid list");
+		}
+		TypedQuery<Tuple> typedQuery = createQuery(builder.buildResultFromUuidList(uuidList), builder);
+		setParameters(typedQuery, builder.getUuidListParams(uuidList));
+		List<Object[]> results = getRows(typedQuery);
+		return JpaQueryResultProvider.orderByUuidList(results, uuidList, row -> row[0] == null ? null : row[0].toString());
+	}
+
+	@Override
+	public List<Object[]> getPagedResult(QueryComposer builder, int firstResult, int maxResults) {
+		TypedQuery<Tuple> typedQuery = createQuery(builder.build(), builder);
+		setParameters(typedQuery, builder.getKeysetParams());
+		if (firstResult >= 0) {
+			typedQuery.setFirstResult(firstResult);
+		}
+		if (maxResults >= 0) {
+			typedQuery.setMaxResults(maxResults);
+		}
+		return getRows(typedQuery);
+	}
+
+	@Override
+	public List<Object[]> getUnpagedResult(QueryComposer builder) {
+		TypedQuery<Tuple> typedQuery = createQuery(builder.build(), builder);
+		setParameters(typedQuery, builder.getKeysetParams());
+		return getRows(typedQuery);
+	}
+
+	/**
+	 * Projection rows are not managed, so the persistence context is not cleared while streaming
+	 */
+	@Override
+	public Stream<Object[]> getStream(QueryComposer builder, int fetchSize) {
+		Query query = entityManager.createQuery(builder.build());
+		setParameters(query, builder.getParams());
+		setParameters(query, builder.getKeysetParams());
+		return QueryResultUtil.getStreamResult(query, fetchSize, row -> row, null);
+	}
+
+	@Override
+	public Object[] getKeyValues(QueryComposer builder, Object row) {
+		return builder.getKeyValues(row);
+	}
+
+	@Override
+	public int getTotalCount(QueryComposer builder) {
+		TypedQuery<Long> typedQuery = entityManager.createQuery(builder.buildCountPart(), Long.class);
+		setParameters(typedQuery, builder.getParams());
+		Long result = QueryResultUtil.getSingleResult(typedQuery);
+		return result == null ? 0 : result.intValue();
+	}
+
+	@Override
+	public int getCappedCount(QueryComposer builder) {
+		TypedQuery<Object> typedQuery = entityManager.createQuery(builder.buildCappedCountPart(), Object.class);
+		setParameters(typedQuery, builder.getParams());
+		typedQuery.setMaxResults(builder.getCountCap());
+		return QueryResultUtil.getListResult(typedQuery).size();
+	}
+
+	@Override
+	public List<String> getUuidList(QueryComposer builder, int firstResult, int maxResults) {
+		TypedQuery<String> typedQuery = entityManager.createQuery(builder.buildUuidListPart(), String.class);
+		setParameters(typedQuery, builder.getParams());
+		setParameters(typedQuery, builder.getKeysetParams());
+		typedQuery.setFirstResult(firstResult);
+		typedQuery.setMaxResults(maxResults);
+		return QueryResultUtil.getListResult(typedQuery);
+	}
+
+	private TypedQuery<Tuple> createQuery(String queryString, QueryComposer builder) {
+		if (!builder.isProjection()) {
+			throw new IllegalStateException("Query composer should be in projection mode to read Tuple rows");
+		}
+		TypedQuery<Tuple> typedQuery = entityManager.createQuery(queryString, Tuple.class);
+		setParameters(typedQuery, builder.getParams());
+		return typedQuery;
+	}
+
+	private List<Object[]> getRows(TypedQuery<Tuple> typedQuery) {
+		List<Tuple> tuples = QueryResultUtil.getListResult(typedQuery);
+		List<Object[]> results = new ArrayList<>(tuples.size());
+		for (Tuple tuple : tuples) {
+			results.add(tuple.toArray());
+		}
+		return results;
+	}
+
+	private void setParameters(Query query, Collection<QueryParam> params) {
+		for (QueryParam queryParam : params) {
+			query.setParameter(queryParam.getName(), queryParam.getValue());
+		}
+	}
+
+}
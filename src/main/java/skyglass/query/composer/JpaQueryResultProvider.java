@@ -1,15 +1,15 @@
 package skyglass.query.composer;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 
 import skyglass.data.common.model.IdObject;
-import skyglass.data.common.util.reflection.ReflectionMethodsHelper;
 import skyglass.query.composer.result.QueryResultProvider;
 import skyglass.query.composer.util.QueryResultUtil;
 
@@ -26,17 +26,37 @@ public class JpaQueryResultProvider<T> implements QueryResultProvider<T> {
 
 	@Override
 	public List<T> getResult(QueryComposer builder, List<String> uuidList) {
+		if (uuidList.isEmpty()) {
+			return new ArrayList<>();
+		}
 		TypedQuery<T> typedQuery = entityManager.createQuery(builder.buildResultFromUuidList(uuidList), type);
 		setParameters(typedQuery, builder);
+		setParameters(typedQuery, builder.getUuidListParams(uuidList));
 		List<T> results = QueryResultUtil.getListResult(typedQuery);
-		Map<String, T> idMap = new HashMap<>();
-		for (T result: results) {
-			String uuid = ReflectionMethodsHelper.getPropertyValue(result, builder.getUuidAlias(), String.class);
-			idMap.put(uuid, result);
+		return orderByUuidList(results, uuidList, EntityIdAccessor.get(entityManager, type, builder.getUuidAlias())::getId);
+	}
+
+	/**
+	 * Restores the order of the uuid list. Rows missing from the result (e.g. deleted after the uuid list query) are skipped,
+	 * so the returned list can be shorter than the uuid list, but never contains nulls.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> List<T> orderByUuidList(List<T> results, List<String> uuidList, Function<T, String> idAccessor) {
+		UuidIndex uuidIndex = new UuidIndex(uuidList);
+		Object[] orderedResults = new Object[uuidList.size()];
+		int found = 0;
+		for (T result : results) {
+			int position = uuidIndex.indexOf(idAccessor.apply(result));
+			if (position >= 0 && orderedResults[position] == null) {
+				orderedResults[position] = result;
+				found++;
+			}
 		}
-		List<T> finalResult = new ArrayList<>();
-		for (String uuid: uuidList) {
-			finalResult.add(idMap.get(uuid));
+		List<T> finalResult = new ArrayList<>(found);
+		for (Object result : orderedResults) {
+			if (result != null) {
+				finalResult.add((T) result);
+			}
 		}
 		return finalResult;
 	}
@@ -45,6 +65,7 @@ public class JpaQueryResultProvider<T> implements QueryResultProvider<T> {
 	public List<T> getPagedResult(QueryComposer builder, int firstResult, int maxResults) {
 		TypedQuery<T> typedQuery = entityManager.createQuery(builder.build(), type);
 		setParameters(typedQuery, builder);
+		setParameters(typedQuery, builder.getKeysetParams());
 		if (firstResult >= 0) {
 			typedQuery.setFirstResult(firstResult);
 		}
@@ -59,10 +80,33 @@ public class JpaQueryResultProvider<T> implements QueryResultProvider<T> {
 	public List<T> getUnpagedResult(QueryComposer builder) {
 		TypedQuery<T> typedQuery = entityManager.createQuery(builder.build(), type);
 		setParameters(typedQuery, builder);
+		setParameters(typedQuery, builder.getKeysetParams());
 		List<T> results = QueryResultUtil.getListResult(typedQuery);
 		return results;
 	}
 
+	/**
+	 * The streamed entities are detached every fetchSize rows, so the persistence context doesn't grow with the stream.
+	 * Other entities of the persistence context stay managed, but unflushed changes of a streamed entity are lost.
+	 * Detach cascades only to the associations mapped with CascadeType.DETACH or ALL, so the stream should select plain root entities:
+	 * fetch joins are rejected, and EAGER associations without the detach cascade stay managed.
+	 */
+	@Override
+	public Stream<T> getStream(QueryComposer builder, int fetchSize) {
+		if (builder.hasFetchJoins()) {
+			throw new UnsupportedOperationException("Entity stream doesn't support fetch joins, because the fetched associations are not detached");
+		}
+		TypedQuery<T> typedQuery = entityManager.createQuery(builder.build(), type);
+		setParameters(typedQuery, builder);
+		setParameters(typedQuery, builder.getKeysetParams());
+		return QueryResultUtil.getStreamResult(typedQuery, fetchSize, row -> type.cast(row[0]), this::detach);
+	}
+
+	@Override
+	public Object[] getKeyValues(QueryComposer builder, Object row) {
+		return builder.getKeyValues(row);
+	}
+
 	@Override
 	public int getTotalCount(QueryComposer builder) {
 		TypedQuery<Long> typedQuery = entityManager.createQuery(builder.buildCountPart(), Long.class);
@@ -71,18 +115,39 @@ public class JpaQueryResultProvider<T> implements QueryResultProvider<T> {
 		return result == null ? 0 : result.intValue();
 	}
 
+	@Override
+	public int getCappedCount(QueryComposer builder) {
+		TypedQuery<Object> typedQuery = entityManager.createQuery(builder.buildCappedCountPart(), Object.class);
+		setParameters(typedQuery, builder);
+		typedQuery.setMaxResults(builder.getCountCap());
+		return QueryResultUtil.getListResult(typedQuery).size();
+	}
+
 	@Override
 	public List<String> getUuidList(QueryComposer builder, int firstResult, int maxResults) {
 		TypedQuery<String> typedQuery = entityManager.createQuery(builder.buildUuidListPart(), String.class);
 		setParameters(typedQuery, builder);
+		setParameters(typedQuery, builder.getKeysetParams());
 		typedQuery.setFirstResult(firstResult);
 		typedQuery.setMaxResults(maxResults);
 		List<String> results = QueryResultUtil.getListResult(typedQuery);
 		return results;
 	}
 
+	private void detach(List<T> entities) {
+		for (T entity : entities) {
+			if (entity != null) {
+				entityManager.detach(entity);
+			}
+		}
+	}
+
 	private void setParameters(TypedQuery<?> typedQuery, QueryComposer builder) {
-		for (QueryParam queryParam : builder.getParams()) {
+		setParameters(typedQuery, builder.getParams());
+	}
+
+	private void setParameters(TypedQuery<?> typedQuery, Collection<QueryParam> params) {
+		for (QueryParam queryParam : params) {
 			typedQuery.setParameter(queryParam.getName(), queryParam.getValue());
 		}
 	}
@@ -0,0 +1,188 @@
+package skyglass.query.composer;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.beanutils.PropertyUtils;
+
+import skyglass.query.composer.config.Constants;
+import skyglass.query.composer.util.QueryFunctions;
+import skyglass.query.composer.util.QueryOrderUtil;
+
+/**
+ * Keyset (seek) paging part of the query: the order fields plus the uuid as tie-breaker.
+ * Renders the seek predicate, which continues after the last row of the previous page, and extracts the key values of that row.
+ * Order fields may be null: the order puts nulls last explicitly, because the default null order differs between databases.
+ */
+final class KeysetPart {
+
+	static final String PARAM_PREFIX = "keyset";
+
+	private final List<String> expressions = new ArrayList<>();
+
+	private final List<Boolean> descending = new ArrayList<>();
+
+	private final List<Boolean> string = new ArrayList<>();
+
+	private final String orderByPart;
+
+	KeysetPart(List<OrderField> orderFields, String uuidExpression) {
+		StringBuilder sb = new StringBuilder();
+		for (OrderField orderField : orderFields) {
+			if (orderField.isMultiple()) {
+				throw new IllegalStateException("Keyset paging doesn't support concatenated order fields: "
+						+ orderField.getOrderField().getResolvers());
+			}
+			String expression = orderField.getOrderField().getResolver();
+			addColumn(expression, orderField.isDescending(), orderField.isString());
+			sb.append(getNullOrder(expression)).append(" ASC, ").append(QueryOrderUtil.applyOrder(Collections.singletonList(orderField))).append(", ");
+		}
+		addColumn(uuidExpression, false, false);
+		this.orderByPart = sb.append(uuidExpression).append(" ASC").toString();
+	}
+
+	private void addColumn(String expression, boolean isDescending, boolean isString) {
+		expressions.add(expression);
+		descending.add(isDescending);
+		string.add(isString);
+	}
+
+	int size() {
+		return expressions.size();
+	}
+
+	String getUuidExpression() {
+		return expressions.get(expressions.size() - 1);
+	}
+
+	/**
+	 * Order fields with nulls last, followed by the uuid
+	 */
+	String getOrderByPart() {
+		return orderByPart;
+	}
+
+	/**
+	 * (c0 > k0 OR (c0 = k0 AND c1 > k1) OR ...), where descending columns use the "<" comparison.
+	 * Nulls are last: a null key value is matched by IS NULL and has no rows after it, and rows with null values follow the non-null key value.
+	 */
+	String getSeekPredicate(boolean isNative, Object[] values) {
+		checkSize(values);
+		StringBuilder sb = new StringBuilder("( ");
+		boolean first = true;
+		for (int i = 0; i < expressions.size(); i++) {
+			if (values[i] == null) {
+				continue;
+			}
+			if (first) {
+				first = false;
+			} else {
+				sb.append(" OR ");
+			}
+			if (i > 0) {
+				sb.append("( ");
+				for (int j = 0; j < i; j++) {
+					if (values[j] == null) {
+						sb.append(expressions.get(j)).append(" IS NULL");
+					} else {
+						appendComparison(sb, j, " = ", isNative);
+					}
+					sb.append(" AND ");
+				}
+			}
+			if (i < expressions.size() - 1) {
+				sb.append("( ");
+				appendComparison(sb, i, descending.get(i) ? " < " : " > ", isNative);
+				sb.append(" OR ").append(expressions.get(i)).append(" IS NULL )");
+			} else {
+				appendComparison(sb, i, descending.get(i) ? " < " : " > ", isNative);
+			}
+			if (i > 0) {
+				sb.append(" )");
+			}
+		}
+		sb.append(" )");
+		return sb.toString();
+	}
+
+	private static String getNullOrder(String expression) {
+		return "CASE WHEN " + expression + " IS NULL THEN 1 ELSE 0 END";
+	}
+
+	private void checkSize(Object[] values) {
+		if (values.length != expressions.size() || values[values.length - 1] == null) {
+			throw new IllegalArgumentException("Continuation token doesn't match the order of the query");
+		}
+	}
+
+	private void appendComparison(StringBuilder sb, int index, String operator, boolean isNative) {
+		String param = (isNative ? "?" : ":") + PARAM_PREFIX + index;
+		if (string.get(index)) {
+			sb.append(QueryFunctions.lower(expressions.get(index))).append(operator).append(QueryFunctions.lower(param));
+		} else {
+			sb.append(expressions.get(index)).append(operator).append(param);
+		}
+	}
+
+	List<QueryParam> getParams(Object[] values) {
+		checkSize(values);
+		List<QueryParam> result = new ArrayList<>();
+		for (int i = 0; i < values.length; i++) {
+			// null key values are rendered as IS NULL, without parameter
+			if (values[i] != null) {
+				result.add(QueryParam.create(PARAM_PREFIX + i, values[i]));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Key values of the native result row, which columns correspond to the select fields
+	 */
+	Object[] getKeyValues(Object row, List<SelectField> selectFields) {
+		Object[] columns = row instanceof Object[] ? (Object[]) row : new Object[] { row };
+		Object[] result = new Object[expressions.size()];
+		for (int i = 0; i < expressions.size(); i++) {
+			result[i] = columns[getColumnIndex(expressions.get(i), selectFields)];
+		}
+		return result;
+	}
+
+	private int getColumnIndex(String expression, List<SelectField> selectFields) {
+		for (int i = 0; i < selectFields.size(); i++) {
+			SelectField selectField = selectFields.get(i);
+			if (expression.equals(selectField.getExpression())
+					|| expression.equals(Constants.OUTER_QUERY_PREFIX + "." + selectField.getAlias())) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("Order field " + expression + " should be selected for keyset paging");
+	}
+
+	/**
+	 * Key values of the entity, where order fields are property paths of the root alias
+	 */
+	Object[] getKeyValues(Object entity, String rootAlias, String uuidProperty) {
+		Object[] result = new Object[expressions.size()];
+		for (int i = 0; i < expressions.size() - 1; i++) {
+			String expression = expressions.get(i);
+			if (!expression.startsWith(rootAlias + ".")) {
+				throw new IllegalStateException("Order field " + expression + " should be a property of " + rootAlias + " for keyset paging");
+			}
+			result[i] = getProperty(entity, expression.substring(rootAlias.length() + 1));
+		}
+		result[expressions.size() - 1] = getProperty(entity, uuidProperty);
+		return result;
+	}
+
+	private Object getProperty(Object entity, String path) {
+		try {
+			return PropertyUtils.getNestedProperty(entity, path);
+		} catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+			throw new IllegalStateException("Could not read the property " + path + " for keyset paging", e);
+		}
+	}
+
+}
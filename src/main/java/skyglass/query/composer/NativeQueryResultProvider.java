@@ -1,7 +1,11 @@
 package skyglass.query.composer;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.Query;
@@ -28,6 +32,7 @@ public class NativeQueryResultProvider implements QueryResultProvider<Object[]>
 	public List<Object[]> getPagedResult(QueryComposer builder, int firstResult, int maxResults) {
 		Query nativeQuery = entityManager.createNativeQuery(builder.build());
 		setParameters(nativeQuery, builder);
+		setParameters(nativeQuery, builder.getKeysetParams());
 		nativeQuery.setFirstResult(firstResult);
 		nativeQuery.setMaxResults(maxResults);
 		@SuppressWarnings("unchecked")
@@ -35,15 +40,58 @@ public class NativeQueryResultProvider implements QueryResultProvider<Object[]>
 		return results;
 	}
 
+	@Override
+	public boolean isWindowCountSupported(QueryComposer builder) {
+		return true;
+	}
+
+	@Override
+	public QueryResult<Object[]> getPagedResultWithCount(QueryComposer builder, int firstResult, int maxResults) {
+		Query nativeQuery = entityManager.createNativeQuery(builder.buildWindowCountPart());
+		setParameters(nativeQuery, builder);
+		nativeQuery.setFirstResult(firstResult);
+		nativeQuery.setMaxResults(maxResults);
+		@SuppressWarnings("unchecked")
+		List<Object[]> rows = QueryResultUtil.getListResult(nativeQuery);
+		int totalCount = -1;
+		List<Object> results = new ArrayList<>(rows.size());
+		for (Object[] row : rows) {
+			// the count is the last column; the rest of the row has the same shape as getPagedResult() rows
+			int size = row.length - 1;
+			totalCount = ((Number) row[size]).intValue();
+			results.add(size == 1 ? row[0] : Arrays.copyOf(row, size));
+		}
+		QueryResult<Object[]> result = new QueryResult<>();
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		List<Object[]> page = (List) results;
+		result.setResult(page);
+		result.setTotalCount(totalCount);
+		return result;
+	}
+
 	@Override
 	public List<Object[]> getUnpagedResult(QueryComposer builder) {
 		Query nativeQuery = entityManager.createNativeQuery(builder.build());
 		setParameters(nativeQuery, builder);
+		setParameters(nativeQuery, builder.getKeysetParams());
 		@SuppressWarnings("unchecked")
 		List<Object[]> results = QueryResultUtil.getListResult(nativeQuery);
 		return results;
 	}
 
+	@Override
+	public Stream<Object[]> getStream(QueryComposer builder, int fetchSize) {
+		Query nativeQuery = entityManager.createNativeQuery(builder.build());
+		setParameters(nativeQuery, builder);
+		setParameters(nativeQuery, builder.getKeysetParams());
+		return QueryResultUtil.getStreamResult(nativeQuery, fetchSize, row -> row, null);
+	}
+
+	@Override
+	public Object[] getKeyValues(QueryComposer builder, Object row) {
+		return builder.getKeyValues(row);
+	}
+
 	@Override
 	public int getTotalCount(QueryComposer builder) {
 		Query nativeQuery = entityManager.createNativeQuery(builder.buildCountPart());
@@ -52,10 +100,19 @@ public class NativeQueryResultProvider implements QueryResultProvider<Object[]>
 		return result == null ? 0 : result.intValue();
 	}
 
+	@Override
+	public int getCappedCount(QueryComposer builder) {
+		Query nativeQuery = entityManager.createNativeQuery(builder.buildCappedCountPart());
+		setParameters(nativeQuery, builder);
+		Number result = (Number) QueryResultUtil.getSingleResult(nativeQuery);
+		return result == null ? 0 : result.intValue();
+	}
+
 	@Override
 	public List<String> getUuidList(QueryComposer builder, int firstResult, int maxResults) {
 		Query nativeQuery = entityManager.createNativeQuery(builder.buildUuidListPart());
 		setParameters(nativeQuery, builder);
+		setParameters(nativeQuery, builder.getKeysetParams());
 		nativeQuery.setFirstResult(firstResult);
 		nativeQuery.setMaxResults(maxResults);
 		@SuppressWarnings("unchecked")
@@ -64,7 +121,11 @@ public class NativeQueryResultProvider implements QueryResultProvider<Object[]>
 	}
 
 	private void setParameters(Query nativeQuery, QueryComposer builder) {
-		for (QueryParam queryParam : builder.getParams()) {
+		setParameters(nativeQuery, builder.getParams());
+	}
+
+	private void setParameters(Query nativeQuery, Collection<QueryParam> params) {
+		for (QueryParam queryParam : params) {
 			if (queryParam.getValue() instanceof Date) {
 				nativeQuery.setParameter(queryParam.getName(), (Date) queryParam.getValue(), TemporalType.TIMESTAMP);
 			} else {
@@ -2,6 +2,10 @@ package skyglass.query.composer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import skyglass.query.composer.search.FullTextSearch;
 
 /**
  * This class allows to build order fields from QueryRequestDTO in a declarative way.
@@ -74,6 +78,15 @@ public class OrderBuilder {
 		return this;
 	}
 
+	/**
+	 * Orders by the full-text rank of the fields, the most relevant rows first
+	 * @param param parameter of the search term, e.g. ?searchTerm0
+	 */
+	public OrderBuilder addRankOrder(FullTextSearch fullTextSearch, String param, String... orderFields) {
+		String rank = Stream.of(orderFields).map(field -> fullTextSearch.getRank(field, param)).collect(Collectors.joining(" + "));
+		return addOrder(OrderType.Desc, FieldType.Number, orderFields.length > 1 ? "(" + rank + ")" : rank);
+	}
+
 	public boolean shouldSetDefaultOrder() {
 		return this.orderFields.size() == 0;
 	}
@@ -1,5 +1,7 @@
 package skyglass.query.composer;
 
+import java.util.Objects;
+
 /**
  * This class contains information on how to build correspondent SQL ORDER BY part
  * (See QueryOrderUtil class, which converts the list of OrderField classes to correspondent SQL ORDER BY part)
@@ -51,4 +53,20 @@ public class OrderField {
 		return fieldType == FieldType.String;
 	}
 
+	@Override
+	public int hashCode() {
+		return Objects.hash(fieldResolver, orderType, fieldType);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof OrderField)) {
+			return false;
+		}
+		OrderField other = (OrderField) obj;
+		return fieldResolver.equals(other.fieldResolver) && orderType == other.orderType && fieldType == other.fieldType;
+	}
+
 }
@@ -0,0 +1,7 @@
+package skyglass.query.composer;
+
+public enum PagingMode {
+
+    Offset, Keyset;
+
+}
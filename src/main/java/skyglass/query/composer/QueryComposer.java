@@ -1,6 +1,8 @@
 package skyglass.query.composer;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -12,14 +14,23 @@ import org.apache.commons.lang3.StringUtils;
 import skyglass.data.common.model.IdObject;
 import skyglass.query.composer.bean.QueryManager;
 import skyglass.query.composer.config.Constants;
+import skyglass.query.composer.result.ColumnarQueryResult;
+import skyglass.query.composer.search.FullTextSearch;
 import skyglass.query.composer.search.SearchProcessor;
 import skyglass.query.composer.search.SearchTerm;
 import skyglass.query.composer.search.SearchType;
-import skyglass.query.composer.util.NativeQueryUtil;
+import skyglass.query.composer.search.TranslatableSearch;
+import skyglass.query.composer.search.TrigramIndex;
 import skyglass.query.composer.util.QueryRequestUtil;
 
 public class QueryComposer {
 
+	private static final int BUFFER_RESERVE = 128;
+
+	private static final String UUID_LIST_PARAM = "uuidList";
+
+	private static final String WINDOW_COUNT_SELECT = "COUNT(*) OVER ()";
+
 	private StringBuilder fromPart;
 
 	private Map<String, QueryParam> params = new HashMap<>();
@@ -54,14 +65,51 @@ public class QueryComposer {
 
 	private boolean skipUuid = false;
 
+	private boolean projection = false;
+
+	private PagingMode defaultPagingMode = PagingMode.Offset;
+
+	private CountMode defaultCountMode = CountMode.Exact;
+
+	private int defaultCountCap = QueryRequestDTO.DEFAULT_COUNT_CAP;
+
+	private TranslatableSearch translatableSearch = TranslatableSearch.allLanguages();
+
+	private FullTextSearch fullTextSearch;
+
+	private TrigramIndex<?> trigramIndex;
+
 	private boolean composerAlreadyStarted;
 
+	private boolean usePlanCache;
+
+	private boolean normalizeSearch;
+
+	private QueryPlan plan;
+
+	private QueryFragments fragments;
+
+	private KeysetPart keysetPart;
+
+	// decoded continuation token
+	private String keysetToken;
+
+	private Object[] keysetValues;
+
+	private boolean hasRequestParts;
+
 	QueryComposer(QueryRequestDTO queryRequest, String rootAlias, boolean isNative) {
 		init(rootAlias, isNative);
 		this.queryRequest = queryRequest == null ? new QueryRequestDTO() : queryRequest;
 		this.queryComposer = new QueryComposerBuilder(this, this.queryRequest, rootAlias);
 	}
 
+	QueryComposer(QueryRequestDTO queryRequest, String rootAlias, boolean isNative, QueryDefinition definition) {
+		init(rootAlias, isNative);
+		this.queryRequest = queryRequest == null ? new QueryRequestDTO() : queryRequest;
+		this.queryComposer = new QueryComposerBuilder(this, this.queryRequest, rootAlias, definition);
+	}
+
 	QueryComposer(QueryRequestDTO queryRequest, String rootAlias) {
 		this(queryRequest, rootAlias, true);
 	}
@@ -79,9 +127,16 @@ public class QueryComposer {
 		if (!composerAlreadyStarted) {
 			queryComposer.resetAndInit();
 			this.composerAlreadyStarted = true;
+			resetPlan();
 		}
 	}
 
+	void resetPlan() {
+		this.plan = null;
+		this.fragments = null;
+		this.keysetPart = null;
+	}
+
 	//does nothing, only for indentation
 	public QueryComposer ___________________() {
 		return this;
@@ -107,18 +162,22 @@ public class QueryComposer {
 	}
 
 	public StringPartBuilder startAndPart() {
+		this.hasRequestParts = true;
 		return this.queryPart.startAnd();
 	}
 
 	public StringPartBuilder startOrPart() {
+		this.hasRequestParts = true;
 		return this.queryPart.startOr();
 	}
 
 	public StringPartBuilder startPart() {
+		this.hasRequestParts = true;
 		return queryPart.start();
 	}
 
 	public StringPartBuilder startPart(String part) {
+		this.hasRequestParts = true;
 		return queryPart.start(part);
 	}
 
@@ -166,10 +225,12 @@ public class QueryComposer {
 
 	public QueryComposer from(String from) {
 		this.fromPart = new StringBuilder(from);
+		resetPlan();
 		return this;
 	}
 
 	public StringPartBuilder startJoin(String join) {
+		this.hasRequestParts = true;
 		return joinPart.start(join);
 	}
 
@@ -179,6 +240,7 @@ public class QueryComposer {
 	}
 
 	public StringPartBuilder startLeftJoin(String join) {
+		this.hasRequestParts = true;
 		return leftJoinPart.start(join);
 	}
 
@@ -188,6 +250,7 @@ public class QueryComposer {
 	}
 
 	public StringPartBuilder startJoinFetch(String joinFetch) {
+		this.hasRequestParts = true;
 		return joinFetchPart.start(joinFetch);
 	}
 
@@ -197,6 +260,7 @@ public class QueryComposer {
 	}
 
 	public StringPartBuilder startLeftJoinFetch(String joinFetch) {
+		this.hasRequestParts = true;
 		return leftJoinFetchPart.start(joinFetch);
 	}
 
@@ -210,6 +274,7 @@ public class QueryComposer {
 	}
 
 	public StringPartBuilder startAndWhere(String where) {
+		this.hasRequestParts = true;
 		return wherePart.start(where).startAnd();
 	}
 
@@ -218,6 +283,7 @@ public class QueryComposer {
 	}
 
 	public StringPartBuilder startOrWhere(String where) {
+		this.hasRequestParts = true;
 		return wherePart.start(where).startOr();
 	}
 
@@ -236,6 +302,7 @@ public class QueryComposer {
 	}
 
 	public StringPartBuilder startHaving(String having) {
+		this.hasRequestParts = true;
 		return havingPart.start(having);
 	}
 
@@ -258,46 +325,78 @@ public class QueryComposer {
 
 	public QueryComposer setOffset(int offset) {
 		getQueryRequest().setOffset(offset);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setLimit(int limit) {
 		getQueryRequest().setLimit(limit);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setRowsPerPage(int rowsPerPage) {
 		getQueryRequest().setRowsPerPage(rowsPerPage);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setPageNumber(int pageNumber) {
 		getQueryRequest().setPageNumber(pageNumber);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setSearchTerm(String searchTerm) {
 		getQueryRequest().setSearchTerm(searchTerm);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer addSearchTerm(String searchTerm) {
 		getQueryRequest().addSearchTerm(searchTerm);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setOrderField(String orderField) {
 		getQueryRequest().setOrderField(orderField);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setOrderType(OrderType orderType) {
 		getQueryRequest().setOrderType(orderType);
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setLang(String lang) {
 		getQueryRequest().setLang(lang);
+		resetPlan();
+		return this;
+	}
+
+	public QueryComposer setPagingMode(PagingMode pagingMode) {
+		getQueryRequest().setPagingMode(pagingMode);
+		resetPlan();
+		return this;
+	}
+
+	public QueryComposer setContinuationToken(String continuationToken) {
+		getQueryRequest().setContinuationToken(continuationToken);
+		resetPlan();
+		return this;
+	}
+
+	public QueryComposer setCountMode(CountMode countMode) {
+		getQueryRequest().setCountMode(countMode);
+		return this;
+	}
+
+	public QueryComposer setCountMode(CountMode countMode, int countCap) {
+		getQueryRequest().setCountMode(countMode);
+		getQueryRequest().setCountCap(countCap);
 		return this;
 	}
 
@@ -313,9 +412,42 @@ public class QueryComposer {
 
 	public QueryComposer restart() {
 		this.queryComposer.resetAndInit();
+		resetPlan();
+		return this;
+	}
+
+	/**
+	 * Reuses already rendered select, count and uuid list SQL of the previous composers with the same query shape (see QueryPlanCache).
+	 * Only parameter values are bound per request.
+	 */
+	public QueryComposer usePlanCache() {
+		return usePlanCache(true);
+	}
+
+	public QueryComposer usePlanCache(boolean usePlanCache) {
+		this.usePlanCache = usePlanCache;
+		resetPlan();
 		return this;
 	}
 
+	/**
+	 * Shares the parameters of the search terms with equal values, and renders the search part without duplicate predicates
+	 * and nested parentheses of the same operator. Applies, when the search is built: before the first build, or after restart().
+	 */
+	public QueryComposer normalizeSearch() {
+		return normalizeSearch(true);
+	}
+
+	public QueryComposer normalizeSearch(boolean normalizeSearch) {
+		this.normalizeSearch = normalizeSearch;
+		resetPlan();
+		return this;
+	}
+
+	public boolean isNormalizeSearch() {
+		return normalizeSearch;
+	}
+
 	public String build() {
 		return build(false);
 	}
@@ -326,22 +458,85 @@ public class QueryComposer {
 
 	private String build(boolean isUuids) {
 		initComposer();
-		StringBuilder sb = new StringBuilder();
+		if (!usePlanCache) {
+			return render(isUuids, null);
+		}
+		QueryPlan plan = getPlan();
+		String result = isUuids ? plan.getUuidListSql() : plan.getSelectSql();
+		if (result == null) {
+			result = render(isUuids, null);
+			if (isUuids) {
+				plan.setUuidListSql(result);
+			} else {
+				plan.setSelectSql(result);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Page query, which also selects the total count of the rows as the last column (see CountMode.Window).
+	 * The window function is evaluated before OFFSET and LIMIT, and after the grouping of the distinct query,
+	 * so the page and its total count are read by a single statement. Without keyset seek only: the seek predicate
+	 * would restrict the counted rows. JPQL has no window functions, so this is supported for native queries only.
+	 */
+	public String buildWindowCountPart() {
+		initComposer();
+		if (!isNativeQuery()) {
+			throw new UnsupportedOperationException("Window count is not supported by JPA queries");
+		}
+		if (applyKeysetSeek()) {
+			throw new IllegalStateException("Window count can't be selected with the keyset seek predicate");
+		}
+		if (!usePlanCache) {
+			return render(false, WINDOW_COUNT_SELECT);
+		}
+		QueryPlan plan = getPlan();
+		String result = plan.getWindowCountSql();
+		if (result == null) {
+			result = render(false, WINDOW_COUNT_SELECT);
+			plan.setWindowCountSql(result);
+		}
+		return result;
+	}
+
+	private String render(boolean isUuids, String extraSelect) {
+		StringBuilder sb = createBuffer();
 		if (applyOuterQuery()) {
 			buildSelectPart(sb, isUuids, false);
+			if (extraSelect != null) {
+				sb.append(", " + extraSelect);
+			}
 			sb.append(" FROM ( ");
 			buildInner(sb, isUuids, false, false);
 			sb.append(" ) " + Constants.OUTER_QUERY_PREFIX);
+			if (applyKeysetSeek()) {
+				sb.append(" WHERE ");
+				sb.append(getKeysetPart().getSeekPredicate(isNativeQuery(), getKeysetValues()));
+			}
 			buildOrderByPart(sb, false);
 		} else {
-			buildInner(sb, isUuids, false, false);
+			buildInner(sb, isUuids, false, false, extraSelect);
 		}
 		return sb.toString();
 	}
 
 	public String buildCountPart() {
 		initComposer();
-		StringBuilder sb = new StringBuilder();
+		if (!usePlanCache) {
+			return renderCountPart();
+		}
+		QueryPlan plan = getPlan();
+		String result = plan.getCountSql();
+		if (result == null) {
+			result = renderCountPart();
+			plan.setCountSql(result);
+		}
+		return result;
+	}
+
+	private String renderCountPart() {
+		StringBuilder sb = createBuffer();
 		if (applyDistinctCount()) {
 			sb.append("SELECT DISTINCT COUNT(1) OVER ()");
 			buildInner(sb, false, true, false);
@@ -352,78 +547,217 @@ public class QueryComposer {
 		return sb.toString();
 	}
 
+	/**
+	 * Count query, which counts at most countCap rows.
+	 * JPQL doesn't support subqueries in the FROM clause, so for JPA queries the rows of this query should be limited with setMaxResults() and counted.
+	 */
+	public String buildCappedCountPart() {
+		initComposer();
+		StringBuilder sb = createBuffer();
+		if (isNativeQuery()) {
+			sb.append("SELECT COUNT(1) FROM ( SELECT 1");
+			buildInner(sb, false, true, false);
+			sb.append(" LIMIT " + getCountCap() + " ) " + Constants.OUTER_QUERY_PREFIX);
+		} else {
+			sb.append("SELECT 1");
+			buildInner(sb, false, true, false);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The uuid list is bound as parameters (see getUuidListParams()), padded to a few fixed sizes,
+	 * so that pages of different size share the same statement
+	 */
 	public String buildResultFromUuidList(List<String> uuidList) {
 		initComposer();
-		StringBuilder sb = new StringBuilder();
+		StringBuilder sb = createBuffer();
 		buildInner(sb, false, false, true);
 		sb.append(" WHERE ");
-		sb.append(rootAlias + "." + getUuidField());
-		sb.append(" IN ");
-		build(sb, new StringBuilder(NativeQueryUtil.getInString(uuidList)));
+		String inString = QueryParamProcessor.getInString(this, rootAlias + "." + getUuidField(), UUID_LIST_PARAM, uuidList);
+		sb.append(inString == null ? "1 = 0" : inString);
 		return sb.toString();
 	}
 
-	private void buildInner(StringBuilder sb, boolean isUuids, boolean isCount, boolean fromUuidList) {
-		if (!isCount) {
-			buildSelectPart(sb, isUuids, true);
+	public Collection<QueryParam> getUuidListParams(List<String> uuidList) {
+		if (!isNativeQuery()) {
+			return QueryParamProcessor.getInListParams(UUID_LIST_PARAM, uuidList);
 		}
-		if (fromPart != null) {
-			sb.append(" FROM ");
-			build(sb, fromPart);
+		List<Object> paddedList = QueryParamProcessor.getPaddedValues(uuidList);
+		List<QueryParam> result = new ArrayList<>(paddedList.size());
+		for (int i = 0; i < paddedList.size(); i++) {
+			result.add(QueryParam.create(UUID_LIST_PARAM + (i + 1), paddedList.get(i)));
 		}
-		if (!fromUuidList) {
-			if (joinPart.hasResult()) {
-				sb.append(" INNER JOIN ");
-				build(sb, joinPart.getResult());
-			}
-			if (leftJoinPart.hasResult()) {
-				sb.append(" LEFT JOIN ");
-				build(sb, leftJoinPart.getResult());
+		return result;
+	}
+
+	private QueryPlan getPlan() {
+		if (plan == null) {
+			plan = QueryPlanCache.getPlan(buildPlanKey());
+		}
+		return plan;
+	}
+
+	private QueryPlanKey buildPlanKey() {
+		List<Object> key = new ArrayList<>();
+		key.add(queryType);
+		key.add(rootAlias);
+		key.add(uuidField);
+		key.add(uuidAlias);
+		key.add(skipUuid);
+		key.add(projection);
+		key.add(normalizeSearch);
+		key.add(applyOuterQuery());
+		key.add(hasCustomWherePart);
+		key.add(isKeysetPaging());
+		key.add(applyKeysetSeek());
+		if (applyKeysetSeek()) {
+			// null key values change the shape of the seek predicate
+			for (Object value : getKeysetValues()) {
+				key.add(value == null);
 			}
 		}
+		key.add(fromPart == null ? null : fromPart.toString());
+		addPartKey(key, joinPart);
+		addPartKey(key, leftJoinPart);
+		addPartKey(key, joinFetchPart);
+		addPartKey(key, leftJoinFetchPart);
+		addPartKey(key, wherePart);
+		addPartKey(key, havingPart);
+		queryComposer.addPlanKeyComponents(key);
+		return new QueryPlanKey(key);
+	}
+
+	private void addPartKey(List<Object> key, StringPartBuilder part) {
+		key.add(part.hasResult() ? part.getResult().toString() : null);
+	}
+
+	private StringBuilder createBuffer() {
+		return new StringBuilder(getFragments().length() + BUFFER_RESERVE);
+	}
+
+	/**
+	 * Whether the query fetches the associations of the root entity (JOIN FETCH), projections don't fetch them
+	 */
+	public boolean hasFetchJoins() {
+		initComposer();
+		return !projection && !getFragments().getFetchJoinPart().isEmpty();
+	}
+
+	private QueryFragments getFragments() {
+		if (fragments == null) {
+			fragments = buildFragments();
+		}
+		return fragments;
+	}
+
+	private QueryFragments buildFragments() {
+		StringBuilder from = new StringBuilder();
+		if (fromPart != null) {
+			from.append(" FROM ");
+			build(from, fromPart);
+		}
+		StringBuilder joins = new StringBuilder();
+		if (joinPart.hasResult()) {
+			joins.append(" INNER JOIN ");
+			build(joins, joinPart.getResult());
+		}
+		if (leftJoinPart.hasResult()) {
+			joins.append(" LEFT JOIN ");
+			build(joins, leftJoinPart.getResult());
+		}
+		StringBuilder fetchJoins = new StringBuilder();
+		// projections don't select the owner of the fetched association, so fetch joins are rendered as plain joins
 		if (joinFetchPart.hasResult()) {
-			sb.append(" JOIN FETCH ");
-			build(sb, joinFetchPart.getResult());
+			fetchJoins.append(projection ? " JOIN " : " JOIN FETCH ");
+			build(fetchJoins, joinFetchPart.getResult());
 		}
 		if (leftJoinFetchPart.hasResult()) {
-			sb.append(" LEFT JOIN FETCH ");
-			build(sb, leftJoinFetchPart.getResult());
+			fetchJoins.append(projection ? " LEFT JOIN " : " LEFT JOIN FETCH ");
+			build(fetchJoins, leftJoinFetchPart.getResult());
 		}
-
-		if (!fromUuidList) {
-			StringBuilder queryParts = new StringBuilder();
-			List<QueryPartString> parts = queryComposer.resolveInnerFrom();
-			String orPart = queryComposer.getOrSearchPart();
-			String andPart = queryComposer.getAndSearchPart();
-
-			boolean first = true;
-			boolean hasWherePart = false;
-			for (QueryPartString queryPart : parts) {
-				if (!hasWherePart && queryPart.isWherePart()) {
-					hasWherePart = true;
-					first = appendSearchWhereParts(first, queryParts, orPart, andPart);
-				}
-				first = appendQueryPart(first, queryPart, queryParts);
-			}
-			if (!hasWherePart) {
+		StringBuilder groupBy = new StringBuilder();
+		buildGroupByPart(groupBy, true);
+		StringBuilder having = new StringBuilder();
+		if (havingPart.hasResult()) {
+			having.append(" HAVING ");
+			build(having, havingPart.getResult());
+		}
+		String orderBy = isKeysetPaging() ? getKeysetPart().getOrderByPart() : queryComposer.getOrderByPart();
+		StringBuilder where = new StringBuilder();
+		int whereConditionStart = buildWherePart(where);
+		return new QueryFragments(from.toString(), joins.toString(), fetchJoins.toString(), where.toString(), whereConditionStart,
+				groupBy.toString(), having.toString(), orderBy == null ? "" : " ORDER BY " + orderBy);
+	}
+
+	//returns the start index of the where conditions (after WHERE keyword), or -1 if there is no WHERE
+	//the index is recorded when the keyword is appended, the conditions can contain subqueries with their own WHERE
+	private int buildWherePart(StringBuilder sb) {
+		StringBuilder queryParts = new StringBuilder();
+		List<QueryPartString> parts = queryComposer.resolveInnerFrom();
+		String orPart = queryComposer.getOrSearchPart();
+		String andPart = queryComposer.getAndSearchPart();
+
+		boolean first = true;
+		boolean hasWherePart = false;
+		int whereConditionStart = -1;
+		for (QueryPartString queryPart : parts) {
+			if (!hasWherePart && queryPart.isWherePart()) {
+				hasWherePart = true;
+				whereConditionStart = getWhereConditionStart(queryParts);
 				first = appendSearchWhereParts(first, queryParts, orPart, andPart);
 			}
-			hasWherePart = hasWherePart || StringUtils.isNotBlank(orPart) || StringUtils.isNotBlank(andPart);
-			build(sb, queryParts);
-
-			if (hasWherePart || wherePart.hasResult() || hasCustomWherePart()) {
-				if (!hasCustomWherePart() && !hasWherePart) {
-					sb.append(" WHERE ");
-				} else if (wherePart.hasResult()) {
-					sb.append(" AND ");
-				}
-				build(sb, wherePart.getResult());
+			first = appendQueryPart(first, queryPart, queryParts);
+		}
+		if (!hasWherePart && (StringUtils.isNotBlank(orPart) || StringUtils.isNotBlank(andPart))) {
+			hasWherePart = true;
+			whereConditionStart = getWhereConditionStart(queryParts);
+			first = appendSearchWhereParts(first, queryParts, orPart, andPart);
+		}
+		build(sb, queryParts);
+
+		if (hasWherePart || wherePart.hasResult() || hasCustomWherePart()) {
+			if (!hasCustomWherePart() && !hasWherePart) {
+				sb.append(" WHERE ");
+				whereConditionStart = sb.length();
+			} else if (wherePart.hasResult()) {
+				sb.append(" AND ");
 			}
-			buildGroupByPart(sb, true);
-			if (havingPart.hasResult()) {
-				sb.append(" HAVING ");
-				build(sb, havingPart.getResult());
+			build(sb, wherePart.getResult());
+		}
+		return whereConditionStart;
+	}
+
+	//the first where part is appended by appendQueryPart as " WHERE ..."
+	private int getWhereConditionStart(StringBuilder queryParts) {
+		return queryParts.length() + 1 + QueryPartString.WHERE.length();
+	}
+
+	private void buildInner(StringBuilder sb, boolean isUuids, boolean isCount, boolean fromUuidList) {
+		buildInner(sb, isUuids, isCount, fromUuidList, null);
+	}
+
+	private void buildInner(StringBuilder sb, boolean isUuids, boolean isCount, boolean fromUuidList, String extraSelect) {
+		QueryFragments fragments = getFragments();
+		if (!isCount) {
+			buildSelectPart(sb, isUuids, true);
+			if (extraSelect != null) {
+				sb.append(", " + extraSelect);
 			}
+		}
+		sb.append(fragments.getFromPart());
+		if (!fromUuidList) {
+			sb.append(fragments.getJoinPart());
+		}
+		sb.append(fragments.getFetchJoinPart());
+		if (!fromUuidList) {
+			if (!isCount && !applyOuterQuery() && applyKeysetSeek()) {
+				sb.append(fragments.getWherePart(getKeysetPart().getSeekPredicate(isNativeQuery(), getKeysetValues())));
+			} else {
+				sb.append(fragments.getWherePart());
+			}
+			sb.append(fragments.getGroupByPart());
+			sb.append(fragments.getHavingPart());
 			if (!isCount) {
 				buildOrderByPart(sb, true);
 			}
@@ -481,6 +815,10 @@ public class QueryComposer {
 		return queryManager.getNativeResult(this);
 	}
 
+	public ColumnarQueryResult getColumnarResult(QueryManager queryManager) {
+		return queryManager.getColumnarResult(this);
+	}
+
 	public <DTO> QueryResult<DTO> convertNativeResult(QueryManager queryManager, Supplier<DTO> dtoSupplier) {
 		return queryManager.convertNativeResult(this, dtoSupplier);
 	}
@@ -519,6 +857,11 @@ public class QueryComposer {
 		return queryType == QueryType.Native;
 	}
 
+	// result rows are select field values (native or projection query), not entities
+	boolean isRowResult() {
+		return isNativeQuery() || projection;
+	}
+
 	public boolean isDistinct() {
 		return queryComposer.isDistinct();
 	}
@@ -552,12 +895,8 @@ public class QueryComposer {
 	}
 
 	private void buildOrderByPart(StringBuilder sb, boolean isInner) {
-		String result = null;
 		if (!applyOuterQuery() || !isInner) {
-			result = queryComposer.getOrderByPart();
-		}
-		if (result != null) {
-			build(sb, new StringBuilder(" ORDER BY " + result));
+			sb.append(getFragments().getOrderByPart());
 		}
 	}
 
@@ -679,6 +1018,76 @@ public class QueryComposer {
 		return this;
 	}
 
+	/**
+	 * Restricts the columns, searched by the translatable search, e.g. to the request language and its fallbacks.
+	 * Applies, when the search is built: before the first build, or after restart().
+	 */
+	public QueryComposer setTranslatableSearch(TranslatableSearch translatableSearch) {
+		this.translatableSearch = translatableSearch;
+		resetPlan();
+		return this;
+	}
+
+	public TranslatableSearch getTranslatableSearch() {
+		return translatableSearch;
+	}
+
+	/**
+	 * Dialect of the full-text searches (see SearchType.FullText and addFullTextSearch()).
+	 * Applies, when the search is built: before the first build, or after restart().
+	 */
+	public QueryComposer setFullTextSearch(FullTextSearch fullTextSearch) {
+		this.fullTextSearch = fullTextSearch;
+		resetPlan();
+		return this;
+	}
+
+	public FullTextSearch getFullTextSearch() {
+		return fullTextSearch;
+	}
+
+	/**
+	 * Searches the full-text indexed paths by the full-text predicate of the dialect, instead of LIKE
+	 */
+	public QueryComposer addFullTextSearch(String... paths) {
+		queryComposer.addSearch(SearchBuilder.FULL_TEXT_SEARCH_TERM_PARAM_NAME, null, SearchType.FullText, paths);
+		return this;
+	}
+
+	/**
+	 * Orders by the full-text rank of the paths for the first full-text search term, if no other order is set.
+	 * Like the default order, applies, when the order is built: before the first build, or after restart().
+	 */
+	public QueryComposer addFullTextRankOrder(String... paths) {
+		queryComposer.addFullTextRankOrder(paths);
+		return this;
+	}
+
+	/**
+	 * Narrows the AND-combined text searches over the indexed paths to the uuids of the index candidates (see TrigramIndex).
+	 * If the index has no candidates, the query returns the empty result without being executed (see isEmptySearch()).
+	 * The search is not narrowed, if the index is invalid or has too many candidates (see TrigramIndex.search()).
+	 * The index is opt-in per composer and is meant for single-node deployments, see TrigramIndex.
+	 * Applies, when the search is built: before the first build, or after restart().
+	 */
+	public QueryComposer setTrigramIndex(TrigramIndex<?> trigramIndex) {
+		this.trigramIndex = trigramIndex;
+		resetPlan();
+		return this;
+	}
+
+	public TrigramIndex<?> getTrigramIndex() {
+		return trigramIndex;
+	}
+
+	/**
+	 * Whether the trigram index has no candidates for the search, so the query can't return any rows
+	 */
+	public boolean isEmptySearch() {
+		initComposer();
+		return queryComposer.isEmptySearch();
+	}
+
 	public QueryComposer addAliasResolver(String alias, String path) {
 		queryComposer.addAliasResolver(alias, path);
 		return this;
@@ -759,19 +1168,36 @@ public class QueryComposer {
 
 	public QueryComposer setUuidField(String uuidField) {
 		this.uuidField = uuidField;
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer setUuidAlias(String uuidAlias) {
 		this.uuidAlias = uuidAlias;
+		resetPlan();
 		return this;
 	}
 
 	public QueryComposer skipUuid() {
 		this.skipUuid = true;
+		resetPlan();
+		return this;
+	}
+
+	/**
+	 * In JPA mode, selects the uuid path and the select fields instead of the root entity, so rows are read as Tuple projections
+	 * and mapped to DTOs without loading managed entities (see JpaProjectionResultProvider). Native queries always select rows.
+	 */
+	public QueryComposer setProjection(boolean projection) {
+		this.projection = projection;
+		resetPlan();
 		return this;
 	}
 
+	public boolean isProjection() {
+		return projection;
+	}
+
 	public String getCountQueryStr() {
 		return buildCountPart();
 	}
@@ -810,6 +1236,114 @@ public class QueryComposer {
 		return this.hasCustomWherePart;
 	}
 
+	boolean hasRequestParts() {
+		return hasRequestParts;
+	}
+
+	String getRootAlias() {
+		return rootAlias;
+	}
+
+	String getFromPart() {
+		return fromPart == null ? null : fromPart.toString();
+	}
+
+	QueryDefinition getDefinition() {
+		return queryComposer.getDefinition();
+	}
+
+	String[] getStaticParts() {
+		return new String[] { joinPart.getStaticResult(), leftJoinPart.getStaticResult(), joinFetchPart.getStaticResult(),
+				leftJoinFetchPart.getStaticResult(), wherePart.getStaticResult(), havingPart.getStaticResult(), queryPart.getStaticResult() };
+	}
+
+	void setStaticParts(String[] staticParts) {
+		joinPart.setStaticResult(staticParts[0]);
+		leftJoinPart.setStaticResult(staticParts[1]);
+		joinFetchPart.setStaticResult(staticParts[2]);
+		leftJoinFetchPart.setStaticResult(staticParts[3]);
+		wherePart.setStaticResult(staticParts[4]);
+		havingPart.setStaticResult(staticParts[5]);
+		queryPart.setStaticResult(staticParts[6]);
+	}
+
+	/**
+	 * Defaults of the settings, which are not set by the request (see QueryTemplate)
+	 */
+	void setDefaults(PagingMode pagingMode, CountMode countMode, int countCap) {
+		this.defaultPagingMode = pagingMode;
+		this.defaultCountMode = countMode;
+		this.defaultCountCap = countCap;
+		resetPlan();
+	}
+
+	public PagingMode getPagingMode() {
+		return queryRequest.getPagingMode() == null ? defaultPagingMode : queryRequest.getPagingMode();
+	}
+
+	public CountMode getCountMode() {
+		return queryRequest.getCountMode() == null ? defaultCountMode : queryRequest.getCountMode();
+	}
+
+	public int getCountCap() {
+		int countCap = queryRequest.getCountCap() == null ? defaultCountCap : queryRequest.getCountCap();
+		if (countCap <= 0) {
+			throw new IllegalStateException("Count cap should be positive: " + countCap);
+		}
+		return countCap;
+	}
+
+	public boolean isKeysetPaging() {
+		return getPagingMode() == PagingMode.Keyset;
+	}
+
+	boolean applyKeysetSeek() {
+		return isKeysetPaging() && StringUtils.isNotBlank(queryRequest.getContinuationToken());
+	}
+
+	/**
+	 * Values of the keyset seek predicate, decoded from the continuation token of the request.
+	 * They are bound only to the select and uuid list queries, the count query doesn't contain the seek predicate.
+	 */
+	public Collection<QueryParam> getKeysetParams() {
+		initComposer();
+		if (!applyKeysetSeek()) {
+			return Collections.emptyList();
+		}
+		return getKeysetPart().getParams(getKeysetValues());
+	}
+
+	/**
+	 * Order key values of the result row (native or projection row, or entity), which are encoded in the continuation token of the next page
+	 */
+	public Object[] getKeyValues(Object row) {
+		initComposer();
+		if (isRowResult()) {
+			return getKeysetPart().getKeyValues(row, queryComposer.getSelectFields());
+		}
+		return getKeysetPart().getKeyValues(row, rootAlias, uuidAlias);
+	}
+
+	private Object[] getKeysetValues() {
+		String continuationToken = queryRequest.getContinuationToken();
+		if (keysetValues == null || !continuationToken.equals(keysetToken)) {
+			keysetValues = ContinuationToken.decode(continuationToken);
+			keysetToken = continuationToken;
+		}
+		return keysetValues;
+	}
+
+	private KeysetPart getKeysetPart() {
+		if (keysetPart == null) {
+			if (skipUuid) {
+				throw new IllegalStateException("Keyset paging requires the uuid field as tie-breaker");
+			}
+			String uuidPrefix = applyOuterQuery() ? Constants.OUTER_QUERY_PREFIX : rootAlias;
+			keysetPart = new KeysetPart(queryComposer.getOrderFields(), uuidPrefix + "." + uuidField);
+		}
+		return keysetPart;
+	}
+
 	boolean applyOuterQuery() {
 		return queryComposer.isApplyOuterQuery(isNativeQuery())
 				&& QueryRequestUtil.isPaged(queryRequest);
@@ -847,4 +1381,27 @@ public class QueryComposer {
 		params.put(name, QueryParam.create(name, value));
 	}
 
+	void removeParam(String name) {
+		params.remove(name);
+	}
+
+	// replaces the values of the list parameter, bound as padded list (see QueryParamProcessor.getPaddedValues())
+	void setParameterList(String name, Collection<?> values) {
+		params.keySet().removeIf(paramName -> paramName.equals(name)
+				|| (paramName.startsWith(name) && StringUtils.isNumeric(paramName.substring(name.length()))));
+		if (values.isEmpty()) {
+			return;
+		}
+		if (!isNativeQuery()) {
+			for (QueryParam param : QueryParamProcessor.getInListParams(name, values)) {
+				setParameter(param.getName(), param.getValue());
+			}
+			return;
+		}
+		List<Object> paddedValues = QueryParamProcessor.getPaddedValues(values);
+		for (int i = 0; i < paddedValues.size(); i++) {
+			setParameter(name + (i + 1), paddedValues.get(i));
+		}
+	}
+
 }
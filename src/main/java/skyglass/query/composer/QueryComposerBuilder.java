@@ -1,6 +1,7 @@
 package skyglass.query.composer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -9,8 +10,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.apache.commons.collections.CollectionUtils;
@@ -19,16 +19,19 @@ import org.apache.commons.lang3.tuple.Pair;
 
 import skyglass.query.composer.config.Constants;
 import skyglass.query.composer.search.Combination;
+import skyglass.query.composer.search.SearchField;
+import skyglass.query.composer.search.SearchOperator;
 import skyglass.query.composer.search.SearchPath;
 import skyglass.query.composer.search.SearchProcessor;
 import skyglass.query.composer.search.SearchTerm;
 import skyglass.query.composer.search.SearchType;
+import skyglass.query.composer.search.TrigramIndex;
 import skyglass.query.composer.util.QueryOrderUtil;
 import skyglass.query.composer.util.QueryRequestUtil;
 
 public class QueryComposerBuilder {
 
-	private static final Pattern ALIAS_REGEX_PATTERN = Pattern.compile("\\$\\{(.*?)\\}");
+	private static final String TRIGRAM_UUIDS_PARAM = "trigramUuids";
 
 	private QueryRequestDTO queryRequest;
 
@@ -58,19 +61,22 @@ public class QueryComposerBuilder {
 
 	private List<List<SearchBuilder>> searchPartOrSuppliers;
 
-	private List<Runnable> searchPartInitRunners = new ArrayList<>();
+	// candidates of the trigram index, or null if the search is not narrowed
+	private List<String> trigramUuids;
 
-	private List<Runnable> orderBuilderRunners = new ArrayList<>();
+	private List<Consumer<QueryComposerBuilder>> searchPartInitRunners = new ArrayList<>();
 
-	private List<Runnable> defaultOrderBuilderRunners = new ArrayList<>();
+	private List<Consumer<QueryComposerBuilder>> orderBuilderRunners = new ArrayList<>();
 
-	private List<Runnable> selectBuilderRunners = new ArrayList<>();
+	private List<Consumer<QueryComposerBuilder>> defaultOrderBuilderRunners = new ArrayList<>();
 
-	private List<Runnable> groupByBuilderRunners = new ArrayList<>();
+	private List<Consumer<QueryComposerBuilder>> selectBuilderRunners = new ArrayList<>();
 
-	private List<Runnable> queryPartBuilderRunners = new ArrayList<>();
+	private List<Consumer<QueryComposerBuilder>> groupByBuilderRunners = new ArrayList<>();
 
-	private List<Runnable> initRunners = new ArrayList<>();
+	private List<Consumer<QueryComposerBuilder>> queryPartBuilderRunners = new ArrayList<>();
+
+	private List<Consumer<QueryComposerBuilder>> initRunners = new ArrayList<>();
 
 	private OrderBuilder orderBuilder;
 
@@ -89,19 +95,36 @@ public class QueryComposerBuilder {
 		this.rootAlias = rootAlias;
 	}
 
+	QueryComposerBuilder(QueryComposer root, QueryRequestDTO queryRequest, String rootAlias, QueryDefinition definition) {
+		this(root, queryRequest, rootAlias);
+		this.initRunners.addAll(definition.initRunners);
+		this.selectBuilderRunners.addAll(definition.selectBuilderRunners);
+		this.groupByBuilderRunners.addAll(definition.groupByBuilderRunners);
+		this.queryPartBuilderRunners.addAll(definition.queryPartBuilderRunners);
+		this.searchPartInitRunners.addAll(definition.searchPartInitRunners);
+		this.orderBuilderRunners.addAll(definition.orderBuilderRunners);
+		this.defaultOrderBuilderRunners.addAll(definition.defaultOrderBuilderRunners);
+		this.customOrderByPart = definition.customOrderByPart;
+	}
+
+	QueryDefinition getDefinition() {
+		return new QueryDefinition(initRunners, selectBuilderRunners, groupByBuilderRunners, queryPartBuilderRunners,
+				searchPartInitRunners, orderBuilderRunners, defaultOrderBuilderRunners, customOrderByPart);
+	}
+
 	public boolean isDistinct() {
 		return this.applyOuterQuery;
 	}
 
 	public void setDistinct() {
-		initRunners.add(() -> {
-			_forceDistinct(true);
+		initRunners.add(b -> {
+			b._forceDistinct(true);
 		});
 	}
 
 	public void setDistinct(boolean distinct) {
-		initRunners.add(() -> {
-			_forceDistinct(distinct);
+		initRunners.add(b -> {
+			b._forceDistinct(distinct);
 		});
 	}
 
@@ -159,44 +182,44 @@ public class QueryComposerBuilder {
 	}
 
 	private void addWhere(String queryPart, String delimiter, boolean distinct) {
-		queryPartBuilderRunners.add(() -> {
-			doAddWhere(queryPart, delimiter, distinct);
+		queryPartBuilderRunners.add(b -> {
+			b.doAddWhere(queryPart, delimiter, distinct);
 		});
 	}
 
 	private void addConditionalWhere(String queryPart, String delimiter, String... aliases) {
-		queryPartBuilderRunners.add(() -> {
-			doAddWhereConditional(queryPart, delimiter, false, aliases);
+		queryPartBuilderRunners.add(b -> {
+			b.doAddWhereConditional(queryPart, delimiter, false, aliases);
 		});
 	}
 
 	private void addDistinctConditionalWhere(String queryPart, String delimiter, String... aliases) {
-		queryPartBuilderRunners.add(() -> {
-			doAddWhereConditional(queryPart, delimiter, true, aliases);
+		queryPartBuilderRunners.add(b -> {
+			b.doAddWhereConditional(queryPart, delimiter, true, aliases);
 		});
 	}
 
 	public void add(String queryPart, boolean distinct) {
-		queryPartBuilderRunners.add(() -> {
-			doAdd(queryPart, distinct);
+		queryPartBuilderRunners.add(b -> {
+			b.doAdd(queryPart, distinct);
 		});
 	}
 
 	public void addConditional(String queryPart, String... aliases) {
-		queryPartBuilderRunners.add(() -> {
-			doAddConditional(queryPart, aliases);
+		queryPartBuilderRunners.add(b -> {
+			b.doAddConditional(queryPart, aliases);
 		});
 	}
 
 	public void addDistinctConditional(String queryPart, String... aliases) {
-		queryPartBuilderRunners.add(() -> {
-			doAddDistinctConditional(queryPart, aliases);
+		queryPartBuilderRunners.add(b -> {
+			b.doAddDistinctConditional(queryPart, aliases);
 		});
 	}
 
 	public void addConditional(String queryPart, boolean distinct, String... aliases) {
-		queryPartBuilderRunners.add(() -> {
-			doAddConditional(queryPart, distinct, aliases);
+		queryPartBuilderRunners.add(b -> {
+			b.doAddConditional(queryPart, distinct, aliases);
 		});
 	}
 
@@ -221,8 +244,8 @@ public class QueryComposerBuilder {
 	}
 
 	public void addAliasResolver(String alias, String path) {
-		initRunners.add(() -> {
-			aliasResolverMap.put(alias, resolveAliasPath(path));
+		initRunners.add(b -> {
+			b.aliasResolverMap.put(alias, b.resolveAliasPath(path));
 		});
 	}
 
@@ -285,16 +308,22 @@ public class QueryComposerBuilder {
 		addBindOrderRunner(name, null, path);
 	}
 
+	public void addFullTextRankOrder(String... paths) {
+		defaultOrderBuilderRunners.add(b -> {
+			b.doAddFullTextRankOrder(paths);
+		});
+	}
+
 	public void select(String selectString) {
-		selectBuilderRunners.add(() -> {
-			doAddSelect(selectString);
+		selectBuilderRunners.add(b -> {
+			b.doAddSelect(selectString);
 		});
 	}
 
 	public void addSelect(String alias, String path) {
 		tryAliasResolver(alias, path);
-		selectBuilderRunners.add(() -> {
-			doAddSelect(alias, path);
+		selectBuilderRunners.add(b -> {
+			b.doAddSelect(alias, path);
 		});
 	}
 
@@ -412,21 +441,10 @@ public class QueryComposerBuilder {
 	}
 
 	private String resolveAliasPath(String path) {
-		StringBuilder output = new StringBuilder();
-		Matcher matcher = ALIAS_REGEX_PATTERN.matcher(path);
-		int lastStart = 0;
-		while (matcher.find()) {
-			String subString = path.substring(lastStart, matcher.start());
-			String varName = matcher.group(1);
+		return QueryPartTemplate.forAliases(path).render(varName -> {
 			String replacement = resolveAlias(varName);
-			if (StringUtils.isBlank(replacement)) {
-				replacement = "";
-			}
-			output.append(subString).append(replacement);
-			lastStart = matcher.end();
-		}
-		output.append(path.substring(lastStart));
-		return output.toString();
+			return StringUtils.isBlank(replacement) ? "" : replacement;
+		});
 	}
 
 	private void addDefaultOrderRunner(OrderType orderType, boolean add, String... path) {
@@ -444,109 +462,155 @@ public class QueryComposerBuilder {
 		}
 		final String finalAlias = alias;
 		final boolean useAlias = alias != null;
-		defaultOrderBuilderRunners.add(() -> {
-			if (add || orderBuilder.shouldSetDefaultOrder()) {
-				String[] resolvedPaths = new String[paths.length];
-				for (int i = 0; i < paths.length; i++) {
-					resolvedPaths[i] = resolvePath(finalAlias, paths[i]);
-				}
-				if (fieldType == null) {
-					if (add) {
-						orderBuilder.addDefaultOrder(orderType, resolvedPaths);
-					} else {
-						orderBuilder.setDefaultOrder(orderType, resolvedPaths);
-					}
+		defaultOrderBuilderRunners.add(b -> {
+			b.doAddDefaultOrder(orderType, fieldType, finalAlias, useAlias, add, paths);
+		});
+	}
+
+	private void doAddDefaultOrder(OrderType orderType, FieldType fieldType, String finalAlias, boolean useAlias, boolean add, String... paths) {
+		if (add || orderBuilder.shouldSetDefaultOrder()) {
+			String[] resolvedPaths = new String[paths.length];
+			for (int i = 0; i < paths.length; i++) {
+				resolvedPaths[i] = resolvePath(finalAlias, paths[i]);
+			}
+			if (fieldType == null) {
+				if (add) {
+					orderBuilder.addDefaultOrder(orderType, resolvedPaths);
 				} else {
-					if (add) {
-						orderBuilder.addDefaultOrder(orderType, fieldType, resolvedPaths);
-					} else {
-						orderBuilder.setDefaultOrder(orderType, fieldType, resolvedPaths);
-					}
+					orderBuilder.setDefaultOrder(orderType, resolvedPaths);
 				}
-				if (useAlias) {
-					for (int i = 0; i < paths.length; i++) {
-						addOrderFieldResolver(finalAlias, resolvedPaths[i], paths[i]);
-					}
+			} else {
+				if (add) {
+					orderBuilder.addDefaultOrder(orderType, fieldType, resolvedPaths);
 				} else {
-					for (int i = 0; i < paths.length; i++) {
-						addOrderFieldResolver(resolvedPaths[i], paths[i]);
-					}
+					orderBuilder.setDefaultOrder(orderType, fieldType, resolvedPaths);
 				}
 			}
-		});
-	}
-
-	private void addBindOrderRunner(String name, FieldType fieldType, String... paths) {
-		tryAliasResolver(name, paths);
-		orderBuilderRunners.add(() -> {
-			if (orderBuilder.shouldBindOrder(name)) {
-				String[] resolvedPaths = new String[paths.length];
+			if (useAlias) {
 				for (int i = 0; i < paths.length; i++) {
-					resolvedPaths[i] = resolvePath(name, paths[i]);
-				}
-				if (fieldType == null) {
-					orderBuilder.bindOrder(name, resolvedPaths);
-				} else {
-					orderBuilder.bindOrder(name, fieldType, resolvedPaths);
+					addOrderFieldResolver(finalAlias, resolvedPaths[i], paths[i]);
 				}
+			} else {
 				for (int i = 0; i < paths.length; i++) {
-					addOrderFieldResolver(name, resolvedPaths[i], paths[i]);
+					addOrderFieldResolver(resolvedPaths[i], paths[i]);
+				}
+			}
+		}
+	}
+
+	private void doAddFullTextRankOrder(String... paths) {
+		SearchField searchField = getFullTextSearchField();
+		if (searchField == null || !orderBuilder.shouldSetDefaultOrder()) {
+			return;
+		}
+		if (searchField.getFullTextSearch() == null) {
+			throw new IllegalStateException("Full-text search requires the dialect, see QueryComposer.setFullTextSearch()");
+		}
+		if (root.applyOuterQuery()) {
+			throw new UnsupportedOperationException("Full-text rank order is not supported by the outer query of distinct paged queries");
+		}
+		String[] resolvedPaths = new String[paths.length];
+		for (int i = 0; i < paths.length; i++) {
+			resolvedPaths[i] = resolvePath(null, paths[i]);
+		}
+		String parameterChar = root.isNativeQuery() ? "?" : ":";
+		orderBuilder.addRankOrder(searchField.getFullTextSearch(), parameterChar + searchField.getParamName(), resolvedPaths);
+	}
+
+	private SearchField getFullTextSearchField() {
+		for (List<List<SearchBuilder>> searchBuilders : Arrays.asList(searchPartAndSuppliers, searchPartOrSuppliers)) {
+			for (List<SearchBuilder> list : searchBuilders) {
+				for (SearchBuilder searchBuilder : list) {
+					for (SearchField searchField : searchBuilder.getSearchFields()) {
+						if (searchField.isFullText()) {
+							return searchField;
+						}
+					}
 				}
 			}
+		}
+		return null;
+	}
+
+	private void addBindOrderRunner(String name, FieldType fieldType, String... paths) {
+		tryAliasResolver(name, paths);
+		orderBuilderRunners.add(b -> {
+			b.doBindOrder(name, fieldType, paths);
 		});
 	}
 
-	private void addSearchRunner(String paramName, String paramValue, SearchType searchType, boolean translatable, String... paths) {
-		searchPartInitRunners.add(() -> {
-			List<SearchPath> resolvedPathList = new ArrayList<>();
-			for (int j = 0; j < paths.length; j++) {
-				Pair<String, String> resolvedSearchPath = resolveSearchPath(paths[j]);
-				resolvedPathList.add(new SearchPath(resolvedSearchPath.getLeft(), resolvedSearchPath.getRight()));
+	private void doBindOrder(String name, FieldType fieldType, String... paths) {
+		if (orderBuilder.shouldBindOrder(name)) {
+			String[] resolvedPaths = new String[paths.length];
+			for (int i = 0; i < paths.length; i++) {
+				resolvedPaths[i] = resolvePath(name, paths[i]);
 			}
-			boolean applyOuterQueryOriginal = applyOuterQuery;
-			_setDistinct(false);
-			for (String path : paths) {
-				addSearchFieldResolver(path, path);
+			if (fieldType == null) {
+				orderBuilder.bindOrder(name, resolvedPaths);
+			} else {
+				orderBuilder.bindOrder(name, fieldType, resolvedPaths);
 			}
-			if (!shouldApplySearch()) {
-				_setDistinct(false);
-			} else if (applyOuterQuery) {
-				//applyOuterSearch = true;
+			for (int i = 0; i < paths.length; i++) {
+				addOrderFieldResolver(name, resolvedPaths[i], paths[i]);
 			}
-			_setDistinct(applyOuterQuery || applyOuterQueryOriginal);
+		}
+	}
 
-			List<String> searchTerms = null;
-			if (StringUtils.isNotBlank(paramValue)) {
-				searchTerms = Collections.singletonList(paramValue);
-			} else {
-				searchTerms = CollectionUtils.isEmpty(queryRequest.getSearchTerms())
-						? (StringUtils.isBlank(queryRequest.getSearchTerm())
-								? Collections.emptyList()
-								: Collections.singletonList(queryRequest.getSearchTerm()))
-						: queryRequest.getSearchTerms();
-			}
-			int i = 0;
-			for (String searchTermString : searchTerms) {
-				Pair<Combination, List<SearchTerm>> result = SearchProcessor.parseSearch(this, searchTermString);
-				List<SearchBuilder> searchBuilders = new ArrayList<>();
-				for (SearchTerm searchTerm : result.getRight()) {
-					if (StringUtils.isNotBlank(searchTerm.getStringValue())) {
-						String p = searchTerm.hasField() ? searchTerm.getField() : (paramName + Integer.toString(i));
-						i++;
-						SearchBuilder searchBuilder = new SearchBuilder(root, queryRequest, searchTerm, searchType, p,
-								translatable, resolvedPathList.toArray(new SearchPath[0]));
-						if (searchBuilder.isNotEmpty()) {
-							searchBuilders.add(searchBuilder);
-						}
+	private void addSearchRunner(String paramName, String paramValue, SearchType searchType, boolean translatable, String... paths) {
+		searchPartInitRunners.add(b -> {
+			b.doAddSearch(paramName, paramValue, searchType, translatable, paths);
+		});
+	}
+
+	private void doAddSearch(String paramName, String paramValue, SearchType searchType, boolean translatable, String... paths) {
+		List<SearchPath> resolvedPathList = new ArrayList<>();
+		for (int j = 0; j < paths.length; j++) {
+			Pair<String, String> resolvedSearchPath = resolveSearchPath(paths[j]);
+			resolvedPathList.add(new SearchPath(resolvedSearchPath.getLeft(), resolvedSearchPath.getRight()));
+		}
+		boolean applyOuterQueryOriginal = applyOuterQuery;
+		_setDistinct(false);
+		for (String path : paths) {
+			addSearchFieldResolver(path, path);
+		}
+		if (!shouldApplySearch()) {
+			_setDistinct(false);
+		} else if (applyOuterQuery) {
+			//applyOuterSearch = true;
+		}
+		_setDistinct(applyOuterQuery || applyOuterQueryOriginal);
+
+		List<String> searchTerms = null;
+		if (StringUtils.isNotBlank(paramValue)) {
+			searchTerms = Collections.singletonList(paramValue);
+		} else {
+			searchTerms = CollectionUtils.isEmpty(queryRequest.getSearchTerms())
+					? (StringUtils.isBlank(queryRequest.getSearchTerm())
+							? Collections.emptyList()
+							: Collections.singletonList(queryRequest.getSearchTerm()))
+					: queryRequest.getSearchTerms();
+		}
+		int i = 0;
+		for (String searchTermString : searchTerms) {
+			Pair<Combination, List<SearchTerm>> result = SearchProcessor.parseSearch(this, searchTermString);
+			List<SearchBuilder> searchBuilders = new ArrayList<>();
+			for (SearchTerm searchTerm : result.getRight()) {
+				if (StringUtils.isNotBlank(searchTerm.getStringValue())) {
+					String p = searchTerm.hasField() ? searchTerm.getField() : (paramName + Integer.toString(i));
+					i++;
+					SearchBuilder searchBuilder = new SearchBuilder(root, queryRequest, searchTerm, searchType, p,
+							translatable, resolvedPathList.toArray(new SearchPath[0]));
+					if (searchBuilder.isNotEmpty()) {
+						searchBuilders.add(searchBuilder);
 					}
 				}
-				if (result.getLeft() == Combination.And) {
-					searchPartAndSuppliers.add(searchBuilders);
-				} else {
-					searchPartOrSuppliers.add(searchBuilders);
-				}
 			}
-		});
+			if (result.getLeft() == Combination.And) {
+				searchPartAndSuppliers.add(searchBuilders);
+			} else {
+				searchPartOrSuppliers.add(searchBuilders);
+			}
+		}
 	}
 
 	private void addOrderFieldResolver(String path, String innerPath) {
@@ -779,14 +843,71 @@ public class QueryComposerBuilder {
 		return queryParts.stream().filter(s -> shouldBeAdded(s)).map(s -> s.getQueryPart()).collect(Collectors.toList());
 	}
 
+	void addPlanKeyComponents(List<Object> key) {
+		key.add(applyOuterQuery);
+		key.add(queryParts.size());
+		for (QueryPart queryPart : queryParts) {
+			if (shouldBeAdded(queryPart)) {
+				QueryPartString queryPartString = queryPart.getQueryPart();
+				key.add(queryPartString.getPart());
+				key.add(queryPartString.getFirstDelimiter());
+				key.add(queryPartString.getDelimiter());
+			} else {
+				key.add(null);
+			}
+		}
+		addFieldItems(key, selectFieldMap);
+		addFieldItems(key, groupByFieldMap);
+		addFieldItems(key, orderFieldMap);
+		key.addAll(orderBuilder.getOrderFields());
+		key.add(customOrderByPart);
+		addSearchShape(key, searchPartAndSuppliers);
+		addSearchShape(key, searchPartOrSuppliers);
+		key.add(trigramUuids == null ? null : QueryParamProcessor.getPaddedSize(trigramUuids.size()));
+	}
+
+	private void addFieldItems(List<Object> key, Map<String, FieldItem> fieldItemMap) {
+		key.add(fieldItemMap.size());
+		key.addAll(fieldItemMap.values());
+	}
+
+	private void addSearchShape(List<Object> key, List<List<SearchBuilder>> searchBuilders) {
+		key.add(searchBuilders.size());
+		for (List<SearchBuilder> list : searchBuilders) {
+			key.add(list.size());
+			for (SearchBuilder searchBuilder : list) {
+				key.add(searchBuilder.getSearchTerm().getCombination());
+				SearchField[] searchFields = searchBuilder.getSearchFields();
+				key.add(searchFields.length);
+				for (SearchField searchField : searchFields) {
+					key.add(searchField.getParamName());
+					key.add(searchField.getFieldResolver());
+					key.add(searchField.getOperator());
+					key.add(searchField.isIgnoreCase());
+					key.add(searchField.isFullText() ? searchField.getFullTextSearch() : null);
+					key.add(searchField.isTranslatable());
+					key.add(searchField.isTranslatable() ? searchField.getTranslatedColumns() : null);
+				}
+			}
+		}
+	}
+
 	String getAndSearchPart() {
 		String result = SearchProcessor.getSearchPart(root, searchPartAndSuppliers, true);
 		if (StringUtils.isBlank(result)) {
 			return "";
 		}
+		if (trigramUuids != null) {
+			result += " AND " + (trigramUuids.isEmpty() ? "1 = 0"
+					: QueryParamProcessor.getInString(root, rootAlias + "." + root.getUuidField(), TRIGRAM_UUIDS_PARAM, trigramUuids));
+		}
 		return result;
 	}
 
+	boolean isEmptySearch() {
+		return trigramUuids != null && trigramUuids.isEmpty();
+	}
+
 	String getOrSearchPart() {
 		String result = SearchProcessor.getSearchPart(root, searchPartOrSuppliers, false);
 		if (StringUtils.isBlank(result)) {
@@ -796,41 +917,102 @@ public class QueryComposerBuilder {
 	}
 
 	private void initPart() {
-		for (Runnable initRunner : initRunners) {
-			initRunner.run();
+		for (Consumer<QueryComposerBuilder> initRunner : initRunners) {
+			initRunner.accept(this);
 		}
 	}
 
 	private void initSelectPart() {
-		for (Runnable selectBuilderRunner : selectBuilderRunners) {
-			selectBuilderRunner.run();
+		for (Consumer<QueryComposerBuilder> selectBuilderRunner : selectBuilderRunners) {
+			selectBuilderRunner.accept(this);
 		}
 	}
 
 	private void initGroupByPart() {
-		for (Runnable groupByBuilderRunner : groupByBuilderRunners) {
-			groupByBuilderRunner.run();
+		for (Consumer<QueryComposerBuilder> groupByBuilderRunner : groupByBuilderRunners) {
+			groupByBuilderRunner.accept(this);
 		}
 	}
 
 	private void initConditionalPart() {
-		for (Runnable conditionalBuilderRunner : queryPartBuilderRunners) {
-			conditionalBuilderRunner.run();
+		for (Consumer<QueryComposerBuilder> conditionalBuilderRunner : queryPartBuilderRunners) {
+			conditionalBuilderRunner.accept(this);
 		}
 	}
 
 	private void initSearchPart() {
-		for (Runnable searchPartInitRunner : searchPartInitRunners) {
-			searchPartInitRunner.run();
+		for (Consumer<QueryComposerBuilder> searchPartInitRunner : searchPartInitRunners) {
+			searchPartInitRunner.accept(this);
+		}
+		if (root.isNormalizeSearch()) {
+			Map<Object, String> paramNames = new HashMap<>();
+			shareSearchParams(searchPartAndSuppliers, paramNames);
+			shareSearchParams(searchPartOrSuppliers, paramNames);
+		}
+		initTrigramSearch();
+	}
+
+	// the AND-combined search is narrowed, if at least one of its terms is searched in the indexed paths only
+	private void initTrigramSearch() {
+		TrigramIndex<?> trigramIndex = root.getTrigramIndex();
+		trigramUuids = null;
+		if (trigramIndex != null && searchPartOrSuppliers.isEmpty()) {
+			List<String> texts = new ArrayList<>();
+			for (List<SearchBuilder> list : searchPartAndSuppliers) {
+				// OR-combined terms of the list are alternatives, so they can't narrow the search
+				if (list.stream().allMatch(s -> s.getSearchTerm().getCombination() == Combination.And)) {
+					for (SearchBuilder searchBuilder : list) {
+						addTrigramTexts(trigramIndex, searchBuilder, texts);
+					}
+				}
+			}
+			trigramUuids = trigramIndex.search(texts);
+		}
+		root.setParameterList(TRIGRAM_UUIDS_PARAM, trigramUuids == null ? Collections.emptyList() : trigramUuids);
+	}
+
+	private void addTrigramTexts(TrigramIndex<?> trigramIndex, SearchBuilder searchBuilder, List<String> texts) {
+		SearchTerm searchTerm = searchBuilder.getSearchTerm();
+		if (!searchTerm.getOperator().isText() || searchTerm.isNumeric()) {
+			return;
+		}
+		for (SearchField searchField : searchBuilder.getSearchFields()) {
+			if (searchField.isTranslatable() || searchField.isFullText()
+					|| !trigramIndex.getPaths().containsAll(searchField.getFieldResolver().getResolvers())) {
+				return;
+			}
+		}
+		if (searchTerm.getOperator() == SearchOperator.Equal) {
+			texts.add(searchTerm.getStringValue());
+		} else {
+			// % and _ are wildcards of LIKE, the matched value contains the texts between them
+			texts.addAll(Arrays.asList(searchTerm.getStringValue().split("[%_]")));
+		}
+	}
+
+	// search fields with equal parameter values use the first parameter, so their predicates can be deduplicated
+	private void shareSearchParams(List<List<SearchBuilder>> searchBuilders, Map<Object, String> paramNames) {
+		for (List<SearchBuilder> list : searchBuilders) {
+			for (SearchBuilder searchBuilder : list) {
+				for (SearchField searchField : searchBuilder.getSearchFields()) {
+					String paramName = searchField.getParamName();
+					Object value = root.getParamValue(paramName);
+					String sharedParamName = paramNames.putIfAbsent(value, paramName);
+					if (sharedParamName != null && !sharedParamName.equals(paramName)) {
+						searchField.setParamName(sharedParamName);
+						root.removeParam(paramName);
+					}
+				}
+			}
 		}
 	}
 
 	private void initOrderByPart() {
-		for (Runnable orderBuilderRunner : orderBuilderRunners) {
-			orderBuilderRunner.run();
+		for (Consumer<QueryComposerBuilder> orderBuilderRunner : orderBuilderRunners) {
+			orderBuilderRunner.accept(this);
 		}
-		for (Runnable orderBuilderRunner : defaultOrderBuilderRunners) {
-			orderBuilderRunner.run();
+		for (Consumer<QueryComposerBuilder> orderBuilderRunner : defaultOrderBuilderRunners) {
+			orderBuilderRunner.accept(this);
 		}
 	}
 
@@ -924,16 +1106,16 @@ public class QueryComposerBuilder {
 
 	public void groupBy(String groupByString) {
 		setDistinct();
-		groupByBuilderRunners.add(() -> {
-			doAddGroupBy(groupByString);
+		groupByBuilderRunners.add(b -> {
+			b.doAddGroupBy(groupByString);
 		});
 	}
 
 	public void addGroupBy(String alias, String path) {
 		setDistinct();
 		tryAliasResolver(alias, path);
-		groupByBuilderRunners.add(() -> {
-			doAddGroupBy(alias, path);
+		groupByBuilderRunners.add(b -> {
+			b.doAddGroupBy(alias, path);
 		});
 	}
 
@@ -951,7 +1133,7 @@ public class QueryComposerBuilder {
 
 	private String getRootSelect(boolean groupBy) {
 		String result = "";
-		if (root.isNativeQuery()) {
+		if (root.isRowResult()) {
 			result = rootAlias + "." + getUuid();
 			if (!groupBy && root.isShowUuidAlias()) {
 				result += " AS " + root.getUuidAlias();
@@ -963,7 +1145,7 @@ public class QueryComposerBuilder {
 	}
 
 	private void addRootSelect(List<SelectField> selectFields) {
-		if (root.isNativeQuery() && !root.isSkipUuid()) {
+		if (root.isRowResult() && !root.isSkipUuid()) {
 			SelectField selectField = new SelectField(getUuid(), rootAlias + "." + getUuid());
 			selectFields.add(selectField);
 		}
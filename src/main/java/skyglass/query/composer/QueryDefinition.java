@@ -0,0 +1,52 @@
+package skyglass.query.composer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable snapshot of the declarative configuration of QueryComposerBuilder.
+ * Runners don't capture the builder instance, so one definition can be shared by all composers bound from the same QueryTemplate.
+ */
+final class QueryDefinition {
+
+	final List<Consumer<QueryComposerBuilder>> initRunners;
+
+	final List<Consumer<QueryComposerBuilder>> selectBuilderRunners;
+
+	final List<Consumer<QueryComposerBuilder>> groupByBuilderRunners;
+
+	final List<Consumer<QueryComposerBuilder>> queryPartBuilderRunners;
+
+	final List<Consumer<QueryComposerBuilder>> searchPartInitRunners;
+
+	final List<Consumer<QueryComposerBuilder>> orderBuilderRunners;
+
+	final List<Consumer<QueryComposerBuilder>> defaultOrderBuilderRunners;
+
+	final String customOrderByPart;
+
+	QueryDefinition(List<Consumer<QueryComposerBuilder>> initRunners,
+			List<Consumer<QueryComposerBuilder>> selectBuilderRunners,
+			List<Consumer<QueryComposerBuilder>> groupByBuilderRunners,
+			List<Consumer<QueryComposerBuilder>> queryPartBuilderRunners,
+			List<Consumer<QueryComposerBuilder>> searchPartInitRunners,
+			List<Consumer<QueryComposerBuilder>> orderBuilderRunners,
+			List<Consumer<QueryComposerBuilder>> defaultOrderBuilderRunners,
+			String customOrderByPart) {
+		this.initRunners = copyOf(initRunners);
+		this.selectBuilderRunners = copyOf(selectBuilderRunners);
+		this.groupByBuilderRunners = copyOf(groupByBuilderRunners);
+		this.queryPartBuilderRunners = copyOf(queryPartBuilderRunners);
+		this.searchPartInitRunners = copyOf(searchPartInitRunners);
+		this.orderBuilderRunners = copyOf(orderBuilderRunners);
+		this.defaultOrderBuilderRunners = copyOf(defaultOrderBuilderRunners);
+		this.customOrderByPart = customOrderByPart;
+	}
+
+	private static List<Consumer<QueryComposerBuilder>> copyOf(List<Consumer<QueryComposerBuilder>> runners) {
+		return Collections.unmodifiableList(new ArrayList<>(runners));
+	}
+
+}
@@ -0,0 +1,80 @@
+package skyglass.query.composer;
+
+/**
+ * Inner query fragments, which are shared by select, count and uuid list SQL of the same composer.
+ * They are rendered once and dropped together with the query plan, when the composer changes.
+ */
+final class QueryFragments {
+
+	private final String fromPart;
+
+	private final String joinPart;
+
+	private final String fetchJoinPart;
+
+	private final String wherePart;
+
+	private final int whereConditionStart;
+
+	private final String groupByPart;
+
+	private final String havingPart;
+
+	private final String orderByPart;
+
+	QueryFragments(String fromPart, String joinPart, String fetchJoinPart, String wherePart, int whereConditionStart,
+			String groupByPart, String havingPart, String orderByPart) {
+		this.fromPart = fromPart;
+		this.joinPart = joinPart;
+		this.fetchJoinPart = fetchJoinPart;
+		this.wherePart = wherePart;
+		this.whereConditionStart = whereConditionStart;
+		this.groupByPart = groupByPart;
+		this.havingPart = havingPart;
+		this.orderByPart = orderByPart;
+	}
+
+	String getFromPart() {
+		return fromPart;
+	}
+
+	String getJoinPart() {
+		return joinPart;
+	}
+
+	String getFetchJoinPart() {
+		return fetchJoinPart;
+	}
+
+	String getWherePart() {
+		return wherePart;
+	}
+
+	/**
+	 * Where part with the additional condition, which is combined with the existing conditions by AND
+	 */
+	String getWherePart(String condition) {
+		if (whereConditionStart < 0) {
+			return wherePart + " WHERE " + condition;
+		}
+		return wherePart.substring(0, whereConditionStart) + "( " + wherePart.substring(whereConditionStart) + " ) AND " + condition;
+	}
+
+	String getGroupByPart() {
+		return groupByPart;
+	}
+
+	String getHavingPart() {
+		return havingPart;
+	}
+
+	String getOrderByPart() {
+		return orderByPart;
+	}
+
+	int length() {
+		return fromPart.length() + joinPart.length() + fetchJoinPart.length() + wherePart.length() + groupByPart.length()
+				+ havingPart.length() + 2 * orderByPart.length();
+	}
+
+}
@@ -49,13 +49,13 @@ public class QueryParamBuilder {
 		if (CollectionUtils.isNotEmpty(values)) {
 			if (root.isNativeQuery()) {
 				int index = 1;
-				for (Object value : values) {
+				for (Object value : QueryParamProcessor.getPaddedValues(values)) {
 					String paramName = name + Integer.toString(index);
 					params.put(paramName, QueryParam.create(paramName, value));
 					index++;
 				}
 			} else {
-				params.put(name, QueryParam.create(name, values));
+				params.put(name, QueryParam.create(name, QueryParamProcessor.getPaddedValues(values)));
 			}
 		} else {
 			// should add null parameter explicitly, otherwise isFalseCondition()
@@ -64,6 +64,18 @@ public class QueryParamBuilder {
 		}
 	}
 
+	// binds the list of the IN condition of QueryParamProcessor.getInString()
+	@SuppressWarnings("rawtypes")
+	void _doSetInParameters(QueryComposer root, String name, Collection values) {
+		if (root.isNativeQuery() || CollectionUtils.isEmpty(values)) {
+			_doSetParameters(root, name, values);
+			return;
+		}
+		for (QueryParam param : QueryParamProcessor.getInListParams(name, values)) {
+			params.put(param.getName(), param);
+		}
+	}
+
 	void _doSetParameterValue(String name, Object value) {
 		params.put(name, QueryParam.create(name, value));
 	}
@@ -3,9 +3,9 @@ package skyglass.query.composer;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -19,15 +19,8 @@ public class QueryParamProcessor {
 
 	private static final String JPA_CHAR = ":";
 
-	private static final String NATIVE_PARAM_FORMAT = "?%s";
-
-	private static final String NATIVE_PARAM_IN_FORMAT = "%s IN (%s)";
-
-	private static final String PARAM_IN_FORMAT = "%s IN :%s";
-
-	private static final Pattern PARAM_REGEX_PATTERN = Pattern.compile("(?=:(\\w+))");
-
-	private static final Pattern PARAM_NATIVE_REGEX_PATTERN = Pattern.compile("(?=\\?(\\w+))");
+	// maximal number of values in the IN list of Oracle (ORA-01795), longer lists of getInString() are split into several IN conditions
+	static final int MAX_IN_LIST_SIZE = 1000;
 
 	static String parseParams(QueryComposer root, QueryParamBuilder builder, String part) {
 		if (StringUtils.isBlank(part)) {
@@ -35,22 +28,28 @@ public class QueryParamProcessor {
 		}
 		QueryRequestDTO queryRequest = root.getQueryRequest();
 		if (queryRequest != null) {
-			List<QueryParam> paramValues = new ArrayList<>();
-			List<String> matches = getAllMatches(root, part);
-			for (String match : matches) {
-				Object paramValue = getSimpleProperty(queryRequest, match);
-				paramValues.add(QueryParam.create(match, paramValue));
-			}
-
-			for (QueryParam param : paramValues) {
-				if (builder.isCollection(param.getValue())) {
-					Collection<?> collection = (Collection<?>) param.getValue();
-					part = replaceListPart(root, builder, param.getName(), part, collection);
-					builder._doSetParameters(root, param.getName(), collection);
+			QueryPartTemplate template = QueryPartTemplate.forParams(part, root.isNativeQuery());
+			Map<String, Collection<?>> listParams = null;
+			for (String paramName : template.getSlotNames()) {
+				Object paramValue = getSimpleProperty(queryRequest, paramName);
+				if (builder.isCollection(paramValue)) {
+					Collection<?> collection = (Collection<?>) paramValue;
+					if (listParams == null) {
+						listParams = new HashMap<>();
+					}
+					listParams.put(paramName, collection);
+					builder._doSetParameters(root, paramName, collection);
 				} else {
-					builder._doSetParameterValue(param.getName(), param.getValue());
+					builder._doSetParameterValue(paramName, paramValue);
 				}
 			}
+			if (listParams != null && root.isNativeQuery()) {
+				Map<String, Collection<?>> finalListParams = listParams;
+				part = template.render(paramName -> {
+					Collection<?> collection = finalListParams.get(paramName);
+					return collection == null ? null : getListReplacement(paramName, collection);
+				});
+			}
 		}
 		return part;
 	}
@@ -79,15 +78,6 @@ public class QueryParamProcessor {
 		return field.replace("{lang}", language);
 	}
 
-	private static List<String> getAllMatches(QueryComposer root, String text) {
-		Matcher m = root.isNativeQuery() ? PARAM_NATIVE_REGEX_PATTERN.matcher(text) : PARAM_REGEX_PATTERN.matcher(text);
-		List<String> matches = new ArrayList<String>();
-		while (m.find()) {
-			matches.add(m.group(1));
-		}
-		return matches;
-	}
-
 	public static String processPart(QueryComposer root, QueryParamBuilder builder, String paramName, String part, Object value) {
 		if (builder.isCollection(value)) {
 			return replaceListPart(root, builder, paramName, part, (Collection<?>) value);
@@ -97,45 +87,118 @@ public class QueryParamProcessor {
 
 	public static String replaceListPart(QueryComposer root, QueryParamBuilder builder, String paramName, String part, Collection<?> list) {
 		if (root.isNativeQuery()) {
-			StringBuilder replacement = new StringBuilder();
-			for (int i = 1; i <= list.size(); i++) {
-				if (i > 1) {
-					replacement.append(", ");
-				}
-				replacement.append(root.isNativeQuery() ? NATIVE_CHAR : JPA_CHAR);
-				replacement.append(paramName);
-				replacement.append(Integer.toString(i));
-			}
-			return part.replace(String.format(NATIVE_PARAM_FORMAT, paramName), String.format("(%s)", replacement.toString()));
+			return QueryPartTemplate.forParams(part, true).render(name -> name.equals(paramName) ? getListReplacement(paramName, list) : null);
 		}
 		return part;
 	}
 
+	private static StringBuilder getListReplacement(String paramName, Collection<?> list) {
+		int paddedSize = getPaddedSize(list.size());
+		StringBuilder replacement = new StringBuilder(paddedSize * (paramName.length() + 5) + 2);
+		replacement.append('(');
+		for (int i = 1; i <= paddedSize; i++) {
+			if (i > 1) {
+				replacement.append(", ");
+			}
+			replacement.append(NATIVE_CHAR);
+			replacement.append(paramName);
+			replacement.append(i);
+		}
+		replacement.append(')');
+		return replacement;
+	}
+
+	/**
+	 * IN condition of the padded list. Lists longer than MAX_IN_LIST_SIZE are split into IN conditions, joined with OR.
+	 * The JPA list parameters of the split list are bound by getInListParams().
+	 */
 	static String getInString(QueryComposer root, String propertyName, String paramName, Collection<?> list) {
 		if (CollectionUtils.isEmpty(list)) {
 			return null;
 		}
-		if (root.isNativeQuery()) {
-			StringBuilder replacement = new StringBuilder();
-			for (int i = 1; i <= list.size(); i++) {
-				if (i > 1) {
-					replacement.append(", ");
+		int paddedSize = getPaddedSize(list.size());
+		StringBuilder result = new StringBuilder();
+		if (paddedSize > MAX_IN_LIST_SIZE) {
+			result.append("( ");
+		}
+		for (int chunk = 0; chunk * MAX_IN_LIST_SIZE < paddedSize; chunk++) {
+			if (chunk > 0) {
+				result.append(" OR ");
+			}
+			result.append(propertyName);
+			result.append(" IN ");
+			if (root.isNativeQuery()) {
+				result.append('(');
+				for (int i = chunk * MAX_IN_LIST_SIZE + 1; i <= Math.min(paddedSize, (chunk + 1) * MAX_IN_LIST_SIZE); i++) {
+					if (i > chunk * MAX_IN_LIST_SIZE + 1) {
+						result.append(", ");
+					}
+					result.append(NATIVE_CHAR);
+					result.append(paramName);
+					result.append(i);
 				}
-				replacement.append(root.isNativeQuery() ? NATIVE_CHAR : JPA_CHAR);
-				replacement.append(paramName);
-				replacement.append(Integer.toString(i));
+				result.append(')');
+			} else {
+				result.append(JPA_CHAR);
+				result.append(getInListParamName(paramName, chunk));
 			}
-			return String.format(getInFormat(root), propertyName, replacement.toString());
 		}
-		return String.format(getInFormat(root), propertyName, paramName);
+		if (paddedSize > MAX_IN_LIST_SIZE) {
+			result.append(" )");
+		}
+		return result.toString();
+	}
+
+	/**
+	 * JPA list parameters of the IN condition of getInString(): the padded list, split into the lists of at most MAX_IN_LIST_SIZE values
+	 */
+	static List<QueryParam> getInListParams(String paramName, Collection<?> values) {
+		List<Object> paddedValues = getPaddedValues(values);
+		List<QueryParam> result = new ArrayList<>();
+		for (int chunk = 0; chunk * MAX_IN_LIST_SIZE < paddedValues.size(); chunk++) {
+			result.add(QueryParam.create(getInListParamName(paramName, chunk),
+					paddedValues.subList(chunk * MAX_IN_LIST_SIZE, Math.min(paddedValues.size(), (chunk + 1) * MAX_IN_LIST_SIZE))));
+		}
+		return result;
+	}
+
+	/**
+	 * Bound list parameters are padded to a few fixed sizes, so that lists of different length share the same statement shape
+	 * in the Hibernate query plan cache and in the database statement cache. Sizes are padded to the powers of two,
+	 * but not above MAX_IN_LIST_SIZE, and longer lists to the multiples of MAX_IN_LIST_SIZE, so that each IN list of getInString() is full.
+	 * The lists of the query part templates (e.g. "sm.status IN ?statuses") are not split, so they should not be longer than MAX_IN_LIST_SIZE on Oracle.
+	 */
+	static int getPaddedSize(int size) {
+		if (size <= 1) {
+			return size;
+		}
+		if (size <= MAX_IN_LIST_SIZE) {
+			return Math.min(Integer.highestOneBit(size - 1) << 1, MAX_IN_LIST_SIZE);
+		}
+		return (size + MAX_IN_LIST_SIZE - 1) / MAX_IN_LIST_SIZE * MAX_IN_LIST_SIZE;
+	}
+
+	/**
+	 * List values padded to getPaddedSize() by repeating the last value, which doesn't change the result of the IN condition
+	 */
+	static List<Object> getPaddedValues(Collection<?> values) {
+		int paddedSize = getPaddedSize(values.size());
+		List<Object> result = new ArrayList<>(paddedSize);
+		result.addAll(values);
+		Object lastValue = result.isEmpty() ? null : result.get(result.size() - 1);
+		while (result.size() < paddedSize) {
+			result.add(lastValue);
+		}
+		return result;
 	}
 
 	static String parseParamName(String propertyName) {
 		return propertyName.replace(".", "_");
 	}
 
-	private static String getInFormat(QueryComposer root) {
-		return root.isNativeQuery() ? NATIVE_PARAM_IN_FORMAT : PARAM_IN_FORMAT;
+	// the first list keeps the parameter name, so the list of MAX_IN_LIST_SIZE values is bound as before
+	private static String getInListParamName(String paramName, int chunk) {
+		return chunk == 0 ? paramName : paramName + (chunk + 1);
 	}
 
 	public static void main(String[] args) {
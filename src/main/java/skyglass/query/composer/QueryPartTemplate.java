@@ -0,0 +1,176 @@
+package skyglass.query.composer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.function.Function;
+
+import skyglass.query.composer.util.LruCache;
+
+/**
+ * Tokenized form of a literal query part: text fragments interleaved with parameter slots (?name, :name) or alias slots (${name}).
+ * Each literal is tokenized once and cached, so building a query only fills the slots.
+ */
+final class QueryPartTemplate {
+
+	static final int DEFAULT_CACHE_SIZE = 4096;
+
+	private static final char NATIVE_PARAM_CHAR = '?';
+
+	private static final char JPA_PARAM_CHAR = ':';
+
+	private static final LruCache<String, QueryPartTemplate> NATIVE_PARAM_CACHE = new LruCache<>(DEFAULT_CACHE_SIZE);
+
+	private static final LruCache<String, QueryPartTemplate> JPA_PARAM_CACHE = new LruCache<>(DEFAULT_CACHE_SIZE);
+
+	private static final LruCache<String, QueryPartTemplate> ALIAS_CACHE = new LruCache<>(DEFAULT_CACHE_SIZE);
+
+	private final String part;
+
+	//texts[i] precedes slots[i], the last text follows the last slot
+	private final String[] texts;
+
+	private final String[] slots;
+
+	//original slot tokens, e.g. ?name
+	private final String[] tokens;
+
+	private final List<String> slotNames;
+
+	private QueryPartTemplate(String part, List<String> texts, List<String> slots, List<String> tokens) {
+		this.part = part;
+		this.texts = texts.toArray(new String[0]);
+		this.slots = slots.toArray(new String[0]);
+		this.tokens = tokens.toArray(new String[0]);
+		this.slotNames = Collections.unmodifiableList(new ArrayList<>(new LinkedHashSet<>(slots)));
+	}
+
+	static QueryPartTemplate forParams(String part, boolean isNative) {
+		if (isNative) {
+			return NATIVE_PARAM_CACHE.computeIfAbsent(part, p -> parseParams(p, NATIVE_PARAM_CHAR));
+		}
+		return JPA_PARAM_CACHE.computeIfAbsent(part, p -> parseParams(p, JPA_PARAM_CHAR));
+	}
+
+	static QueryPartTemplate forAliases(String path) {
+		return ALIAS_CACHE.computeIfAbsent(path, QueryPartTemplate::parseAliases);
+	}
+
+	/**
+	 * Distinct slot names in order of their first occurrence
+	 */
+	List<String> getSlotNames() {
+		return slotNames;
+	}
+
+	boolean hasSlots() {
+		return slots.length > 0;
+	}
+
+	/**
+	 * Replaces each slot with the value, returned by the renderer, or with the original token, if the renderer returns null
+	 */
+	String render(Function<String, CharSequence> renderer) {
+		if (slots.length == 0) {
+			return part;
+		}
+		CharSequence[] values = new CharSequence[slots.length];
+		int length = 0;
+		boolean changed = false;
+		for (int i = 0; i < slots.length; i++) {
+			CharSequence value = renderer.apply(slots[i]);
+			if (value == null) {
+				value = tokens[i];
+			} else {
+				changed = true;
+			}
+			values[i] = value;
+			length += value.length() + texts[i].length();
+		}
+		if (!changed) {
+			return part;
+		}
+		StringBuilder sb = new StringBuilder(length + texts[slots.length].length());
+		for (int i = 0; i < slots.length; i++) {
+			sb.append(texts[i]).append(values[i]);
+		}
+		sb.append(texts[slots.length]);
+		return sb.toString();
+	}
+
+	//same matches as the lookahead pattern (?=\?(\w+)) or (?=:(\w+))
+	private static QueryPartTemplate parseParams(String part, char paramChar) {
+		List<String> texts = new ArrayList<>();
+		List<String> slots = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		int length = part.length();
+		int lastEnd = 0;
+		int i = 0;
+		while (i < length) {
+			if (part.charAt(i) == paramChar && i + 1 < length && isWordChar(part.charAt(i + 1))) {
+				int end = i + 2;
+				while (end < length && isWordChar(part.charAt(end))) {
+					end++;
+				}
+				texts.add(part.substring(lastEnd, i));
+				slots.add(part.substring(i + 1, end));
+				tokens.add(part.substring(i, end));
+				lastEnd = end;
+				i = end;
+			} else {
+				i++;
+			}
+		}
+		texts.add(part.substring(lastEnd));
+		return new QueryPartTemplate(part, texts, slots, tokens);
+	}
+
+	//same matches as the pattern \$\{(.*?)\}
+	private static QueryPartTemplate parseAliases(String path) {
+		List<String> texts = new ArrayList<>();
+		List<String> slots = new ArrayList<>();
+		List<String> tokens = new ArrayList<>();
+		int length = path.length();
+		int lastEnd = 0;
+		int i = 0;
+		while (i < length - 1) {
+			if (path.charAt(i) == '$' && path.charAt(i + 1) == '{') {
+				int end = findAliasEnd(path, i + 2);
+				if (end >= 0) {
+					texts.add(path.substring(lastEnd, i));
+					slots.add(path.substring(i + 2, end));
+					tokens.add(path.substring(i, end + 1));
+					lastEnd = end + 1;
+					i = end + 1;
+					continue;
+				}
+			}
+			i++;
+		}
+		texts.add(path.substring(lastEnd));
+		return new QueryPartTemplate(path, texts, slots, tokens);
+	}
+
+	private static int findAliasEnd(String path, int start) {
+		for (int i = start; i < path.length(); i++) {
+			char c = path.charAt(i);
+			if (c == '}') {
+				return i;
+			}
+			if (isLineTerminator(c)) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	private static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+	private static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+}
@@ -0,0 +1,50 @@
+package skyglass.query.composer;
+
+/**
+ * Already rendered SQL strings for one query shape (see QueryPlanKey).
+ * Each variant is rendered lazily by the first composer, which needs it, and then reused by all composers with the same shape.
+ * Only parameter values are bound per request.
+ */
+final class QueryPlan {
+
+	private volatile String selectSql;
+
+	private volatile String uuidListSql;
+
+	private volatile String countSql;
+
+	private volatile String windowCountSql;
+
+	String getSelectSql() {
+		return selectSql;
+	}
+
+	void setSelectSql(String selectSql) {
+		this.selectSql = selectSql;
+	}
+
+	String getUuidListSql() {
+		return uuidListSql;
+	}
+
+	void setUuidListSql(String uuidListSql) {
+		this.uuidListSql = uuidListSql;
+	}
+
+	String getCountSql() {
+		return countSql;
+	}
+
+	void setCountSql(String countSql) {
+		this.countSql = countSql;
+	}
+
+	String getWindowCountSql() {
+		return windowCountSql;
+	}
+
+	void setWindowCountSql(String windowCountSql) {
+		this.windowCountSql = windowCountSql;
+	}
+
+}
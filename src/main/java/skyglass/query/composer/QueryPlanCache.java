@@ -0,0 +1,35 @@
+package skyglass.query.composer;
+
+import skyglass.query.composer.util.LruCache;
+
+/**
+ * Global cache of rendered query plans, shared by all composers, which opted in with QueryComposer.usePlanCache().
+ * The cache is bounded: least recently used plans are evicted, when the maximum size is reached.
+ */
+public class QueryPlanCache {
+
+	public static final int DEFAULT_MAX_SIZE = 1000;
+
+	private static final LruCache<QueryPlanKey, QueryPlan> CACHE = new LruCache<>(DEFAULT_MAX_SIZE);
+
+	static QueryPlan getPlan(QueryPlanKey key) {
+		return CACHE.computeIfAbsent(key, k -> new QueryPlan());
+	}
+
+	public static void setMaxSize(int maxSize) {
+		CACHE.setMaxSize(maxSize);
+	}
+
+	public static int getMaxSize() {
+		return CACHE.getMaxSize();
+	}
+
+	public static int size() {
+		return CACHE.size();
+	}
+
+	public static void clear() {
+		CACHE.clear();
+	}
+
+}
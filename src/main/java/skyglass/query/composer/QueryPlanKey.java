@@ -0,0 +1,38 @@
+package skyglass.query.composer;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Structural fingerprint of a composed query: everything that influences the generated SQL text
+ * (active query parts, select/group by/order fields, search shape, paging and distinct flags),
+ * but none of the parameter values. Two composers with equal keys render identical SQL.
+ */
+final class QueryPlanKey {
+
+	private final Object[] components;
+
+	private final int hash;
+
+	QueryPlanKey(List<Object> components) {
+		this.components = components.toArray();
+		this.hash = Arrays.hashCode(this.components);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof QueryPlanKey)) {
+			return false;
+		}
+		QueryPlanKey other = (QueryPlanKey) obj;
+		return hash == other.hash && Arrays.equals(components, other.components);
+	}
+
+}
@@ -14,6 +14,8 @@ public class QueryRequestDTO implements Serializable {
 
 	public static final String DEFAULT_LANGUAGE = Language.DEFAULT.getLanguageCode();
 
+	public static final int DEFAULT_COUNT_CAP = 1000;
+
 	private int offset = 0;
 
 	private int limit = -1;
@@ -32,6 +34,14 @@ public class QueryRequestDTO implements Serializable {
 
 	private String lang;
 
+	private PagingMode pagingMode;
+
+	private String continuationToken;
+
+	private CountMode countMode;
+
+	private Integer countCap;
+
 	private Map<String, Object> map = new HashMap<>();
 
 	public int getRowsPerPage() {
@@ -102,6 +112,50 @@ public class QueryRequestDTO implements Serializable {
 		this.limit = limit;
 	}
 
+	/**
+	 * Paging mode of the request, or null if it is not set, so the default of the composer applies (see QueryComposer.getPagingMode())
+	 */
+	public PagingMode getPagingMode() {
+		return pagingMode;
+	}
+
+	public void setPagingMode(PagingMode pagingMode) {
+		this.pagingMode = pagingMode;
+	}
+
+	/**
+	 * Continuation token of keyset paging, returned with the previous page (see QueryResult)
+	 */
+	public String getContinuationToken() {
+		return continuationToken;
+	}
+
+	public void setContinuationToken(String continuationToken) {
+		this.continuationToken = continuationToken;
+	}
+
+	/**
+	 * Count mode of the request, or null if it is not set, so the default of the composer applies (see QueryComposer.getCountMode())
+	 */
+	public CountMode getCountMode() {
+		return countMode;
+	}
+
+	public void setCountMode(CountMode countMode) {
+		this.countMode = countMode;
+	}
+
+	/**
+	 * Maximum number of rows counted in CountMode.Capped, or null if it is not set, so the default of the composer applies
+	 */
+	public Integer getCountCap() {
+		return countCap;
+	}
+
+	public void setCountCap(Integer countCap) {
+		this.countCap = countCap;
+	}
+
 	public List<String> getSearchTerms() {
 		return searchTerms;
 	}
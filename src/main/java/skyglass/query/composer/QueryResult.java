@@ -11,6 +11,10 @@ public class QueryResult<T> implements Serializable {
 
 	protected int totalCount = -1;
 
+	protected String continuationToken;
+
+	protected Boolean hasNext;
+
 	public QueryResult() {
 
 	}
@@ -23,6 +27,8 @@ public class QueryResult<T> implements Serializable {
 	protected QueryResult(QueryResult<T> original) {
 		setResult(original.getResult());
 		setTotalCount(original.getTotalCount());
+		setContinuationToken(original.getContinuationToken());
+		setHasNext(original.getHasNext());
 	}
 
 	public List<T> getResult() {
@@ -41,4 +47,26 @@ public class QueryResult<T> implements Serializable {
 		this.totalCount = totalCount;
 	}
 
+	/**
+	 * Continuation token of the next page in keyset paging mode, or null if this is the last page
+	 */
+	public String getContinuationToken() {
+		return continuationToken;
+	}
+
+	public void setContinuationToken(String continuationToken) {
+		this.continuationToken = continuationToken;
+	}
+
+	/**
+	 * Whether the next page exists, or null if it is not known (see CountMode)
+	 */
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
 }
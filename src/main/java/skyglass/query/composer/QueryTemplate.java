@@ -0,0 +1,119 @@
+package skyglass.query.composer;
+
+import java.util.function.Consumer;
+
+import skyglass.query.composer.search.FullTextSearch;
+import skyglass.query.composer.search.TranslatableSearch;
+import skyglass.query.composer.search.TrigramIndex;
+
+/**
+ * Immutable, thread-safe compiled form of a QueryComposer definition.
+ * It is defined once (for example in a static field) and bound per request:
+ *
+ * <pre>
+ * private static final QueryTemplate TEMPLATE = QueryTemplate.compile(QueryComposer.nativ("sm")
+ * 		.select("*")
+ * 		.from("SpaceMission sm")
+ * 		.addConditionalWhere("sm.name = ?name")
+ * 		.bindOrder("name"));
+ *
+ * QueryComposer queryComposer = TEMPLATE.bind(request);
+ * </pre>
+ *
+ * Only the declarative part of the fluent API can be compiled. Request dependent StringPartBuilder parts (start* methods)
+ * should be added per request with bind(request, customizer).
+ * Bound composers use QueryPlanCache, so the SQL is rendered once per query shape.
+ * Settings of the prototype (projection, search settings) are applied to each bound composer.
+ * Count mode, count cap and paging mode of the prototype are the defaults of the settings, which are not set by the bound request.
+ */
+public final class QueryTemplate {
+
+	private final String rootAlias;
+
+	private final boolean isNative;
+
+	private final String fromPart;
+
+	private final String[] staticParts;
+
+	private final String uuidField;
+
+	private final String uuidAlias;
+
+	private final boolean skipUuid;
+
+	private final QueryDefinition definition;
+
+	private final boolean projection;
+
+	private final boolean normalizeSearch;
+
+	private final TranslatableSearch translatableSearch;
+
+	private final FullTextSearch fullTextSearch;
+
+	private final TrigramIndex<?> trigramIndex;
+
+	private final CountMode countMode;
+
+	private final int countCap;
+
+	private final PagingMode pagingMode;
+
+	private QueryTemplate(QueryComposer prototype) {
+		this.rootAlias = prototype.getRootAlias();
+		this.isNative = prototype.isNativeQuery();
+		this.fromPart = prototype.getFromPart();
+		this.staticParts = prototype.getStaticParts();
+		this.uuidField = prototype.getUuidField();
+		this.uuidAlias = prototype.getUuidAlias();
+		this.skipUuid = prototype.isSkipUuid();
+		this.definition = prototype.getDefinition();
+		this.projection = prototype.isProjection();
+		this.normalizeSearch = prototype.isNormalizeSearch();
+		this.translatableSearch = prototype.getTranslatableSearch();
+		this.fullTextSearch = prototype.getFullTextSearch();
+		this.trigramIndex = prototype.getTrigramIndex();
+		this.countMode = prototype.getCountMode();
+		this.countCap = prototype.getCountCap();
+		this.pagingMode = prototype.getPagingMode();
+	}
+
+	public static QueryTemplate compile(QueryComposer prototype) {
+		if (prototype.hasRequestParts()) {
+			throw new IllegalArgumentException(
+					"Query template can't contain request dependent parts, please add them with bind(request, customizer)");
+		}
+		return new QueryTemplate(prototype);
+	}
+
+	public QueryComposer bind(QueryRequestDTO request) {
+		return bind(request, null);
+	}
+
+	public QueryComposer bind(QueryRequestDTO request, Consumer<QueryComposer> customizer) {
+		QueryComposer result = new QueryComposer(request, rootAlias, isNative, definition);
+		if (fromPart != null) {
+			result.from(fromPart);
+		}
+		result.setStaticParts(staticParts);
+		result.setUuidField(uuidField);
+		result.setUuidAlias(uuidAlias);
+		if (skipUuid) {
+			result.skipUuid();
+		}
+		result.setProjection(projection);
+		result.normalizeSearch(normalizeSearch);
+		result.setTranslatableSearch(translatableSearch);
+		result.setFullTextSearch(fullTextSearch);
+		result.setTrigramIndex(trigramIndex);
+		// the request isn't changed: its unset settings resolve to the defaults of the template
+		result.setDefaults(pagingMode, countMode, countCap);
+		result.usePlanCache();
+		if (customizer != null) {
+			customizer.accept(result);
+		}
+		return result;
+	}
+
+}
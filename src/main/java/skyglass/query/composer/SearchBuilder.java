@@ -5,10 +5,12 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import skyglass.query.composer.search.FullTextSearch;
 import skyglass.query.composer.search.SearchField;
 import skyglass.query.composer.search.SearchPath;
 import skyglass.query.composer.search.SearchTerm;
 import skyglass.query.composer.search.SearchType;
+import skyglass.query.composer.search.TranslatableSearch;
 
 /**
  * This class allows to build search fields from QueryRequestDTO in a declarative way.
@@ -19,6 +21,9 @@ public class SearchBuilder {
 
 	public static final String SEARCH_TERM_PARAM_NAME = "searchTerm";
 
+	// full-text value is not a LIKE pattern, so it can't share the parameters of the other searches for the same search term
+	public static final String FULL_TEXT_SEARCH_TERM_PARAM_NAME = "fullTextSearchTerm";
+
 	private List<SearchField> searchFields = new ArrayList<>();
 
 	private QueryRequestDTO queryRequest;
@@ -29,6 +34,10 @@ public class SearchBuilder {
 
 	private SearchTerm searchTerm;
 
+	private TranslatableSearch translatableSearch;
+
+	private FullTextSearch fullTextSearch;
+
 	private static SearchPath[] toSearchPath(String[] arr) {
 		return Arrays.asList(arr).stream().map(s -> new SearchPath(s, s)).collect(Collectors.toList()).toArray(new SearchPath[0]);
 	}
@@ -51,6 +60,8 @@ public class SearchBuilder {
 		this.queryRequest = queryRequest;
 		this.paramName = paramName;
 		this.searchTerm = searchTerm;
+		this.translatableSearch = root == null ? TranslatableSearch.allLanguages() : root.getTranslatableSearch();
+		this.fullTextSearch = root == null ? null : root.getFullTextSearch();
 		if (searchTerm.hasField()) {
 			for (SearchPath searchPath : searchPaths) {
 				if (searchPath.getAlias().equals(searchTerm.getAlias())
@@ -58,16 +69,16 @@ public class SearchBuilder {
 					if (root != null) {
 						root.setSearchParameter(paramName, searchTerm, searchType);
 					}
-					this.searchFields.add(new SearchField(searchTerm, new FieldResolver(searchPath.getPath()), paramName, searchType, translatable, queryRequest.getLang()));
+					this.searchFields.add(createSearchField(new FieldResolver(searchPath.getPath()), searchType, translatable));
 				}
 			}
 		} else {
 			if (root != null) {
 				root.setSearchParameter(paramName, searchTerm, searchType);
 			}
-			this.searchFields.add(new SearchField(searchTerm, new FieldResolver(
+			this.searchFields.add(createSearchField(new FieldResolver(
 					Arrays.asList(searchPaths).stream().map(s -> s.getPath()).collect(Collectors.toList()).toArray(new String[0])),
-					paramName, searchType, translatable, queryRequest.getLang()));
+					searchType, translatable));
 		}
 	}
 
@@ -88,10 +99,14 @@ public class SearchBuilder {
 	}
 
 	private SearchBuilder addSearch(SearchType searchType, boolean translatable, String... searchFields) {
-		this.searchFields.add(new SearchField(searchTerm, new FieldResolver(searchFields), paramName, searchType, translatable, queryRequest.getLang()));
+		this.searchFields.add(createSearchField(new FieldResolver(searchFields), searchType, translatable));
 		return this;
 	}
 
+	private SearchField createSearchField(FieldResolver fieldResolver, SearchType searchType, boolean translatable) {
+		return new SearchField(searchTerm, fieldResolver, paramName, searchType, translatable, queryRequest.getLang(), translatableSearch, fullTextSearch);
+	}
+
 	public SearchField[] getSearchFields() {
 		return searchFields.toArray(new SearchField[0]);
 	}
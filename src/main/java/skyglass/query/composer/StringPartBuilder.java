@@ -238,7 +238,8 @@ public class StringPartBuilder extends QueryParamBuilder {
 	}
 
 	private StringPartBuilder appendNullableList(String propertyName, String paramName, Collection<?> list, boolean orElseFalse) {
-		StringPartBuilder result = startNullablePart(QueryParamProcessor.getInString(root, propertyName, paramName, list)).setParameterList(paramName, list);
+		StringPartBuilder result = startNullablePart(QueryParamProcessor.getInString(root, propertyName, paramName, list));
+		result._doSetInParameters(root, paramName, list);
 		return orElseFalse ? result.orElse("1 = 0") : result.skipIfFalse();
 	}
 
@@ -468,6 +469,12 @@ public class StringPartBuilder extends QueryParamBuilder {
 		return this;
 	}
 
+	public StringPartBuilder addFullTextSearch(String... searchFields) {
+		root.addFullTextSearch(searchFields);
+		restartComposer();
+		return this;
+	}
+
 	private StringPartBuilder endOr() {
 		while (orCount > 0) {
 			doAppendWithoutDelimiter(stringBuilder(OR_SUFFIX));
@@ -526,6 +533,7 @@ public class StringPartBuilder extends QueryParamBuilder {
 	private void doAppendWithoutDelimiter(StringBuilder part) {
 		if (notBlank(part)) {
 			sb.append(part);
+			root.resetPlan();
 		}
 	}
 
@@ -620,6 +628,17 @@ public class StringPartBuilder extends QueryParamBuilder {
 		this.alreadyBuilt = alreadyBuilt;
 	}
 
+	String getStaticResult() {
+		return alreadyBuilt ? sb.toString() : null;
+	}
+
+	void setStaticResult(String part) {
+		if (part != null) {
+			sb.append(part);
+			alreadyBuilt = true;
+		}
+	}
+
 	private void restartComposer() {
 		root.restart();
 	}
@@ -0,0 +1,59 @@
+package skyglass.query.composer;
+
+import java.util.List;
+
+/**
+ * Open-addressing index from uuid to its position in the uuid list, used to restore the page order of loaded rows
+ */
+final class UuidIndex {
+
+	private final String[] keys;
+
+	private final int[] positions;
+
+	private final int mask;
+
+	UuidIndex(List<String> uuidList) {
+		int capacity = Integer.highestOneBit(Math.max(2, uuidList.size()) * 2 - 1) << 1;
+		this.keys = new String[capacity];
+		this.positions = new int[capacity];
+		this.mask = capacity - 1;
+		int position = 0;
+		for (String uuid : uuidList) {
+			if (uuid != null) {
+				int slot = slot(uuid);
+				while (keys[slot] != null && !keys[slot].equals(uuid)) {
+					slot = (slot + 1) & mask;
+				}
+				if (keys[slot] == null) {
+					keys[slot] = uuid;
+					positions[slot] = position;
+				}
+			}
+			position++;
+		}
+	}
+
+	/**
+	 * Position of the uuid in the list, or -1 if the list doesn't contain it
+	 */
+	int indexOf(String uuid) {
+		if (uuid == null) {
+			return -1;
+		}
+		int slot = slot(uuid);
+		while (keys[slot] != null) {
+			if (keys[slot].equals(uuid)) {
+				return positions[slot];
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	private int slot(String uuid) {
+		int hash = uuid.hashCode();
+		return (hash ^ (hash >>> 16)) & mask;
+	}
+
+}
@@ -3,21 +3,33 @@
  */
 package skyglass.query.composer.bean;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.Query;
 
+import skyglass.query.composer.JpaProjectionResultProvider;
 import skyglass.query.composer.JpaQueryResultProvider;
 import skyglass.query.composer.NativeQueryResultProvider;
 import skyglass.query.composer.QueryComposer;
 import skyglass.query.composer.QueryResult;
+import skyglass.query.composer.result.ColumnType;
+import skyglass.query.composer.result.ColumnarQueryResult;
+import skyglass.query.composer.result.ColumnarResultBuilder;
 import skyglass.query.composer.result.DtoConverter;
 import skyglass.query.composer.result.DtoDtoConverter;
 import skyglass.query.composer.result.EntityDtoConverter;
+import skyglass.query.composer.result.JsonResultWriter;
+import skyglass.query.composer.result.ParallelConversion;
 import skyglass.query.composer.result.QueryResultBuilder;
 import skyglass.query.composer.result.QueryResultProvider;
 
@@ -28,8 +40,16 @@ public abstract class BaseQueryManagerImpl implements QueryManager {
 
 	@Override
 	public <T, DTO> QueryResult<DTO> getDtoResult(QueryComposer queryComposer, Function<T, DTO> entityDtoConverter, Class<T> type) {
+		return getDtoResult(queryComposer, entityDtoConverter, type, null);
+	}
+
+	@Override
+	public <T, DTO> QueryResult<DTO> getDtoResult(QueryComposer queryComposer, Function<T, DTO> entityDtoConverter, Class<T> type,
+			ParallelConversion parallelConversion) {
 		QueryResultProvider<T> queryResultProvider = new JpaQueryResultProvider<T>(entityManager, type);
-		return new EntityDtoConverter<>(queryComposer, queryResultProvider, entityDtoConverter).convert();
+		EntityDtoConverter<T, DTO> converter = new EntityDtoConverter<>(queryComposer, queryResultProvider, entityDtoConverter);
+		converter.setParallelConversion(parallelConversion);
+		return converter.convert();
 	}
 
 	@Override
@@ -40,21 +60,67 @@ public abstract class BaseQueryManagerImpl implements QueryManager {
 
 	@Override
 	public QueryResult<Object[]> getNativeResult(QueryComposer queryComposer) {
-		QueryResultProvider<Object[]> queryResultProvider = new NativeQueryResultProvider(entityManager);
-		return new QueryResultBuilder<>(queryComposer, queryResultProvider).getResult();
+		return readRows(queryComposer, queryResultProvider -> new QueryResultBuilder<>(queryComposer, queryResultProvider).getResult());
+	}
+
+	@Override
+	public ColumnarQueryResult getColumnarResult(QueryComposer queryComposer) {
+		return getColumnarResult(queryComposer, Collections.emptyMap());
+	}
+
+	@Override
+	public ColumnarQueryResult getColumnarResult(QueryComposer queryComposer, Map<String, ColumnType> columnTypes) {
+		return readRows(queryComposer, queryResultProvider -> {
+			ColumnarResultBuilder columnarResultBuilder = new ColumnarResultBuilder(queryComposer, queryResultProvider);
+			columnTypes.forEach(columnarResultBuilder::setColumnType);
+			return columnarResultBuilder.build();
+		});
+	}
+
+	@Override
+	public void writeNativeJson(QueryComposer queryComposer, OutputStream outputStream) throws IOException {
+		readRows(queryComposer, queryResultProvider -> {
+			new JsonResultWriter(queryComposer, queryResultProvider).write(outputStream);
+			return null;
+		});
+	}
+
+	@Override
+	public void writeNativeJson(QueryComposer queryComposer, WritableByteChannel channel) throws IOException {
+		readRows(queryComposer, queryResultProvider -> {
+			new JsonResultWriter(queryComposer, queryResultProvider).write(channel);
+			return null;
+		});
 	}
 
 	@Override
 	public <DTO> QueryResult<DTO> convertNativeResult(QueryComposer queryComposer, Supplier<DTO> dtoSupplier) {
-		QueryResultProvider<Object[]> queryResultProvider = new NativeQueryResultProvider(entityManager);
-		return new DtoConverter<>(queryComposer, queryResultProvider, dtoSupplier).convert();
+		return convertNativeResult(queryComposer, dtoSupplier, (ParallelConversion) null);
+	}
+
+	@Override
+	public <DTO> QueryResult<DTO> convertNativeResult(QueryComposer queryComposer, Supplier<DTO> dtoSupplier, ParallelConversion parallelConversion) {
+		return readRows(queryComposer, queryResultProvider -> {
+			DtoConverter<DTO> converter = new DtoConverter<>(queryComposer, queryResultProvider, dtoSupplier);
+			converter.setParallelConversion(parallelConversion);
+			return converter.convert();
+		});
 	}
 
 	@Override
 	public <DTO1, DTO2> QueryResult<DTO2> convertNativeResult(QueryComposer queryComposer, Supplier<DTO1> dto1Supplier,
 			Function<DTO1, DTO2> dto1Dto2Converter) {
-		QueryResultProvider<Object[]> queryResultProvider = new NativeQueryResultProvider(entityManager);
-		return new DtoDtoConverter<>(queryComposer, queryResultProvider, dto1Supplier, dto1Dto2Converter).convert();
+		return convertNativeResult(queryComposer, dto1Supplier, dto1Dto2Converter, null);
+	}
+
+	@Override
+	public <DTO1, DTO2> QueryResult<DTO2> convertNativeResult(QueryComposer queryComposer, Supplier<DTO1> dto1Supplier,
+			Function<DTO1, DTO2> dto1Dto2Converter, ParallelConversion parallelConversion) {
+		return readRows(queryComposer, queryResultProvider -> {
+			DtoDtoConverter<DTO1, DTO2> converter = new DtoDtoConverter<>(queryComposer, queryResultProvider, dto1Supplier, dto1Dto2Converter);
+			converter.setParallelConversion(parallelConversion);
+			return converter.convert();
+		});
 	}
 
 	@Override
@@ -83,9 +149,63 @@ public abstract class BaseQueryManagerImpl implements QueryManager {
 		return convertNativeResult(queryComposer, dto1Supplier, dto1Dto2Converter).getResult();
 	}
 
+	@Override
+	public <T> Stream<T> streamEntities(QueryComposer queryComposer, Class<T> type, int fetchSize) {
+		QueryResultProvider<T> queryResultProvider = new JpaQueryResultProvider<T>(entityManager, type);
+		return new QueryResultBuilder<>(queryComposer, queryResultProvider).getStream(fetchSize);
+	}
+
+	@Override
+	public Stream<Object[]> streamNative(QueryComposer queryComposer, int fetchSize) {
+		return readRows(queryComposer, queryResultProvider -> new QueryResultBuilder<>(queryComposer, queryResultProvider).getStream(fetchSize));
+	}
+
+	@Override
+	public <T, DTO> Stream<DTO> streamDtos(QueryComposer queryComposer, Function<T, DTO> entityDtoConverter, Class<T> type, int fetchSize) {
+		QueryResultProvider<T> queryResultProvider = new JpaQueryResultProvider<T>(entityManager, type);
+		return new EntityDtoConverter<>(queryComposer, queryResultProvider, entityDtoConverter).convertStream(fetchSize);
+	}
+
+	@Override
+	public <DTO> Stream<DTO> streamDtos(QueryComposer queryComposer, Supplier<DTO> dtoSupplier, int fetchSize) {
+		return readRows(queryComposer, queryResultProvider -> new DtoConverter<>(queryComposer, queryResultProvider, dtoSupplier).convertStream(fetchSize));
+	}
+
+	@Override
+	public <DTO1, DTO2> Stream<DTO2> streamDtos(QueryComposer queryComposer, Supplier<DTO1> dto1Supplier,
+			Function<DTO1, DTO2> dto1Dto2Converter, int fetchSize) {
+		return readRows(queryComposer,
+				queryResultProvider -> new DtoDtoConverter<>(queryComposer, queryResultProvider, dto1Supplier, dto1Dto2Converter).convertStream(fetchSize));
+	}
+
+	/**
+	 * Rows of the JPA composer are read as projections of the select fields, instead of managed entities.
+	 * The projection mode is applied only for the reading: the composer is restored afterwards, so it can still be used for entity results.
+	 * Streams are safe as well, because their query, aliases and parameters are resolved before the stream is returned.
+	 */
+	private <R, E extends Exception> R readRows(QueryComposer queryComposer, RowReader<R, E> rowReader) throws E {
+		if (queryComposer.isNativeQuery()) {
+			return rowReader.read(new NativeQueryResultProvider(entityManager));
+		}
+		boolean projection = queryComposer.isProjection();
+		queryComposer.setProjection(true);
+		try {
+			return rowReader.read(new JpaProjectionResultProvider(entityManager));
+		} finally {
+			queryComposer.setProjection(projection);
+		}
+	}
+
 	@Override
 	public Query createNativeQuery(String sqlString) {
 		return entityManager.createNativeQuery(sqlString);
 	}
 
+	@FunctionalInterface
+	private interface RowReader<R, E extends Exception> {
+
+		R read(QueryResultProvider<Object[]> queryResultProvider) throws E;
+
+	}
+
 }
@@ -3,14 +3,22 @@
  */
 package skyglass.query.composer.bean;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import javax.persistence.Query;
 
 import skyglass.query.composer.QueryComposer;
 import skyglass.query.composer.QueryResult;
+import skyglass.query.composer.result.ColumnType;
+import skyglass.query.composer.result.ColumnarQueryResult;
+import skyglass.query.composer.result.ParallelConversion;
 
 public interface QueryManager {
 
@@ -18,15 +26,47 @@ public interface QueryManager {
 
 	public <T, DTO> QueryResult<DTO> getDtoResult(QueryComposer queryComposer, Function<T, DTO> entityDtoConverter, Class<T> type);
 
+	/**
+	 * Converts the large pages in parallel, if the caller declared its converters pure (see ParallelConversion)
+	 */
+	public <T, DTO> QueryResult<DTO> getDtoResult(QueryComposer queryComposer, Function<T, DTO> entityDtoConverter, Class<T> type,
+			ParallelConversion parallelConversion);
+
 	public <T> QueryResult<T> getEntityResult(QueryComposer queryComposer, Class<T> type);
 
+	/**
+	 * Row results of JPA composers are read as projections of the select fields, without loading managed entities
+	 * (see JpaProjectionResultProvider), only entity results load them
+	 */
 	public QueryResult<Object[]> getNativeResult(QueryComposer queryComposer);
 
+	/**
+	 * Native result stored by columns, see ColumnarQueryResult
+	 */
+	public ColumnarQueryResult getColumnarResult(QueryComposer queryComposer);
+
+	public ColumnarQueryResult getColumnarResult(QueryComposer queryComposer, Map<String, ColumnType> columnTypes);
+
+	/**
+	 * Writes the native result as JSON straight from the query rows, see JsonResultWriter
+	 */
+	public void writeNativeJson(QueryComposer queryComposer, OutputStream outputStream) throws IOException;
+
+	public void writeNativeJson(QueryComposer queryComposer, WritableByteChannel channel) throws IOException;
+
 	public <DTO> QueryResult<DTO> convertNativeResult(QueryComposer queryComposer, Supplier<DTO> dtoSupplier);
 
 	public <DTO1, DTO2> QueryResult<DTO2> convertNativeResult(QueryComposer queryComposer, Supplier<DTO1> dto1Supplier,
 			Function<DTO1, DTO2> dto1Dto2Converter);
 
+	/**
+	 * Converts the large pages in parallel, if the caller declared its converters pure (see ParallelConversion)
+	 */
+	public <DTO> QueryResult<DTO> convertNativeResult(QueryComposer queryComposer, Supplier<DTO> dtoSupplier, ParallelConversion parallelConversion);
+
+	public <DTO1, DTO2> QueryResult<DTO2> convertNativeResult(QueryComposer queryComposer, Supplier<DTO1> dto1Supplier,
+			Function<DTO1, DTO2> dto1Dto2Converter, ParallelConversion parallelConversion);
+
 	public <T, DTO> List<DTO> getDtoList(QueryComposer queryComposer, Function<T, DTO> entityDtoConverter, Class<T> type);
 
 	public <T> List<T> getEntityList(QueryComposer queryComposer, Class<T> type);
@@ -38,4 +78,20 @@ public interface QueryManager {
 	public <DTO1, DTO2> List<DTO2> convertNativeList(QueryComposer queryComposer, Supplier<DTO1> dto1Supplier,
 			Function<DTO1, DTO2> dto1Dto2Converter);
 
+	/**
+	 * Streaming variants read all rows lazily from a forward-only cursor, by fetchSize rows.
+	 * The stream should be consumed and closed within the transaction.
+	 * Streamed entities are detached by chunks, so entity streams should select plain root entities (see JpaQueryResultProvider.getStream()).
+	 */
+	public <T> Stream<T> streamEntities(QueryComposer queryComposer, Class<T> type, int fetchSize);
+
+	public Stream<Object[]> streamNative(QueryComposer queryComposer, int fetchSize);
+
+	public <T, DTO> Stream<DTO> streamDtos(QueryComposer queryComposer, Function<T, DTO> entityDtoConverter, Class<T> type, int fetchSize);
+
+	public <DTO> Stream<DTO> streamDtos(QueryComposer queryComposer, Supplier<DTO> dtoSupplier, int fetchSize);
+
+	public <DTO1, DTO2> Stream<DTO2> streamDtos(QueryComposer queryComposer, Supplier<DTO1> dto1Supplier,
+			Function<DTO1, DTO2> dto1Dto2Converter, int fetchSize);
+
 }
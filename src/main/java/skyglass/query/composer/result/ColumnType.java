@@ -0,0 +1,10 @@
+package skyglass.query.composer.result;
+
+/**
+ * Storage of a ColumnarQueryResult column: primitive array, dictionary-encoded array, or boxed values
+ */
+public enum ColumnType {
+
+	Int, Long, Double, Dictionary, Object;
+
+}
@@ -0,0 +1,322 @@
+package skyglass.query.composer.result;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Native query result, stored by columns instead of rows: numeric columns are kept in primitive arrays,
+ * string and enum columns are dictionary-encoded, other values are kept boxed (see ColumnType).
+ * Unless it is defined explicitly, the column type is taken from the first non-null value of the column.
+ * Primitive accessors return 0 for null values, use isNull() to distinguish them.
+ */
+public class ColumnarQueryResult implements Iterable<ColumnarQueryResult.Row>, Serializable {
+
+	private static final long serialVersionUID = 4713270650473963652L;
+
+	private final List<String> aliases;
+
+	private final Map<String, ColumnType> columnTypes;
+
+	private final Map<String, Integer> columnIndexes = new HashMap<>();
+
+	private ResultColumn[] columns;
+
+	// nulls preceding the first value of the column, while its type is not known yet
+	private int[] leadingNulls;
+
+	private int rowCount;
+
+	private int totalCount = -1;
+
+	private String continuationToken;
+
+	private Boolean hasNext;
+
+	ColumnarQueryResult(List<String> aliases, Map<String, ColumnType> columnTypes) {
+		this.aliases = new ArrayList<>(aliases);
+		this.columnTypes = columnTypes;
+		for (int i = 0; i < aliases.size(); i++) {
+			columnIndexes.putIfAbsent(aliases.get(i), i);
+		}
+	}
+
+	void addRow(Object row) {
+		Object[] values = row instanceof Object[] ? (Object[]) row : new Object[] { row };
+		if (columns == null) {
+			initColumns(values.length);
+		}
+		if (values.length != columns.length) {
+			throw new IllegalArgumentException("Row " + rowCount + " has " + values.length + " columns instead of " + columns.length);
+		}
+		for (int i = 0; i < values.length; i++) {
+			Object value = values[i];
+			if (columns[i] == null) {
+				if (value == null) {
+					leadingNulls[i]++;
+					continue;
+				}
+				columns[i] = ResultColumn.create(ResultColumn.getColumnType(value), getAlias(i));
+				columns[i].addNulls(leadingNulls[i]);
+			}
+			columns[i].add(value);
+		}
+		rowCount++;
+	}
+
+	void complete() {
+		if (columns == null) {
+			initColumns(aliases.size());
+		}
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] == null) {
+				columns[i] = ResultColumn.create(ColumnType.Object, getAlias(i));
+				columns[i].addNulls(leadingNulls[i]);
+			}
+			columns[i].trim();
+		}
+		leadingNulls = null;
+	}
+
+	private void initColumns(int columnCount) {
+		columns = new ResultColumn[columnCount];
+		leadingNulls = new int[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			ColumnType columnType = columnTypes.get(getAlias(i));
+			if (columnType != null) {
+				columns[i] = ResultColumn.create(columnType, getAlias(i));
+			}
+		}
+	}
+
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	public List<String> getAliases() {
+		return Collections.unmodifiableList(aliases);
+	}
+
+	public int getColumnIndex(String alias) {
+		Integer result = columnIndexes.get(alias);
+		if (result == null) {
+			throw new IllegalArgumentException("Column " + alias + " is not selected");
+		}
+		return result;
+	}
+
+	public ColumnType getColumnType(int column) {
+		return columns[column].getColumnType();
+	}
+
+	public boolean isNull(int row, int column) {
+		return getColumn(row, column).isNull(row);
+	}
+
+	public Object getValue(int row, int column) {
+		return getColumn(row, column).getValue(row);
+	}
+
+	public int getInt(int row, int column) {
+		return getColumn(row, column).getInt(row);
+	}
+
+	public long getLong(int row, int column) {
+		return getColumn(row, column).getLong(row);
+	}
+
+	public double getDouble(int row, int column) {
+		return getColumn(row, column).getDouble(row);
+	}
+
+	public String getString(int row, int column) {
+		return getColumn(row, column).getString(row);
+	}
+
+	/**
+	 * Dictionary code of the value of the dictionary column, or -1 for null. Equal values have equal codes, so the codes can be used for grouping.
+	 */
+	public int getDictionaryCode(int row, int column) {
+		return getColumn(row, column).getCode(row);
+	}
+
+	/**
+	 * Distinct values of the dictionary column, in the order of their codes
+	 */
+	public List<Object> getDictionary(int column) {
+		return getColumn(column, ResultColumn.DictionaryColumn.class).getDictionary();
+	}
+
+	/**
+	 * Backing array of the Int column, with one element per row. The array should not be modified.
+	 */
+	public int[] getIntColumn(int column) {
+		return getColumn(column, ResultColumn.IntColumn.class).getValues();
+	}
+
+	public long[] getLongColumn(int column) {
+		return getColumn(column, ResultColumn.LongColumn.class).getValues();
+	}
+
+	public double[] getDoubleColumn(int column) {
+		return getColumn(column, ResultColumn.DoubleColumn.class).getValues();
+	}
+
+	public Row getRow(int row) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", row count: " + rowCount);
+		}
+		return new Row(row);
+	}
+
+	/**
+	 * Iterates the rows with a single row view, which is moved to the next row on every next() call
+	 */
+	@Override
+	public Iterator<Row> iterator() {
+		return new Iterator<Row>() {
+
+			private final Row row = new Row(-1);
+
+			@Override
+			public boolean hasNext() {
+				return row.index + 1 < rowCount;
+			}
+
+			@Override
+			public Row next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				row.index++;
+				return row;
+			}
+		};
+	}
+
+	public int getTotalCount() {
+		return totalCount;
+	}
+
+	public void setTotalCount(int totalCount) {
+		this.totalCount = totalCount;
+	}
+
+	public String getContinuationToken() {
+		return continuationToken;
+	}
+
+	public void setContinuationToken(String continuationToken) {
+		this.continuationToken = continuationToken;
+	}
+
+	public Boolean getHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(Boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	private String getAlias(int column) {
+		return column < aliases.size() ? aliases.get(column) : null;
+	}
+
+	private ResultColumn getColumn(int row, int column) {
+		if (row < 0 || row >= rowCount) {
+			throw new IndexOutOfBoundsException("Row: " + row + ", row count: " + rowCount);
+		}
+		return columns[column];
+	}
+
+	private <C extends ResultColumn> C getColumn(int column, Class<C> columnClass) {
+		ResultColumn result = columns[column];
+		if (!columnClass.isInstance(result)) {
+			throw new UnsupportedOperationException("Column " + getAlias(column) + " has type " + result.getColumnType());
+		}
+		return columnClass.cast(result);
+	}
+
+	/**
+	 * View of one row of the result
+	 */
+	public class Row {
+
+		private int index;
+
+		private Row(int index) {
+			this.index = index;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		public boolean isNull(int column) {
+			return ColumnarQueryResult.this.isNull(index, column);
+		}
+
+		public boolean isNull(String alias) {
+			return isNull(getColumnIndex(alias));
+		}
+
+		public Object getValue(int column) {
+			return ColumnarQueryResult.this.getValue(index, column);
+		}
+
+		public Object getValue(String alias) {
+			return getValue(getColumnIndex(alias));
+		}
+
+		public int getInt(int column) {
+			return ColumnarQueryResult.this.getInt(index, column);
+		}
+
+		public int getInt(String alias) {
+			return getInt(getColumnIndex(alias));
+		}
+
+		public long getLong(int column) {
+			return ColumnarQueryResult.this.getLong(index, column);
+		}
+
+		public long getLong(String alias) {
+			return getLong(getColumnIndex(alias));
+		}
+
+		public double getDouble(int column) {
+			return ColumnarQueryResult.this.getDouble(index, column);
+		}
+
+		public double getDouble(String alias) {
+			return getDouble(getColumnIndex(alias));
+		}
+
+		public String getString(int column) {
+			return ColumnarQueryResult.this.getString(index, column);
+		}
+
+		public String getString(String alias) {
+			return getString(getColumnIndex(alias));
+		}
+
+		public Object[] toArray() {
+			Object[] result = new Object[getColumnCount()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = getValue(i);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,70 @@
+package skyglass.query.composer.result;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
+
+/**
+ * Builds ColumnarQueryResult of the native query. Paged results are copied from the page rows,
+ * unpaged results are read row by row from the forward-only cursor, so the full List<Object[]> is never materialized.
+ */
+public class ColumnarResultBuilder {
+
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	private final QueryComposer queryComposer;
+
+	private final QueryResultProvider<Object[]> queryResultProvider;
+
+	private final Map<String, ColumnType> columnTypes = new HashMap<>();
+
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+
+	public ColumnarResultBuilder(QueryComposer queryComposer, QueryResultProvider<Object[]> queryResultProvider) {
+		this.queryComposer = queryComposer;
+		this.queryResultProvider = queryResultProvider;
+	}
+
+	/**
+	 * Defines the column type explicitly, e.g. to store BigDecimal values as Double
+	 */
+	public ColumnarResultBuilder setColumnType(String alias, ColumnType columnType) {
+		columnTypes.put(alias, columnType);
+		return this;
+	}
+
+	public ColumnarResultBuilder setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	public ColumnarQueryResult build() {
+		QueryResultBuilder<Object[]> queryResultBuilder = new QueryResultBuilder<>(queryComposer, queryResultProvider);
+		ColumnarQueryResult result = new ColumnarQueryResult(QueryResultConverter.getAliases(queryComposer), columnTypes);
+		if (queryResultBuilder.getLimit() > 0) {
+			QueryResult<Object[]> page = queryResultBuilder.getResult();
+			if (page.getResult() != null) {
+				// rows are not cast to Object[]: single column queries return scalar values
+				for (Object row : (List<?>) page.getResult()) {
+					result.addRow(row);
+				}
+			}
+			result.setTotalCount(page.getTotalCount());
+			result.setContinuationToken(page.getContinuationToken());
+			result.setHasNext(page.getHasNext());
+		} else {
+			try (Stream<?> stream = queryResultBuilder.getStream(fetchSize)) {
+				stream.forEach(result::addRow);
+			}
+			result.setTotalCount(result.getRowCount());
+			result.setHasNext(false);
+		}
+		result.complete();
+		return result;
+	}
+
+}
@@ -0,0 +1,151 @@
+package skyglass.query.composer.result;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import skyglass.query.composer.util.PropertyAccessors;
+
+/**
+ * Sets the select field values of a result row to the properties of the target object.
+ * Setters, getters and value converters (see PropertyAccessors) are resolved once per (target class, select aliases) and cached,
+ * so no reflection is done per row.
+ */
+final class CompiledRowMapper {
+
+	private static final ClassValue<Map<List<String>, CompiledRowMapper>> MAPPERS = new ClassValue<Map<List<String>, CompiledRowMapper>>() {
+
+		@Override
+		protected Map<List<String>, CompiledRowMapper> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private final Class<?> targetType;
+
+	private final String[] aliases;
+
+	private final PropertySetter[] setters;
+
+	// getters of the last entity source class
+	private volatile SourceGetters sourceGetters;
+
+	private CompiledRowMapper(Class<?> targetType, List<String> aliases) {
+		this.targetType = targetType;
+		this.aliases = aliases.toArray(new String[0]);
+		this.setters = new PropertySetter[this.aliases.length];
+		for (int i = 0; i < this.aliases.length; i++) {
+			setters[i] = new PropertySetter(this.aliases[i], PropertyAccessors.getSetter(targetType, this.aliases[i]),
+					PropertyAccessors.getPropertyType(targetType, this.aliases[i]));
+		}
+	}
+
+	static CompiledRowMapper get(Class<?> targetType, List<String> aliases) {
+		Map<List<String>, CompiledRowMapper> mappers = MAPPERS.get(targetType);
+		CompiledRowMapper result = mappers.get(aliases);
+		if (result == null) {
+			result = mappers.computeIfAbsent(Collections.unmodifiableList(new ArrayList<>(aliases)), key -> new CompiledRowMapper(targetType, key));
+		}
+		return result;
+	}
+
+	Class<?> getTargetType() {
+		return targetType;
+	}
+
+	/**
+	 * Row is either the Object[] of native select fields, or an object with the select field properties
+	 */
+	void map(Object row, Object target) {
+		if (row instanceof Object[]) {
+			Object[] values = (Object[]) row;
+			for (int i = 0; i < setters.length; i++) {
+				if (values[i] != null) {
+					setters[i].set(target, values[i]);
+				}
+			}
+			return;
+		}
+		MethodHandle[] getters = getSourceGetters(row.getClass());
+		for (int i = 0; i < setters.length; i++) {
+			Object value = getValue(getters[i], row);
+			if (value != null) {
+				setters[i].set(target, value);
+			}
+		}
+	}
+
+	private MethodHandle[] getSourceGetters(Class<?> sourceType) {
+		SourceGetters result = sourceGetters;
+		if (result == null || result.sourceType != sourceType) {
+			MethodHandle[] getters = new MethodHandle[aliases.length];
+			for (int i = 0; i < aliases.length; i++) {
+				getters[i] = PropertyAccessors.getGetter(sourceType, aliases[i]);
+			}
+			result = new SourceGetters(sourceType, getters);
+			sourceGetters = result;
+		}
+		return result.getters;
+	}
+
+	private static Object getValue(MethodHandle getter, Object source) {
+		if (getter == null) {
+			return null;
+		}
+		try {
+			return (Object) getter.invokeExact(source);
+		} catch (Error ex) {
+			throw ex;
+		} catch (Throwable ex) {
+			return null;
+		}
+	}
+
+	private static final class PropertySetter {
+
+		private final String alias;
+
+		private final MethodHandle setter;
+
+		private final Function<Object, Object> converter;
+
+		private PropertySetter(String alias, MethodHandle setter, Class<?> type) {
+			this.alias = alias;
+			this.setter = setter;
+			this.converter = PropertyAccessors.getConverter(alias, type);
+		}
+
+		private void set(Object target, Object value) {
+			if (setter == null) {
+				throw new IllegalArgumentException("Could not set value of the property " + alias + " to " + value);
+			}
+			Object propValue = converter == null ? value : converter.apply(value);
+			try {
+				setter.invokeExact(target, propValue);
+			} catch (Error ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				throw new IllegalArgumentException("Could not set value of the property " + alias + " to " + propValue, ex);
+			}
+		}
+
+	}
+
+	private static final class SourceGetters {
+
+		private final Class<?> sourceType;
+
+		private final MethodHandle[] getters;
+
+		private SourceGetters(Class<?> sourceType, MethodHandle[] getters) {
+			this.sourceType = sourceType;
+			this.getters = getters;
+		}
+
+	}
+
+}
@@ -0,0 +1,260 @@
+package skyglass.query.composer.result;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import javax.persistence.TemporalType;
+
+import org.hibernate.Session;
+
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryParam;
+import skyglass.query.composer.util.QueryResultUtil;
+
+/**
+ * Runs count queries of QueryResultBuilder concurrently with the page query, each count on its own EntityManager.
+ * The count SQL and parameters are captured on the caller thread, so the composer is never accessed by the executor threads.
+ * The count runs outside of the transaction of the caller: it sees only committed data and not the uncommitted changes of the caller,
+ * so the total count may differ from the page read in the transaction. Don't use it, when the result should reflect the changes
+ * of the running transaction or a consistent snapshot (e.g. with the repeatable read isolation).
+ * A cancelled count cancels its running JDBC statement (Hibernate Session.cancelQuery()); setQueryTimeout() additionally
+ * limits the running time of the counts on the database.
+ */
+public class ConcurrentCountExecutor implements AutoCloseable {
+
+	private static final int QUEUE_SIZE_PER_THREAD = 16;
+
+	private static final String QUERY_TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private final ExecutorService executorService;
+
+	private final boolean ownsExecutor;
+
+	private volatile int queryTimeout;
+
+	/**
+	 * Bounded pool of daemon threads. When the pool and its queue are full, the count runs on the caller thread.
+	 */
+	public ConcurrentCountExecutor(EntityManagerFactory entityManagerFactory, int maxThreads) {
+		this(entityManagerFactory, createBoundedExecutor(maxThreads), true);
+	}
+
+	/**
+	 * Externally managed executor, which is not shut down by close()
+	 */
+	public ConcurrentCountExecutor(EntityManagerFactory entityManagerFactory, ExecutorService executorService) {
+		this(entityManagerFactory, executorService, false);
+	}
+
+	private ConcurrentCountExecutor(EntityManagerFactory entityManagerFactory, ExecutorService executorService, boolean ownsExecutor) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.executorService = executorService;
+		this.ownsExecutor = ownsExecutor;
+	}
+
+	/**
+	 * Uses virtual threads on JDK 21+, otherwise a bounded pool of maxThreads threads.
+	 * Virtual threads are not bounded, the number of concurrent counts is limited only by the connection pool.
+	 */
+	public static ConcurrentCountExecutor withVirtualThreads(EntityManagerFactory entityManagerFactory, int maxThreads) {
+		ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+		if (virtualThreadExecutor == null) {
+			return new ConcurrentCountExecutor(entityManagerFactory, maxThreads);
+		}
+		return new ConcurrentCountExecutor(entityManagerFactory, virtualThreadExecutor, true);
+	}
+
+	/**
+	 * Query timeout of the count queries in milliseconds (javax.persistence.query.timeout hint), 0 means no timeout
+	 */
+	public ConcurrentCountExecutor setQueryTimeout(int queryTimeout) {
+		this.queryTimeout = queryTimeout;
+		return this;
+	}
+
+	public int getQueryTimeout() {
+		return queryTimeout;
+	}
+
+	public Future<Integer> submitCount(QueryComposer queryComposer, boolean capped) {
+		String countSql = capped ? queryComposer.buildCappedCountPart() : queryComposer.buildCountPart();
+		List<QueryParam> params = new ArrayList<>(queryComposer.getParams());
+		boolean nativeQuery = queryComposer.isNativeQuery();
+		int maxResults = capped && !nativeQuery ? queryComposer.getCountCap() : -1;
+		CountTask countTask = new CountTask(new Count(countSql, params, nativeQuery, maxResults, queryTimeout));
+		executorService.execute(countTask);
+		return countTask;
+	}
+
+	public int getCount(Future<Integer> countFuture) {
+		try {
+			return countFuture.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for the count query", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new IllegalStateException("Count query failed", e.getCause());
+		}
+	}
+
+	@Override
+	public void close() {
+		if (ownsExecutor) {
+			executorService.shutdownNow();
+		}
+	}
+
+	private static int count(EntityManager entityManager, String countSql, Collection<QueryParam> params, boolean nativeQuery, int maxResults,
+			int queryTimeout) {
+		Query query = nativeQuery ? entityManager.createNativeQuery(countSql) : entityManager.createQuery(countSql);
+		for (QueryParam queryParam : params) {
+			if (nativeQuery && queryParam.getValue() instanceof Date) {
+				query.setParameter(queryParam.getName(), (Date) queryParam.getValue(), TemporalType.TIMESTAMP);
+			} else {
+				query.setParameter(queryParam.getName(), queryParam.getValue());
+			}
+		}
+		if (queryTimeout > 0) {
+			query.setHint(QUERY_TIMEOUT_HINT, queryTimeout);
+		}
+		if (maxResults >= 0) {
+			// capped JPA count: rows of the probe query are counted (see QueryComposer.buildCappedCountPart())
+			query.setMaxResults(maxResults);
+			return QueryResultUtil.getListResult(query).size();
+		}
+		Number result = (Number) QueryResultUtil.getSingleResult(query);
+		return result == null ? 0 : result.intValue();
+	}
+
+	private static Session getSession(EntityManager entityManager) {
+		try {
+			return entityManager.unwrap(Session.class);
+		} catch (PersistenceException e) {
+			// not a Hibernate EntityManager: the statement is not cancelled, only the query timeout applies
+			return null;
+		}
+	}
+
+	private static ExecutorService createBoundedExecutor(int maxThreads) {
+		AtomicInteger threadNumber = new AtomicInteger();
+		ThreadFactory threadFactory = runnable -> {
+			Thread thread = new Thread(runnable, "query-count-" + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		};
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60L, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<>(maxThreads * QUEUE_SIZE_PER_THREAD), threadFactory, new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) method.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	// interrupting the executor thread doesn't stop the statement, which is executed by the database, so cancel() also cancels the statement
+	private static class CountTask extends FutureTask<Integer> {
+
+		private final Count count;
+
+		private CountTask(Count count) {
+			super(count);
+			this.count = count;
+		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			// the statement is cancelled before the interrupt, which may complete the count and release its session
+			if (!isDone()) {
+				count.cancel();
+			}
+			return super.cancel(mayInterruptIfRunning);
+		}
+
+	}
+
+	private class Count implements Callable<Integer> {
+
+		private final String countSql;
+
+		private final Collection<QueryParam> params;
+
+		private final boolean nativeQuery;
+
+		private final int maxResults;
+
+		private final int queryTimeout;
+
+		private Session session;
+
+		private boolean cancelled;
+
+		private Count(String countSql, Collection<QueryParam> params, boolean nativeQuery, int maxResults, int queryTimeout) {
+			this.countSql = countSql;
+			this.params = params;
+			this.nativeQuery = nativeQuery;
+			this.maxResults = maxResults;
+			this.queryTimeout = queryTimeout;
+		}
+
+		@Override
+		public Integer call() {
+			EntityManager entityManager = entityManagerFactory.createEntityManager();
+			try {
+				synchronized (this) {
+					if (cancelled) {
+						return 0;
+					}
+					session = getSession(entityManager);
+				}
+				return count(entityManager, countSql, params, nativeQuery, maxResults, queryTimeout);
+			} finally {
+				synchronized (this) {
+					session = null;
+				}
+				entityManager.close();
+			}
+		}
+
+		private synchronized void cancel() {
+			cancelled = true;
+			if (session != null) {
+				try {
+					session.cancelQuery();
+				} catch (RuntimeException e) {
+					// the statement is already completed or the provider doesn't support the cancellation
+				}
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,24 @@
+package skyglass.query.composer.result;
+
+import java.util.Collection;
+
+/**
+ * Cache of total counts, used by QueryResultBuilder to skip repeated count queries of the same filtered list
+ */
+public interface CountCache {
+
+	public Integer get(CountCacheKey key);
+
+	/**
+	 * @param entityTypes entity types the count depends on, used by invalidate()
+	 */
+	public void put(CountCacheKey key, int count, Collection<Class<?>> entityTypes);
+
+	/**
+	 * Removes counts, which depend on the entity type or its subtypes
+	 */
+	public void invalidate(Class<?> entityType);
+
+	public void clear();
+
+}
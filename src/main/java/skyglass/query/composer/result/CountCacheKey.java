@@ -0,0 +1,81 @@
+package skyglass.query.composer.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import skyglass.query.composer.QueryParam;
+
+/**
+ * Count SQL with the bound parameter values, sorted by parameter name
+ */
+public final class CountCacheKey {
+
+	private final String countSql;
+
+	private final int countCap;
+
+	private final List<Object> params;
+
+	private final int hashCode;
+
+	private CountCacheKey(String countSql, int countCap, List<Object> params) {
+		this.countSql = countSql;
+		this.countCap = countCap;
+		this.params = params;
+		this.hashCode = 31 * (31 * countSql.hashCode() + countCap) + params.hashCode();
+	}
+
+	public static CountCacheKey create(String countSql, Collection<QueryParam> params) {
+		return create(countSql, -1, params);
+	}
+
+	public static CountCacheKey create(String countSql, int countCap, Collection<QueryParam> params) {
+		Map<String, Object> sortedParams = new TreeMap<>();
+		for (QueryParam param : params) {
+			sortedParams.put(param.getName(), getKeyValue(param.getValue()));
+		}
+		List<Object> keyParams = new ArrayList<>(sortedParams.size() * 2);
+		for (Map.Entry<String, Object> entry : sortedParams.entrySet()) {
+			keyParams.add(entry.getKey());
+			keyParams.add(entry.getValue());
+		}
+		return new CountCacheKey(countSql, countCap, keyParams);
+	}
+
+	private static Object getKeyValue(Object value) {
+		if (value instanceof Object[]) {
+			return Arrays.asList((Object[]) value);
+		}
+		if (value instanceof Collection && !(value instanceof List)) {
+			return new ArrayList<>((Collection<?>) value);
+		}
+		return value;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CountCacheKey)) {
+			return false;
+		}
+		CountCacheKey other = (CountCacheKey) obj;
+		return hashCode == other.hashCode && countCap == other.countCap && countSql.equals(other.countSql) && params.equals(other.params);
+	}
+
+	@Override
+	public String toString() {
+		return countSql + " " + params;
+	}
+
+}
@@ -0,0 +1,380 @@
+package skyglass.query.composer.result;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
+
+/**
+ * Writes the native query result as JSON, straight from the query rows, without DTOs or the JSON tree.
+ * The envelope has the same properties as QueryResult: the rows are written as objects keyed by the select aliases
+ * into "result", followed by "totalCount" and, for paged results, "hasNext" and "continuationToken".
+ * Unpaged results are read from the forward-only cursor by fetchSize rows; paged results hold one page of rows.
+ * Dates are written as epoch milliseconds, enums by name, byte arrays as Base64 strings, other non-numeric values as strings.
+ * Columns without select fields (e.g. of the queries composed without select fields) are keyed by their position: "column1", "column2", ...
+ * The writer reuses its byte buffer and isn't thread-safe.
+ */
+public class JsonResultWriter {
+
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	private static final byte[] NULL = bytes("null");
+
+	private static final byte[] TRUE = bytes("true");
+
+	private static final byte[] FALSE = bytes("false");
+
+	private static final byte[] HEX_DIGITS = bytes("0123456789abcdef");
+
+	private static final String POSITIONAL_KEY_PREFIX = "column";
+
+	private final QueryComposer queryComposer;
+
+	private final QueryResultProvider<Object[]> queryResultProvider;
+
+	private int fetchSize = DEFAULT_FETCH_SIZE;
+
+	private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+	private ByteBuffer buffer;
+
+	// "alias": of each column, the keys of the columns without select fields are added by the rows
+	private byte[][] keys;
+
+	// digits of the long value, written backwards
+	private final byte[] digits = new byte[20];
+
+	private Sink sink;
+
+	public JsonResultWriter(QueryComposer queryComposer, QueryResultProvider<Object[]> queryResultProvider) {
+		this.queryComposer = queryComposer;
+		this.queryResultProvider = queryResultProvider;
+	}
+
+	public JsonResultWriter setFetchSize(int fetchSize) {
+		this.fetchSize = fetchSize;
+		return this;
+	}
+
+	public JsonResultWriter setBufferSize(int bufferSize) {
+		if (bufferSize < 64) {
+			throw new IllegalArgumentException("Buffer size should be at least 64 bytes: " + bufferSize);
+		}
+		this.bufferSize = bufferSize;
+		this.buffer = null;
+		return this;
+	}
+
+	/**
+	 * Writes the result to the stream. The stream is flushed, but not closed.
+	 */
+	public void write(OutputStream outputStream) throws IOException {
+		write(new Sink() {
+
+			@Override
+			public void write(ByteBuffer buffer) throws IOException {
+				outputStream.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			}
+
+			@Override
+			public void flush() throws IOException {
+				outputStream.flush();
+			}
+		});
+	}
+
+	/**
+	 * Writes the result to the channel. The channel is not closed.
+	 */
+	public void write(WritableByteChannel channel) throws IOException {
+		write(new Sink() {
+
+			@Override
+			public void write(ByteBuffer buffer) throws IOException {
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+
+			@Override
+			public void flush() {
+			}
+		});
+	}
+
+	private void write(Sink sink) throws IOException {
+		this.sink = sink;
+		if (buffer == null) {
+			buffer = ByteBuffer.allocate(bufferSize);
+		}
+		buffer.clear();
+		initKeys();
+		try {
+			QueryResultBuilder<Object[]> queryResultBuilder = new QueryResultBuilder<>(queryComposer, queryResultProvider);
+			if (queryResultBuilder.getLimit() > 0) {
+				writePage(queryResultBuilder.getResult());
+			} else {
+				writeStream(queryResultBuilder);
+			}
+			flushBuffer();
+			sink.flush();
+		} finally {
+			this.sink = null;
+		}
+	}
+
+	private void writePage(QueryResult<Object[]> page) throws IOException {
+		writeAscii("{\"result\":[");
+		int rowCount = 0;
+		if (page.getResult() != null) {
+			// rows are not cast to Object[]: single column queries return scalar values
+			for (Object row : (List<?>) page.getResult()) {
+				writeRow(row, rowCount++);
+			}
+		}
+		writeAscii("],\"totalCount\":");
+		writeLong(page.getTotalCount());
+		if (page.getHasNext() != null) {
+			writeAscii(",\"hasNext\":");
+			writeBytes(page.getHasNext() ? TRUE : FALSE);
+		}
+		if (page.getContinuationToken() != null) {
+			writeAscii(",\"continuationToken\":");
+			writeString(page.getContinuationToken());
+		}
+		writeByte('}');
+	}
+
+	private void writeStream(QueryResultBuilder<Object[]> queryResultBuilder) throws IOException {
+		writeAscii("{\"result\":[");
+		int rowCount = 0;
+		try (Stream<?> stream = queryResultBuilder.getStream(fetchSize)) {
+			Iterator<?> iterator = stream.iterator();
+			while (iterator.hasNext()) {
+				writeRow(iterator.next(), rowCount++);
+			}
+		}
+		writeAscii("],\"totalCount\":");
+		writeLong(rowCount);
+		writeByte('}');
+	}
+
+	private void writeRow(Object row, int rowIndex) throws IOException {
+		if (rowIndex > 0) {
+			writeByte(',');
+		}
+		writeByte('{');
+		if (row instanceof Object[]) {
+			Object[] values = (Object[]) row;
+			for (int i = 0; i < values.length; i++) {
+				writeField(i, values[i]);
+			}
+		} else {
+			writeField(0, row);
+		}
+		writeByte('}');
+	}
+
+	private void writeField(int column, Object value) throws IOException {
+		if (column >= keys.length) {
+			addPositionalKeys(column + 1);
+		}
+		if (column > 0) {
+			writeByte(',');
+		}
+		writeBytes(keys[column]);
+		writeValue(value);
+	}
+
+	private void writeValue(Object value) throws IOException {
+		if (value == null) {
+			writeBytes(NULL);
+		} else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+			writeLong(((Number) value).longValue());
+		} else if (value instanceof Double || value instanceof Float) {
+			double doubleValue = ((Number) value).doubleValue();
+			if (Double.isNaN(doubleValue) || Double.isInfinite(doubleValue)) {
+				writeBytes(NULL);
+			} else {
+				writeAscii(value.toString());
+			}
+		} else if (value instanceof Number) {
+			writeAscii(value.toString());
+		} else if (value instanceof Boolean) {
+			writeBytes((Boolean) value ? TRUE : FALSE);
+		} else if (value instanceof Date) {
+			writeLong(((Date) value).getTime());
+		} else if (value instanceof Enum) {
+			writeString(((Enum<?>) value).name());
+		} else if (value instanceof CharSequence) {
+			writeString((CharSequence) value);
+		} else if (value instanceof byte[]) {
+			writeByte('"');
+			writeBytes(Base64.getEncoder().encode((byte[]) value));
+			writeByte('"');
+		} else {
+			writeString(value.toString());
+		}
+	}
+
+	private void writeString(CharSequence value) throws IOException {
+		writeByte('"');
+		int length = value.length();
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				writeByte('\\');
+				writeByte(c);
+			} else if (c < 0x20) {
+				writeControlChar(c);
+			} else if (c < 0x80) {
+				writeByte(c);
+			} else if (c < 0x800) {
+				writeByte(0xc0 | (c >> 6));
+				writeByte(0x80 | (c & 0x3f));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				writeByte(0xf0 | (codePoint >> 18));
+				writeByte(0x80 | ((codePoint >> 12) & 0x3f));
+				writeByte(0x80 | ((codePoint >> 6) & 0x3f));
+				writeByte(0x80 | (codePoint & 0x3f));
+			} else if (Character.isSurrogate(c)) {
+				// unpaired surrogate can't be encoded in UTF-8
+				writeByte('?');
+			} else {
+				writeByte(0xe0 | (c >> 12));
+				writeByte(0x80 | ((c >> 6) & 0x3f));
+				writeByte(0x80 | (c & 0x3f));
+			}
+		}
+		writeByte('"');
+	}
+
+	private void writeControlChar(char c) throws IOException {
+		writeByte('\\');
+		switch (c) {
+		case '\n':
+			writeByte('n');
+			break;
+		case '\r':
+			writeByte('r');
+			break;
+		case '\t':
+			writeByte('t');
+			break;
+		case '\b':
+			writeByte('b');
+			break;
+		case '\f':
+			writeByte('f');
+			break;
+		default:
+			writeAscii("u00");
+			writeByte(HEX_DIGITS[c >> 4]);
+			writeByte(HEX_DIGITS[c & 0xf]);
+		}
+	}
+
+	private void writeLong(long value) throws IOException {
+		if (value == Long.MIN_VALUE) {
+			writeAscii(Long.toString(value));
+			return;
+		}
+		if (value < 0) {
+			writeByte('-');
+			value = -value;
+		}
+		int position = digits.length;
+		do {
+			digits[--position] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while (value > 0);
+		for (int i = position; i < digits.length; i++) {
+			writeByte(digits[i]);
+		}
+	}
+
+	private void writeAscii(String value) throws IOException {
+		for (int i = 0; i < value.length(); i++) {
+			writeByte(value.charAt(i));
+		}
+	}
+
+	private void writeBytes(byte[] bytes) throws IOException {
+		for (byte b : bytes) {
+			writeByte(b);
+		}
+	}
+
+	private void writeByte(int b) throws IOException {
+		if (!buffer.hasRemaining()) {
+			flushBuffer();
+		}
+		buffer.put((byte) b);
+	}
+
+	private void flushBuffer() throws IOException {
+		buffer.flip();
+		if (buffer.hasRemaining()) {
+			sink.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	private void initKeys() {
+		List<String> aliases = QueryResultConverter.getAliases(queryComposer);
+		keys = new byte[aliases.size()][];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = renderKey(aliases.get(i));
+		}
+	}
+
+	private void addPositionalKeys(int columnCount) {
+		int oldLength = keys.length;
+		keys = Arrays.copyOf(keys, columnCount);
+		for (int i = oldLength; i < columnCount; i++) {
+			keys[i] = renderKey(POSITIONAL_KEY_PREFIX + (i + 1));
+		}
+	}
+
+	private static byte[] renderKey(String alias) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < alias.length(); i++) {
+			char c = alias.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\');
+			}
+			if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append("\":").toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+
+	private interface Sink {
+
+		void write(ByteBuffer buffer) throws IOException;
+
+		void flush() throws IOException;
+
+	}
+
+}
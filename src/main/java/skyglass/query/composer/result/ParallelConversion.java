@@ -0,0 +1,71 @@
+package skyglass.query.composer.result;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Parallel conversion settings of the result converters (see QueryResultConverter.setParallelConversion()).
+ * Pages of at least threshold rows are converted in the pool, preserving the row order.
+ * The conversion runs the code of the caller: entity and DTO converters, DTO suppliers and setters. It is run in parallel
+ * only if the converters are declared pure by withPureConverters(), otherwise pages are converted on the calling thread:
+ * converters touching lazy associations or other thread-bound state must run on the thread owning the persistence context.
+ */
+public class ParallelConversion {
+
+	private final ForkJoinPool pool;
+
+	private final int threshold;
+
+	private final boolean pureConverters;
+
+	private ParallelConversion(ForkJoinPool pool, int threshold, boolean pureConverters) {
+		if (pool == null) {
+			throw new IllegalArgumentException("Pool should be defined for the parallel conversion");
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("Parallel conversion threshold should be positive: " + threshold);
+		}
+		this.pool = pool;
+		this.threshold = threshold;
+		this.pureConverters = pureConverters;
+	}
+
+	public static ParallelConversion of(ForkJoinPool pool, int threshold) {
+		return new ParallelConversion(pool, threshold, false);
+	}
+
+	public static ParallelConversion common(int threshold) {
+		return of(ForkJoinPool.commonPool(), threshold);
+	}
+
+	/**
+	 * Declares that the converters, DTO suppliers and setters are thread-safe and don't touch the persistence context
+	 * (e.g. lazy associations), so they can be run in parallel
+	 */
+	public ParallelConversion withPureConverters() {
+		return new ParallelConversion(pool, threshold, true);
+	}
+
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	public int getThreshold() {
+		return threshold;
+	}
+
+	public boolean isPureConverters() {
+		return pureConverters;
+	}
+
+	<S, R> List<R> map(List<S> list, Function<S, R> converter) {
+		if (!pureConverters || list.size() < threshold) {
+			return list.stream().map(converter).collect(Collectors.toList());
+		}
+		// parallel stream, started from the pool task, is run by the pool threads
+		return pool.submit(() -> list.parallelStream().map(converter).collect(Collectors.toList())).join();
+	}
+
+}
@@ -0,0 +1,116 @@
+package skyglass.query.composer.result;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+import org.apache.commons.collections.CollectionUtils;
+
+import skyglass.query.composer.CountMode;
+import skyglass.query.composer.JpaQueryResultProvider;
+import skyglass.query.composer.NativeQueryResultProvider;
+import skyglass.query.composer.PagingMode;
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryRequestDTO;
+import skyglass.query.composer.QueryResult;
+
+/**
+ * Processes all rows of the composed query in chunks. Chunks are read with keyset paging, so each chunk query seeks
+ * from the order key of the previous chunk instead of skipping rows with an offset.
+ * Every chunk is read and processed in its own resource-local transaction, on a new EntityManager,
+ * so the persistence context doesn't grow between chunks.
+ * The paging and count settings of the composer are changed during processing and restored afterwards.
+ */
+public class QueryBatchProcessor<T> {
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private final Function<EntityManager, QueryResultProvider<T>> queryResultProviderFactory;
+
+	private Consumer<QueryBatchProgress> progressListener;
+
+	public QueryBatchProcessor(EntityManagerFactory entityManagerFactory, Function<EntityManager, QueryResultProvider<T>> queryResultProviderFactory) {
+		this.entityManagerFactory = entityManagerFactory;
+		this.queryResultProviderFactory = queryResultProviderFactory;
+	}
+
+	public static <T> QueryBatchProcessor<T> jpa(EntityManagerFactory entityManagerFactory, Class<T> type) {
+		return new QueryBatchProcessor<>(entityManagerFactory, entityManager -> new JpaQueryResultProvider<>(entityManager, type));
+	}
+
+	public static QueryBatchProcessor<Object[]> nativ(EntityManagerFactory entityManagerFactory) {
+		return new QueryBatchProcessor<>(entityManagerFactory, NativeQueryResultProvider::new);
+	}
+
+	/**
+	 * Called after each committed chunk, the checkpoint of the progress can be stored to resume processing later
+	 */
+	public QueryBatchProcessor<T> setProgressListener(Consumer<QueryBatchProgress> progressListener) {
+		this.progressListener = progressListener;
+		return this;
+	}
+
+	public QueryBatchProgress process(QueryComposer queryComposer, int chunkSize, BiConsumer<List<T>, EntityManager> chunkProcessor) {
+		return process(queryComposer, chunkSize, chunkProcessor, null);
+	}
+
+	/**
+	 * @param checkpoint checkpoint of the previous run (see QueryBatchProgress.getCheckpoint()), or null to start from the first row
+	 */
+	public QueryBatchProgress process(QueryComposer queryComposer, int chunkSize, BiConsumer<List<T>, EntityManager> chunkProcessor, String checkpoint) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("Chunk size should be positive: " + chunkSize);
+		}
+		QueryRequestDTO queryRequest = queryComposer.getQueryRequest();
+		PagingMode pagingMode = queryRequest.getPagingMode();
+		CountMode countMode = queryRequest.getCountMode();
+		Integer countCap = queryRequest.getCountCap();
+		int rowsPerPage = queryRequest.getRowsPerPage();
+		int pageNumber = queryRequest.getPageNumber();
+		String continuationToken = queryRequest.getContinuationToken();
+		queryComposer.setPagingMode(PagingMode.Keyset).setCountMode(CountMode.None).setRowsPerPage(chunkSize).setPageNumber(1);
+		try {
+			QueryBatchProgress progress = new QueryBatchProgress(checkpoint);
+			do {
+				queryComposer.setContinuationToken(progress.getCheckpoint());
+				QueryResult<T> chunk = processChunk(queryComposer, chunkProcessor);
+				progress.addChunk(chunk.getResult() == null ? 0 : chunk.getResult().size(), chunk.getContinuationToken());
+				if (progressListener != null) {
+					progressListener.accept(progress);
+				}
+			} while (!progress.isFinished());
+			return progress;
+		} finally {
+			queryComposer.setPagingMode(pagingMode).setCountMode(countMode).setRowsPerPage(rowsPerPage).setPageNumber(pageNumber)
+					.setContinuationToken(continuationToken);
+			queryRequest.setCountCap(countCap);
+		}
+	}
+
+	private QueryResult<T> processChunk(QueryComposer queryComposer, BiConsumer<List<T>, EntityManager> chunkProcessor) {
+		EntityManager entityManager = entityManagerFactory.createEntityManager();
+		EntityTransaction transaction = entityManager.getTransaction();
+		try {
+			transaction.begin();
+			QueryResult<T> chunk = new QueryResultBuilder<>(queryComposer, queryResultProviderFactory.apply(entityManager)).getResult();
+			if (CollectionUtils.isNotEmpty(chunk.getResult())) {
+				chunkProcessor.accept(chunk.getResult(), entityManager);
+			}
+			transaction.commit();
+			return chunk;
+		} catch (RuntimeException e) {
+			if (transaction.isActive()) {
+				transaction.rollback();
+			}
+			throw e;
+		} finally {
+			entityManager.close();
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package skyglass.query.composer.result;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Progress of QueryBatchProcessor, reported after each committed chunk
+ */
+public class QueryBatchProgress {
+
+	private final long startNanos = System.nanoTime();
+
+	private final String startCheckpoint;
+
+	private String checkpoint;
+
+	private int chunkCount;
+
+	private long rowCount;
+
+	private boolean finished;
+
+	QueryBatchProgress(String startCheckpoint) {
+		this.startCheckpoint = startCheckpoint;
+		this.checkpoint = startCheckpoint;
+	}
+
+	void addChunk(int chunkRows, String nextCheckpoint) {
+		this.chunkCount++;
+		this.rowCount += chunkRows;
+		this.checkpoint = nextCheckpoint;
+		this.finished = nextCheckpoint == null;
+	}
+
+	/**
+	 * Checkpoint the processing was started from, or null if it was started from the first row
+	 */
+	public String getStartCheckpoint() {
+		return startCheckpoint;
+	}
+
+	/**
+	 * Checkpoint of the next chunk. Processing can be resumed from it after failure. It is null when processing is finished.
+	 */
+	public String getCheckpoint() {
+		return checkpoint;
+	}
+
+	public boolean isFinished() {
+		return finished;
+	}
+
+	public int getChunkCount() {
+		return chunkCount;
+	}
+
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	public long getElapsedMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+	}
+
+	public double getRowsPerSecond() {
+		long elapsedNanos = System.nanoTime() - startNanos;
+		return elapsedNanos <= 0 ? 0 : rowCount * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d rows in %d chunks, %d ms, %.1f rows/s", rowCount, chunkCount, getElapsedMillis(), getRowsPerSecond());
+	}
+
+}
@@ -1,8 +1,16 @@
 package skyglass.query.composer.result;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
+import org.apache.commons.lang3.StringUtils;
+
+import skyglass.query.composer.ContinuationToken;
+import skyglass.query.composer.CountMode;
 import skyglass.query.composer.QueryComposer;
 import skyglass.query.composer.QueryRequestDTO;
 import skyglass.query.composer.QueryResult;
@@ -23,12 +31,22 @@ public class QueryResultBuilder<T> {
 
 	private int totalResults;
 
+	private boolean keysetPaging;
+
+	private boolean keysetSeek;
+
 	private QueryComposer queryComposer;
 
 	private QueryResultProvider<T> queryResultProvider;
 
 	private QueryRequestDTO queryRequest;
 
+	private ConcurrentCountExecutor countExecutor;
+
+	private CountCache countCache;
+
+	private List<Class<?>> countEntityTypes;
+
 	public QueryResultBuilder(QueryComposer queryComposer, QueryResultProvider<T> queryResultProvider) {
 		this.queryComposer = queryComposer;
 		this.queryResultProvider = queryResultProvider;
@@ -39,9 +57,29 @@ public class QueryResultBuilder<T> {
 			this.offset = queryRequest.getOffset();
 			this.limit = queryRequest.getLimit();
 		}
+		this.keysetPaging = queryComposer.isKeysetPaging();
+		this.keysetSeek = keysetPaging && this.queryRequest != null && StringUtils.isNotBlank(queryRequest.getContinuationToken());
 		this.distinct = queryComposer.isDistinct();
 	}
 
+	/**
+	 * Runs the count query concurrently with the page query. The count is cancelled, if the page shows that it is not needed.
+	 */
+	public QueryResultBuilder<T> setCountExecutor(ConcurrentCountExecutor countExecutor) {
+		this.countExecutor = countExecutor;
+		return this;
+	}
+
+	/**
+	 * Reuses total counts of the same count query and parameter values.
+	 * @param entityTypes entity types the count depends on, see CountCache.invalidate()
+	 */
+	public QueryResultBuilder<T> setCountCache(CountCache countCache, Class<?>... entityTypes) {
+		this.countCache = countCache;
+		this.countEntityTypes = Arrays.asList(entityTypes);
+		return this;
+	}
+
 	public int getPageNumber() {
 		return pageNumber;
 	}
@@ -59,26 +97,177 @@ public class QueryResultBuilder<T> {
 	}
 
 	public List<T> getFullResult() {
+		if (queryComposer.isEmptySearch()) {
+			return Collections.emptyList();
+		}
 		List<T> result = queryResultProvider.getUnpagedResult(queryComposer);
 		return result;
 	}
 
+	/**
+	 * Lazy stream of all rows, without paging. The stream should be closed after use.
+	 */
+	public Stream<T> getStream(int fetchSize) {
+		if (queryComposer.isEmptySearch()) {
+			return Stream.empty();
+		}
+		return queryResultProvider.getStream(queryComposer, fetchSize);
+	}
+
 	private QueryResult<T> pagedResult() {
-		int totalCount = returnTotalCount() ? queryResultProvider.getTotalCount(queryComposer) : -1;
+		if (queryComposer.isEmptySearch()) {
+			return getEmptyResult();
+		}
+		CountMode countMode = returnTotalCount() ? queryComposer.getCountMode() : null;
+		// JPA providers have no single statement form, so the count is read by a separate statement (see CountMode.Window)
+		if (countMode == CountMode.Window && (keysetSeek || !queryResultProvider.isWindowCountSupported(queryComposer))) {
+			countMode = CountMode.Exact;
+		}
+		boolean count = countMode != null && countMode != CountMode.None;
+		Integer cachedCount = count ? getCachedCount(countMode) : null;
+		if (countMode == CountMode.Window && cachedCount == null) {
+			return windowCountResult();
+		}
+		Future<Integer> countFuture = null;
+		if (count && cachedCount == null && countExecutor != null) {
+			countFuture = countExecutor.submitCount(queryComposer, countMode == CountMode.Capped);
+		}
+		try {
+			return pagedResult(countMode, cachedCount, countFuture);
+		} finally {
+			if (countFuture != null) {
+				countFuture.cancel(true);
+			}
+		}
+	}
+
+	private QueryResult<T> pagedResult(CountMode countMode, Integer cachedCount, Future<Integer> countFuture) {
+		int totalCount = -1;
+		if (cachedCount != null) {
+			totalCount = cachedCount;
+		} else if (countMode == CountMode.Exact && countFuture == null) {
+			totalCount = getCount(countMode, null);
+		}
 		QueryResult<T> result = new QueryResult<T>();
 		result.setTotalCount(totalCount);
 		if (totalCount == 0) {
+			result.setHasNext(false);
 			result.setResult(Collections.emptyList());
 			return result;
 		}
-		int firstResult = getFirstResult();
+		int firstResult = keysetPaging ? 0 : getFirstResult();
+		fetchPage(result, firstResult, countMode == CountMode.None || countMode == CountMode.Capped);
+		if (keysetPaging) {
+			result.setContinuationToken(Boolean.FALSE.equals(result.getHasNext()) ? null : getContinuationToken(result.getResult()));
+		}
+		if (countMode != null && countMode != CountMode.None) {
+			completeCount(result, countMode, firstResult, countFuture);
+		}
+		return result;
+	}
+
+	// page and total count, read by a single statement
+	private QueryResult<T> windowCountResult() {
+		int firstResult = keysetPaging ? 0 : getFirstResult();
+		QueryResult<T> result = queryResultProvider.getPagedResultWithCount(queryComposer, firstResult, getLimit());
+		if (result.getTotalCount() < 0) {
+			// empty page: the count is known only for the first page
+			result.setTotalCount(firstResult == 0 ? 0 : getCount(CountMode.Exact, null));
+		}
+		putCachedCount(CountMode.Window, result.getTotalCount());
+		int pageSize = result.getResult() == null ? 0 : result.getResult().size();
+		result.setHasNext(firstResult + pageSize < result.getTotalCount());
+		if (keysetPaging) {
+			result.setContinuationToken(Boolean.FALSE.equals(result.getHasNext()) ? null : getContinuationToken(result.getResult()));
+		}
+		return result;
+	}
+
+	// fetches one more row than the limit, when the existence of the next page should be known without the count query
+	private void fetchPage(QueryResult<T> result, int firstResult, boolean probeNext) {
+		int maxResults = probeNext ? getLimit() + 1 : getLimit();
 		if (distinct) {
-			List<String> uuidList = queryResultProvider.getUuidList(queryComposer, firstResult, getLimit());
+			List<String> uuidList = queryResultProvider.getUuidList(queryComposer, firstResult, maxResults);
+			if (probeNext && uuidList != null) {
+				result.setHasNext(uuidList.size() > getLimit());
+				uuidList = truncate(uuidList);
+			}
 			result.setResult(queryResultProvider.getResult(queryComposer, uuidList));
 		} else {
-			result.setResult(queryResultProvider.getPagedResult(queryComposer, firstResult, getLimit()));
+			List<T> rows = queryResultProvider.getPagedResult(queryComposer, firstResult, maxResults);
+			if (probeNext && rows != null) {
+				result.setHasNext(rows.size() > getLimit());
+				rows = truncate(rows);
+			}
+			result.setResult(rows);
 		}
-		return result;
+	}
+
+	private void completeCount(QueryResult<T> result, CountMode countMode, int firstResult, Future<Integer> countFuture) {
+		int pageSize = result.getResult() == null ? 0 : result.getResult().size();
+		// the page is the last one: total count is known without the count query
+		boolean lastPage = !keysetSeek && (pageSize > 0 || firstResult == 0)
+				&& (pageSize < getLimit() || Boolean.FALSE.equals(result.getHasNext()));
+		if (result.getTotalCount() < 0) {
+			if (lastPage) {
+				result.setTotalCount(firstResult + pageSize);
+				if (countMode != CountMode.Capped) {
+					putCachedCount(countMode, result.getTotalCount());
+				}
+			} else {
+				result.setTotalCount(getCount(countMode, countFuture));
+			}
+		}
+		if (countMode != CountMode.Capped && !keysetSeek) {
+			result.setHasNext(firstResult + pageSize < result.getTotalCount());
+		}
+	}
+
+	private int getCount(CountMode countMode, Future<Integer> countFuture) {
+		int count;
+		if (countFuture != null) {
+			count = countExecutor.getCount(countFuture);
+		} else if (countMode == CountMode.Capped) {
+			count = queryResultProvider.getCappedCount(queryComposer);
+		} else {
+			count = queryResultProvider.getTotalCount(queryComposer);
+		}
+		putCachedCount(countMode, count);
+		return count;
+	}
+
+	private Integer getCachedCount(CountMode countMode) {
+		return countCache == null ? null : countCache.get(getCountCacheKey(countMode));
+	}
+
+	private void putCachedCount(CountMode countMode, int count) {
+		if (countCache != null) {
+			countCache.put(getCountCacheKey(countMode), count, countEntityTypes);
+		}
+	}
+
+	private CountCacheKey getCountCacheKey(CountMode countMode) {
+		if (countMode == CountMode.Capped) {
+			return CountCacheKey.create(queryComposer.buildCappedCountPart(), queryComposer.getCountCap(), queryComposer.getParams());
+		}
+		return CountCacheKey.create(queryComposer.buildCountPart(), queryComposer.getParams());
+	}
+
+	private <E> List<E> truncate(List<E> list) {
+		return list.size() > getLimit() ? new ArrayList<>(list.subList(0, getLimit())) : list;
+	}
+
+	private String getContinuationToken(List<T> rows) {
+		if (getLimit() <= 0 || rows.size() < getLimit()) {
+			return null;
+		}
+		for (int i = rows.size() - 1; i >= 0; i--) {
+			T lastRow = rows.get(i);
+			if (lastRow != null) {
+				return ContinuationToken.encode(queryResultProvider.getKeyValues(queryComposer, lastRow));
+			}
+		}
+		return null;
 	}
 
 	protected QueryResult<T> getEmptyResult() {
@@ -97,7 +286,11 @@ public class QueryResultBuilder<T> {
 	}
 
 	public int getTotalCount() {
-		return queryResultProvider.getTotalCount(queryComposer);
+		if (queryComposer.isEmptySearch()) {
+			return 0;
+		}
+		Integer cachedCount = getCachedCount(CountMode.Exact);
+		return cachedCount == null ? getCount(CountMode.Exact, null) : cachedCount;
 	}
 
 	public boolean isNativeQuery() {
@@ -1,21 +1,18 @@
 package skyglass.query.composer.result;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.collections.CollectionUtils;
 
 import skyglass.query.composer.QueryComposer;
 import skyglass.query.composer.QueryResult;
 import skyglass.query.composer.SelectField;
 import skyglass.query.composer.config.Constants;
-import skyglass.query.composer.util.EnumUtil;
 
 class QueryResultConverter<T, DTO, DTO2> extends QueryResultBuilder<T> {
 
@@ -25,6 +22,8 @@ class QueryResultConverter<T, DTO, DTO2> extends QueryResultBuilder<T> {
 
 	private Function<DTO, DTO2> activeRecordDtoConverter;
 
+	private ParallelConversion parallelConversion;
+
 	QueryResultConverter(QueryComposer queryComposer, QueryResultProvider<T> queryResultProvider, Function<T, DTO2> dtoConverter) {
 		this(queryComposer, queryResultProvider, null, dtoConverter, null);
 	}
@@ -45,6 +44,14 @@ class QueryResultConverter<T, DTO, DTO2> extends QueryResultBuilder<T> {
 		this.activeRecordDtoConverter = activeRecordDtoConverter;
 	}
 
+	/**
+	 * Converts large pages in parallel, if the converters are declared pure (see ParallelConversion). Stream results are always converted sequentially.
+	 */
+	public QueryResultConverter<T, DTO, DTO2> setParallelConversion(ParallelConversion parallelConversion) {
+		this.parallelConversion = parallelConversion;
+		return this;
+	}
+
 	public QueryResult<DTO2> convert() {
 		return convertDtoList(getQueryStringBuilder(), getResult());
 	}
@@ -69,6 +76,8 @@ class QueryResultConverter<T, DTO, DTO2> extends QueryResultBuilder<T> {
 		QueryResult<DTO> result = new QueryResult<>();
 		result.setResult(activeRecordList);
 		result.setTotalCount(queryResult.getTotalCount());
+		result.setContinuationToken(queryResult.getContinuationToken());
+		result.setHasNext(queryResult.getHasNext());
 		return result;
 	}
 
@@ -88,60 +97,75 @@ class QueryResultConverter<T, DTO, DTO2> extends QueryResultBuilder<T> {
 		QueryResult<DTO2> result = new QueryResult<>();
 		result.setResult(dtoList);
 		result.setTotalCount(queryResult.getTotalCount());
+		result.setContinuationToken(queryResult.getContinuationToken());
+		result.setHasNext(queryResult.getHasNext());
 		return result;
 	}
 
+	/**
+	 * Lazy stream of all converted rows, without paging. Rows are read from the database cursor by fetchSize rows
+	 * and converted one by one. The stream should be closed after use.
+	 */
+	@SuppressWarnings("unchecked")
+	public Stream<DTO2> convertStream(int fetchSize) {
+		QueryComposer queryComposer = getQueryStringBuilder();
+		if (CollectionUtils.isNotEmpty(queryComposer.getSelectFields()) && activeRecordSupplier != null) {
+			List<String> aliases = getAliases(queryComposer);
+			return getStream(fetchSize).map(row -> {
+				DTO activeRecord = buildActiveRecord(aliases, row);
+				return activeRecordDtoConverter != null ? activeRecordDtoConverter.apply(activeRecord) : (DTO2) activeRecord;
+			});
+		}
+		if (entityDtoConverter != null) {
+			return getStream(fetchSize).map(entityDtoConverter);
+		}
+		throw new IllegalStateException("Converter is not defined for the stream result");
+	}
+
 	private List<DTO> buildActiveRecordFromSelectFields(QueryComposer queryComposer, QueryResult<T> queryResult) {
-		List<DTO> activeRecordList = new ArrayList<>();
+		List<String> aliases = getAliases(queryComposer);
+		if (parallelConversion != null) {
+			return parallelConversion.map(queryResult.getResult(), result -> buildActiveRecord(aliases, result));
+		}
+		List<DTO> activeRecordList = new ArrayList<>(queryResult.getResult().size());
 		for (T result : queryResult.getResult()) {
-			DTO activeRecord = this.activeRecordSupplier.get();
-			int i = 0;
-			for (SelectField selectField : queryComposer.getSelectFields()) {
-				Object propValue = getPropertyValue(result, getAlias(selectField), i);
-				if (propValue != null) {
-					try {
-						Field typeField = activeRecord.getClass().getDeclaredField(getAlias(selectField));
-						@SuppressWarnings("rawtypes")
-						Class typeClass = typeField.getType();
-						if (typeClass.isEnum()) {
-							propValue = EnumUtil.getEnumInstanceObject(propValue, typeClass);
-						}
-						PropertyUtils.setSimpleProperty(activeRecord, getAlias(selectField), getPropertyValue(result, getAlias(selectField), i));
-					} catch (IllegalAccessException | NoSuchMethodException 
-							| InvocationTargetException | NoSuchFieldException ex) {
-						throw new IllegalArgumentException("Could not set value of the property " + getAlias(selectField) + " to " + propValue, ex);
-					}
-				}
-				i++;
-			}
-			activeRecordList.add(activeRecord);
+			activeRecordList.add(buildActiveRecord(aliases, result));
 		}
 		return activeRecordList;
 	}
 
+	private DTO buildActiveRecord(List<String> aliases, T result) {
+		DTO activeRecord = this.activeRecordSupplier.get();
+		CompiledRowMapper.get(activeRecord.getClass(), aliases).map(result, activeRecord);
+		return activeRecord;
+	}
+
 	private List<DTO2> buildFromEntityDtoConverter(QueryResult<T> queryResult) {
+		if (parallelConversion != null) {
+			return parallelConversion.map(queryResult.getResult(), entityDtoConverter);
+		}
 		return queryResult.getResult().stream().map(t -> entityDtoConverter.apply(t)).collect(Collectors.toList());
 	}
 
 	private List<DTO2> buildFromActiveRecordDtoConverter(List<DTO> activeRecordList) {
+		if (parallelConversion != null) {
+			return parallelConversion.map(activeRecordList, activeRecordDtoConverter);
+		}
 		return activeRecordList.stream().map(t -> activeRecordDtoConverter.apply(t)).collect(Collectors.toList());
 	}
 
-	private Object getPropertyValue(T source, String alias, int index) {
-		Object value = null;
-		if (source instanceof Object[]) {
-			Object[] array = (Object[]) source;
-			return array[index];
-		}
-		try {
-			value = PropertyUtils.getSimpleProperty(source, alias);
-		} catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException ex) {
-			return null;
+	/**
+	 * Result aliases of the select fields, shared by the result converters and writers, so the uuid column has the same name in all results
+	 */
+	static List<String> getAliases(QueryComposer queryComposer) {
+		List<String> result = new ArrayList<>();
+		for (SelectField selectField : queryComposer.getSelectFields()) {
+			result.add(getAlias(selectField));
 		}
-		return value;
+		return result;
 	}
-	
-	private String getAlias(SelectField selectField) {
+
+	private static String getAlias(SelectField selectField) {
 		String result = selectField.getAlias();
 		if (Constants.UUID.equals(result)) {
 			return Constants.UUID_ALIAS;
@@ -1,8 +1,10 @@
 package skyglass.query.composer.result;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
 
 public interface QueryResultProvider<T> {
 
@@ -16,4 +18,40 @@ public interface QueryResultProvider<T> {
 
 	public List<String> getUuidList(QueryComposer builder, int firstResult, int maxResults);
 
+	/**
+	 * Total count, limited by the count cap of the composer (see CountMode.Capped)
+	 */
+	public default int getCappedCount(QueryComposer builder) {
+		return Math.min(getTotalCount(builder), builder.getCountCap());
+	}
+
+	/**
+	 * Whether the page and its total count can be read by a single statement (see CountMode.Window)
+	 */
+	public default boolean isWindowCountSupported(QueryComposer builder) {
+		return false;
+	}
+
+	/**
+	 * Page rows with the total count, read by a single statement. Total count is negative, if the page is empty,
+	 * because the count is selected with the rows.
+	 */
+	public default QueryResult<T> getPagedResultWithCount(QueryComposer builder, int firstResult, int maxResults) {
+		throw new UnsupportedOperationException("Window count is not supported by " + getClass().getSimpleName());
+	}
+
+	/**
+	 * Lazy stream of all rows, read from the database cursor by fetchSize rows. The stream should be closed after use.
+	 */
+	public default Stream<T> getStream(QueryComposer builder, int fetchSize) {
+		throw new UnsupportedOperationException("Streaming is not supported by " + getClass().getSimpleName());
+	}
+
+	/**
+	 * Order key values of the result row, used to create the continuation token of keyset paging
+	 */
+	public default Object[] getKeyValues(QueryComposer builder, Object row) {
+		throw new UnsupportedOperationException("Keyset paging is not supported by " + getClass().getSimpleName());
+	}
+
 }
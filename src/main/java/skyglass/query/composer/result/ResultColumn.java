@@ -0,0 +1,412 @@
+package skyglass.query.composer.result;
+
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import skyglass.query.composer.util.PropertyAccessors;
+
+/**
+ * Growable column of ColumnarQueryResult
+ */
+abstract class ResultColumn implements Serializable {
+
+	private static final long serialVersionUID = -6210417466542396734L;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	protected final String alias;
+
+	protected int size;
+
+	protected ResultColumn(String alias) {
+		this.alias = alias;
+	}
+
+	static ResultColumn create(ColumnType columnType, String alias) {
+		switch (columnType) {
+		case Int:
+			return new IntColumn(alias);
+		case Long:
+			return new LongColumn(alias);
+		case Double:
+			return new DoubleColumn(alias);
+		case Dictionary:
+			return new DictionaryColumn(alias);
+		default:
+			return new ObjectColumn(alias);
+		}
+	}
+
+	/**
+	 * Column type of the value, when it is not defined explicitly. BigDecimal values are kept boxed, unless the column is declared as Double.
+	 * BigInteger values out of the long range (e.g. of BIGINT UNSIGNED) are kept boxed as well.
+	 * Int and Long columns store only exact integral values: other values are rejected with IllegalArgumentException instead of truncated.
+	 */
+	static ColumnType getColumnType(Object value) {
+		if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			return ColumnType.Int;
+		}
+		if (value instanceof Long || (value instanceof BigInteger && ((BigInteger) value).bitLength() < Long.SIZE)) {
+			return ColumnType.Long;
+		}
+		if (value instanceof Double || value instanceof Float) {
+			return ColumnType.Double;
+		}
+		if (value instanceof String || value instanceof Character || value instanceof Enum) {
+			return ColumnType.Dictionary;
+		}
+		return ColumnType.Object;
+	}
+
+	abstract ColumnType getColumnType();
+
+	abstract void add(Object value);
+
+	abstract boolean isNull(int row);
+
+	abstract Object getValue(int row);
+
+	abstract void trim();
+
+	int getInt(int row) {
+		throw unsupported("int");
+	}
+
+	long getLong(int row) {
+		throw unsupported("long");
+	}
+
+	double getDouble(int row) {
+		throw unsupported("double");
+	}
+
+	int getCode(int row) {
+		throw unsupported("dictionary");
+	}
+
+	String getString(int row) {
+		Object value = getValue(row);
+		return value == null ? null : value.toString();
+	}
+
+	void addNulls(int count) {
+		for (int i = 0; i < count; i++) {
+			add(null);
+		}
+	}
+
+	protected int nextCapacity(int capacity) {
+		return capacity == 0 ? INITIAL_CAPACITY : capacity + (capacity >> 1);
+	}
+
+	protected Number toNumber(Object value) {
+		if (value instanceof Number) {
+			return (Number) value;
+		}
+		throw new IllegalArgumentException("Value " + value + " of the column " + alias + " is not a number");
+	}
+
+	private UnsupportedOperationException unsupported(String accessType) {
+		return new UnsupportedOperationException("Column " + alias + " of type " + getColumnType() + " doesn't support " + accessType + " access");
+	}
+
+	abstract static class NumberColumn extends ResultColumn {
+
+		private static final long serialVersionUID = 1927646306271590165L;
+
+		private final BitSet nulls = new BitSet();
+
+		protected NumberColumn(String alias) {
+			super(alias);
+		}
+
+		@Override
+		void add(Object value) {
+			ensureCapacity(size + 1);
+			if (value == null) {
+				nulls.set(size);
+			} else {
+				set(size, toNumber(value));
+			}
+			size++;
+		}
+
+		@Override
+		boolean isNull(int row) {
+			return nulls.get(row);
+		}
+
+		protected abstract void ensureCapacity(int capacity);
+
+		protected abstract void set(int row, Number value);
+
+	}
+
+	static class IntColumn extends NumberColumn {
+
+		private static final long serialVersionUID = -7453404738165622387L;
+
+		private int[] values = new int[0];
+
+		IntColumn(String alias) {
+			super(alias);
+		}
+
+		@Override
+		ColumnType getColumnType() {
+			return ColumnType.Int;
+		}
+
+		@Override
+		protected void ensureCapacity(int capacity) {
+			if (capacity > values.length) {
+				values = Arrays.copyOf(values, nextCapacity(values.length));
+			}
+		}
+
+		@Override
+		protected void set(int row, Number value) {
+			values[row] = PropertyAccessors.toExactInt(alias, value);
+		}
+
+		@Override
+		Object getValue(int row) {
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		int getInt(int row) {
+			return values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		int[] getValues() {
+			return values;
+		}
+
+		@Override
+		void trim() {
+			values = Arrays.copyOf(values, size);
+		}
+
+	}
+
+	static class LongColumn extends NumberColumn {
+
+		private static final long serialVersionUID = -2271536735866478512L;
+
+		private long[] values = new long[0];
+
+		LongColumn(String alias) {
+			super(alias);
+		}
+
+		@Override
+		ColumnType getColumnType() {
+			return ColumnType.Long;
+		}
+
+		@Override
+		protected void ensureCapacity(int capacity) {
+			if (capacity > values.length) {
+				values = Arrays.copyOf(values, nextCapacity(values.length));
+			}
+		}
+
+		@Override
+		protected void set(int row, Number value) {
+			values[row] = PropertyAccessors.toExactLong(alias, value);
+		}
+
+		@Override
+		Object getValue(int row) {
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		long getLong(int row) {
+			return values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		long[] getValues() {
+			return values;
+		}
+
+		@Override
+		void trim() {
+			values = Arrays.copyOf(values, size);
+		}
+
+	}
+
+	static class DoubleColumn extends NumberColumn {
+
+		private static final long serialVersionUID = 5583301954426263128L;
+
+		private double[] values = new double[0];
+
+		DoubleColumn(String alias) {
+			super(alias);
+		}
+
+		@Override
+		ColumnType getColumnType() {
+			return ColumnType.Double;
+		}
+
+		@Override
+		protected void ensureCapacity(int capacity) {
+			if (capacity > values.length) {
+				values = Arrays.copyOf(values, nextCapacity(values.length));
+			}
+		}
+
+		@Override
+		protected void set(int row, Number value) {
+			values[row] = value.doubleValue();
+		}
+
+		@Override
+		Object getValue(int row) {
+			return isNull(row) ? null : values[row];
+		}
+
+		@Override
+		double getDouble(int row) {
+			return values[row];
+		}
+
+		double[] getValues() {
+			return values;
+		}
+
+		@Override
+		void trim() {
+			values = Arrays.copyOf(values, size);
+		}
+
+	}
+
+	static class DictionaryColumn extends ResultColumn {
+
+		private static final long serialVersionUID = -4370709932264722046L;
+
+		private static final int NULL_CODE = -1;
+
+		private int[] codes = new int[0];
+
+		private final List<Object> dictionary = new ArrayList<>();
+
+		// only needed while the column is filled
+		private transient Map<Object, Integer> dictionaryCodes = new HashMap<>();
+
+		DictionaryColumn(String alias) {
+			super(alias);
+		}
+
+		@Override
+		ColumnType getColumnType() {
+			return ColumnType.Dictionary;
+		}
+
+		@Override
+		void add(Object value) {
+			if (size == codes.length) {
+				codes = Arrays.copyOf(codes, nextCapacity(codes.length));
+			}
+			codes[size++] = value == null ? NULL_CODE : dictionaryCodes.computeIfAbsent(value, key -> {
+				dictionary.add(key);
+				return dictionary.size() - 1;
+			});
+		}
+
+		@Override
+		boolean isNull(int row) {
+			return codes[row] == NULL_CODE;
+		}
+
+		@Override
+		Object getValue(int row) {
+			int code = codes[row];
+			return code == NULL_CODE ? null : dictionary.get(code);
+		}
+
+		@Override
+		int getCode(int row) {
+			return codes[row];
+		}
+
+		List<Object> getDictionary() {
+			return Collections.unmodifiableList(dictionary);
+		}
+
+		@Override
+		void trim() {
+			codes = Arrays.copyOf(codes, size);
+			dictionaryCodes = null;
+		}
+
+	}
+
+	private static class ObjectColumn extends ResultColumn {
+
+		private static final long serialVersionUID = 3018006187519930806L;
+
+		private Object[] values = new Object[0];
+
+		ObjectColumn(String alias) {
+			super(alias);
+		}
+
+		@Override
+		ColumnType getColumnType() {
+			return ColumnType.Object;
+		}
+
+		@Override
+		void add(Object value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, nextCapacity(values.length));
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		boolean isNull(int row) {
+			return values[row] == null;
+		}
+
+		@Override
+		Object getValue(int row) {
+			return values[row];
+		}
+
+		@Override
+		void trim() {
+			values = Arrays.copyOf(values, size);
+		}
+
+	}
+
+}
@@ -0,0 +1,89 @@
+package skyglass.query.composer.result;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import skyglass.query.composer.util.LruCache;
+
+/**
+ * Count cache with time-to-live and maximum size. When the maximum size is reached, the least recently used count is evicted.
+ * Counts without entity types are removed only by expiration or clear().
+ */
+public class TtlCountCache implements CountCache {
+
+	private final LruCache<CountCacheKey, Entry> cache;
+
+	private final long ttlNanos;
+
+	public TtlCountCache(long ttl, TimeUnit timeUnit, int maxSize) {
+		this.cache = new LruCache<>(maxSize);
+		this.ttlNanos = timeUnit.toNanos(ttl);
+	}
+
+	@Override
+	public Integer get(CountCacheKey key) {
+		Entry entry = cache.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired(System.nanoTime())) {
+			cache.remove(key);
+			return null;
+		}
+		return entry.count;
+	}
+
+	@Override
+	public void put(CountCacheKey key, int count, Collection<Class<?>> entityTypes) {
+		cache.put(key, new Entry(count, System.nanoTime() + ttlNanos, entityTypes));
+	}
+
+	@Override
+	public void invalidate(Class<?> entityType) {
+		cache.removeIf((key, entry) -> entry.dependsOn(entityType));
+	}
+
+	@Override
+	public void clear() {
+		cache.clear();
+	}
+
+	public int size() {
+		return cache.size();
+	}
+
+	private static class Entry {
+
+		private final int count;
+
+		private final long expiresAt;
+
+		private final Set<Class<?>> entityTypes;
+
+		private Entry(int count, long expiresAt, Collection<Class<?>> entityTypes) {
+			this.count = count;
+			this.expiresAt = expiresAt;
+			this.entityTypes = entityTypes == null ? null : new HashSet<>(entityTypes);
+		}
+
+		private boolean isExpired(long now) {
+			return now - expiresAt >= 0;
+		}
+
+		private boolean dependsOn(Class<?> entityType) {
+			if (entityTypes == null) {
+				return false;
+			}
+			for (Class<?> type : entityTypes) {
+				if (entityType.isAssignableFrom(type)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
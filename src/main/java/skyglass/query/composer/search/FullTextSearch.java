@@ -0,0 +1,125 @@
+package skyglass.query.composer.search;
+
+import java.util.Objects;
+import java.util.regex.Pattern;
+
+/**
+ * Dialect of the full-text search (see SearchType.FullText), which renders the full-text predicate and the rank of the search path.
+ * Full-text predicates are rendered for native queries only.
+ */
+public final class FullTextSearch {
+
+	private enum Dialect {
+		PostgreSQL, MySQL, H2
+	}
+
+	// the argument is rendered as the SQL string literal, so only plain (optionally schema qualified) identifiers are accepted
+	private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*");
+
+	private static final Pattern QUALIFIED_IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+	private final Dialect dialect;
+
+	//text search configuration for PostgreSQL, table name for H2
+	private final String argument;
+
+	private FullTextSearch(Dialect dialect, String argument) {
+		this.dialect = dialect;
+		this.argument = argument;
+	}
+
+	/**
+	 * to_tsvector(path) @@ plainto_tsquery(?param), with the default text search configuration of the database
+	 */
+	public static FullTextSearch postgreSql() {
+		return new FullTextSearch(Dialect.PostgreSQL, null);
+	}
+
+	/**
+	 * to_tsvector('config', path) @@ plainto_tsquery('config', ?param)
+	 */
+	public static FullTextSearch postgreSql(String config) {
+		return new FullTextSearch(Dialect.PostgreSQL, validate(config, QUALIFIED_IDENTIFIER, "text search configuration"));
+	}
+
+	/**
+	 * MATCH (path) AGAINST (?param IN NATURAL LANGUAGE MODE), the path should have the FULLTEXT index
+	 */
+	public static FullTextSearch mySql() {
+		return new FullTextSearch(Dialect.MySQL, null);
+	}
+
+	/**
+	 * Native full-text search of H2 (FT_SEARCH_DATA) in the table, indexed by FT_CREATE_INDEX.
+	 * The search path is the primary key column of the table, because H2 returns the keys of the found rows.
+	 */
+	public static FullTextSearch h2(String table) {
+		return new FullTextSearch(Dialect.H2, validate(table, IDENTIFIER, "table name"));
+	}
+
+	private static String validate(String argument, Pattern pattern, String description) {
+		if (argument == null || !pattern.matcher(argument).matches()) {
+			throw new IllegalArgumentException("Full-text search " + description + " should be an identifier: " + argument);
+		}
+		return argument;
+	}
+
+	public String getPredicate(String path, String param) {
+		switch (dialect) {
+		case PostgreSQL:
+			return getTsVector(path) + " @@ " + getTsQuery(param);
+		case MySQL:
+			return getMatch(path, param);
+		default:
+			return path + " IN (SELECT FT.KEYS[1] FROM FT_SEARCH_DATA(" + param + ", 0, 0) FT WHERE FT.TABLE = '" + argument + "')";
+		}
+	}
+
+	/**
+	 * Relevance of the path for the search parameter, higher values are more relevant
+	 */
+	public String getRank(String path, String param) {
+		switch (dialect) {
+		case PostgreSQL:
+			return "ts_rank(" + getTsVector(path) + ", " + getTsQuery(param) + ")";
+		case MySQL:
+			return getMatch(path, param);
+		default:
+			return "(SELECT MAX(FT.SCORE) FROM FT_SEARCH_DATA(" + param + ", 0, 0) FT WHERE FT.TABLE = '" + argument + "' AND FT.KEYS[1] = " + path + ")";
+		}
+	}
+
+	private String getTsVector(String path) {
+		return "to_tsvector(" + getConfig() + path + ")";
+	}
+
+	private String getTsQuery(String param) {
+		return "plainto_tsquery(" + getConfig() + param + ")";
+	}
+
+	private String getConfig() {
+		return argument == null ? "" : "'" + argument + "', ";
+	}
+
+	private static String getMatch(String path, String param) {
+		return "MATCH (" + path + ") AGAINST (" + param + " IN NATURAL LANGUAGE MODE)";
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(dialect, argument);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof FullTextSearch)) {
+			return false;
+		}
+		FullTextSearch other = (FullTextSearch) obj;
+		return dialect == other.dialect && Objects.equals(argument, other.argument);
+	}
+
+}
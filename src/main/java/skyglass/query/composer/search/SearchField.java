@@ -1,5 +1,7 @@
 package skyglass.query.composer.search;
 
+import java.util.List;
+
 import skyglass.query.composer.FieldResolver;
 
 /**
@@ -21,8 +23,19 @@ public class SearchField {
 
 	private String lang;
 
+	private TranslatableSearch translatableSearch;
+
+	private FullTextSearch fullTextSearch;
+
 	public SearchField(SearchTerm searchTerm, FieldResolver fieldResolver, String paramName,
 			SearchType searchType, boolean translatable, String lang) {
+		this(searchTerm, fieldResolver, paramName, searchType, translatable, lang, TranslatableSearch.allLanguages(), null);
+	}
+
+	public SearchField(SearchTerm searchTerm, FieldResolver fieldResolver, String paramName,
+			SearchType searchType, boolean translatable, String lang, TranslatableSearch translatableSearch, FullTextSearch fullTextSearch) {
+		this.translatableSearch = translatableSearch;
+		this.fullTextSearch = fullTextSearch;
 		this.searchTerm = searchTerm;
 		this.fieldResolver = fieldResolver;
 		this.paramName = paramName;
@@ -39,6 +52,10 @@ public class SearchField {
 		return paramName;
 	}
 
+	public void setParamName(String paramName) {
+		this.paramName = paramName;
+	}
+
 	public SearchType getSearchType() {
 		return searchType;
 	}
@@ -63,10 +80,28 @@ public class SearchField {
 		return !searchTerm.isNumeric() && SearchType.isIgnoreCase(searchType);
 	}
 
+	/**
+	 * Whether the full-text predicate is rendered (see SearchType.FullText). Numbers and comparisons are searched as usual.
+	 */
+	public boolean isFullText() {
+		return searchType == SearchType.FullText && searchTerm.getOperator().isText() && !searchTerm.isNumeric();
+	}
+
+	public FullTextSearch getFullTextSearch() {
+		return fullTextSearch;
+	}
+
 	public String getLang() {
 		return lang;
 	}
 
+	/**
+	 * Searched columns of the translation embeddable (see TranslatableSearch)
+	 */
+	public List<String> getTranslatedColumns() {
+		return translatableSearch.getColumns(lang);
+	}
+
 	public String getOperator() {
 		return searchTerm.getOperator().getSqlOperator();
 	}
@@ -0,0 +1,107 @@
+package skyglass.query.composer.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Predicate tree of the search part: single predicates, combined by AND and OR.
+ * Normalized tree has no nested nodes of the same type, no duplicate children and no nodes with a single child.
+ */
+final class SearchPredicate {
+
+	private final String predicate;
+
+	private final boolean or;
+
+	private final List<SearchPredicate> children;
+
+	private SearchPredicate(String predicate, boolean or, List<SearchPredicate> children) {
+		this.predicate = predicate;
+		this.or = or;
+		this.children = children;
+	}
+
+	static SearchPredicate predicate(String predicate) {
+		return new SearchPredicate(predicate, false, Collections.emptyList());
+	}
+
+	static SearchPredicate and(List<SearchPredicate> children) {
+		return new SearchPredicate(null, false, children);
+	}
+
+	static SearchPredicate or(List<SearchPredicate> children) {
+		return new SearchPredicate(null, true, children);
+	}
+
+	boolean isEmpty() {
+		return predicate == null && children.isEmpty();
+	}
+
+	SearchPredicate normalize() {
+		if (predicate != null) {
+			return this;
+		}
+		Set<SearchPredicate> result = new LinkedHashSet<>();
+		for (SearchPredicate child : children) {
+			SearchPredicate normalized = child.normalize();
+			if (normalized.predicate == null && normalized.or == or) {
+				// a OR (b OR c) is a OR b OR c, the same for AND
+				result.addAll(normalized.children);
+			} else if (!normalized.isEmpty()) {
+				result.add(normalized);
+			}
+		}
+		if (result.size() == 1) {
+			return result.iterator().next();
+		}
+		return new SearchPredicate(null, or, new ArrayList<>(result));
+	}
+
+	/**
+	 * @param wrapOr whether the OR node should be in parentheses, AND nodes don't need them, because AND takes precedence over OR
+	 */
+	void render(StringBuilder builder, boolean wrapOr) {
+		if (predicate != null) {
+			builder.append(predicate);
+			return;
+		}
+		boolean appendPars = or && wrapOr && children.size() > 1;
+		if (appendPars) {
+			builder.append("( ");
+		}
+		boolean first = true;
+		for (SearchPredicate child : children) {
+			if (first) {
+				first = false;
+			} else {
+				builder.append(or ? " OR " : " AND ");
+			}
+			child.render(builder, !or);
+		}
+		if (appendPars) {
+			builder.append(" )");
+		}
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(predicate, or, children);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SearchPredicate)) {
+			return false;
+		}
+		SearchPredicate other = (SearchPredicate) obj;
+		return or == other.or && Objects.equals(predicate, other.predicate) && children.equals(other.children);
+	}
+
+}
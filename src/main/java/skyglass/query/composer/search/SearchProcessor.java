@@ -2,8 +2,6 @@ package skyglass.query.composer.search;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.Pair;
@@ -15,38 +13,16 @@ import skyglass.query.composer.util.QuerySearchUtil;
 
 public class SearchProcessor {
 
-	private static final Pattern SEARCH_TERM_PATTERN = Pattern.compile("(\\w+?)(:|<|>|=|!)(\\**\\w+?\\**)(,|\\|)", Pattern.UNICODE_CHARACTER_CLASS);
-
+	/**
+	 * Search terms of the search string. The parsed search string is cached, field names are resolved by the builder for each call.
+	 */
 	public static Pair<Combination, List<SearchTerm>> parseSearch(QueryComposerBuilder builder, String searchTerm) {
-		List<SearchTerm> result = new ArrayList<>();
-		Combination combination = searchTerm.endsWith("|") ? Combination.Or : Combination.And;
-		String search = searchTerm.endsWith(",") ? searchTerm : (searchTerm.endsWith("|") ? searchTerm : (searchTerm + ","));
-		Matcher matcher = SEARCH_TERM_PATTERN.matcher(search);
-		boolean found = false;
-		SearchTerm previousSearchTerm = null;
-		SearchTerm lastSearchTerm = null;
-		while (matcher.find()) {
-			found = true;
-			previousSearchTerm = lastSearchTerm;
-			String field = matcher.group(1);
-			String alias = field;
-			field = builder.resolveSearchFieldName(field);
-			lastSearchTerm = new SearchTerm(field, alias, matcher.group(2), matcher.group(3), matcher.group(4));
-			result.add(lastSearchTerm);
-		}
-		if (!found) {
-			result.add(new SearchTerm(searchTerm));
-		} else {
-			if (previousSearchTerm != null) {
-				lastSearchTerm.adaptCombination(previousSearchTerm.getCombination());
-			}
-		}
-		return Pair.of(combination, result);
+		return SearchTemplate.forSearch(searchTerm).bind(builder::resolveSearchFieldName);
 	}
 
 	public static Object getExpression(SearchTerm searchTerm, SearchType searchType) {
 		SearchOperator operator = searchTerm.getOperator();
-		if (!operator.isText()) {
+		if (!operator.isText() || searchType == SearchType.FullText) {
 			return searchTerm.getValue();
 		}
 
@@ -68,6 +44,9 @@ public class SearchProcessor {
 	}
 
 	public static String getSearchPart(QueryComposer root, List<List<SearchBuilder>> searchBuilders, boolean and) {
+		if (root.isNormalizeSearch()) {
+			return getNormalizedSearchPart(root, searchBuilders, and);
+		}
 		StringBuilder builder = new StringBuilder();
 		boolean appendOuterPars = !and && searchBuilders.size() > 1;
 		boolean outerFirst = true;
@@ -137,6 +116,45 @@ public class SearchProcessor {
 
 	}
 
+	// the same conditions as getSearchPart(), with flattened AND and OR nodes and without duplicate predicates
+	private static String getNormalizedSearchPart(QueryComposer root, List<List<SearchBuilder>> searchBuilders, boolean and) {
+		List<SearchPredicate> groups = new ArrayList<>();
+		for (List<SearchBuilder> list : searchBuilders) {
+			List<SearchPredicate> andResult = getPredicates(root, andSearch(list));
+			List<SearchPredicate> orResult = getPredicates(root, orSearch(list));
+			if (orResult.size() == 1 && andResult.size() > 0) {
+				orResult.add(SearchPredicate.and(andResult));
+				groups.add(SearchPredicate.or(orResult));
+			} else if (orResult.size() > 1 && andResult.size() > 0) {
+				andResult.add(0, SearchPredicate.or(orResult));
+				groups.add(SearchPredicate.and(andResult));
+			} else {
+				groups.add(orResult.isEmpty() ? SearchPredicate.and(andResult) : SearchPredicate.or(orResult));
+			}
+		}
+		SearchPredicate predicate = (and ? SearchPredicate.and(groups) : SearchPredicate.or(groups)).normalize();
+		StringBuilder builder = new StringBuilder();
+		// the OR search part is put in parentheses by the composer
+		predicate.render(builder, and);
+		return builder.toString();
+	}
+
+	private static List<SearchPredicate> getPredicates(QueryComposer root, List<SearchBuilder> searchBuilders) {
+		List<SearchPredicate> result = new ArrayList<>();
+		for (SearchBuilder searchBuilder : searchBuilders) {
+			List<SearchPredicate> predicates = new ArrayList<>();
+			for (SearchField searchField : searchBuilder.getSearchFields()) {
+				for (String predicate : QuerySearchUtil.getSearchPredicates(root.isNativeQuery(), searchField)) {
+					predicates.add(SearchPredicate.predicate(predicate));
+				}
+			}
+			if (!predicates.isEmpty()) {
+				result.add(SearchPredicate.or(predicates));
+			}
+		}
+		return result;
+	}
+
 	private static List<SearchBuilder> andSearch(List<SearchBuilder> searchBuilders) {
 		return searchBuilders.stream().filter(s -> s.getSearchTerm().getCombination() == Combination.And).collect(Collectors.toList());
 	}
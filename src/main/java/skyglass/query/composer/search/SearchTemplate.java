@@ -0,0 +1,131 @@
+package skyglass.query.composer.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import skyglass.query.composer.util.LruCache;
+
+/**
+ * Parsed form of a search string: the combination and the search terms, with field names as they are written in the search string.
+ * Each search string is parsed once and cached, so the search of a request only binds the field names (see bind()).
+ */
+final class SearchTemplate {
+
+	static final int DEFAULT_CACHE_SIZE = 4096;
+
+	private static final LruCache<String, SearchTemplate> CACHE = new LruCache<>(DEFAULT_CACHE_SIZE);
+
+	private final Combination combination;
+
+	private final SearchTerm[] terms;
+
+	private SearchTemplate(Combination combination, List<SearchTerm> terms) {
+		this.combination = combination;
+		this.terms = terms.toArray(new SearchTerm[0]);
+	}
+
+	static SearchTemplate forSearch(String searchTerm) {
+		return CACHE.computeIfAbsent(searchTerm, SearchTemplate::parse);
+	}
+
+	/**
+	 * New search terms of the request, with the field names, returned by the resolver
+	 */
+	Pair<Combination, List<SearchTerm>> bind(Function<String, String> fieldNameResolver) {
+		List<SearchTerm> result = new ArrayList<>(terms.length);
+		for (SearchTerm term : terms) {
+			result.add(new SearchTerm(term, term.hasField() ? fieldNameResolver.apply(term.getAlias()) : null));
+		}
+		return Pair.of(combination, result);
+	}
+
+	//same matches as the pattern (\w+?)(:|<|>|=|!)(\**\w+?\**)(,|\|) in UNICODE_CHARACTER_CLASS mode
+	private static SearchTemplate parse(String searchTerm) {
+		Combination combination = searchTerm.endsWith("|") ? Combination.Or : Combination.And;
+		String search = searchTerm.endsWith(",") || searchTerm.endsWith("|") ? searchTerm : (searchTerm + ",");
+		List<SearchTerm> terms = new ArrayList<>();
+		int length = search.length();
+		int i = 0;
+		while (i < length) {
+			int codePoint = search.codePointAt(i);
+			if (!isWordChar(codePoint)) {
+				i += Character.charCount(codePoint);
+				continue;
+			}
+			//the field is the whole word: the match can't start inside of the word, if it doesn't start at the beginning
+			int fieldEnd = skipWord(search, i);
+			int end = parseTerm(search, i, fieldEnd, terms);
+			i = end < 0 ? fieldEnd : end;
+		}
+		if (terms.isEmpty()) {
+			terms.add(new SearchTerm(searchTerm));
+		} else if (terms.size() > 1) {
+			terms.get(terms.size() - 1).adaptCombination(terms.get(terms.size() - 2).getCombination());
+		}
+		return new SearchTemplate(combination, terms);
+	}
+
+	// returns the end of the term, or -1, if there is no term at the start
+	private static int parseTerm(String search, int start, int fieldEnd, List<SearchTerm> terms) {
+		int length = search.length();
+		if (fieldEnd >= length || !isOperatorChar(search.charAt(fieldEnd))) {
+			return -1;
+		}
+		int valueStart = fieldEnd + 1;
+		int i = skipAsterisks(search, valueStart);
+		int wordEnd = skipWord(search, i);
+		if (wordEnd == i) {
+			return -1;
+		}
+		int valueEnd = skipAsterisks(search, wordEnd);
+		if (valueEnd >= length || !isCombinationChar(search.charAt(valueEnd))) {
+			return -1;
+		}
+		String field = search.substring(start, fieldEnd);
+		terms.add(new SearchTerm(field, field, search.substring(fieldEnd, valueStart), search.substring(valueStart, valueEnd),
+				search.substring(valueEnd, valueEnd + 1)));
+		return valueEnd + 1;
+	}
+
+	private static int skipWord(String search, int start) {
+		int i = start;
+		while (i < search.length()) {
+			int codePoint = search.codePointAt(i);
+			if (!isWordChar(codePoint)) {
+				break;
+			}
+			i += Character.charCount(codePoint);
+		}
+		return i;
+	}
+
+	private static int skipAsterisks(String search, int start) {
+		int i = start;
+		while (i < search.length() && search.charAt(i) == '*') {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isOperatorChar(char c) {
+		return c == ':' || c == '<' || c == '>' || c == '=' || c == '!';
+	}
+
+	private static boolean isCombinationChar(char c) {
+		return c == ',' || c == '|';
+	}
+
+	//\w in UNICODE_CHARACTER_CLASS mode
+	private static boolean isWordChar(int codePoint) {
+		if (Character.isAlphabetic(codePoint) || Character.isDigit(codePoint)) {
+			return true;
+		}
+		int type = Character.getType(codePoint);
+		return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK || type == Character.COMBINING_SPACING_MARK
+				|| type == Character.CONNECTOR_PUNCTUATION || codePoint == 0x200C || codePoint == 0x200D;
+	}
+
+}
@@ -51,6 +51,19 @@ public class SearchTerm {
 		this.value = resolveValue(value, this.operator);
 	}
 
+	/**
+	 * Copy of the parsed search term, with the field name, resolved for the request
+	 */
+	SearchTerm(SearchTerm searchTerm, String field) {
+		this.field = field;
+		this.alias = searchTerm.alias;
+		this.operator = searchTerm.operator;
+		this.value = searchTerm.value;
+		this.stringValue = searchTerm.stringValue;
+		this.combination = searchTerm.combination;
+		this.valueType = searchTerm.valueType;
+	}
+
 	public String getField() {
 		return field;
 	}
@@ -88,17 +101,38 @@ public class SearchTerm {
 		Object result = value;
 		if (isNotStringValueEmpty()) {
 			if (operator.isNumeric() || operator == SearchOperator.Equal) {
-				try {
-					result = Integer.parseInt(value);
+				Integer number = parseInteger(value);
+				if (number != null) {
+					result = number;
 					this.valueType = SearchValueType.Integer;
-				} catch (NumberFormatException e) {
-
 				}
 			}
 		}
 		return result;
 	}
 
+	// same values as Integer.parseInt(), without the exception, if the value is not a number
+	private static Integer parseInteger(String value) {
+		int length = value.length();
+		int start = value.charAt(0) == '-' || value.charAt(0) == '+' ? 1 : 0;
+		if (start == length) {
+			return null;
+		}
+		long result = 0;
+		for (int i = start; i < length; i++) {
+			int digit = Character.digit(value.charAt(i), 10);
+			if (digit < 0) {
+				return null;
+			}
+			result = result * 10 + digit;
+			if (result > Integer.MAX_VALUE + 1L) {
+				return null;
+			}
+		}
+		result = start == 1 && value.charAt(0) == '-' ? -result : result;
+		return result < Integer.MIN_VALUE || result > Integer.MAX_VALUE ? null : (int) result;
+	}
+
 	public void adaptCombination(Combination combination) {
 		this.combination = combination;
 	}
@@ -2,10 +2,13 @@ package skyglass.query.composer.search;
 
 public enum SearchType {
 
-	IgnoreCase, StartsIgnoreCase, CaseSensitive;
+	IgnoreCase, StartsIgnoreCase, CaseSensitive,
+
+	// full-text predicate of the dialect, see QueryComposer.setFullTextSearch()
+	FullText;
 
 	public static boolean isIgnoreCase(SearchType searchType) {
-		return searchType != CaseSensitive;
+		return searchType != CaseSensitive && searchType != FullText;
 	}
 
 }
@@ -0,0 +1,87 @@
+package skyglass.query.composer.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.Metamodel;
+
+import skyglass.query.composer.config.Language;
+
+/**
+ * Defines, which columns of the translation embeddable are searched by the translatable search.
+ * By default, the columns of all languages are searched, which adds one predicate per language.
+ */
+public final class TranslatableSearch {
+
+	private static final TranslatableSearch ALL_LANGUAGES = new TranslatableSearch(false,
+			Stream.of(Language.values()).map(Language::getLanguageCode).collect(Collectors.toList()));
+
+	private final boolean requestLanguage;
+
+	//searched columns, or fallback languages of the request language
+	private final List<String> columns;
+
+	private TranslatableSearch(boolean requestLanguage, List<String> columns) {
+		this.requestLanguage = requestLanguage;
+		this.columns = Collections.unmodifiableList(columns);
+	}
+
+	public static TranslatableSearch allLanguages() {
+		return ALL_LANGUAGES;
+	}
+
+	/**
+	 * The language of the request, followed by the fallback languages
+	 */
+	public static TranslatableSearch requestLanguage(Language... fallbackLanguages) {
+		return new TranslatableSearch(true, Stream.of(fallbackLanguages).map(Language::getLanguageCode).collect(Collectors.toList()));
+	}
+
+	public static TranslatableSearch languages(Language... languages) {
+		return new TranslatableSearch(false, Stream.of(languages).map(Language::getLanguageCode).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Languages, which are mapped as attributes of the translation embeddable
+	 */
+	public static TranslatableSearch mappedLanguages(Metamodel metamodel, Class<?> embeddableType) {
+		Set<String> attributes = metamodel.embeddable(embeddableType).getAttributes().stream().map(Attribute::getName).collect(Collectors.toSet());
+		List<String> result = new ArrayList<>();
+		for (Language lang : Language.values()) {
+			if (attributes.contains(lang.getLanguageCode())) {
+				result.add(lang.getLanguageCode());
+			}
+		}
+		if (result.isEmpty()) {
+			throw new IllegalArgumentException("No language is mapped by " + embeddableType.getName());
+		}
+		return new TranslatableSearch(false, result);
+	}
+
+	/**
+	 * Single search column of the translation embeddable, e.g. with the precomputed text of all translations
+	 */
+	public static TranslatableSearch column(String column) {
+		return new TranslatableSearch(false, Collections.singletonList(column));
+	}
+
+	/**
+	 * Searched columns of the translation embeddable for the language of the request
+	 */
+	public List<String> getColumns(String lang) {
+		if (!requestLanguage) {
+			return columns;
+		}
+		Set<String> result = new LinkedHashSet<>();
+		result.add(Language.getByLanguageCode(lang).getLanguageCode());
+		result.addAll(columns);
+		return new ArrayList<>(result);
+	}
+
+}
@@ -0,0 +1,385 @@
+package skyglass.query.composer.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index of the search paths of an entity type, which narrows the contains search to the uuids of the candidate rows
+ * (see QueryComposer.setTrigramIndex()). Candidates contain all trigrams of the searched text in one of the indexed paths,
+ * so the search predicate is still applied to them by the query.
+ * Trigrams are case and accent insensitive, so the candidates include the rows, which LOWER() LIKE matches under the case or accent
+ * insensitive collations (e.g. utf8mb4_0900_ai_ci). Collations, which treat other characters as equal (e.g. expansions like ß and ss),
+ * are not supported: their matches may be missing from the candidates.
+ * The index is built by load() and kept current by put() and remove(), see BaseGenericService.addTrigramIndex().
+ * Suited for mostly read-only entity types: each change of an entity re-indexes all of its paths.
+ * <p>
+ * The index is local to the JVM, so it is meant for single-node deployments, where all changes of the entity type are made by this node.
+ * Otherwise, or after changes, which were not passed to the index, it should be invalidated: the invalid index doesn't narrow the search,
+ * so the queries fall back to the plain search predicate, until the index is loaded again.
+ */
+public final class TrigramIndex<T> {
+
+	private static final int MIN_COMPACTED_DOCUMENTS = 1024;
+
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+	// candidates are bound as the parameters of the IN list, which is limited by the drivers (2100 parameters of SQL Server)
+	public static final int DEFAULT_MAX_CANDIDATES = 1000;
+
+	private final Class<T> type;
+
+	private final Function<? super T, String> uuidAccessor;
+
+	private final Map<String, Function<? super T, ?>> paths = new LinkedHashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	//number of documents at index 0, followed by the ascending document numbers, which contain the trigram
+	private final Map<Long, int[]> postings = new HashMap<>();
+
+	private final Map<String, Integer> documents = new HashMap<>();
+
+	private String[] uuids = new String[16];
+
+	private long[][] documentTrigrams = new long[16][];
+
+	private int nextDocument;
+
+	private int removedDocuments;
+
+	private volatile int maxCandidates = DEFAULT_MAX_CANDIDATES;
+
+	private volatile boolean valid;
+
+	public TrigramIndex(Class<T> type, Function<? super T, String> uuidAccessor) {
+		this.type = type;
+		this.uuidAccessor = uuidAccessor;
+	}
+
+	/**
+	 * Indexed search path, as it is passed to the search of the composer (e.g. "sm.name"), with the accessor of its value
+	 */
+	public TrigramIndex<T> addPath(String path, Function<? super T, ?> valueAccessor) {
+		lock.writeLock().lock();
+		try {
+			if (!documents.isEmpty()) {
+				throw new IllegalStateException("Paths should be added before the index is loaded");
+			}
+			paths.put(path, valueAccessor);
+			return this;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public Class<T> getType() {
+		return type;
+	}
+
+	public Set<String> getPaths() {
+		return Collections.unmodifiableSet(paths.keySet());
+	}
+
+	/**
+	 * Maximum number of the candidates, which narrow the search. The search with more candidates is not narrowed.
+	 */
+	public TrigramIndex<T> setMaxCandidates(int maxCandidates) {
+		this.maxCandidates = maxCandidates;
+		return this;
+	}
+
+	public int getMaxCandidates() {
+		return maxCandidates;
+	}
+
+	/**
+	 * Replaces the content of the index by the entities, the loaded index is valid
+	 */
+	public void load(Collection<? extends T> entities) {
+		lock.writeLock().lock();
+		try {
+			doClear();
+			for (T entity : entities) {
+				doPut(entity);
+			}
+			valid = true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Marks the index as out of date, so it doesn't narrow the search until it is loaded again
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	public boolean isValid() {
+		return valid;
+	}
+
+	public void put(T entity) {
+		lock.writeLock().lock();
+		try {
+			doPut(entity);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void remove(T entity) {
+		remove(uuidAccessor.apply(entity));
+	}
+
+	public void remove(String uuid) {
+		lock.writeLock().lock();
+		try {
+			doRemove(uuid);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void clear() {
+		lock.writeLock().lock();
+		try {
+			doClear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return documents.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Uuids of the entities, which contain all trigrams of each text, or null if the search can't be narrowed:
+	 * the texts are shorter than a trigram, the index is not valid, or there are more than maxCandidates candidates
+	 */
+	public List<String> search(Collection<String> texts) {
+		long[] trigrams = getTrigrams(texts);
+		if (trigrams.length == 0) {
+			return null;
+		}
+		lock.readLock().lock();
+		try {
+			if (!valid) {
+				return null;
+			}
+			int[][] lists = new int[trigrams.length][];
+			for (int i = 0; i < trigrams.length; i++) {
+				lists[i] = postings.get(trigrams[i]);
+				if (lists[i] == null) {
+					return Collections.emptyList();
+				}
+			}
+			// the intersection starts from the shortest posting list
+			Arrays.sort(lists, (a, b) -> Integer.compare(a[0], b[0]));
+			int[] result = Arrays.copyOfRange(lists[0], 1, lists[0][0] + 1);
+			int size = result.length;
+			for (int i = 1; i < lists.length && size > 0; i++) {
+				size = retain(result, size, lists[i]);
+			}
+			if (size > maxCandidates) {
+				return null;
+			}
+			List<String> uuidList = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				uuidList.add(uuids[result[i]]);
+			}
+			return uuidList;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void doPut(T entity) {
+		String uuid = uuidAccessor.apply(entity);
+		if (uuid == null) {
+			throw new IllegalArgumentException("Indexed entity should have the uuid");
+		}
+		doRemove(uuid);
+		List<String> values = new ArrayList<>(paths.size());
+		for (Function<? super T, ?> valueAccessor : paths.values()) {
+			Object value = valueAccessor.apply(entity);
+			if (value != null) {
+				values.add(value.toString());
+			}
+		}
+		if (nextDocument == uuids.length) {
+			uuids = Arrays.copyOf(uuids, nextDocument * 2);
+			documentTrigrams = Arrays.copyOf(documentTrigrams, nextDocument * 2);
+		}
+		int document = nextDocument++;
+		long[] trigrams = getTrigrams(values);
+		uuids[document] = uuid;
+		documentTrigrams[document] = trigrams;
+		documents.put(uuid, document);
+		for (long trigram : trigrams) {
+			addPosting(trigram, document);
+		}
+	}
+
+	private void doRemove(String uuid) {
+		Integer document = documents.remove(uuid);
+		if (document == null) {
+			return;
+		}
+		for (long trigram : documentTrigrams[document]) {
+			removePosting(trigram, document);
+		}
+		uuids[document] = null;
+		documentTrigrams[document] = null;
+		removedDocuments++;
+		if (removedDocuments >= MIN_COMPACTED_DOCUMENTS && removedDocuments > documents.size()) {
+			compact();
+		}
+	}
+
+	private void doClear() {
+		postings.clear();
+		documents.clear();
+		uuids = new String[16];
+		documentTrigrams = new long[16][];
+		nextDocument = 0;
+		removedDocuments = 0;
+	}
+
+	// renumbers the documents without the removed ones, the order of the documents doesn't change
+	private void compact() {
+		String[] oldUuids = uuids;
+		long[][] oldDocumentTrigrams = documentTrigrams;
+		int oldNextDocument = nextDocument;
+		postings.clear();
+		documents.clear();
+		int capacity = Math.max(16, Integer.highestOneBit(Math.max(1, oldNextDocument - removedDocuments)) << 1);
+		uuids = new String[capacity];
+		documentTrigrams = new long[capacity][];
+		nextDocument = 0;
+		removedDocuments = 0;
+		for (int i = 0; i < oldNextDocument; i++) {
+			if (oldUuids[i] != null) {
+				int document = nextDocument++;
+				uuids[document] = oldUuids[i];
+				documentTrigrams[document] = oldDocumentTrigrams[i];
+				documents.put(oldUuids[i], document);
+				for (long trigram : oldDocumentTrigrams[i]) {
+					addPosting(trigram, document);
+				}
+			}
+		}
+	}
+
+	// documents are added in the ascending order, so the posting list stays sorted
+	private void addPosting(long trigram, int document) {
+		int[] posting = postings.get(trigram);
+		if (posting == null) {
+			posting = new int[2];
+			postings.put(trigram, posting);
+		} else if (posting[0] + 1 == posting.length) {
+			posting = Arrays.copyOf(posting, posting.length * 2);
+			postings.put(trigram, posting);
+		}
+		posting[++posting[0]] = document;
+	}
+
+	private void removePosting(long trigram, int document) {
+		int[] posting = postings.get(trigram);
+		if (posting == null) {
+			return;
+		}
+		int size = posting[0];
+		int index = Arrays.binarySearch(posting, 1, size + 1, document);
+		if (index < 0) {
+			return;
+		}
+		if (size == 1) {
+			postings.remove(trigram);
+			return;
+		}
+		System.arraycopy(posting, index + 1, posting, index, size - index);
+		posting[0] = size - 1;
+	}
+
+	// keeps the first size documents of the result, which are contained in the posting list, and returns their number
+	private static int retain(int[] result, int size, int[] posting) {
+		int postingSize = posting[0];
+		int retained = 0;
+		int j = 1;
+		for (int i = 0; i < size; i++) {
+			int document = result[i];
+			while (j <= postingSize && posting[j] < document) {
+				j++;
+			}
+			if (j > postingSize) {
+				break;
+			}
+			if (posting[j] == document) {
+				result[retained++] = document;
+			}
+		}
+		return retained;
+	}
+
+	// distinct ascending trigrams of the lower-cased texts, a trigram doesn't span two texts
+	private static long[] getTrigrams(Collection<String> texts) {
+		long[] result = new long[16];
+		int size = 0;
+		for (String text : texts) {
+			if (text == null) {
+				continue;
+			}
+			String lowerCase = fold(text);
+			for (int i = 0; i + 3 <= lowerCase.length(); i++) {
+				if (size == result.length) {
+					result = Arrays.copyOf(result, size * 2);
+				}
+				result[size++] = ((long) lowerCase.charAt(i) << 32) | ((long) lowerCase.charAt(i + 1) << 16) | lowerCase.charAt(i + 2);
+			}
+		}
+		Arrays.sort(result, 0, size);
+		int distinct = 0;
+		for (int i = 0; i < size; i++) {
+			if (distinct == 0 || result[distinct - 1] != result[i]) {
+				result[distinct++] = result[i];
+			}
+		}
+		return Arrays.copyOf(result, distinct);
+	}
+
+	// Locale.ROOT lower case doesn't match LOWER() of the database for all locales: e.g. Turkish collations lower-case I to the dotless i,
+	// while Java lower-cases the dotted capital I to i with the combining dot. Accent insensitive collations also match e to é.
+	// So the diacritics are removed and both i are folded to the same letter, which only adds candidates,
+	// as the query applies the search predicate to them
+	private static String fold(String text) {
+		String result = text.toLowerCase(Locale.ROOT);
+		for (int i = 0; i < result.length(); i++) {
+			if (result.charAt(i) >= 0x80) {
+				result = COMBINING_MARKS.matcher(Normalizer.normalize(result, Normalizer.Form.NFD)).replaceAll("");
+				return result.replace('\u0131', 'i');
+			}
+		}
+		return result;
+	}
+
+}
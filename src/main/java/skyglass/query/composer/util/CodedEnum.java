@@ -0,0 +1,11 @@
+package skyglass.query.composer.util;
+
+/**
+ * Enum stored in the database by custom codes instead of names or ordinals (see EnumDecoder).
+ * Codes should be strings or integral numbers, unique within the enum.
+ */
+public interface CodedEnum {
+
+	Object getCode();
+
+}
@@ -0,0 +1,170 @@
+package skyglass.query.composer.util;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Lookup tables of the enum constants, computed once per enum class.
+ * Decodes constant names, custom codes of CodedEnum and ordinals (numbers), without allocation per value,
+ * so ordinal columns can be selected as they are and decoded in Java instead of the SQL CASE expression of QueryFunctions.ordinalToString().
+ * Numbers are decoded as custom codes, if the enum is a CodedEnum with numeric codes, otherwise as ordinals.
+ */
+public final class EnumDecoder<E extends Enum<E>> {
+
+	private static final ClassValue<EnumDecoder<?>> DECODERS = new ClassValue<EnumDecoder<?>>() {
+
+		@Override
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		protected EnumDecoder<?> computeValue(Class<?> type) {
+			return new EnumDecoder(type);
+		}
+	};
+
+	private final Class<E> enumClass;
+
+	private final E[] constants;
+
+	private final Map<String, E> stringLookup = new HashMap<>();
+
+	// sorted numeric codes and the constants of the same index
+	private final long[] numericCodes;
+
+	private final E[] numericCodeConstants;
+
+	private EnumDecoder(Class<E> enumClass) {
+		this.enumClass = enumClass;
+		this.constants = enumClass.getEnumConstants();
+		if (constants == null) {
+			throw new IllegalArgumentException(enumClass.getName() + " is not an enum class");
+		}
+		for (E constant : constants) {
+			stringLookup.put(constant.name(), constant);
+		}
+		Map<Long, E> numericLookup = new HashMap<>();
+		if (CodedEnum.class.isAssignableFrom(enumClass)) {
+			for (E constant : constants) {
+				addCode(constant, ((CodedEnum) constant).getCode(), numericLookup);
+			}
+		}
+		this.numericCodes = new long[numericLookup.size()];
+		this.numericCodeConstants = Arrays.copyOf(constants, numericLookup.size());
+		int i = 0;
+		for (Long code : numericLookup.keySet().stream().sorted().toArray(Long[]::new)) {
+			numericCodes[i] = code;
+			numericCodeConstants[i++] = numericLookup.get(code);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <E extends Enum<E>> EnumDecoder<E> of(Class<E> enumClass) {
+		return (EnumDecoder<E>) DECODERS.get(enumClass);
+	}
+
+	/**
+	 * Decoder of the enum class, which is not known at compile time
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public static EnumDecoder<?> ofClass(Class<?> enumClass) {
+		return of((Class) enumClass);
+	}
+
+	public Class<E> getEnumClass() {
+		return enumClass;
+	}
+
+	/**
+	 * Constant of the enum instance, name, custom code or ordinal, or null for null and blank values
+	 */
+	public E decode(Object value) {
+		if (value == null) {
+			return null;
+		}
+		if (enumClass.isInstance(value)) {
+			return enumClass.cast(value);
+		}
+		if (value instanceof Number) {
+			return decodeNumber((Number) value);
+		}
+		if (value instanceof String) {
+			return decodeString((String) value);
+		}
+		return decodeString(value.toString());
+	}
+
+	public E decodeOrdinal(int ordinal) {
+		if (ordinal < 0 || ordinal >= constants.length) {
+			throw new IllegalArgumentException("No enum constant " + enumClass.getName() + " with ordinal " + ordinal);
+		}
+		return constants[ordinal];
+	}
+
+	private E decodeNumber(Number value) {
+		if (numericCodes.length == 0) {
+			return decodeOrdinal(toInt(value));
+		}
+		int index = Arrays.binarySearch(numericCodes, toLong(value));
+		if (index < 0) {
+			throw new IllegalArgumentException("No enum constant " + enumClass.getName() + " with code " + value);
+		}
+		return numericCodeConstants[index];
+	}
+
+	private E decodeString(String value) {
+		E result = stringLookup.get(value);
+		if (result != null) {
+			return result;
+		}
+		if (StringUtils.isBlank(value)) {
+			return null;
+		}
+		throw new IllegalArgumentException("No enum constant " + enumClass.getName() + "." + value);
+	}
+
+	private void addCode(E constant, Object code, Map<Long, E> numericLookup) {
+		if (code == null) {
+			return;
+		}
+		E previous = code instanceof Number ? numericLookup.put(toLong((Number) code), constant) : putStringCode(code.toString(), constant);
+		if (previous != null && previous != constant) {
+			throw new IllegalArgumentException("Code " + code + " is used by " + previous + " and " + constant + " of " + enumClass.getName());
+		}
+	}
+
+	private E putStringCode(String code, E constant) {
+		E previous = stringLookup.get(code);
+		if (previous == null) {
+			stringLookup.put(code, constant);
+		}
+		return previous;
+	}
+
+	private int toInt(Number value) {
+		long result = toLong(value);
+		if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("No enum constant " + enumClass.getName() + " with ordinal " + value);
+		}
+		return (int) result;
+	}
+
+	private long toLong(Number value) {
+		if (value instanceof BigDecimal) {
+			try {
+				return ((BigDecimal) value).longValueExact();
+			} catch (ArithmeticException ex) {
+				throw new IllegalArgumentException("Enum value " + value + " of " + enumClass.getName() + " is not integral", ex);
+			}
+		}
+		if (value instanceof Double || value instanceof Float) {
+			double doubleValue = value.doubleValue();
+			if (doubleValue != Math.rint(doubleValue)) {
+				throw new IllegalArgumentException("Enum value " + value + " of " + enumClass.getName() + " is not integral");
+			}
+		}
+		return value.longValue();
+	}
+
+}
@@ -1,25 +1,15 @@
 package skyglass.query.composer.util;
 
-import org.apache.commons.lang3.StringUtils;
-
 public class EnumUtil {
 
 
-	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@SuppressWarnings({ "rawtypes" })
 	public static Object getEnumInstanceObject(Object value, Class enumClass) {
-		String stringValue = value == null ? null : value.toString();
-		if (StringUtils.isBlank(stringValue)) {
-			return null;
-		}
-		return Enum.valueOf(enumClass, stringValue);
+		return EnumDecoder.ofClass(enumClass).decode(value);
 	}
 
 	public static <T extends Enum<T>> T getEnumInstance(Object value, Class<T> enumClass) {
-		String stringValue = value == null ? null : value.toString();
-		if (StringUtils.isBlank(stringValue)) {
-			return null;
-		}
-		return Enum.valueOf(enumClass, value.toString());
+		return EnumDecoder.of(enumClass).decode(value);
 	}
 
 }
@@ -0,0 +1,129 @@
+package skyglass.query.composer.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe LRU map, used to keep bounded caches of query plans and parsed query fragments.
+ * The LRU order is approximate: reads don't take a lock and only stamp the access time of the entry.
+ * When the maximum size is exceeded, the least recently used entries are evicted under the lock.
+ */
+public class LruCache<K, V> {
+
+	// a full cache evicts this part of the entries at once, so that each put of a full cache doesn't sort all entries
+	private static final int EVICTED_PART = 16;
+
+	private final Map<K, Entry<V>> map = new ConcurrentHashMap<>();
+
+	private volatile int maxSize;
+
+	public LruCache(int maxSize) {
+		this.maxSize = maxSize;
+	}
+
+	public V get(K key) {
+		Entry<V> entry = map.get(key);
+		if (entry == null) {
+			return null;
+		}
+		entry.accessTime = System.nanoTime();
+		return entry.value;
+	}
+
+	public void put(K key, V value) {
+		if (maxSize > 0) {
+			map.put(key, new Entry<>(value));
+			if (map.size() > maxSize) {
+				evict();
+			}
+		}
+	}
+
+	public V computeIfAbsent(K key, Function<K, V> mappingFunction) {
+		V result = get(key);
+		if (result == null) {
+			// computed outside of the lock: concurrent misses may compute the same value twice, which is harmless
+			result = mappingFunction.apply(key);
+			if (result != null) {
+				put(key, result);
+			}
+		}
+		return result;
+	}
+
+	public void remove(K key) {
+		map.remove(key);
+	}
+
+	public void removeIf(BiPredicate<K, V> predicate) {
+		map.entrySet().removeIf(entry -> predicate.test(entry.getKey(), entry.getValue().value));
+	}
+
+	public void clear() {
+		map.clear();
+	}
+
+	public int size() {
+		return map.size();
+	}
+
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(int maxSize) {
+		this.maxSize = maxSize;
+		evict();
+	}
+
+	private synchronized void evict() {
+		int max = maxSize;
+		if (map.size() <= max) {
+			return;
+		}
+		// access times are copied, because concurrent reads may change them while the entries are sorted
+		List<Eviction<K, V>> evictions = new ArrayList<>(map.size());
+		for (Map.Entry<K, Entry<V>> entry : map.entrySet()) {
+			evictions.add(new Eviction<>(entry.getKey(), entry.getValue()));
+		}
+		evictions.sort(Comparator.comparingLong(eviction -> eviction.accessTime));
+		int evicted = evictions.size() - Math.max(0, max - max / EVICTED_PART);
+		for (int i = 0; i < evicted; i++) {
+			map.remove(evictions.get(i).key, evictions.get(i).entry);
+		}
+	}
+
+	private static class Entry<V> {
+
+		private final V value;
+
+		private volatile long accessTime = System.nanoTime();
+
+		private Entry(V value) {
+			this.value = value;
+		}
+
+	}
+
+	private static class Eviction<K, V> {
+
+		private final K key;
+
+		private final Entry<V> entry;
+
+		private final long accessTime;
+
+		private Eviction(K key, Entry<V> entry) {
+			this.key = key;
+			this.entry = entry;
+			this.accessTime = entry.accessTime;
+		}
+
+	}
+
+}
@@ -1,9 +1,6 @@
 package skyglass.query.composer.util;
 
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
-import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -14,10 +11,8 @@ import java.util.stream.Collectors;
 
 import javax.persistence.Query;
 
-import org.apache.commons.beanutils.PropertyUtils;
 import org.apache.commons.lang3.StringUtils;
 
-import skyglass.data.common.model.IdObject;
 import skyglass.query.composer.QueryRequestDTO;
 
 public class NativeQueryUtil {
@@ -140,57 +135,25 @@ public class NativeQueryUtil {
 	 * Note: if DTO property type is Enum, then correspondent result[i] value is converted to correspondent Enum type
 	 */
 	public static <DTO> List<DTO> buildDtoListFromSelectFields(Supplier<DTO> dtoSupplier, Collection<Object[]> queryResult, String selectString) {
-		List<DTO> dtoList = new ArrayList<>();
+		List<DTO> dtoList = new ArrayList<>(queryResult.size());
+		SelectMapping selectMapping = null;
 		for (Object[] result : queryResult) {
-			dtoList.add(buildDtoFromSelectFields(dtoSupplier, result, selectString));
+			DTO dto = dtoSupplier.get();
+			if (selectMapping == null || selectMapping.getDtoType() != dto.getClass()) {
+				selectMapping = SelectMapping.get(dto.getClass(), selectString == null ? "" : selectString, NativeQueryUtil::parseSelect);
+			}
+			selectMapping.map(result, dto);
+			dtoList.add(dto);
 		}
 		return dtoList;
 	}
 
 	public static <DTO> DTO buildDtoFromSelectFields(Supplier<DTO> dtoSupplier, Object[] queryResult, String selectString) {
 		DTO dto = dtoSupplier.get();
-		int i = 0;
-		for (String selectAlias : parseSelect(selectString)) {
-			Object propValue = queryResult[i];
-			if (propValue != null) {
-				if (selectAlias.equalsIgnoreCase("uuid") && (dto instanceof IdObject)) {
-					IdObject idObject = (IdObject) dto;
-					idObject.setUuid(propValue.toString());
-				} else {
-					try {
-						Field typeField = getDeclaredField(dto.getClass(), selectAlias);
-						if (typeField != null) {
-							@SuppressWarnings("rawtypes")
-							Class typeClass = typeField.getType();
-							if (typeClass.isEnum()) {
-								propValue = EnumUtil.getEnumInstanceObject(propValue, typeClass);
-							}
-							if (propValue instanceof BigInteger) {
-								propValue = ((BigInteger) propValue).intValue();
-							}
-							PropertyUtils.setSimpleProperty(dto, selectAlias, propValue);
-						}
-					} catch (IllegalAccessException | NoSuchMethodException | InvocationTargetException ex) {
-						//ignore;
-					}
-				}
-			}
-			i++;
-		}
+		SelectMapping.get(dto.getClass(), selectString == null ? "" : selectString, NativeQueryUtil::parseSelect).map(queryResult, dto);
 		return dto;
 	}
 
-	private static Field getDeclaredField(Class<?> type, String name) {
-		try {
-			return type.getDeclaredField(name);
-		} catch (NoSuchFieldException ex) {
-			if (type.getSuperclass() != null) {
-				return getDeclaredField(type.getSuperclass(), name);
-			}
-			return null;
-		}
-	}
-
 	private static List<String> parseSelect(String selectString) {
 		if (StringUtils.isEmpty(selectString)) {
 			return Collections.emptyList();
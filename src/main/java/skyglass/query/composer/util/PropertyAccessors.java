@@ -0,0 +1,205 @@
+package skyglass.query.composer.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Method handles of the bean property accessors, resolved once per class, and the converters of the query result values
+ * to the property types. Shared by the row mappers of the query results, so DTO properties are set by the same rules.
+ */
+public final class PropertyAccessors {
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final ClassValue<Map<String, Property>> PROPERTIES = new ClassValue<Map<String, Property>>() {
+
+		@Override
+		protected Map<String, Property> computeValue(Class<?> type) {
+			return getProperties(type);
+		}
+	};
+
+	private PropertyAccessors() {
+	}
+
+	/**
+	 * Getter of the (Object)Object type, or null if the property is not readable
+	 */
+	public static MethodHandle getGetter(Class<?> type, String property) {
+		Property result = PROPERTIES.get(type).get(property);
+		return result == null ? null : result.getter;
+	}
+
+	/**
+	 * Setter of the (Object, Object)void type, or null if the property is not writable
+	 */
+	public static MethodHandle getSetter(Class<?> type, String property) {
+		Property result = PROPERTIES.get(type).get(property);
+		return result == null ? null : result.setter;
+	}
+
+	/**
+	 * Parameter type of the setter, or null if the property is not writable
+	 */
+	public static Class<?> getPropertyType(Class<?> type, String property) {
+		Property result = PROPERTIES.get(type).get(property);
+		return result == null ? null : result.type;
+	}
+
+	/**
+	 * Converter of the query result value of the column to the property type, or null if the value is set as it is.
+	 * Enums are decoded, numbers are converted to the numeric property type. Integral property types accept only
+	 * integral values in their range, otherwise IllegalArgumentException with the column name is thrown.
+	 */
+	public static Function<Object, Object> getConverter(String column, Class<?> type) {
+		if (type == null) {
+			return null;
+		}
+		if (type.isEnum()) {
+			EnumDecoder<?> enumDecoder = EnumDecoder.ofClass(type);
+			return enumDecoder::decode;
+		}
+		if (type == Integer.class || type == int.class) {
+			return value -> value instanceof Number && !(value instanceof Integer)
+					? (int) toExactLong(column, (Number) value, Integer.MIN_VALUE, Integer.MAX_VALUE, type)
+					: value;
+		}
+		if (type == Long.class || type == long.class) {
+			return value -> value instanceof Number && !(value instanceof Long) ? toExactLong(column, (Number) value, Long.MIN_VALUE, Long.MAX_VALUE, type)
+					: value;
+		}
+		if (type == Short.class || type == short.class) {
+			return value -> value instanceof Number && !(value instanceof Short)
+					? (short) toExactLong(column, (Number) value, Short.MIN_VALUE, Short.MAX_VALUE, type)
+					: value;
+		}
+		if (type == Double.class || type == double.class) {
+			return value -> value instanceof Number && !(value instanceof Double) ? ((Number) value).doubleValue() : value;
+		}
+		if (type == Float.class || type == float.class) {
+			return value -> value instanceof Number && !(value instanceof Float) ? ((Number) value).floatValue() : value;
+		}
+		if (type == BigDecimal.class) {
+			return value -> value instanceof Number && !(value instanceof BigDecimal) ? new BigDecimal(value.toString()) : value;
+		}
+		if (type == BigInteger.class) {
+			return value -> value instanceof Number && !(value instanceof BigInteger) ? toExactBigDecimal(column, (Number) value, type).toBigInteger() : value;
+		}
+		return null;
+	}
+
+	/**
+	 * Exact int value of the query result number, IllegalArgumentException with the column name is thrown,
+	 * if the number is not integral or out of the int range
+	 */
+	public static int toExactInt(String column, Number value) {
+		return value instanceof Integer ? (Integer) value : (int) toExactLong(column, value, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.class);
+	}
+
+	/**
+	 * Exact long value of the query result number, IllegalArgumentException with the column name is thrown,
+	 * if the number is not integral or out of the long range
+	 */
+	public static long toExactLong(String column, Number value) {
+		return value instanceof Long ? (Long) value : toExactLong(column, value, Long.MIN_VALUE, Long.MAX_VALUE, Long.class);
+	}
+
+	// integral value of the number in the range, the number is not rounded or truncated
+	private static long toExactLong(String column, Number value, long min, long max, Class<?> type) {
+		long result;
+		if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			result = value.longValue();
+		} else {
+			BigDecimal decimal = toExactBigDecimal(column, value, type);
+			if (decimal.compareTo(BigDecimal.valueOf(min)) < 0 || decimal.compareTo(BigDecimal.valueOf(max)) > 0) {
+				throw outOfRange(column, value, type);
+			}
+			result = decimal.longValue();
+		}
+		if (result < min || result > max) {
+			throw outOfRange(column, value, type);
+		}
+		return result;
+	}
+
+	private static BigDecimal toExactBigDecimal(String column, Number value, Class<?> type) {
+		BigDecimal result;
+		if (value instanceof BigDecimal) {
+			result = (BigDecimal) value;
+		} else if (value instanceof BigInteger) {
+			result = new BigDecimal((BigInteger) value);
+		} else {
+			try {
+				result = new BigDecimal(value.toString());
+			} catch (NumberFormatException ex) {
+				// NaN or infinity
+				throw outOfRange(column, value, type);
+			}
+		}
+		if (result.signum() != 0 && result.stripTrailingZeros().scale() > 0) {
+			throw new IllegalArgumentException("Value " + value + " of the column " + column + " is not an integral " + type.getSimpleName());
+		}
+		return result;
+	}
+
+	private static IllegalArgumentException outOfRange(String column, Number value, Class<?> type) {
+		return new IllegalArgumentException("Value " + value + " of the column " + column + " is out of the range of " + type.getSimpleName());
+	}
+
+	private static Map<String, Property> getProperties(Class<?> type) {
+		Map<String, Property> result = new HashMap<>();
+		try {
+			for (PropertyDescriptor descriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+				Method readMethod = descriptor.getReadMethod();
+				Method writeMethod = descriptor.getWriteMethod();
+				if (readMethod != null || writeMethod != null) {
+					result.put(descriptor.getName(), new Property(readMethod == null ? null : unreflect(readMethod).asType(GETTER_TYPE),
+							writeMethod == null ? null : unreflect(writeMethod).asType(SETTER_TYPE),
+							writeMethod == null ? null : writeMethod.getParameterTypes()[0]));
+				}
+			}
+		} catch (IntrospectionException | IllegalAccessException ex) {
+			throw new IllegalArgumentException("Could not resolve properties of " + type.getName(), ex);
+		}
+		return result;
+	}
+
+	private static MethodHandle unreflect(Method method) throws IllegalAccessException {
+		try {
+			return MethodHandles.publicLookup().unreflect(method);
+		} catch (IllegalAccessException ex) {
+			// public accessor of a non-public class
+			method.setAccessible(true);
+			return MethodHandles.lookup().unreflect(method);
+		}
+	}
+
+	private static final class Property {
+
+		private final MethodHandle getter;
+
+		private final MethodHandle setter;
+
+		private final Class<?> type;
+
+		private Property(MethodHandle getter, MethodHandle setter, Class<?> type) {
+			this.getter = getter;
+			this.setter = setter;
+			this.type = type;
+		}
+
+	}
+
+}
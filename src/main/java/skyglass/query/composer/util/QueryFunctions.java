@@ -68,6 +68,10 @@ public class QueryFunctions {
 		return StringUtils.isNotBlank(queryStr1) ? (queryStr1 + delimiter + queryStr2) : queryStr2;
 	}
 
+	/**
+	 * SQL expression of the enum name of the ordinal column, e.g. for search or order by name.
+	 * Result columns don't need it: selected ordinals are decoded in Java (see EnumDecoder).
+	 */
 	public static <T extends Enum<T>> String ordinalToString(Enum<T>[] enumValues, String path) {
 		return String.format(getEnumString(enumValues), path);
 	}
@@ -1,15 +1,29 @@
 package skyglass.query.composer.util;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.persistence.PersistenceException;
 import javax.persistence.Query;
 import javax.persistence.TransactionRequiredException;
 import javax.persistence.TypedQuery;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+
 public class QueryResultUtil {
 
+	// release interval of the stream with the default fetch size of the driver, same as the default fetch size of the columnar and JSON results
+	public static final int DEFAULT_RELEASE_INTERVAL = 1000;
+
 
 	public static Object getSingleResult(Query query)
 	    throws IllegalStateException, UnsupportedOperationException {
@@ -81,4 +95,61 @@ public class QueryResultUtil {
 		return new ArrayList();
 	}
 
+	/**
+	 * Lazy stream of the query rows, backed by forward-only Hibernate ScrollableResults.
+	 * The stream should be closed to release the cursor. If releaseAction is not null, it is run every fetchSize rows
+	 * (every DEFAULT_RELEASE_INTERVAL rows, if fetchSize is not positive), before the next row is read,
+	 * with the rows returned since its previous run (e.g. to detach the streamed entities).
+	 */
+	public static <R> Stream<R> getStreamResult(Query query, int fetchSize, Function<Object[], R> rowMapper, Consumer<List<R>> releaseAction) {
+		ScrollableResults scrollableResults;
+		try {
+			@SuppressWarnings("rawtypes")
+			org.hibernate.query.Query hibernateQuery = query.unwrap(org.hibernate.query.Query.class);
+			hibernateQuery.setFetchSize(fetchSize);
+			scrollableResults = hibernateQuery.scroll(ScrollMode.FORWARD_ONLY);
+		} catch (IllegalStateException ex) {
+			throw ex;
+		} catch (TransactionRequiredException ex) {
+			throw new IllegalStateException(ex);
+		} catch (PersistenceException ex) {
+			throw new UnsupportedOperationException(ex);
+		}
+		Iterator<R> iterator = new Iterator<R>() {
+
+			private Boolean hasNext;
+
+			private final int releaseInterval = fetchSize > 0 ? fetchSize : DEFAULT_RELEASE_INTERVAL;
+
+			private final List<R> returnedRows = releaseAction != null ? new ArrayList<>(releaseInterval) : null;
+
+			@Override
+			public boolean hasNext() {
+				if (hasNext == null) {
+					if (returnedRows != null && returnedRows.size() == releaseInterval) {
+						releaseAction.accept(returnedRows);
+						returnedRows.clear();
+					}
+					hasNext = scrollableResults.next();
+				}
+				return hasNext;
+			}
+
+			@Override
+			public R next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				hasNext = null;
+				R row = rowMapper.apply(scrollableResults.get());
+				if (returnedRows != null) {
+					returnedRows.add(row);
+				}
+				return row;
+			}
+		};
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+				.onClose(scrollableResults::close);
+	}
+
 }
@@ -1,21 +1,17 @@
 package skyglass.query.composer.util;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import skyglass.query.composer.FieldResolver;
 import skyglass.query.composer.QueryRequestDTO;
 import skyglass.query.composer.SearchBuilder;
-import skyglass.query.composer.config.Language;
 import skyglass.query.composer.search.SearchField;
 import skyglass.query.composer.search.SearchTerm;
 import skyglass.query.composer.search.SearchType;
 
 public class QuerySearchUtil {
 
-	private static final List<String> LANGUAGES = Stream.of(Language.values()).map(e -> e.getLanguageCode()).collect(Collectors.toList());
-
 	public static String applySearch(QueryRequestDTO queryRequest, SearchTerm searchTerm, boolean nativeQuery, String... searchFields) {
 		return applySearch(queryRequest, searchTerm, SearchType.IgnoreCase, false, nativeQuery, searchFields);
 	}
@@ -66,39 +62,74 @@ public class QuerySearchUtil {
 		return builder.toString();
 	}
 
+	/**
+	 * Single predicates of the search field, which are combined by OR: one per field path and translated column
+	 */
+	public static List<String> getSearchPredicates(boolean nativeQuery, SearchField searchField) {
+		List<String> result = new ArrayList<>();
+		for (String fieldResolver : searchField.getFieldResolver().getResolvers()) {
+			if (searchField.isTranslatable()) {
+				for (String column : searchField.getTranslatedColumns()) {
+					result.add(getSearchPredicate(fieldResolver + "." + column, searchField, nativeQuery));
+				}
+			} else {
+				result.add(getSearchPredicate(fieldResolver, searchField, nativeQuery));
+			}
+		}
+		return result;
+	}
+
 	private static String getTranslatableSearchTerm(String fieldResolver, SearchField searchField, boolean nativeQuery) {
 		StringBuilder builder = new StringBuilder();
-		String parameterChar = nativeQuery ? "?" : ":";
 		boolean first = true;
-		for (String lang : getLanguages()) {
+		for (String column : searchField.getTranslatedColumns()) {
 			if (first) {
 				first = false;
 			} else {
 				builder.append(" OR ");
 			}
-			if (searchField.isIgnoreCase()) {
-				builder.append("LOWER(");
-			}
-			builder.append(fieldResolver).append(".").append(lang);
-			if (searchField.isIgnoreCase()) {
-				builder.append(")");
+			builder.append(getSearchPredicate(fieldResolver + "." + column, searchField, nativeQuery));
+		}
+		return builder.toString();
+	}
+
+	private static String getSearchPredicate(String field, SearchField searchField, boolean nativeQuery) {
+		StringBuilder builder = new StringBuilder();
+		String parameterChar = nativeQuery ? "?" : ":";
+		if (searchField.isFullText()) {
+			if (!nativeQuery) {
+				throw new UnsupportedOperationException("Full-text search is supported by native queries only");
 			}
-			builder.append(" " + searchField.getOperator() + " ");
-			builder.append("LOWER(").append(parameterChar).append(searchField.getParamName());
-			if (searchField.isIgnoreCase()) {
-				builder.append(")");
+			if (searchField.getFullTextSearch() == null) {
+				throw new IllegalStateException("Full-text search requires the dialect, see QueryComposer.setFullTextSearch()");
 			}
+			return searchField.getFullTextSearch().getPredicate(field, parameterChar + searchField.getParamName());
+		}
+		if (searchField.isIgnoreCase()) {
+			builder.append("LOWER(");
+		}
+		builder.append(field);
+		if (searchField.isIgnoreCase()) {
+			builder.append(")");
+		}
+		builder.append(" " + searchField.getOperator() + " ");
+		if (searchField.isIgnoreCase()) {
+			builder.append("LOWER(");
+		}
+		builder.append(parameterChar).append(searchField.getParamName());
+		if (searchField.isIgnoreCase()) {
+			builder.append(")");
 		}
 		return builder.toString();
 	}
 
 	private static String getSearchTerm(SearchField searchField, boolean nativeQuery) {
 		StringBuilder builder = new StringBuilder();
-		boolean appendPars = searchField.getFieldResolver().getResolvers().size() > 1;
+		boolean appendPars = searchField.getFieldResolver().getResolvers().size() > 1
+				|| (searchField.isTranslatable() && searchField.getTranslatedColumns().size() > 1);
 		if (appendPars) {
 			builder.append("( ");
 		}
-		String parameterChar = nativeQuery ? "?" : ":";
 		boolean first = true;
 		for (String fieldResolver : searchField.getFieldResolver().getResolvers()) {
 			if (first) {
@@ -109,21 +140,7 @@ public class QuerySearchUtil {
 			if (searchField.isTranslatable()) {
 				builder.append(getTranslatableSearchTerm(fieldResolver, searchField, nativeQuery));
 			} else {
-				if (searchField.isIgnoreCase()) {
-					builder.append("LOWER(");
-				}
-				builder.append(fieldResolver);
-				if (searchField.isIgnoreCase()) {
-					builder.append(")");
-				}
-				builder.append(" " + searchField.getOperator() + " ");
-				if (searchField.isIgnoreCase()) {
-					builder.append("LOWER(");
-				}
-				builder.append(parameterChar).append(searchField.getParamName());
-				if (searchField.isIgnoreCase()) {
-					builder.append(")");
-				}
+				builder.append(getSearchPredicate(fieldResolver, searchField, nativeQuery));
 			}
 		}
 		if (appendPars) {
@@ -132,8 +149,4 @@ public class QuerySearchUtil {
 		return builder.toString();
 	}
 
-	private static List<String> getLanguages() {
-		return LANGUAGES;
-	}
-
 }
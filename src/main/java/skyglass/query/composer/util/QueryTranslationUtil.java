@@ -8,6 +8,7 @@ import java.util.stream.Stream;
 import org.apache.commons.lang3.StringUtils;
 
 import skyglass.query.composer.config.Language;
+import skyglass.query.composer.search.TranslatableSearch;
 
 /**
  *
@@ -18,24 +19,32 @@ public class QueryTranslationUtil {
 	public static final List<String> LANGUAGES = Stream.of(Language.values()).map(e -> e.getLanguageCode()).collect(Collectors.toList());
 
 	public static String getNativeSearchLikeTerm(String fieldName, String parameterName) {
-		return getSearchTerm(fieldName, parameterName, true);
+		return getSearchTerm(fieldName, parameterName, TranslatableSearch.allLanguages(), null, true);
 	}
 
 	public static String getJpaSearchLikeTerm(String fieldName, String parameterName) {
-		return getSearchTerm(fieldName, parameterName, false);
+		return getSearchTerm(fieldName, parameterName, TranslatableSearch.allLanguages(), null, false);
 	}
 
-	private static String getSearchTerm(String fieldName, String parameterName, boolean nativeQuery) {
+	public static String getNativeSearchLikeTerm(String fieldName, String parameterName, TranslatableSearch translatableSearch, String currentLang) {
+		return getSearchTerm(fieldName, parameterName, translatableSearch, currentLang, true);
+	}
+
+	public static String getJpaSearchLikeTerm(String fieldName, String parameterName, TranslatableSearch translatableSearch, String currentLang) {
+		return getSearchTerm(fieldName, parameterName, translatableSearch, currentLang, false);
+	}
+
+	private static String getSearchTerm(String fieldName, String parameterName, TranslatableSearch translatableSearch, String currentLang, boolean nativeQuery) {
 		StringBuilder builder = new StringBuilder();
 		builder.append(" (");
 
 		String parameterChar = nativeQuery ? "?" : ":";
-		for (Language lang : Language.values()) {
+		for (String column : translatableSearch.getColumns(currentLang)) {
 			if (builder.length() > 2) {
 				builder.append("OR ");
 			}
 
-			String languageColumn = lang.getLanguageCode();
+			String languageColumn = column;
 			if (nativeQuery) {
 				languageColumn = languageColumn.toUpperCase();
 			}
@@ -0,0 +1,115 @@
+package skyglass.query.composer.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.function.Function;
+
+import skyglass.data.common.model.IdObject;
+
+/**
+ * Mapping of native select result columns to the DTO properties, resolved once per (DTO class, select string)
+ * (see NativeQueryUtil.buildDtoFromSelectFields()). Setters and value converters are resolved by PropertyAccessors.
+ */
+final class SelectMapping {
+
+	private static final int MAX_MAPPINGS_PER_CLASS = 256;
+
+	private static final ClassValue<LruCache<String, SelectMapping>> MAPPINGS = new ClassValue<LruCache<String, SelectMapping>>() {
+
+		@Override
+		protected LruCache<String, SelectMapping> computeValue(Class<?> type) {
+			return new LruCache<>(MAX_MAPPINGS_PER_CLASS);
+		}
+	};
+
+	private final Class<?> dtoType;
+
+	private final Slot[] slots;
+
+	private SelectMapping(Class<?> dtoType, List<String> selectAliases) {
+		this.dtoType = dtoType;
+		this.slots = new Slot[selectAliases.size()];
+		for (int i = 0; i < slots.length; i++) {
+			slots[i] = createSlot(dtoType, selectAliases.get(i));
+		}
+	}
+
+	static SelectMapping get(Class<?> dtoType, String selectString, Function<String, List<String>> selectParser) {
+		return MAPPINGS.get(dtoType).computeIfAbsent(selectString, key -> new SelectMapping(dtoType, selectParser.apply(key)));
+	}
+
+	Class<?> getDtoType() {
+		return dtoType;
+	}
+
+	void map(Object[] queryResult, Object dto) {
+		for (int i = 0; i < slots.length; i++) {
+			Object propValue = queryResult[i];
+			if (propValue != null && slots[i] != null) {
+				slots[i].set(dto, propValue);
+			}
+		}
+	}
+
+	private static Slot createSlot(Class<?> dtoType, String selectAlias) {
+		if (selectAlias.equalsIgnoreCase("uuid") && IdObject.class.isAssignableFrom(dtoType)) {
+			return Slot.UUID;
+		}
+		MethodHandle setter = PropertyAccessors.getSetter(dtoType, selectAlias);
+		if (setter == null || getDeclaredField(dtoType, selectAlias) == null) {
+			// the field is missing or not writable
+			return null;
+		}
+		return new Slot(selectAlias, setter, PropertyAccessors.getConverter(selectAlias, PropertyAccessors.getPropertyType(dtoType, selectAlias)));
+	}
+
+	private static Field getDeclaredField(Class<?> type, String name) {
+		for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+			for (Field field : current.getDeclaredFields()) {
+				if (field.getName().equals(name)) {
+					return field;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class Slot {
+
+		private static final Slot UUID = new Slot(null, null, null) {
+
+			@Override
+			void set(Object dto, Object propValue) {
+				((IdObject) dto).setUuid(propValue.toString());
+			}
+		};
+
+		private final String selectAlias;
+
+		private final MethodHandle setter;
+
+		private final Function<Object, Object> converter;
+
+		private Slot(String selectAlias, MethodHandle setter, Function<Object, Object> converter) {
+			this.selectAlias = selectAlias;
+			this.setter = setter;
+			this.converter = converter;
+		}
+
+		void set(Object dto, Object propValue) {
+			Object value = converter == null ? propValue : converter.apply(propValue);
+			try {
+				setter.invokeExact(dto, value);
+			} catch (ClassCastException ex) {
+				throw new IllegalArgumentException("Could not set value of the property " + selectAlias + " to " + value, ex);
+			} catch (Error ex) {
+				throw ex;
+			} catch (Throwable ex) {
+				// exceptions of the setter are ignored
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,147 @@
+package skyglass.query.composer;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.bean.BaseQueryManagerImpl;
+import skyglass.query.composer.result.DtoConverter;
+import skyglass.query.composer.result.MockEnum;
+import skyglass.query.composer.result.MockPersistence;
+
+public class JpaProjectionResultProviderTest {
+
+	private final List<String> queries = new ArrayList<>();
+
+	@Test
+	public void testProjectionQuery() {
+		QueryComposer queryComposer = createComposer();
+		Assert.assertEquals("SELECT sm, sm.test, sm.testEnum FROM SpaceMission sm LEFT JOIN FETCH sm.crew cr", queryComposer.build());
+		queryComposer.setProjection(true);
+		Assert.assertEquals("SELECT sm.UUID, sm.test, sm.testEnum FROM SpaceMission sm LEFT JOIN sm.crew cr", queryComposer.build());
+		Assert.assertEquals(3, queryComposer.getSelectFields().size());
+		queryComposer.setProjection(false);
+		Assert.assertEquals("SELECT sm, sm.test, sm.testEnum FROM SpaceMission sm LEFT JOIN FETCH sm.crew cr", queryComposer.build());
+	}
+
+	@Test
+	public void testConvertProjectionRows() {
+		QueryComposer queryComposer = createComposer().setProjection(true);
+		JpaProjectionResultProvider provider = new JpaProjectionResultProvider(createEntityManager(
+				Arrays.asList(new Object[] { "uuid1", "test1", 1 }, new Object[] { "uuid2", "test2", MockEnum.Test3 }), null));
+		List<ProjectionDTO> list = new DtoConverter<>(queryComposer, provider, ProjectionDTO::new).convertList();
+		Assert.assertEquals(Arrays.asList("SELECT sm.UUID, sm.test, sm.testEnum FROM SpaceMission sm LEFT JOIN sm.crew cr"), queries);
+		Assert.assertEquals(2, list.size());
+		Assert.assertEquals("uuid1", list.get(0).getUuid());
+		Assert.assertEquals("test1", list.get(0).getTest());
+		Assert.assertEquals(MockEnum.Test2, list.get(0).getTestEnum());
+		Assert.assertEquals(MockEnum.Test3, list.get(1).getTestEnum());
+	}
+
+	@Test
+	public void testDistinctProjectionRestoresUuidOrder() {
+		QueryComposer queryComposer = QueryComposer.jpa("sm").setDistinct().setRowsPerPage(10).setPageNumber(1).setProjection(true)
+				.addSelect("test", "sm.test").addSelect("testEnum", "sm.testEnum").from("SpaceMission sm").leftJoinFetch("sm.crew cr");
+		JpaProjectionResultProvider provider = new JpaProjectionResultProvider(createEntityManager(
+				Arrays.asList(new Object[] { "uuid1", "test1", null }, new Object[] { "uuid2", "test2", null }), Arrays.asList("uuid2", "uuid1")));
+		List<ProjectionDTO> list = new DtoConverter<>(queryComposer, provider, ProjectionDTO::new).convertList();
+		Assert.assertEquals("test2", list.get(0).getTest());
+		Assert.assertEquals("test1", list.get(1).getTest());
+		Assert.assertEquals(Arrays.asList("SELECT sm.UUID FROM SpaceMission sm LEFT JOIN sm.crew cr GROUP BY sm.UUID, sm.test, sm.testEnum",
+				"SELECT sm.UUID, sm.test, sm.testEnum FROM SpaceMission sm LEFT JOIN sm.crew cr WHERE sm.UUID IN :uuidList"), queries.subList(1, 3));
+	}
+
+	@Test
+	public void testQueryManagerRestoresComposer() throws ReflectiveOperationException {
+		QueryComposer queryComposer = createComposer();
+		BaseQueryManagerImpl queryManager = new BaseQueryManagerImpl() {
+		};
+		Field entityManager = BaseQueryManagerImpl.class.getDeclaredField("entityManager");
+		entityManager.setAccessible(true);
+		entityManager.set(queryManager, createEntityManager(Arrays.<Object[]> asList(new Object[] { "uuid1", "test1", null }), null));
+		List<ProjectionDTO> list = queryManager.convertNativeList(queryComposer, ProjectionDTO::new);
+		Assert.assertEquals("uuid1", list.get(0).getUuid());
+		Assert.assertEquals(Arrays.asList("SELECT sm.UUID, sm.test, sm.testEnum FROM SpaceMission sm LEFT JOIN sm.crew cr"), queries);
+		Assert.assertFalse(queryComposer.isProjection());
+		Assert.assertEquals("SELECT sm, sm.test, sm.testEnum FROM SpaceMission sm LEFT JOIN FETCH sm.crew cr", queryComposer.build());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testProjectionModeIsRequired() {
+		new JpaProjectionResultProvider(createEntityManager(new ArrayList<>(), null)).getUnpagedResult(createComposer());
+	}
+
+	private QueryComposer createComposer() {
+		return QueryComposer.jpa("sm").addSelect("test", "sm.test").addSelect("testEnum", "sm.testEnum").from("SpaceMission sm").leftJoinFetch("sm.crew cr");
+	}
+
+	private EntityManager createEntityManager(List<Object[]> rows, List<String> uuidList) {
+		return MockPersistence.proxy(EntityManager.class, (proxy, method, args) -> {
+			if (method.getName().equals("createQuery")) {
+				queries.add((String) args[0]);
+				return createTypedQuery(args[1] == String.class ? uuidList : args[1] == Long.class ? Arrays.asList((long) rows.size()) : toTuples(rows));
+			}
+			throw new UnsupportedOperationException(method.getName());
+		});
+	}
+
+	private TypedQuery<?> createTypedQuery(List<?> resultList) {
+		return MockPersistence.query(TypedQuery.class, resultList);
+	}
+
+	private List<Tuple> toTuples(List<Object[]> rows) {
+		List<Tuple> result = new ArrayList<>();
+		for (Object[] row : rows) {
+			result.add(MockPersistence.proxy(Tuple.class, (proxy, method, args) -> {
+				if (method.getName().equals("toArray")) {
+					return row.clone();
+				}
+				throw new UnsupportedOperationException(method.getName());
+			}));
+		}
+		return result;
+	}
+
+	public static class ProjectionDTO {
+
+		private String uuid;
+
+		private String test;
+
+		private MockEnum testEnum;
+
+		public String getUuid() {
+			return uuid;
+		}
+
+		public void setUuid(String uuid) {
+			this.uuid = uuid;
+		}
+
+		public String getTest() {
+			return test;
+		}
+
+		public void setTest(String test) {
+			this.test = test;
+		}
+
+		public MockEnum getTestEnum() {
+			return testEnum;
+		}
+
+		public void setTestEnum(MockEnum testEnum) {
+			this.testEnum = testEnum;
+		}
+
+	}
+
+}
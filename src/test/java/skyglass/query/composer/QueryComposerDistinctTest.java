@@ -27,7 +27,7 @@ public class QueryComposerDistinctTest {
 				.end();
 		Assert.assertEquals("SELECT DISTINCT COUNT(1) OVER () FROM SpaceMission sm GROUP BY sm.UUID", testBuilder.buildCountPart());
 		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm GROUP BY sm.UUID", testBuilder.buildUuidListPart());
-		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN ('test-list1', 'test-list2')", testBuilder.buildResultFromUuidList(list));
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN (?uuidList1, ?uuidList2)", testBuilder.buildResultFromUuidList(list));
 		checkNoParam("test", testBuilder);
 	}
 
@@ -50,7 +50,7 @@ public class QueryComposerDistinctTest {
 		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm GROUP BY sm.UUID ORDER BY LOWER(sm.test) DESC", testBuilder.build());
 		Assert.assertEquals("SELECT DISTINCT COUNT(1) OVER () FROM SpaceMission sm GROUP BY sm.UUID", testBuilder.buildCountPart());
 		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm GROUP BY sm.UUID ORDER BY LOWER(sm.test) DESC", testBuilder.buildUuidListPart());
-		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN ('test-list1', 'test-list2')", testBuilder.buildResultFromUuidList(list));
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN (?uuidList1, ?uuidList2)", testBuilder.buildResultFromUuidList(list));
 		checkNoParam("test", testBuilder);
 	}
 
@@ -78,7 +78,7 @@ public class QueryComposerDistinctTest {
 		Assert.assertEquals(
 				"SELECT sm.UUID FROM SpaceMission sm WHERE sm.test = ?test AND sm.testList IN (?testList1, ?testList2) GROUP BY sm.UUID ORDER BY LOWER(sm.test) DESC",
 				testBuilder.buildUuidListPart());
-		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN ('test-list1', 'test-list2')", testBuilder.buildResultFromUuidList(list));
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN (?uuidList1, ?uuidList2)", testBuilder.buildResultFromUuidList(list));
 		checkParam("test", "not null", testBuilder);
 		checkParam("testList1", list.get(0), testBuilder);
 		checkParam("testList2", list.get(1), testBuilder);
@@ -0,0 +1,135 @@
+package skyglass.query.composer;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryComposerKeysetTest {
+
+	@Test
+	public void testFirstPage() {
+		QueryComposer testBuilder = createComposer(null);
+		Assert.assertEquals("SELECT sm.UUID, sm.name FROM SpaceMission sm WHERE sm.test = ?test "
+				+ "ORDER BY CASE WHEN sm.name IS NULL THEN 1 ELSE 0 END ASC, LOWER(sm.name) DESC, sm.UUID ASC", testBuilder.build());
+		Assert.assertTrue(testBuilder.getKeysetParams().isEmpty());
+	}
+
+	@Test
+	public void testNextPage() {
+		QueryComposer testBuilder = createComposer(ContinuationToken.encode("Apollo", "uuid-1"));
+		Assert.assertEquals("SELECT sm.UUID, sm.name FROM SpaceMission sm WHERE ( sm.test = ?test ) AND "
+				+ "( ( LOWER(sm.name) < LOWER(?keyset0) OR sm.name IS NULL ) OR ( LOWER(sm.name) = LOWER(?keyset0) AND sm.UUID > ?keyset1 ) ) "
+				+ "ORDER BY CASE WHEN sm.name IS NULL THEN 1 ELSE 0 END ASC, LOWER(sm.name) DESC, sm.UUID ASC", testBuilder.build());
+		Assert.assertEquals("SELECT COUNT(1) FROM SpaceMission sm WHERE sm.test = ?test", testBuilder.buildCountPart());
+		checkParam("keyset0", "Apollo", testBuilder.getKeysetParams());
+		checkParam("keyset1", "uuid-1", testBuilder.getKeysetParams());
+		Assert.assertArrayEquals(new Object[] { "Gemini", "uuid-2" }, testBuilder.getKeyValues(new Object[] { "uuid-2", "Gemini" }));
+	}
+
+	@Test
+	public void testNextPageWithOuterQuery() {
+		QueryComposer testBuilder = createComposer(ContinuationToken.encode("Apollo", "uuid-1")).setDistinct().setRowsPerPage(10).setPageNumber(1);
+		Assert.assertEquals("SELECT tab.UUID, tab.name FROM ( SELECT sm.UUID, sm.name FROM SpaceMission sm WHERE sm.test = ?test GROUP BY sm.UUID, sm.name ) tab"
+				+ " WHERE ( ( LOWER(tab.name) < LOWER(?keyset0) OR tab.name IS NULL ) OR ( LOWER(tab.name) = LOWER(?keyset0) AND tab.UUID > ?keyset1 ) )"
+				+ " ORDER BY CASE WHEN tab.name IS NULL THEN 1 ELSE 0 END ASC, LOWER(tab.name) DESC, tab.UUID ASC", testBuilder.build());
+		Assert.assertArrayEquals(new Object[] { "Gemini", "uuid-2" }, testBuilder.getKeyValues(new Object[] { "uuid-2", "Gemini" }));
+	}
+
+	@Test
+	public void testNextPageWithOrConditions() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryMapRequestDto.create("value"), "sm")
+				.setPagingMode(PagingMode.Keyset)
+				.setContinuationToken(ContinuationToken.encode("uuid-1"))
+				.select("*")
+				.from("SpaceMission sm")
+				.addWhere("sm.test = ?test")
+				.addOrWhere("sm.test IS NULL");
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( sm.test = ?test OR sm.test IS NULL ) AND ( sm.UUID > ?keyset0 ) ORDER BY sm.UUID ASC",
+				testBuilder.build());
+	}
+
+	@Test
+	public void testNextPageWithSubqueryCondition() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryMapRequestDto.create("value"), "sm")
+				.setPagingMode(PagingMode.Keyset)
+				.setContinuationToken(ContinuationToken.encode("uuid-1"))
+				.select("*")
+				.from("SpaceMission sm");
+		testBuilder.startAndWhere("sm.UUID IN ( SELECT t.missionUuid FROM Tag t WHERE t.name = 'moon' )");
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( sm.UUID IN ( SELECT t.missionUuid FROM Tag t WHERE t.name = 'moon' ) ) "
+				+ "AND ( sm.UUID > ?keyset0 ) ORDER BY sm.UUID ASC", testBuilder.build());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTokenDoesNotMatchOrder() {
+		createComposer(ContinuationToken.encode("uuid-1")).getKeysetParams();
+	}
+
+	@Test
+	public void testContinuationToken() {
+		Timestamp timestamp = new Timestamp(1000L);
+		timestamp.setNanos(123456789);
+		Object[] values = new Object[] { "a:1|b", 1, 2L, new BigDecimal("1.50"), new Date(5000L), timestamp, LocalDate.of(2020, 1, 31), true };
+		Assert.assertArrayEquals(values, ContinuationToken.decode(ContinuationToken.encode(values)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidContinuationToken() {
+		ContinuationToken.decode("not a token");
+	}
+
+	@Test
+	public void testNullKeyValue() {
+		Assert.assertArrayEquals(new Object[] { null, "uuid-1" }, ContinuationToken.decode(ContinuationToken.encode(null, "uuid-1")));
+		// the rows with null names are last, the next page continues among them by the uuid
+		QueryComposer testBuilder = createComposer(ContinuationToken.encode(null, "uuid-1"));
+		Assert.assertEquals("SELECT sm.UUID, sm.name FROM SpaceMission sm WHERE ( sm.test = ?test ) AND ( ( sm.name IS NULL AND sm.UUID > ?keyset1 ) ) "
+				+ "ORDER BY CASE WHEN sm.name IS NULL THEN 1 ELSE 0 END ASC, LOWER(sm.name) DESC, sm.UUID ASC", testBuilder.build());
+		Assert.assertEquals(1, testBuilder.getKeysetParams().size());
+		checkParam("keyset1", "uuid-1", testBuilder.getKeysetParams());
+		Assert.assertArrayEquals(new Object[] { null, "uuid-2" }, testBuilder.getKeyValues(new Object[] { "uuid-2", null }));
+
+		// the plan of the non-null key value is not reused
+		testBuilder.usePlanCache().setContinuationToken(ContinuationToken.encode("Apollo", "uuid-1"));
+		Assert.assertTrue(testBuilder.build().contains("( LOWER(sm.name) < LOWER(?keyset0) OR sm.name IS NULL )"));
+		testBuilder.setContinuationToken(ContinuationToken.encode(null, "uuid-1"));
+		Assert.assertTrue(testBuilder.build().contains("( ( sm.name IS NULL AND sm.UUID > ?keyset1 ) )"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNullUuidKeyValue() {
+		createComposer(ContinuationToken.encode("Apollo", null)).getKeysetParams();
+	}
+
+	private QueryComposer createComposer(String continuationToken) {
+		QueryRequestDTO request = MockQueryMapRequestDto.create("value");
+		request.setOrderField("name");
+		request.setOrderType(OrderType.Desc);
+		return QueryComposer
+				.nativ(request, "sm")
+				.setPagingMode(PagingMode.Keyset)
+				.setContinuationToken(continuationToken)
+				.addSelect("name", "sm.name")
+				.from("SpaceMission sm")
+				.addConditionalWhere("sm.test = ?test")
+				.bindOrder("name", "sm.name");
+	}
+
+	private static void checkParam(String name, Object value, Collection<QueryParam> params) {
+		for (QueryParam param : params) {
+			if (param.getName().equals(name)) {
+				Assert.assertEquals(value, param.getValue());
+				return;
+			}
+		}
+		Assert.fail("parameter was not found");
+	}
+
+}
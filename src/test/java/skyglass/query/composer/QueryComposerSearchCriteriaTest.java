@@ -440,6 +440,67 @@ public class QueryComposerSearchCriteriaTest {
 		checkParam("test", "%doe%", testBuilder);
 	}
 
+	@Test
+	public void testNormalizedSearchSharesParams() {
+		QueryComposer testBuilder = QueryComposer
+				.jpa(MockQueryRequestDto.create("not null"), "u")
+				.normalizeSearch()
+				.addSearchTerm("test:doe|age>20,age<25")
+				.addSearchTerm("test:doe|age>21|age<24,age=22")
+				.select("*")
+				.from("User u")
+				.addAliasResolver("test", "u.lastName")
+				.addSearch("test", "age")
+				.addConditionalWhere("test = u.test", "test");
+		Assert.assertEquals(
+				"SELECT u FROM User u WHERE ( LOWER(u.lastName) LIKE LOWER(:test) OR u.age >= :age AND u.age <= :age2 ) "
+						+ "AND ( LOWER(u.lastName) LIKE LOWER(:test) OR u.age >= :age3 ) AND u.age <= :age4 AND u.age = :age5 AND test = u.test",
+				testBuilder.build());
+		checkParam("test", "%doe%", testBuilder);
+		checkParam("age3", 21, testBuilder);
+		checkNoParam("test2", testBuilder);
+	}
+
+	@Test
+	public void testNormalizedSearchFlattensOrTerms() {
+		QueryComposer testBuilder = QueryComposer
+				.jpa(MockQueryRequestDto.create("not null"), "u")
+				.normalizeSearch()
+				.addSearchTerm("test:doe|age>20,age<25|")
+				.addSearchTerm("test:doe|age>21|age<24,age=22|")
+				.addSearchTerm("age>2")
+				.select("*")
+				.from("User u")
+				.addAliasResolver("test", "u.lastName")
+				.addSearch("test", "age")
+				.addConditionalWhere("test = u.test", "test");
+		Assert.assertEquals(
+				"SELECT u FROM User u WHERE ( LOWER(u.lastName) LIKE LOWER(:test) OR u.age >= :age AND u.age <= :age2 "
+						+ "OR ( LOWER(u.lastName) LIKE LOWER(:test) OR u.age >= :age3 ) AND u.age <= :age4 AND u.age = :age5 "
+						+ "OR u.age >= :age6 ) AND test = u.test",
+				testBuilder.build());
+		checkNoParam("test2", testBuilder);
+	}
+
+	@Test
+	public void testNormalizedSearchRemovesDuplicates() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryRequestDto.create("not null"), "sm")
+				.normalizeSearch()
+				.addSearchTerm("findme")
+				.addSearchTerm("findme")
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.appendNullable("sm.test = ?test")
+				.addSearch("sm.test1", "sm.test2")
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1) LIKE LOWER(?searchTerm0) OR LOWER(sm.test2) LIKE LOWER(?searchTerm0) ) AND sm.test = ?test",
+				testBuilder.build());
+		checkParam("searchTerm0", "%findme%", testBuilder);
+		checkNoParam("searchTerm1", testBuilder);
+	}
+
 	public static void checkParam(String name, Object value, QueryComposer builder) {
 		for (QueryParam param : builder.getParams()) {
 			if (param.getName().equals(name)) {
@@ -1,10 +1,16 @@
 package skyglass.query.composer;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import skyglass.query.composer.result.MockQuery;
+import skyglass.query.composer.config.Language;
+import skyglass.query.composer.search.FullTextSearch;
 import skyglass.query.composer.search.SearchType;
+import skyglass.query.composer.search.TranslatableSearch;
+import skyglass.query.composer.search.TrigramIndex;
 
 public class QueryComposerSearchTest {
 
@@ -69,6 +75,217 @@ public class QueryComposerSearchTest {
 		checkParam("searchTerm0", "%findme%", testBuilder);
 	}
 
+	@Test
+	public void testRequestLanguageTranslatableSearch() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("findme")
+				.setLang("cn")
+				.setTranslatableSearch(TranslatableSearch.requestLanguage(Language.EN, Language.CN))
+				.usePlanCache()
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.appendNullable("sm.test = ?test")
+				.addTranslatableSearch("sm.test1")
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1.cn) LIKE LOWER(?searchTerm0) OR LOWER(sm.test1.en) LIKE LOWER(?searchTerm0) ) AND sm.test = ?test",
+				testBuilder.build());
+
+		testBuilder.setLang("de").restart();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1.de) LIKE LOWER(?searchTerm0) OR LOWER(sm.test1.en) LIKE LOWER(?searchTerm0) "
+				+ "OR LOWER(sm.test1.cn) LIKE LOWER(?searchTerm0) ) AND sm.test = ?test", testBuilder.build());
+	}
+
+	@Test
+	public void testTranslatableSearchColumn() {
+		QueryComposer testBuilder = QueryComposer
+				.jpa(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("findme")
+				.setTranslatableSearch(TranslatableSearch.column("searchText"))
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.addTranslatableSearch("sm.test1", "sm.test2")
+				.end();
+		Assert.assertEquals("SELECT sm FROM SpaceMission sm WHERE ( LOWER(sm.test1.searchText) LIKE LOWER(:searchTerm0) OR LOWER(sm.test2.searchText) LIKE LOWER(:searchTerm0) )",
+				testBuilder.build());
+	}
+
+	@Test
+	public void testFullTextSearch() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("find me")
+				.setFullTextSearch(FullTextSearch.postgreSql("english"))
+				.select("*")
+				.from("SpaceMission sm")
+				.addFullTextRankOrder("sm.description")
+				.startAndWhere()
+				.appendNullable("sm.test = ?test")
+				.addFullTextSearch("sm.description")
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE to_tsvector('english', sm.description) @@ plainto_tsquery('english', ?fullTextSearchTerm0) "
+				+ "AND sm.test = ?test ORDER BY ts_rank(to_tsvector('english', sm.description), plainto_tsquery('english', ?fullTextSearchTerm0)) DESC", testBuilder.build());
+		checkParam("fullTextSearchTerm0", "find me", testBuilder);
+	}
+
+	@Test
+	public void testFullTextSearchDialects() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("findme")
+				.setFullTextSearch(FullTextSearch.mySql())
+				.setOrderField("name")
+				.select("*")
+				.from("SpaceMission sm")
+				.bindOrder("name")
+				.addFullTextRankOrder("sm.name")
+				.startAndWhere()
+				.addFullTextSearch("sm.name", "sm.description")
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( MATCH (sm.name) AGAINST (?fullTextSearchTerm0 IN NATURAL LANGUAGE MODE) "
+				+ "OR MATCH (sm.description) AGAINST (?fullTextSearchTerm0 IN NATURAL LANGUAGE MODE) ) ORDER BY LOWER(sm.name) ASC", testBuilder.build());
+
+		testBuilder = QueryComposer
+				.nativ(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("findme")
+				.setFullTextSearch(FullTextSearch.h2("SPACE_MISSION"))
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.addFullTextSearch("sm.UUID")
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN (SELECT FT.KEYS[1] FROM FT_SEARCH_DATA(?fullTextSearchTerm0, 0, 0) FT WHERE FT.TABLE = 'SPACE_MISSION')",
+				testBuilder.build());
+	}
+
+	@Test
+	public void testFullTextSearchWithSearch() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("findme")
+				.setFullTextSearch(FullTextSearch.mySql())
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.addSearch("sm.name")
+				.addFullTextSearch("sm.description")
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE LOWER(sm.name) LIKE LOWER(?searchTerm0) "
+				+ "AND MATCH (sm.description) AGAINST (?fullTextSearchTerm0 IN NATURAL LANGUAGE MODE)", testBuilder.build());
+		checkParam("searchTerm0", "%findme%", testBuilder);
+		checkParam("fullTextSearchTerm0", "findme", testBuilder);
+	}
+
+	@Test
+	public void testFullTextSearchArgumentIsIdentifier() {
+		FullTextSearch.postgreSql("pg_catalog.english");
+		for (String argument : new String[] { "english', sm.name) OR 1=1 --", "", null }) {
+			try {
+				FullTextSearch.postgreSql(argument);
+				Assert.fail("text search configuration should be an identifier: " + argument);
+			} catch (IllegalArgumentException e) {
+				// expected
+			}
+		}
+		try {
+			FullTextSearch.h2("PUBLIC.SPACE_MISSION' OR '1'='1");
+			Assert.fail("table name should be an identifier");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testJpaFullTextSearch() {
+		QueryComposer
+				.jpa(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("findme")
+				.setFullTextSearch(FullTextSearch.postgreSql())
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.addFullTextSearch("sm.description")
+				.end()
+				.build();
+	}
+
+	@Test
+	public void testTrigramIndexSearch() {
+		TrigramIndex<String[]> trigramIndex = new TrigramIndex<>(String[].class, entity -> entity[0])
+				.addPath("sm.test1", entity -> entity[1])
+				.addPath("sm.test2", entity -> entity[2]);
+		trigramIndex.load(Arrays.asList(new String[] { "uuid-1", "Apollo 11", "first landing" },
+				new String[] { "uuid-2", "Apollo 13", "aborted landing" },
+				new String[] { "uuid-3", "Gemini 4", "first spacewalk" }));
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("land")
+				.setTrigramIndex(trigramIndex)
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.appendNullable("sm.test = ?test")
+				.addSearch("sm.test1", "sm.test2")
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1) LIKE LOWER(?searchTerm0) OR LOWER(sm.test2) LIKE LOWER(?searchTerm0) ) "
+				+ "AND sm.UUID IN (?trigramUuids1, ?trigramUuids2) AND sm.test = ?test", testBuilder.build());
+		checkParam("trigramUuids1", "uuid-1", testBuilder);
+		checkParam("trigramUuids2", "uuid-2", testBuilder);
+		Assert.assertFalse(testBuilder.isEmptySearch());
+
+		testBuilder.setSearchTerm("mars").restart();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1) LIKE LOWER(?searchTerm0) OR LOWER(sm.test2) LIKE LOWER(?searchTerm0) ) "
+				+ "AND 1 = 0 AND sm.test = ?test", testBuilder.build());
+		checkNoParam("trigramUuids1", testBuilder);
+		Assert.assertTrue(testBuilder.isEmptySearch());
+
+		// the search of the other paths and the terms shorter than a trigram are not narrowed
+		testBuilder.setSearchTerm("la").restart();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1) LIKE LOWER(?searchTerm0) OR LOWER(sm.test2) LIKE LOWER(?searchTerm0) ) "
+				+ "AND sm.test = ?test", testBuilder.build());
+
+		// the search is not narrowed by too many candidates, or by the invalid index
+		trigramIndex.setMaxCandidates(1);
+		testBuilder.setSearchTerm("land").restart();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1) LIKE LOWER(?searchTerm0) OR LOWER(sm.test2) LIKE LOWER(?searchTerm0) ) "
+				+ "AND sm.test = ?test", testBuilder.build());
+		trigramIndex.setMaxCandidates(TrigramIndex.DEFAULT_MAX_CANDIDATES);
+		trigramIndex.invalidate();
+		testBuilder.setSearchTerm("mars").restart();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( LOWER(sm.test1) LIKE LOWER(?searchTerm0) OR LOWER(sm.test2) LIKE LOWER(?searchTerm0) ) "
+				+ "AND sm.test = ?test", testBuilder.build());
+		Assert.assertFalse(testBuilder.isEmptySearch());
+		trigramIndex.load(Arrays.asList(new String[] { "uuid-1", "Apollo 11", "first landing" },
+				new String[] { "uuid-2", "Apollo 13", "aborted landing" },
+				new String[] { "uuid-3", "Gemini 4", "first spacewalk" }));
+		testBuilder = QueryComposer
+				.jpa(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("first")
+				.setTrigramIndex(trigramIndex)
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.addSearch("sm.test1", "sm.test3")
+				.end();
+		Assert.assertEquals("SELECT sm FROM SpaceMission sm WHERE ( LOWER(sm.test1) LIKE LOWER(:searchTerm0) OR LOWER(sm.test3) LIKE LOWER(:searchTerm0) )",
+				testBuilder.build());
+
+		testBuilder = QueryComposer
+				.jpa(MockQueryRequestDto.create("not null"), "sm")
+				.setSearchTerm("first")
+				.setTrigramIndex(trigramIndex)
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.addSearch("sm.test1")
+				.end();
+		Assert.assertEquals("SELECT sm FROM SpaceMission sm WHERE LOWER(sm.test1) LIKE LOWER(:searchTerm0) AND sm.UUID IN :trigramUuids",
+				testBuilder.build());
+		checkParam("trigramUuids", Arrays.asList("uuid-1", "uuid-3"), testBuilder);
+	}
+
 	@Test
 	public void testTranslatableSearch2() {
 		String value = "not null";
@@ -0,0 +1,106 @@
+package skyglass.query.composer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryParamPaddingTest {
+
+	@Test
+	public void testPaddedSize() {
+		Assert.assertEquals(0, QueryParamProcessor.getPaddedSize(0));
+		Assert.assertEquals(1, QueryParamProcessor.getPaddedSize(1));
+		Assert.assertEquals(2, QueryParamProcessor.getPaddedSize(2));
+		Assert.assertEquals(4, QueryParamProcessor.getPaddedSize(3));
+		Assert.assertEquals(8, QueryParamProcessor.getPaddedSize(5));
+		Assert.assertEquals(512, QueryParamProcessor.getPaddedSize(512));
+		// not padded above the IN list limit of Oracle
+		Assert.assertEquals(1000, QueryParamProcessor.getPaddedSize(513));
+		Assert.assertEquals(1000, QueryParamProcessor.getPaddedSize(1000));
+		Assert.assertEquals(2000, QueryParamProcessor.getPaddedSize(1001));
+		Assert.assertEquals(3000, QueryParamProcessor.getPaddedSize(2049));
+	}
+
+	@Test
+	public void testLongListIsSplit() {
+		List<String> list = new ArrayList<>();
+		for (int i = 1; i <= 1001; i++) {
+			list.add("test-list" + i);
+		}
+		QueryComposer nativeBuilder = QueryComposer.nativ("sm").select("*").from("SpaceMission sm").startAndWhere().appendNullableList("sm.testList", list).end();
+		String sql = nativeBuilder.build();
+		Assert.assertTrue(sql.startsWith("SELECT sm.UUID FROM SpaceMission sm WHERE ( sm.testList IN (?sm_testList1, "));
+		Assert.assertTrue(sql.contains(", ?sm_testList1000) OR sm.testList IN (?sm_testList1001, "));
+		Assert.assertTrue(sql.endsWith(", ?sm_testList2000) )"));
+		QueryPlanCacheTest.checkParam("sm_testList2000", "test-list1001", nativeBuilder);
+
+		QueryComposer jpaBuilder = QueryComposer.jpa("sm").select("*").from("SpaceMission sm").startAndWhere().appendNullableList("sm.testList", list).end();
+		Assert.assertEquals("SELECT sm FROM SpaceMission sm WHERE ( sm.testList IN :sm_testList OR sm.testList IN :sm_testList2 )", jpaBuilder.build());
+		Assert.assertEquals(1000, ((List<?>) getParam("sm_testList", jpaBuilder.getParams())).size());
+		List<?> secondList = (List<?>) getParam("sm_testList2", jpaBuilder.getParams());
+		Assert.assertEquals(1000, secondList.size());
+		Assert.assertEquals("test-list1001", secondList.get(999));
+	}
+
+	@Test
+	public void testNullableListIsPadded() {
+		List<String> list = Arrays.asList("test-list1", "test-list2", "test-list3");
+		QueryComposer testBuilder = QueryComposer
+				.nativ("sm")
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.appendNullableList("sm.testList", list)
+				.end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.testList IN (?sm_testList1, ?sm_testList2, ?sm_testList3, ?sm_testList4)",
+				testBuilder.build());
+		QueryPlanCacheTest.checkParam("sm_testList3", "test-list3", testBuilder);
+		QueryPlanCacheTest.checkParam("sm_testList4", "test-list3", testBuilder);
+	}
+
+	@Test
+	public void testRequestListIsPadded() {
+		QueryComposer testBuilder = QueryComposer
+				.nativ(MockQueryMapRequestDto.create(Arrays.asList("a", "b", "c", "d", "e")), "sm")
+				.select("*")
+				.from("SpaceMission sm")
+				.addWhere("sm.testList IN ?testList");
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.testList IN (?testList1, ?testList2, ?testList3, ?testList4, ?testList5, ?testList6, "
+				+ "?testList7, ?testList8)", testBuilder.build());
+		QueryPlanCacheTest.checkParam("testList8", "e", testBuilder);
+	}
+
+	@Test
+	public void testUuidListParams() {
+		QueryComposer nativeBuilder = QueryComposer.nativ("sm").select("*").from("SpaceMission sm");
+		List<String> uuidList = Arrays.asList("uuid-1", "uuid-2", "uuid-3");
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.UUID IN (?uuidList1, ?uuidList2, ?uuidList3, ?uuidList4)",
+				nativeBuilder.buildResultFromUuidList(uuidList));
+		Collection<QueryParam> params = nativeBuilder.getUuidListParams(uuidList);
+		Assert.assertEquals(4, params.size());
+		checkParam("uuidList4", "uuid-3", params);
+
+		QueryComposer jpaBuilder = QueryComposer.jpa("sm").select("*").from("SpaceMission sm");
+		Assert.assertTrue(jpaBuilder.buildResultFromUuidList(uuidList).endsWith(" IN :uuidList"));
+		checkParam("uuidList", Arrays.asList("uuid-1", "uuid-2", "uuid-3", "uuid-3"), jpaBuilder.getUuidListParams(uuidList));
+	}
+
+	private void checkParam(String name, Object value, Collection<QueryParam> params) {
+		Assert.assertEquals(value, getParam(name, params));
+	}
+
+	private Object getParam(String name, Collection<QueryParam> params) {
+		for (QueryParam param : params) {
+			if (param.getName().equals(name)) {
+				return param.getValue();
+			}
+		}
+		Assert.fail("parameter was not found");
+		return null;
+	}
+
+}
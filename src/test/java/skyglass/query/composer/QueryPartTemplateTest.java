@@ -0,0 +1,33 @@
+package skyglass.query.composer;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryPartTemplateTest {
+
+	@Test
+	public void testNativeParams() {
+		QueryPartTemplate template = QueryPartTemplate.forParams("sm.test = ?test AND (sm.test2 = ?test2 OR sm.test = ?test) AND sm.x = ?", true);
+		Assert.assertEquals(Arrays.asList("test", "test2"), template.getSlotNames());
+		Assert.assertSame(template, QueryPartTemplate.forParams("sm.test = ?test AND (sm.test2 = ?test2 OR sm.test = ?test) AND sm.x = ?", true));
+		Assert.assertEquals("sm.test = ?test AND (sm.test2 = (?test21) OR sm.test = ?test) AND sm.x = ?",
+				template.render(name -> name.equals("test2") ? "(?test21)" : null));
+	}
+
+	@Test
+	public void testJpaParams() {
+		QueryPartTemplate template = QueryPartTemplate.forParams("CAST(sm.test AS text) = :test AND sm.name::text = :name_1", false);
+		Assert.assertEquals(Arrays.asList("test", "text", "name_1"), template.getSlotNames());
+		Assert.assertFalse(QueryPartTemplate.forParams("sm.test = ?test", false).hasSlots());
+	}
+
+	@Test
+	public void testAliases() {
+		QueryPartTemplate template = QueryPartTemplate.forAliases("${a}.name || ${b}.title || ${c");
+		Assert.assertEquals(Arrays.asList("a", "b"), template.getSlotNames());
+		Assert.assertEquals("sm.name || .title || ${c", template.render(name -> name.equals("a") ? "sm" : ""));
+	}
+
+}
@@ -0,0 +1,74 @@
+package skyglass.query.composer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryPlanCacheTest {
+
+	@Test
+	public void testSameShapeReusesPlan() {
+		QueryComposer testBuilder1 = createComposer("value1", "order");
+		QueryComposer testBuilder2 = createComposer("value2", "order");
+		String sql1 = testBuilder1.build();
+		String sql2 = testBuilder2.build();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.test = ?test ORDER BY LOWER(sm.order) ASC", sql1);
+		Assert.assertSame(sql1, sql2);
+		Assert.assertSame(testBuilder1.buildCountPart(), testBuilder2.buildCountPart());
+		checkParam("test", "value1", testBuilder1);
+		checkParam("test", "value2", testBuilder2);
+	}
+
+	@Test
+	public void testDifferentShapeRendersNewPlan() {
+		QueryComposer testBuilder1 = createComposer("value1", "order");
+		QueryComposer testBuilder2 = createComposer(" ", "order");
+		QueryComposer testBuilder3 = createComposer("value1", "name");
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.test = ?test ORDER BY LOWER(sm.order) ASC", testBuilder1.build());
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm ORDER BY LOWER(sm.order) ASC", testBuilder2.build());
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.test = ?test ORDER BY LOWER(sm.name) ASC", testBuilder3.build());
+	}
+
+	@Test
+	public void testPagedAndUnpagedPlans() {
+		QueryComposer testBuilder1 = createComposer("value1", "order").setDistinct();
+		QueryComposer testBuilder2 = createComposer("value1", "order").setDistinct().setLimit(10);
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.test = ?test GROUP BY sm.UUID ORDER BY LOWER(sm.order) ASC", testBuilder1.build());
+		Assert.assertEquals("SELECT tab.UUID FROM ( SELECT sm.UUID, sm.order FROM SpaceMission sm WHERE sm.test = ?test GROUP BY sm.UUID, sm.order ) tab ORDER BY LOWER(tab.order) ASC",
+				testBuilder2.build());
+	}
+
+	@Test
+	public void testFragmentsAreRenderedAgainAfterChange() {
+		QueryComposer testBuilder = createComposer("value1", "order").usePlanCache(false).setDistinct();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE sm.test = ?test GROUP BY sm.UUID ORDER BY LOWER(sm.order) ASC", testBuilder.build());
+		Assert.assertEquals("SELECT DISTINCT COUNT(1) OVER () FROM SpaceMission sm WHERE sm.test = ?test GROUP BY sm.UUID", testBuilder.buildCountPart());
+		testBuilder.setLimit(10).setOrderField("name").restart();
+		Assert.assertEquals("SELECT tab.UUID FROM ( SELECT sm.UUID, sm.name FROM SpaceMission sm WHERE sm.test = ?test GROUP BY sm.UUID, sm.name ) tab ORDER BY LOWER(tab.name) ASC",
+				testBuilder.build());
+		Assert.assertEquals("SELECT DISTINCT COUNT(1) OVER () FROM SpaceMission sm WHERE sm.test = ?test GROUP BY sm.UUID, sm.name", testBuilder.buildCountPart());
+	}
+
+	private QueryComposer createComposer(String value, String orderField) {
+		QueryRequestDTO request = MockQueryMapRequestDto.create(value);
+		request.setOrderField(orderField);
+		return QueryComposer
+				.nativ(request, "sm")
+				.usePlanCache()
+				.select("*")
+				.from("SpaceMission sm")
+				.addConditionalWhere("sm.test = ?test")
+				.bindOrder("order")
+				.bindOrder("name");
+	}
+
+	public static void checkParam(String name, Object value, QueryComposer builder) {
+		for (QueryParam param : builder.getParams()) {
+			if (param.getName().equals(name)) {
+				Assert.assertEquals(value, param.getValue());
+				return;
+			}
+		}
+		Assert.fail("parameter was not found");
+	}
+
+}
@@ -0,0 +1,132 @@
+package skyglass.query.composer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.config.Language;
+import skyglass.query.composer.search.TranslatableSearch;
+
+public class QueryTemplateTest {
+
+	private static final QueryTemplate TEMPLATE = QueryTemplate.compile(QueryComposer
+			.nativ("sm")
+			.select("*")
+			.from("SpaceMission sm")
+			.addConditionalWhere("sm.test = ?test")
+			.bindOrder("order")
+			.bindOrder("name")
+			.join("Space s ON s.id = sm.spaceId"));
+
+	@Test
+	public void testBindPerRequest() {
+		QueryComposer testBuilder1 = TEMPLATE.bind(createRequest("value1", "order"));
+		QueryComposer testBuilder2 = TEMPLATE.bind(createRequest(" ", "name"));
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm INNER JOIN Space s ON s.id = sm.spaceId WHERE sm.test = ?test ORDER BY LOWER(sm.order) ASC",
+				testBuilder1.build());
+		Assert.assertEquals("SELECT COUNT(1) FROM SpaceMission sm INNER JOIN Space s ON s.id = sm.spaceId WHERE sm.test = ?test",
+				testBuilder1.buildCountPart());
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm INNER JOIN Space s ON s.id = sm.spaceId ORDER BY LOWER(sm.name) ASC",
+				testBuilder2.build());
+		QueryPlanCacheTest.checkParam("test", "value1", testBuilder1);
+		Assert.assertTrue(testBuilder2.getParams().isEmpty());
+	}
+
+	@Test
+	public void testSameResultAsComposer() {
+		QueryRequestDTO request = createRequest("value1", "name");
+		QueryComposer testBuilder = QueryComposer
+				.nativ(createRequest("value1", "name"), "sm")
+				.select("*")
+				.from("SpaceMission sm")
+				.addConditionalWhere("sm.test = ?test")
+				.bindOrder("order")
+				.bindOrder("name")
+				.join("Space s ON s.id = sm.spaceId");
+		Assert.assertEquals(testBuilder.build(), TEMPLATE.bind(request).build());
+		Assert.assertEquals(testBuilder.buildCountPart(), TEMPLATE.bind(request).buildCountPart());
+	}
+
+	@Test
+	public void testBindWithSearchSettings() {
+		QueryTemplate template = QueryTemplate.compile(createSearchComposer(null));
+		QueryComposer testBuilder = createSearchComposer(createSearchRequest());
+		QueryComposer boundBuilder = template.bind(createSearchRequest(), composer -> composer
+				.startAndWhere()
+				.appendNullable("sm.test = ?test")
+				.end());
+		testBuilder.startAndWhere().appendNullable("sm.test = ?test").end();
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE LOWER(sm.title.en) LIKE LOWER(?searchTerm0) "
+				+ "AND ( LOWER(sm.name) LIKE LOWER(?searchTerm0) OR LOWER(sm.code) LIKE LOWER(?searchTerm0) ) AND sm.test = ?test", testBuilder.build());
+		Assert.assertEquals(testBuilder.build(), boundBuilder.build());
+		Assert.assertEquals(testBuilder.buildCountPart(), boundBuilder.buildCountPart());
+		Assert.assertEquals(CountMode.Window, boundBuilder.getCountMode());
+		Assert.assertTrue(boundBuilder.isNormalizeSearch());
+
+		QueryRequestDTO request = createSearchRequest();
+		request.setCountMode(CountMode.None);
+		Assert.assertEquals(CountMode.None, template.bind(request).getCountMode());
+	}
+
+	@Test
+	public void testBindDoesNotChangeRequest() {
+		QueryTemplate template = QueryTemplate.compile(QueryComposer.nativ("sm").select("*").from("SpaceMission sm")
+				.setPagingMode(PagingMode.Keyset).setCountMode(CountMode.Capped, 100));
+		QueryRequestDTO request = createRequest("value1", null);
+		QueryComposer boundBuilder = template.bind(request);
+		Assert.assertEquals(PagingMode.Keyset, boundBuilder.getPagingMode());
+		Assert.assertEquals(CountMode.Capped, boundBuilder.getCountMode());
+		Assert.assertEquals(100, boundBuilder.getCountCap());
+		Assert.assertNull(request.getPagingMode());
+		Assert.assertNull(request.getCountMode());
+		Assert.assertNull(request.getCountCap());
+		// the request, reused with the other template, gets the defaults of that template
+		QueryComposer otherBuilder = QueryTemplate.compile(QueryComposer.nativ("sm").select("*").from("SpaceMission sm")).bind(request);
+		Assert.assertEquals(PagingMode.Offset, otherBuilder.getPagingMode());
+		Assert.assertEquals(CountMode.Exact, otherBuilder.getCountMode());
+		Assert.assertEquals(QueryRequestDTO.DEFAULT_COUNT_CAP, otherBuilder.getCountCap());
+		// the values, which are set explicitly, are kept even if they are equal to the defaults of the request
+		request.setPagingMode(PagingMode.Offset);
+		request.setCountMode(CountMode.Exact);
+		request.setCountCap(QueryRequestDTO.DEFAULT_COUNT_CAP);
+		boundBuilder = template.bind(request);
+		Assert.assertEquals(PagingMode.Offset, boundBuilder.getPagingMode());
+		Assert.assertEquals(CountMode.Exact, boundBuilder.getCountMode());
+		Assert.assertEquals(QueryRequestDTO.DEFAULT_COUNT_CAP, boundBuilder.getCountCap());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRequestPartsAreRejected() {
+		QueryTemplate.compile(QueryComposer
+				.nativ("sm")
+				.select("*")
+				.from("SpaceMission sm")
+				.startAndWhere()
+				.appendNullable("sm.test = ?test")
+				.end());
+	}
+
+	private QueryComposer createSearchComposer(QueryRequestDTO request) {
+		return QueryComposer
+				.nativ(request, "sm")
+				.setTranslatableSearch(TranslatableSearch.languages(Language.EN))
+				.normalizeSearch()
+				.setCountMode(CountMode.Window)
+				.select("*")
+				.from("SpaceMission sm")
+				.addTranslatableSearch("sm.title")
+				.addSearch("sm.name", "sm.code");
+	}
+
+	private QueryRequestDTO createSearchRequest() {
+		QueryRequestDTO request = createRequest("value1", null);
+		request.setSearchTerm("apollo");
+		return request;
+	}
+
+	private QueryRequestDTO createRequest(String value, String orderField) {
+		QueryRequestDTO request = MockQueryMapRequestDto.create(value);
+		request.setOrderField(orderField);
+		return request;
+	}
+
+}
@@ -0,0 +1,83 @@
+package skyglass.query.composer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.result.MockPersistence;
+
+public class UuidListOrderTest {
+
+	@Test
+	public void testUuidIndex() {
+		UuidIndex uuidIndex = new UuidIndex(Arrays.asList("uuid-3", "uuid-1", "uuid-2"));
+		Assert.assertEquals(0, uuidIndex.indexOf("uuid-3"));
+		Assert.assertEquals(1, uuidIndex.indexOf("uuid-1"));
+		Assert.assertEquals(2, uuidIndex.indexOf("uuid-2"));
+		Assert.assertEquals(-1, uuidIndex.indexOf("uuid-4"));
+		Assert.assertEquals(-1, uuidIndex.indexOf(null));
+		Assert.assertEquals(-1, new UuidIndex(Collections.emptyList()).indexOf("uuid-1"));
+	}
+
+	@Test
+	public void testOrderByUuidList() {
+		EntityIdAccessor idAccessor = EntityIdAccessor.get(createEntityManager(null), FieldEntity.class, "uuid");
+		List<FieldEntity> results = Arrays.asList(new FieldEntity("uuid-1"), new FieldEntity("uuid-2"), new FieldEntity("uuid-3"), new FieldEntity("uuid-1"));
+		List<FieldEntity> ordered = JpaQueryResultProvider.orderByUuidList(results, Arrays.asList("uuid-3", "uuid-4", "uuid-1", "uuid-2"), idAccessor::getId);
+		Assert.assertEquals(3, ordered.size());
+		Assert.assertSame(results.get(2), ordered.get(0));
+		Assert.assertSame(results.get(0), ordered.get(1));
+		Assert.assertSame(results.get(1), ordered.get(2));
+	}
+
+	@Test
+	public void testMetamodelAccessor() throws NoSuchMethodException {
+		EntityIdAccessor idAccessor = EntityIdAccessor.get(createEntityManager(PropertyEntity.class.getMethod("getId")), PropertyEntity.class, "uuid");
+		Assert.assertEquals("id-1", idAccessor.getId(new PropertyEntity("id-1")));
+	}
+
+	private EntityManager createEntityManager(java.lang.reflect.Member javaMember) {
+		Attribute<?, ?> attribute = MockPersistence.proxy(Attribute.class, (proxy, method, args) -> javaMember);
+		ManagedType<?> managedType = MockPersistence.proxy(ManagedType.class, (proxy, method, args) -> attribute);
+		Metamodel metamodel = MockPersistence.proxy(Metamodel.class, (proxy, method, args) -> {
+			if (javaMember == null) {
+				throw new IllegalArgumentException("Not a managed type: " + args[0]);
+			}
+			return managedType;
+		});
+		return MockPersistence.proxy(EntityManager.class, (proxy, method, args) -> metamodel);
+	}
+
+	private static class FieldEntity {
+
+		private final String uuid;
+
+		private FieldEntity(String uuid) {
+			this.uuid = uuid;
+		}
+
+	}
+
+	public static class PropertyEntity {
+
+		private final String id;
+
+		private PropertyEntity(String id) {
+			this.id = id;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+	}
+
+}
@@ -0,0 +1,162 @@
+package skyglass.query.composer.result;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.QueryComposer;
+
+public class ColumnarQueryResultTest {
+
+	@Test
+	public void testColumnTypes() {
+		ColumnarQueryResult result = new ColumnarResultBuilder(createComposer(), new TestResultProvider<>(getNativeListSupplier()))
+				.setColumnType("amount", ColumnType.Double).build();
+		Assert.assertEquals(Arrays.asList("id", "count", "amount", "name", "status"), result.getAliases());
+		Assert.assertEquals(4, result.getRowCount());
+		Assert.assertEquals(4, result.getTotalCount());
+		Assert.assertEquals(Boolean.FALSE, result.getHasNext());
+		Assert.assertEquals(ColumnType.Int, result.getColumnType(0));
+		Assert.assertEquals(ColumnType.Long, result.getColumnType(1));
+		Assert.assertEquals(ColumnType.Double, result.getColumnType(2));
+		Assert.assertEquals(ColumnType.Dictionary, result.getColumnType(3));
+		Assert.assertEquals(ColumnType.Dictionary, result.getColumnType(4));
+		Assert.assertArrayEquals(new int[] { 1, 2, 3, 4 }, result.getIntColumn(0));
+		Assert.assertArrayEquals(new long[] { 0L, 20L, 30L, 40L }, result.getLongColumn(1));
+		Assert.assertArrayEquals(new double[] { 1.5, 2.5, 0, 4.5 }, result.getDoubleColumn(2), 0);
+		Assert.assertTrue(result.isNull(0, 1));
+		Assert.assertTrue(result.isNull(2, 2));
+		Assert.assertNull(result.getValue(2, 2));
+		Assert.assertEquals(30L, result.getValue(2, 1));
+	}
+
+	@Test
+	public void testDictionaryColumn() {
+		ColumnarQueryResult result = new ColumnarResultBuilder(createComposer(), new TestResultProvider<>(getNativeListSupplier())).build();
+		int name = result.getColumnIndex("name");
+		Assert.assertEquals(Arrays.asList("test1", "test2"), result.getDictionary(name));
+		Assert.assertEquals(result.getDictionaryCode(0, name), result.getDictionaryCode(2, name));
+		Assert.assertEquals(-1, result.getDictionaryCode(3, name));
+		Assert.assertEquals("test2", result.getString(1, name));
+		Assert.assertEquals(MockEnum.Test3, result.getValue(3, result.getColumnIndex("status")));
+		// BigDecimal values are kept boxed, unless the column type is defined
+		Assert.assertEquals(ColumnType.Object, result.getColumnType(result.getColumnIndex("amount")));
+		Assert.assertEquals(new BigDecimal("2.5"), result.getValue(1, result.getColumnIndex("amount")));
+	}
+
+	@Test
+	public void testRowView() {
+		ColumnarQueryResult result = new ColumnarResultBuilder(createComposer(), new TestResultProvider<>(getNativeListSupplier())).build();
+		ColumnarQueryResult.Row row = result.getRow(1);
+		Assert.assertEquals(2, row.getInt("id"));
+		Assert.assertEquals(20L, row.getLong("count"));
+		Assert.assertEquals(20.0, row.getDouble("count"), 0);
+		Assert.assertEquals("test2", row.getString("name"));
+		Assert.assertArrayEquals(new Object[] { 2, 20L, new BigDecimal("2.5"), "test2", MockEnum.Test2 }, row.toArray());
+		long sum = 0;
+		Iterator<ColumnarQueryResult.Row> iterator = result.iterator();
+		ColumnarQueryResult.Row first = iterator.next();
+		sum += first.getLong("count");
+		while (iterator.hasNext()) {
+			Assert.assertSame(first, iterator.next());
+			sum += first.getLong("count");
+		}
+		Assert.assertEquals(90L, sum);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testWrongColumnAccess() {
+		ColumnarQueryResult result = new ColumnarResultBuilder(createComposer(), new TestResultProvider<>(getNativeListSupplier())).build();
+		result.getIntColumn(result.getColumnIndex("name"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownAlias() {
+		ColumnarQueryResult result = new ColumnarResultBuilder(createComposer(), new TestResultProvider<>(getNativeListSupplier())).build();
+		result.getRow(0).getInt("unknown");
+	}
+
+	@Test
+	public void testPagedResult() {
+		QueryComposer queryComposer = createComposer().setRowsPerPage(4).setPageNumber(1);
+		ColumnarQueryResult result = new ColumnarResultBuilder(queryComposer, new TestResultProvider<>(getNativeListSupplier())).build();
+		Assert.assertEquals(4, result.getRowCount());
+		Assert.assertEquals(4, result.getInt(3, 0));
+	}
+
+	@Test
+	public void testSingleColumnResult() {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").addSelect("id", "sm.id").skipUuid().from("SpaceMission sm");
+		Supplier<List<Object>> listSupplier = () -> Arrays.asList(1, 2, null);
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		ColumnarQueryResult result = new ColumnarResultBuilder(queryComposer, new TestResultProvider(listSupplier)).build();
+		Assert.assertEquals(1, result.getColumnCount());
+		Assert.assertArrayEquals(new int[] { 1, 2, 0 }, result.getIntColumn(0));
+		Assert.assertTrue(result.isNull(2, 0));
+	}
+
+	@Test
+	public void testUuidColumnAlias() {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").addSelect("name", "sm.name").from("SpaceMission sm");
+		ColumnarQueryResult result = new ColumnarResultBuilder(queryComposer, new TestResultProvider<>(() -> Arrays.<Object[]> asList(new Object[] { "uuid-1", "test1" })))
+				.build();
+		Assert.assertEquals(Arrays.asList("uuid", "name"), result.getAliases());
+		Assert.assertEquals("uuid-1", result.getRow(0).getString("uuid"));
+	}
+
+	@Test
+	public void testExactIntegralColumns() {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").addSelect("id", "sm.id").addSelect("count", "sm.count").addSelect("total", "sm.total")
+				.skipUuid().from("SpaceMission sm");
+		BigInteger unsigned = BigInteger.valueOf(Long.MAX_VALUE).add(BigInteger.ONE);
+		ColumnarQueryResult result = new ColumnarResultBuilder(queryComposer, new TestResultProvider<>(() -> Arrays.asList(
+				new Object[] { 1, BigInteger.valueOf(10), unsigned }, new Object[] { 2L, new BigDecimal("20.0"), BigInteger.ONE })))
+						.setColumnType("count", ColumnType.Long).build();
+		Assert.assertArrayEquals(new int[] { 1, 2 }, result.getIntColumn(0));
+		Assert.assertArrayEquals(new long[] { 10L, 20L }, result.getLongColumn(1));
+		// BigInteger out of the long range is kept boxed
+		Assert.assertEquals(ColumnType.Object, result.getColumnType(2));
+		Assert.assertEquals(unsigned, result.getValue(0, 2));
+
+		assertRejected(queryComposer, new Object[] { 1, 10L, null }, new Object[] { Long.MAX_VALUE, 20L, null }, "id");
+		assertRejected(queryComposer, new Object[] { 1, 10L, null }, new Object[] { 2, unsigned, null }, "count");
+		assertRejected(queryComposer, new Object[] { 1, new BigDecimal("10.5"), null }, new Object[] { 2, 20L, null }, "count");
+	}
+
+	private void assertRejected(QueryComposer queryComposer, Object[] row1, Object[] row2, String alias) {
+		try {
+			new ColumnarResultBuilder(queryComposer, new TestResultProvider<>(() -> Arrays.asList(row1, row2))).setColumnType("count", ColumnType.Long).build();
+			Assert.fail("value of the column " + alias + " should not be truncated");
+		} catch (IllegalArgumentException e) {
+			Assert.assertTrue(e.getMessage(), e.getMessage().contains("column " + alias + " "));
+		}
+	}
+
+	@Test
+	public void testEmptyResult() {
+		ColumnarQueryResult result = new ColumnarResultBuilder(createComposer(), new TestResultProvider<>(() -> Arrays.<Object[]> asList())).build();
+		Assert.assertEquals(0, result.getRowCount());
+		Assert.assertEquals(5, result.getColumnCount());
+		Assert.assertFalse(result.iterator().hasNext());
+	}
+
+	private QueryComposer createComposer() {
+		return QueryComposer.nativ("sm").addSelect("id", "sm.id").addSelect("count", "sm.count").addSelect("amount", "sm.amount")
+				.addSelect("name", "sm.name").addSelect("status", "sm.status").skipUuid().from("SpaceMission sm");
+	}
+
+	private Supplier<List<Object[]>> getNativeListSupplier() {
+		return () -> Arrays.asList(
+				new Object[] { 1, null, new BigDecimal("1.5"), "test1", MockEnum.Test1 },
+				new Object[] { 2, 20L, new BigDecimal("2.5"), "test2", MockEnum.Test2 },
+				new Object[] { 3, 30L, null, "test1", null },
+				new Object[] { 4, 40L, new BigDecimal("4.5"), null, MockEnum.Test3 });
+	}
+
+}
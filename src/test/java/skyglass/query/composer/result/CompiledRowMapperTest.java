@@ -0,0 +1,114 @@
+package skyglass.query.composer.result;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompiledRowMapperTest {
+
+	private static final List<String> ALIASES = Arrays.asList("test", "testEnum", "testNumber");
+
+	@Test
+	public void testNativeRowConversion() {
+		NumberDTO dto = new NumberDTO();
+		CompiledRowMapper.get(NumberDTO.class, ALIASES).map(new Object[] { "test1", "Test2", BigInteger.valueOf(42) }, dto);
+		Assert.assertEquals("test1", dto.getTest());
+		Assert.assertEquals(MockEnum.Test2, dto.getTestEnum());
+		Assert.assertEquals(Long.valueOf(42), dto.getTestNumber());
+	}
+
+	@Test
+	public void testEntitySource() {
+		MockDTO dto = new MockDTO();
+		CompiledRowMapper.get(MockDTO.class, Arrays.asList("test", "testDate")).map(new MockEntity("test1"), dto);
+		Assert.assertEquals("test1", dto.getTest());
+		Assert.assertNull(dto.getTestDate());
+	}
+
+	@Test
+	public void testMapperIsCached() {
+		Assert.assertSame(CompiledRowMapper.get(NumberDTO.class, ALIASES), CompiledRowMapper.get(NumberDTO.class, Arrays.asList("test", "testEnum", "testNumber")));
+		Assert.assertNotSame(CompiledRowMapper.get(NumberDTO.class, ALIASES), CompiledRowMapper.get(MockDTO.class, ALIASES));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownProperty() {
+		CompiledRowMapper.get(NumberDTO.class, Arrays.asList("unknown")).map(new Object[] { "test1" }, new NumberDTO());
+	}
+
+	@Test
+	public void testExactNumberConversion() {
+		NumberDTO dto = new NumberDTO();
+		CompiledRowMapper mapper = CompiledRowMapper.get(NumberDTO.class, Arrays.asList("testNumber", "testInt"));
+		mapper.map(new Object[] { new BigDecimal("42.00"), BigInteger.valueOf(Integer.MAX_VALUE) }, dto);
+		Assert.assertEquals(Long.valueOf(42), dto.getTestNumber());
+		Assert.assertEquals(Integer.MAX_VALUE, dto.getTestInt());
+		checkConversionError(mapper, new Object[] { null, Long.valueOf(Integer.MAX_VALUE + 1L) }, "Value 2147483648 of the column testInt is out of the range of int");
+		checkConversionError(mapper, new Object[] { BigInteger.ONE.shiftLeft(64), null }, "Value 18446744073709551616 of the column testNumber is out of the range of Long");
+		checkConversionError(mapper, new Object[] { new BigDecimal("1.5"), null }, "Value 1.5 of the column testNumber is not an integral Long");
+		checkConversionError(mapper, new Object[] { null, Double.NaN }, "Value NaN of the column testInt is out of the range of int");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeMismatch() {
+		CompiledRowMapper.get(NumberDTO.class, Arrays.asList("test")).map(new Object[] { 1 }, new NumberDTO());
+	}
+
+	private void checkConversionError(CompiledRowMapper mapper, Object[] row, String message) {
+		try {
+			mapper.map(row, new NumberDTO());
+			Assert.fail("conversion error was expected");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals(message, e.getMessage());
+		}
+	}
+
+	public static class NumberDTO {
+
+		private String test;
+
+		private MockEnum testEnum;
+
+		private Long testNumber;
+
+		private int testInt;
+
+		public String getTest() {
+			return test;
+		}
+
+		public void setTest(String test) {
+			this.test = test;
+		}
+
+		public MockEnum getTestEnum() {
+			return testEnum;
+		}
+
+		public void setTestEnum(MockEnum testEnum) {
+			this.testEnum = testEnum;
+		}
+
+		public Long getTestNumber() {
+			return testNumber;
+		}
+
+		public void setTestNumber(Long testNumber) {
+			this.testNumber = testNumber;
+		}
+
+		public int getTestInt() {
+			return testInt;
+		}
+
+		public void setTestInt(int testInt) {
+			this.testInt = testInt;
+		}
+
+	}
+
+}
@@ -0,0 +1,126 @@
+package skyglass.query.composer.result;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+
+import org.hibernate.Session;
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.CountMode;
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
+
+public class ConcurrentCountExecutorTest {
+
+	private final AtomicReference<String> countSql = new AtomicReference<>();
+
+	private final AtomicInteger closedEntityManagers = new AtomicInteger();
+
+	private final CountDownLatch countStarted = new CountDownLatch(1);
+
+	private final CountDownLatch countInterrupted = new CountDownLatch(1);
+
+	private final CountDownLatch statementCancelled = new CountDownLatch(1);
+
+	private final Map<String, Object> hints = new ConcurrentHashMap<>();
+
+	@Test
+	public void testCountOnSeparateEntityManager() throws InterruptedException {
+		CountingResultProvider provider = new CountingResultProvider(25);
+		QueryComposer queryComposer = createComposer(1);
+		try (ConcurrentCountExecutor countExecutor = new ConcurrentCountExecutor(createEntityManagerFactory(false), 2).setQueryTimeout(5000)) {
+			QueryResult<String> result = new QueryResultBuilder<>(queryComposer, provider).setCountExecutor(countExecutor).getResult();
+			Assert.assertEquals(25, result.getTotalCount());
+			Assert.assertEquals(10, result.getResult().size());
+			Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		}
+		Assert.assertEquals(0, provider.countQueries);
+		Assert.assertEquals("SELECT COUNT(1) FROM SpaceMission sm", countSql.get());
+		Assert.assertEquals(1, closedEntityManagers.get());
+		Assert.assertEquals(5000, hints.get("javax.persistence.query.timeout"));
+	}
+
+	@Test
+	public void testCountIsCancelledForLastPage() throws InterruptedException {
+		CountingResultProvider provider = new CountingResultProvider(7) {
+
+			@Override
+			public List<String> getPagedResult(QueryComposer builder, int firstResult, int maxResults) {
+				// the page is returned, when the count is already running
+				try {
+					countStarted.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return super.getPagedResult(builder, firstResult, maxResults);
+			}
+		};
+		QueryComposer queryComposer = createComposer(1).setCountMode(CountMode.ShortCircuit);
+		try (ConcurrentCountExecutor countExecutor = new ConcurrentCountExecutor(createEntityManagerFactory(true), 2)) {
+			QueryResult<String> result = new QueryResultBuilder<>(queryComposer, provider).setCountExecutor(countExecutor).getResult();
+			Assert.assertEquals(7, result.getTotalCount());
+			Assert.assertEquals(Boolean.FALSE, result.getHasNext());
+			Assert.assertTrue(statementCancelled.await(5, TimeUnit.SECONDS));
+			Assert.assertTrue(countInterrupted.await(5, TimeUnit.SECONDS));
+		}
+		Assert.assertEquals(0, provider.countQueries);
+	}
+
+	private QueryComposer createComposer(int pageNumber) {
+		return QueryComposer.nativ("sm").select("*").skipUuid().from("SpaceMission sm").setRowsPerPage(10).setPageNumber(pageNumber);
+	}
+
+	private EntityManagerFactory createEntityManagerFactory(boolean blockCount) {
+		Query query = MockPersistence.proxy(Query.class, (proxy, method, args) -> {
+			if (method.getName().equals("getResultList")) {
+				if (blockCount) {
+					countStarted.countDown();
+					try {
+						Thread.sleep(TimeUnit.SECONDS.toMillis(10));
+					} catch (InterruptedException e) {
+						countInterrupted.countDown();
+						throw new IllegalStateException(e);
+					}
+				}
+				return Collections.singletonList(BigInteger.valueOf(25));
+			}
+			if (method.getName().equals("setHint")) {
+				hints.put((String) args[0], args[1]);
+			}
+			return proxy;
+		});
+		Session session = MockPersistence.proxy(Session.class, (proxy, method, args) -> {
+			if (method.getName().equals("cancelQuery")) {
+				statementCancelled.countDown();
+			}
+			return null;
+		});
+		EntityManager entityManager = MockPersistence.proxy(EntityManager.class, (proxy, method, args) -> {
+			if (method.getName().equals("unwrap")) {
+				return session;
+			}
+			if (method.getName().equals("createNativeQuery")) {
+				countSql.set((String) args[0]);
+				return query;
+			}
+			if (method.getName().equals("close")) {
+				closedEntityManagers.incrementAndGet();
+			}
+			return null;
+		});
+		return MockPersistence.entityManagerFactory(entityManager);
+	}
+
+}
@@ -0,0 +1,91 @@
+package skyglass.query.composer.result;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.MockQueryMapRequestDto;
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
+
+public class CountCacheTest {
+
+	@Test
+	public void testCountIsReusedAcrossPages() {
+		TtlCountCache countCache = new TtlCountCache(1, TimeUnit.MINUTES, 100);
+		CountingResultProvider provider = new CountingResultProvider(25);
+		Assert.assertEquals(25, getResult(createComposer("value1", 1), provider, countCache).getTotalCount());
+		QueryResult<String> result = getResult(createComposer("value1", 2), provider, countCache);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		Assert.assertEquals(1, provider.countQueries);
+		getResult(createComposer("value2", 1), provider, countCache);
+		Assert.assertEquals(2, provider.countQueries);
+		Assert.assertEquals(2, countCache.size());
+	}
+
+	@Test
+	public void testInvalidateByEntityType() {
+		TtlCountCache countCache = new TtlCountCache(1, TimeUnit.MINUTES, 100);
+		CountingResultProvider provider = new CountingResultProvider(25);
+		getResult(createComposer("value1", 1), provider, countCache, MockEntity.class);
+		getResult(createComposer("value2", 1), provider, countCache, MockDTO.class);
+		countCache.invalidate(MockEnum.class);
+		Assert.assertEquals(2, countCache.size());
+		countCache.invalidate(MockEntity.class);
+		Assert.assertEquals(1, countCache.size());
+		getResult(createComposer("value1", 1), provider, countCache, MockEntity.class);
+		Assert.assertEquals(3, provider.countQueries);
+		countCache.invalidate(Object.class);
+		Assert.assertEquals(0, countCache.size());
+	}
+
+	@Test
+	public void testExpirationAndMaxSize() {
+		CountingResultProvider provider = new CountingResultProvider(25);
+		TtlCountCache expiredCache = new TtlCountCache(0, TimeUnit.MILLISECONDS, 100);
+		getResult(createComposer("value1", 1), provider, expiredCache);
+		getResult(createComposer("value1", 2), provider, expiredCache);
+		Assert.assertEquals(2, provider.countQueries);
+
+		TtlCountCache smallCache = new TtlCountCache(1, TimeUnit.MINUTES, 1);
+		getResult(createComposer("value1", 1), provider, smallCache);
+		getResult(createComposer("value2", 1), provider, smallCache);
+		getResult(createComposer("value1", 2), provider, smallCache);
+		Assert.assertEquals(5, provider.countQueries);
+		Assert.assertEquals(1, smallCache.size());
+	}
+
+	@Test
+	public void testLastPageCountIsCached() {
+		TtlCountCache countCache = new TtlCountCache(1, TimeUnit.MINUTES, 100);
+		CountingResultProvider provider = new CountingResultProvider(7);
+		QueryComposer queryComposer = createComposer("value1", 1);
+		Assert.assertEquals(7, getResult(queryComposer, provider, countCache).getTotalCount());
+		Assert.assertEquals(1, provider.countQueries);
+		Assert.assertEquals(7, new QueryResultBuilder<>(createComposer("value1", 1), provider).setCountCache(countCache).getTotalCount());
+		Assert.assertEquals(1, provider.countQueries);
+	}
+
+	@Test
+	public void testKeyIncludesParameterValues() {
+		QueryComposer queryComposer1 = createComposer("value1", 1);
+		QueryComposer queryComposer2 = createComposer("value1", 3);
+		QueryComposer queryComposer3 = createComposer("value2", 1);
+		CountCacheKey key1 = CountCacheKey.create(queryComposer1.buildCountPart(), queryComposer1.getParams());
+		Assert.assertEquals(key1, CountCacheKey.create(queryComposer2.buildCountPart(), queryComposer2.getParams()));
+		Assert.assertNotEquals(key1, CountCacheKey.create(queryComposer3.buildCountPart(), queryComposer3.getParams()));
+		Assert.assertNotEquals(key1, CountCacheKey.create(queryComposer1.buildCountPart(), 10, queryComposer1.getParams()));
+	}
+
+	private QueryComposer createComposer(String value, int pageNumber) {
+		return QueryComposer.nativ(MockQueryMapRequestDto.create(value), "sm").select("*").skipUuid().from("SpaceMission sm")
+				.addConditionalWhere("sm.test = ?test").setRowsPerPage(10).setPageNumber(pageNumber);
+	}
+
+	private QueryResult<String> getResult(QueryComposer queryComposer, CountingResultProvider provider, CountCache countCache, Class<?>... entityTypes) {
+		return new QueryResultBuilder<>(queryComposer, provider).setCountCache(countCache, entityTypes).getResult();
+	}
+
+}
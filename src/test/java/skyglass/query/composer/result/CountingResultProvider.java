@@ -0,0 +1,68 @@
+package skyglass.query.composer.result;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
+
+public class CountingResultProvider implements QueryResultProvider<String> {
+
+	private final List<String> rows = new ArrayList<>();
+
+	int countQueries;
+
+	int lastMaxResults;
+
+	int windowQueries;
+
+	boolean windowCount;
+
+	CountingResultProvider(int totalCount) {
+		for (int i = 0; i < totalCount; i++) {
+			rows.add("row" + i);
+		}
+	}
+
+	@Override
+	public List<String> getResult(QueryComposer builder, List<String> uuidList) {
+		return uuidList;
+	}
+
+	@Override
+	public List<String> getPagedResult(QueryComposer builder, int firstResult, int maxResults) {
+		lastMaxResults = maxResults;
+		return new ArrayList<>(rows.subList(Math.min(firstResult, rows.size()), Math.min(firstResult + maxResults, rows.size())));
+	}
+
+	@Override
+	public boolean isWindowCountSupported(QueryComposer builder) {
+		return windowCount;
+	}
+
+	@Override
+	public QueryResult<String> getPagedResultWithCount(QueryComposer builder, int firstResult, int maxResults) {
+		windowQueries++;
+		QueryResult<String> result = new QueryResult<>();
+		result.setResult(getPagedResult(builder, firstResult, maxResults));
+		result.setTotalCount(result.getResult().isEmpty() ? -1 : rows.size());
+		return result;
+	}
+
+	@Override
+	public List<String> getUnpagedResult(QueryComposer builder) {
+		return rows;
+	}
+
+	@Override
+	public int getTotalCount(QueryComposer builder) {
+		countQueries++;
+		return rows.size();
+	}
+
+	@Override
+	public List<String> getUuidList(QueryComposer builder, int firstResult, int maxResults) {
+		return getPagedResult(builder, firstResult, maxResults);
+	}
+
+}
@@ -0,0 +1,104 @@
+package skyglass.query.composer.result;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.QueryComposer;
+
+public class JsonResultWriterTest {
+
+	@Test
+	public void testUnpagedResult() throws IOException {
+		String json = write(new JsonResultWriter(createComposer(), new TestResultProvider<>(getNativeListSupplier())));
+		Assert.assertEquals("{\"result\":[{\"uuid\":\"uuid1\",\"name\":\"test1\",\"count\":-42,\"amount\":1.5,\"status\":\"Test1\",\"active\":true,\"created\":0},"
+				+ "{\"uuid\":\"uuid2\",\"name\":\"a \\\"quoted\\\"\\n\\\\ line é€😀\",\"count\":" + Long.MAX_VALUE
+				+ ",\"amount\":2.50,\"status\":null,\"active\":false,\"created\":1000}],\"totalCount\":2}", json);
+	}
+
+	@Test
+	public void testPagedResult() throws IOException {
+		QueryComposer queryComposer = createComposer().setRowsPerPage(2).setPageNumber(1);
+		String json = write(new JsonResultWriter(queryComposer, new TestResultProvider<>(getNativeListSupplier())));
+		Assert.assertTrue(json, json.startsWith("{\"result\":[{\"uuid\":\"uuid1\""));
+		Assert.assertTrue(json, json.endsWith("}],\"totalCount\":1,\"hasNext\":false}"));
+	}
+
+	@Test
+	public void testSmallBufferAndChannel() throws IOException {
+		Supplier<List<Object[]>> listSupplier = () -> IntStream.range(0, 500)
+				.mapToObj(i -> new Object[] { "uuid" + i, "name" + i, i, null, null, null, null }).collect(Collectors.toList());
+		JsonResultWriter writer = new JsonResultWriter(createComposer(), new TestResultProvider<>(listSupplier)).setBufferSize(64);
+		String json = write(writer);
+		ByteArrayOutputStream channelOutput = new ByteArrayOutputStream();
+		writer.write(Channels.newChannel(channelOutput));
+		Assert.assertEquals(json, new String(channelOutput.toByteArray(), StandardCharsets.UTF_8));
+		Assert.assertTrue(json.contains("{\"uuid\":\"uuid499\",\"name\":\"name499\",\"count\":499,\"amount\":null"));
+		Assert.assertTrue(json.endsWith("],\"totalCount\":500}"));
+	}
+
+	@Test
+	public void testSingleColumnResult() throws IOException {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").addSelect("name", "sm.name").skipUuid().from("SpaceMission sm");
+		Supplier<List<Object>> listSupplier = () -> Arrays.asList("test1", "test2");
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		String json = write(new JsonResultWriter(queryComposer, new TestResultProvider(listSupplier)));
+		Assert.assertEquals("{\"result\":[{\"name\":\"test1\"},{\"name\":\"test2\"}],\"totalCount\":2}", json);
+	}
+
+	@Test
+	public void testResultWithoutSelectFields() throws IOException {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").skipUuid().from("SpaceMission sm");
+		Assert.assertTrue(queryComposer.getSelectFields().isEmpty());
+		Supplier<List<Object[]>> listSupplier = () -> Arrays.asList(new Object[] { "test1", 1 }, new Object[] { "test2", 2, true });
+		String json = write(new JsonResultWriter(queryComposer, new TestResultProvider<>(listSupplier)));
+		Assert.assertEquals("{\"result\":[{\"column1\":\"test1\",\"column2\":1},{\"column1\":\"test2\",\"column2\":2,\"column3\":true}],\"totalCount\":2}",
+				json);
+	}
+
+	@Test
+	public void testColumnsWithoutSelectFields() throws IOException {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").select("*").skipUuid().from("SpaceMission sm");
+		Supplier<List<Object[]>> listSupplier = () -> Arrays.<Object[]> asList(new Object[] { "uuid1", "test1" });
+		String json = write(new JsonResultWriter(queryComposer, new TestResultProvider<>(listSupplier)));
+		Assert.assertEquals("{\"result\":[{\"uuid\":\"uuid1\",\"column2\":\"test1\"}],\"totalCount\":1}", json);
+	}
+
+	@Test
+	public void testBinaryValue() throws IOException {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").addSelect("data", "sm.data").skipUuid().from("SpaceMission sm");
+		Supplier<List<Object>> listSupplier = () -> Arrays.asList(new byte[] { 0, 1, (byte) 0xfe, (byte) 0xff }, null);
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		String json = write(new JsonResultWriter(queryComposer, new TestResultProvider(listSupplier)));
+		Assert.assertEquals("{\"result\":[{\"data\":\"AAH+/w==\"},{\"data\":null}],\"totalCount\":2}", json);
+	}
+
+	private String write(JsonResultWriter writer) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		writer.write(outputStream);
+		return new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	private QueryComposer createComposer() {
+		return QueryComposer.nativ("sm").addSelect("name", "sm.name").addSelect("count", "sm.count").addSelect("amount", "sm.amount")
+				.addSelect("status", "sm.status").addSelect("active", "sm.active").addSelect("created", "sm.created").from("SpaceMission sm");
+	}
+
+	private Supplier<List<Object[]>> getNativeListSupplier() {
+		return () -> Arrays.asList(
+				new Object[] { "uuid1", "test1", -42, 1.5, MockEnum.Test1, true, new Date(0) },
+				new Object[] { "uuid2", "a \"quoted\"\n\\ line é€😀", Long.MAX_VALUE, new BigDecimal("2.50"), null, false, new Date(1000) });
+	}
+
+}
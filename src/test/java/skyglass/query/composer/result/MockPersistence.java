@@ -0,0 +1,31 @@
+package skyglass.query.composer.result;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+public class MockPersistence {
+
+	private MockPersistence() {
+	}
+
+	@SuppressWarnings("unchecked")
+	public static <P> P proxy(Class<?> type, InvocationHandler handler) {
+		return (P) Proxy.newProxyInstance(MockPersistence.class.getClassLoader(), new Class<?>[] { type }, handler);
+	}
+
+	public static EntityManagerFactory entityManagerFactory(EntityManager entityManager) {
+		return proxy(EntityManagerFactory.class, (proxy, method, args) -> entityManager);
+	}
+
+	/**
+	 * Query whose getResultList returns the given rows, every other call returns the query itself
+	 */
+	public static <Q> Q query(Class<?> type, List<?> resultList) {
+		return proxy(type, (proxy, method, args) -> method.getName().equals("getResultList") ? resultList : proxy);
+	}
+
+}
@@ -0,0 +1,132 @@
+package skyglass.query.composer.result;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.QueryComposer;
+
+public class ParallelConversionTest {
+
+	private static final int ROW_COUNT = 2000;
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+
+	private final Set<Thread> converterThreads = ConcurrentHashMap.newKeySet();
+
+	private final CountDownLatch secondThread = new CountDownLatch(2);
+
+	@After
+	public void shutdown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void testPureEntityConverterIsParallel() {
+		EntityDtoConverter<MockEntity, MockDTO> converter = new EntityDtoConverter<>(createComposer(), new TestResultProvider<>(getEntityListSupplier()),
+				getEntityDtoConverter());
+		converter.setParallelConversion(ParallelConversion.of(pool, 100).withPureConverters());
+		checkOrder(converter.convertList());
+		Assert.assertTrue(converterThreads.size() > 1);
+	}
+
+	@Test
+	public void testEntityConverterStaysOnOwningThread() {
+		EntityDtoConverter<MockEntity, MockDTO> converter = new EntityDtoConverter<>(createComposer(), new TestResultProvider<>(getEntityListSupplier()),
+				getEntityDtoConverter());
+		converter.setParallelConversion(ParallelConversion.of(pool, 100));
+		checkOrder(converter.convertList());
+		Assert.assertEquals(1, converterThreads.size());
+		Assert.assertTrue(converterThreads.contains(Thread.currentThread()));
+	}
+
+	@Test
+	public void testSmallPageIsSequential() {
+		EntityDtoConverter<MockEntity, MockDTO> converter = new EntityDtoConverter<>(createComposer(), new TestResultProvider<>(getEntityListSupplier()),
+				getEntityDtoConverter());
+		converter.setParallelConversion(ParallelConversion.of(pool, ROW_COUNT + 1).withPureConverters());
+		checkOrder(converter.convertList());
+		Assert.assertEquals(1, converterThreads.size());
+		Assert.assertTrue(converterThreads.contains(Thread.currentThread()));
+	}
+
+	@Test
+	public void testPureNativeConverterIsParallel() {
+		DtoDtoConverter<MockDTO, MockDTO> converter = createNativeConverter();
+		converter.setParallelConversion(ParallelConversion.of(pool, 100).withPureConverters());
+		checkOrder(converter.convertList());
+		Assert.assertTrue(converterThreads.size() > 1);
+	}
+
+	@Test
+	public void testNativeConverterStaysOnOwningThread() {
+		// the DTO supplier and the DTO converter are the code of the caller too
+		DtoDtoConverter<MockDTO, MockDTO> converter = createNativeConverter();
+		converter.setParallelConversion(ParallelConversion.of(pool, 100));
+		checkOrder(converter.convertList());
+		Assert.assertEquals(1, converterThreads.size());
+		Assert.assertTrue(converterThreads.contains(Thread.currentThread()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidThreshold() {
+		ParallelConversion.common(0);
+	}
+
+	private void checkOrder(List<MockDTO> list) {
+		Assert.assertEquals(ROW_COUNT, list.size());
+		for (int i = 0; i < ROW_COUNT; i++) {
+			Assert.assertEquals("test" + i, list.get(i).getTest());
+		}
+	}
+
+	private DtoDtoConverter<MockDTO, MockDTO> createNativeConverter() {
+		return new DtoDtoConverter<>(createComposer(), new TestResultProvider<>(getNativeListSupplier()), () -> {
+			addConverterThread();
+			return new MockDTO();
+		}, dto -> new MockDTO(dto.getTest()));
+	}
+
+	private QueryComposer createComposer() {
+		return QueryComposer.nativ("sm").select("test").skipUuid().from("SpaceMission sm");
+	}
+
+	private Function<MockEntity, MockDTO> getEntityDtoConverter() {
+		return entity -> {
+			addConverterThread();
+			return new MockDTO(entity.getTest());
+		};
+	}
+
+	// the first row of each thread waits for the second thread, so the parallel conversion can't be completed by one thread
+	private void addConverterThread() {
+		if (converterThreads.add(Thread.currentThread())) {
+			secondThread.countDown();
+			try {
+				secondThread.await(1, TimeUnit.SECONDS);
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	private Supplier<List<MockEntity>> getEntityListSupplier() {
+		return () -> IntStream.range(0, ROW_COUNT).mapToObj(i -> new MockEntity("test" + i)).collect(Collectors.toList());
+	}
+
+	private Supplier<List<Object[]>> getNativeListSupplier() {
+		return () -> IntStream.range(0, ROW_COUNT).mapToObj(i -> new Object[] { "test" + i }).collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,164 @@
+package skyglass.query.composer.result;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityTransaction;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.CountMode;
+import skyglass.query.composer.PagingMode;
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryParam;
+
+public class QueryBatchProcessorTest {
+
+	private final AtomicInteger commits = new AtomicInteger();
+
+	private final AtomicInteger rollbacks = new AtomicInteger();
+
+	private final AtomicInteger closedEntityManagers = new AtomicInteger();
+
+	@Test
+	public void testChunks() {
+		List<Integer> chunkSizes = new ArrayList<>();
+		List<String> sqls = new ArrayList<>();
+		QueryBatchProgress progress = createProcessor(25, sqls).process(createComposer(), 10, (chunk, entityManager) -> chunkSizes.add(chunk.size()));
+		Assert.assertEquals("[10, 10, 5]", chunkSizes.toString());
+		Assert.assertEquals(25, progress.getRowCount());
+		Assert.assertEquals(3, progress.getChunkCount());
+		Assert.assertTrue(progress.isFinished());
+		Assert.assertNull(progress.getCheckpoint());
+		Assert.assertEquals(3, commits.get());
+		Assert.assertEquals(3, closedEntityManagers.get());
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm ORDER BY sm.UUID ASC", sqls.get(0));
+		Assert.assertEquals("SELECT sm.UUID FROM SpaceMission sm WHERE ( sm.UUID > ?keyset0 ) ORDER BY sm.UUID ASC", sqls.get(1));
+	}
+
+	@Test
+	public void testComposerSettingsAreRestored() {
+		QueryComposer queryComposer = createComposer().setCountMode(CountMode.Capped, 50).setRowsPerPage(20).setPageNumber(3);
+		String sql = queryComposer.build();
+		createProcessor(25, new ArrayList<>()).process(queryComposer, 10, (chunk, entityManager) -> {
+		});
+		Assert.assertNull(queryComposer.getQueryRequest().getPagingMode());
+		Assert.assertEquals(PagingMode.Offset, queryComposer.getPagingMode());
+		Assert.assertEquals(CountMode.Capped, queryComposer.getCountMode());
+		Assert.assertEquals(50, queryComposer.getCountCap());
+		Assert.assertEquals(20, queryComposer.getQueryRequest().getRowsPerPage());
+		Assert.assertEquals(3, queryComposer.getQueryRequest().getPageNumber());
+		Assert.assertNull(queryComposer.getQueryRequest().getContinuationToken());
+		Assert.assertEquals(sql, queryComposer.build());
+	}
+
+	@Test
+	public void testLastChunkIsFull() {
+		List<Integer> chunkSizes = new ArrayList<>();
+		QueryBatchProgress progress = createProcessor(20, new ArrayList<>()).process(createComposer(), 10, (chunk, entityManager) -> chunkSizes.add(chunk.size()));
+		Assert.assertEquals("[10, 10]", chunkSizes.toString());
+		Assert.assertEquals(2, progress.getChunkCount());
+	}
+
+	@Test
+	public void testResumeFromCheckpoint() {
+		AtomicReference<String> checkpoint = new AtomicReference<>();
+		List<String> processed = new ArrayList<>();
+		QueryBatchProcessor<Object[]> processor = createProcessor(25, new ArrayList<>()).setProgressListener(progress -> checkpoint.set(progress.getCheckpoint()));
+		try {
+			processor.process(createComposer(), 10, (chunk, entityManager) -> {
+				if (processed.size() == 10) {
+					throw new IllegalStateException("chunk failure");
+				}
+				chunk.forEach(row -> processed.add((String) row[0]));
+			});
+			Assert.fail("chunk failure was expected");
+		} catch (IllegalStateException e) {
+			Assert.assertEquals("chunk failure", e.getMessage());
+		}
+		Assert.assertEquals(1, rollbacks.get());
+		Assert.assertEquals(2, closedEntityManagers.get());
+		QueryBatchProgress progress = processor.process(createComposer(), 10, (chunk, entityManager) -> chunk.forEach(row -> processed.add((String) row[0])),
+				checkpoint.get());
+		Assert.assertEquals(15, progress.getRowCount());
+		Assert.assertEquals(25, processed.size());
+		Assert.assertEquals("uuid10", processed.get(10));
+		Assert.assertEquals("uuid24", processed.get(24));
+	}
+
+	private QueryComposer createComposer() {
+		return QueryComposer.nativ("sm").select("*").from("SpaceMission sm");
+	}
+
+	private QueryBatchProcessor<Object[]> createProcessor(int rowCount, List<String> sqls) {
+		List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < rowCount; i++) {
+			rows.add(new Object[] { String.format("uuid%02d", i) });
+		}
+		return new QueryBatchProcessor<>(createEntityManagerFactory(), entityManager -> new SeekResultProvider(rows, sqls));
+	}
+
+	private EntityManagerFactory createEntityManagerFactory() {
+		AtomicReference<Boolean> active = new AtomicReference<>(false);
+		EntityTransaction transaction = MockPersistence.proxy(EntityTransaction.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "begin":
+				active.set(true);
+				return null;
+			case "commit":
+				commits.incrementAndGet();
+				active.set(false);
+				return null;
+			case "rollback":
+				rollbacks.incrementAndGet();
+				active.set(false);
+				return null;
+			default:
+				return active.get();
+			}
+		});
+		EntityManager entityManager = MockPersistence.proxy(EntityManager.class, (proxy, method, args) -> {
+			if (method.getName().equals("close")) {
+				closedEntityManagers.incrementAndGet();
+			}
+			return method.getName().equals("getTransaction") ? transaction : null;
+		});
+		return MockPersistence.entityManagerFactory(entityManager);
+	}
+
+	private static class SeekResultProvider extends TestResultProvider<Object[]> {
+
+		private final List<Object[]> rows;
+
+		private final List<String> sqls;
+
+		private SeekResultProvider(List<Object[]> rows, List<String> sqls) {
+			super(() -> rows);
+			this.rows = rows;
+			this.sqls = sqls;
+		}
+
+		@Override
+		public List<Object[]> getPagedResult(QueryComposer builder, int firstResult, int maxResults) {
+			sqls.add(builder.build());
+			String from = null;
+			for (QueryParam param : builder.getKeysetParams()) {
+				from = (String) param.getValue();
+			}
+			List<Object[]> result = new ArrayList<>();
+			for (Object[] row : rows) {
+				if ((from == null || ((String) row[0]).compareTo(from) > 0) && result.size() < maxResults) {
+					result.add(row);
+				}
+			}
+			return result;
+		}
+
+	}
+
+}
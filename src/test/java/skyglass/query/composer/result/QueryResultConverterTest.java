@@ -9,7 +9,11 @@ import java.util.stream.Stream;
 import org.junit.Assert;
 import org.junit.Test;
 
+import skyglass.query.composer.ContinuationToken;
+import skyglass.query.composer.OrderType;
+import skyglass.query.composer.PagingMode;
 import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
 import skyglass.query.composer.util.DateUtil;
 
 public class QueryResultConverterTest {
@@ -64,6 +68,16 @@ public class QueryResultConverterTest {
 		Assert.assertEquals("test3", list.get(2).getTest());
 	}
 
+	@Test
+	public void testKeysetContinuationToken() {
+		QueryComposer queryComposer = QueryComposer.nativ("sm").setPagingMode(PagingMode.Keyset).setRowsPerPage(3).setPageNumber(1)
+				.addSelect("test", "sm.test").from("SpaceMission sm").setDefaultOrder(OrderType.Asc, "sm.test");
+		QueryResult<Object[]> result = TestQueryManager.getNativeTestResult(queryComposer, getNativeKeysetListSupplier());
+		Assert.assertArrayEquals(new Object[] { "test3", "uuid3" }, ContinuationToken.decode(result.getContinuationToken()));
+		queryComposer.setRowsPerPage(5);
+		Assert.assertNull(TestQueryManager.getNativeTestResult(queryComposer, getNativeKeysetListSupplier()).getContinuationToken());
+	}
+
 	private Function<MockEntity, MockDTO> getEntityDtoConverter() {
 		return entity -> {
 			MockDTO mockDto = new MockDTO();
@@ -88,6 +102,10 @@ public class QueryResultConverterTest {
 		return () -> Stream.of(new Object[] { "test1" }, new Object[] { "test2" }, new Object[] { "test3" }).collect(Collectors.toList());
 	}
 
+	private Supplier<List<Object[]>> getNativeKeysetListSupplier() {
+		return () -> Stream.of(new Object[] { "uuid1", "test1" }, new Object[] { "uuid2", "test2" }, new Object[] { "uuid3", "test3" }).collect(Collectors.toList());
+	}
+
 	private Supplier<List<Object[]>> getNativeDateListSupplier() {
 		return () -> Stream.of(new Object[] { DateUtil.parse("2018-01-01") }, new Object[] { DateUtil.parse("2018-03-01") }, new Object[] { DateUtil.parse("2018-05-01") })
 				.collect(Collectors.toList());
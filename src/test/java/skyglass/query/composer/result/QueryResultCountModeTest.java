@@ -0,0 +1,142 @@
+package skyglass.query.composer.result;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.CountMode;
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.QueryResult;
+
+public class QueryResultCountModeTest {
+
+	@Test
+	public void testExactCount() {
+		CountingResultProvider provider = new CountingResultProvider(25);
+		QueryResult<String> result = getResult(createComposer(2).setCountMode(CountMode.Exact), provider);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(10, result.getResult().size());
+		Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		Assert.assertEquals(1, provider.countQueries);
+	}
+
+	@Test
+	public void testNoCount() {
+		CountingResultProvider provider = new CountingResultProvider(25);
+		QueryResult<String> result = getResult(createComposer(2).setCountMode(CountMode.None), provider);
+		Assert.assertEquals(-1, result.getTotalCount());
+		Assert.assertEquals(10, result.getResult().size());
+		Assert.assertEquals("row19", result.getResult().get(9));
+		Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		Assert.assertEquals(11, provider.lastMaxResults);
+		Assert.assertEquals(0, provider.countQueries);
+
+		result = getResult(createComposer(3).setCountMode(CountMode.None), provider);
+		Assert.assertEquals(5, result.getResult().size());
+		Assert.assertEquals(Boolean.FALSE, result.getHasNext());
+		Assert.assertEquals(0, provider.countQueries);
+	}
+
+	@Test
+	public void testShortCircuitCount() {
+		CountingResultProvider provider = new CountingResultProvider(7);
+		QueryResult<String> result = getResult(createComposer(1).setCountMode(CountMode.ShortCircuit), provider);
+		Assert.assertEquals(7, result.getTotalCount());
+		Assert.assertEquals(Boolean.FALSE, result.getHasNext());
+		Assert.assertEquals(0, provider.countQueries);
+
+		provider = new CountingResultProvider(25);
+		result = getResult(createComposer(1).setCountMode(CountMode.ShortCircuit), provider);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		Assert.assertEquals(1, provider.countQueries);
+	}
+
+	@Test
+	public void testCappedCount() {
+		CountingResultProvider provider = new CountingResultProvider(25);
+		QueryResult<String> result = getResult(createComposer(1).setCountMode(CountMode.Capped, 20), provider);
+		Assert.assertEquals(20, result.getTotalCount());
+		Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		Assert.assertEquals(1, provider.countQueries);
+
+		result = getResult(createComposer(3).setCountMode(CountMode.Capped, 20), provider);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(Boolean.FALSE, result.getHasNext());
+		Assert.assertEquals(1, provider.countQueries);
+	}
+
+	@Test
+	public void testCappedCountQuery() {
+		QueryComposer nativeComposer = QueryComposer.nativ("sm").select("*").from("SpaceMission sm").addWhere("sm.test = 'test'").setCountMode(CountMode.Capped, 100);
+		Assert.assertEquals("SELECT COUNT(1) FROM ( SELECT 1 FROM SpaceMission sm WHERE sm.test = 'test' LIMIT 100 ) tab", nativeComposer.buildCappedCountPart());
+		QueryComposer jpaComposer = QueryComposer.jpa("sm").select("*").from("SpaceMission sm").addWhere("sm.test = 'test'").setCountMode(CountMode.Capped, 100);
+		Assert.assertEquals("SELECT 1 FROM SpaceMission sm WHERE sm.test = 'test'", jpaComposer.buildCappedCountPart());
+	}
+
+	@Test
+	public void testWindowCount() {
+		CountingResultProvider provider = new CountingResultProvider(25);
+		provider.windowCount = true;
+		QueryResult<String> result = getResult(createComposer(2).setCountMode(CountMode.Window), provider);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(10, result.getResult().size());
+		Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		Assert.assertEquals(10, provider.lastMaxResults);
+		Assert.assertEquals(1, provider.windowQueries);
+		Assert.assertEquals(0, provider.countQueries);
+
+		result = getResult(createComposer(3).setCountMode(CountMode.Window), provider);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(Boolean.FALSE, result.getHasNext());
+		Assert.assertEquals(0, provider.countQueries);
+
+		// empty page beyond the last one: the count is not selected with the rows
+		result = getResult(createComposer(4).setCountMode(CountMode.Window), provider);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(0, result.getResult().size());
+		Assert.assertEquals(1, provider.countQueries);
+
+		provider = new CountingResultProvider(0);
+		provider.windowCount = true;
+		result = getResult(createComposer(1).setCountMode(CountMode.Window), provider);
+		Assert.assertEquals(0, result.getTotalCount());
+		Assert.assertEquals(Boolean.FALSE, result.getHasNext());
+		Assert.assertEquals(0, provider.countQueries);
+	}
+
+	@Test
+	public void testWindowCountFallsBackToExact() {
+		CountingResultProvider provider = new CountingResultProvider(25);
+		QueryResult<String> result = getResult(createComposer(2).setCountMode(CountMode.Window), provider);
+		Assert.assertEquals(25, result.getTotalCount());
+		Assert.assertEquals(Boolean.TRUE, result.getHasNext());
+		Assert.assertEquals(0, provider.windowQueries);
+		Assert.assertEquals(1, provider.countQueries);
+	}
+
+	@Test
+	public void testWindowCountQuery() {
+		QueryComposer nativeComposer = QueryComposer.nativ("sm").select("*").from("SpaceMission sm").addWhere("sm.test = 'test'").setCountMode(CountMode.Window);
+		Assert.assertEquals("SELECT sm.UUID, COUNT(*) OVER () FROM SpaceMission sm WHERE sm.test = 'test'", nativeComposer.buildWindowCountPart());
+		QueryComposer distinctComposer = QueryComposer.nativ("sm").setDistinct().select("*").from("SpaceMission sm").addWhere("sm.test = 'test'").setRowsPerPage(10)
+				.setCountMode(CountMode.Window);
+		// the window function is evaluated after the grouping, so it counts the distinct rows
+		Assert.assertEquals("SELECT sm.UUID, COUNT(*) OVER () FROM SpaceMission sm WHERE sm.test = 'test' GROUP BY sm.UUID", distinctComposer.buildWindowCountPart());
+		QueryComposer jpaComposer = QueryComposer.jpa("sm").select("*").from("SpaceMission sm").setCountMode(CountMode.Window);
+		try {
+			jpaComposer.buildWindowCountPart();
+			Assert.fail("window count should not be supported by JPA queries");
+		} catch (UnsupportedOperationException e) {
+			// expected
+		}
+	}
+
+	private QueryComposer createComposer(int pageNumber) {
+		return QueryComposer.nativ("sm").select("*").skipUuid().from("SpaceMission sm").setRowsPerPage(10).setPageNumber(pageNumber);
+	}
+
+	private QueryResult<String> getResult(QueryComposer queryComposer, QueryResultProvider<String> provider) {
+		return new QueryResultBuilder<>(queryComposer, provider).getResult();
+	}
+
+}
@@ -0,0 +1,112 @@
+package skyglass.query.composer.result;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.Query;
+
+import org.hibernate.ScrollableResults;
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.JpaQueryResultProvider;
+import skyglass.query.composer.QueryComposer;
+import skyglass.query.composer.util.QueryResultUtil;
+
+public class StreamResultTest {
+
+	private final AtomicInteger fetchedRows = new AtomicInteger();
+
+	private final AtomicInteger fetchSize = new AtomicInteger();
+
+	private final AtomicBoolean closed = new AtomicBoolean();
+
+	@Test
+	public void testConvertStreamIsLazy() {
+		AtomicInteger readRows = new AtomicInteger();
+		QueryResultProvider<Object[]> queryResultProvider = new TestResultProvider<Object[]>(() -> Arrays.asList(new Object[] { "test1" }, new Object[] { "test2" },
+				new Object[] { "test3" })) {
+
+			@Override
+			public Stream<Object[]> getStream(QueryComposer builder, int fetchSize) {
+				return super.getStream(builder, fetchSize).peek(row -> readRows.incrementAndGet());
+			}
+		};
+		QueryComposer queryComposer = QueryComposer.nativ("sm").select("test").skipUuid().from("SpaceMission sm");
+		try (Stream<MockDTO> stream = new DtoConverter<>(queryComposer, queryResultProvider, MockDTO::new).convertStream(100)) {
+			List<String> result = stream.limit(2).map(MockDTO::getTest).collect(Collectors.toList());
+			Assert.assertEquals(Arrays.asList("test1", "test2"), result);
+		}
+		Assert.assertEquals(2, readRows.get());
+	}
+
+	@Test
+	public void testScrollableStream() {
+		List<String> releasedRows = new ArrayList<>();
+		try (Stream<String> stream = QueryResultUtil.getStreamResult(createQuery(5), 2, row -> (String) row[0], releasedRows::addAll)) {
+			Assert.assertEquals(Arrays.asList("row1", "row2", "row3", "row4", "row5"), stream.collect(Collectors.toList()));
+			Assert.assertEquals(Arrays.asList("row1", "row2", "row3", "row4"), releasedRows);
+			Assert.assertEquals(2, fetchSize.get());
+			Assert.assertFalse(closed.get());
+		}
+		Assert.assertTrue(closed.get());
+	}
+
+	@Test
+	public void testScrollableStreamWithDefaultFetchSize() {
+		List<String> releasedRows = new ArrayList<>();
+		int rowCount = 2 * QueryResultUtil.DEFAULT_RELEASE_INTERVAL + 1;
+		try (Stream<String> stream = QueryResultUtil.getStreamResult(createQuery(rowCount), 0, row -> (String) row[0], releasedRows::addAll)) {
+			Assert.assertEquals(rowCount, stream.count());
+		}
+		// the rows are still released by the default interval
+		Assert.assertEquals(2 * QueryResultUtil.DEFAULT_RELEASE_INTERVAL, releasedRows.size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testEntityStreamRejectsFetchJoins() {
+		QueryComposer queryComposer = QueryComposer.jpa("sm").from("SpaceMission sm").leftJoinFetch("sm.crew cr");
+		Assert.assertTrue(queryComposer.hasFetchJoins());
+		Assert.assertFalse(queryComposer.setProjection(true).hasFetchJoins());
+		new JpaQueryResultProvider<>(null, Object.class).getStream(queryComposer.setProjection(false), 100);
+	}
+
+	@Test
+	public void testScrollableStreamReadsOnlyConsumedRows() {
+		try (Stream<String> stream = QueryResultUtil.getStreamResult(createQuery(1000), 100, row -> (String) row[0], null)) {
+			Assert.assertEquals("row1", stream.findFirst().get());
+		}
+		Assert.assertEquals(1, fetchedRows.get());
+		Assert.assertTrue(closed.get());
+	}
+
+	private Query createQuery(int rowCount) {
+		ScrollableResults scrollableResults = MockPersistence.proxy(ScrollableResults.class, (proxy, method, args) -> {
+			switch (method.getName()) {
+			case "next":
+				return fetchedRows.get() < rowCount && fetchedRows.incrementAndGet() > 0;
+			case "get":
+				return new Object[] { "row" + fetchedRows.get() };
+			case "close":
+				closed.set(true);
+				return null;
+			default:
+				return null;
+			}
+		});
+		org.hibernate.query.Query<?> hibernateQuery = MockPersistence.proxy(org.hibernate.query.Query.class, (proxy, method, args) -> {
+			if (method.getName().equals("setFetchSize")) {
+				fetchSize.set((Integer) args[0]);
+				return proxy;
+			}
+			return method.getName().equals("scroll") ? scrollableResults : null;
+		});
+		return MockPersistence.proxy(Query.class, (proxy, method, args) -> hibernateQuery);
+	}
+
+}
@@ -2,6 +2,7 @@ package skyglass.query.composer.result;
 
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import skyglass.query.composer.QueryComposer;
 import skyglass.query.composer.result.QueryResultProvider;
@@ -39,4 +40,14 @@ public class TestResultProvider<T> implements QueryResultProvider<T> {
 		return null;
 	}
 
+	@Override
+	public Stream<T> getStream(QueryComposer builder, int fetchSize) {
+		return listSupplier.get().stream();
+	}
+
+	@Override
+	public Object[] getKeyValues(QueryComposer builder, Object row) {
+		return builder.getKeyValues(row);
+	}
+
 }
@@ -0,0 +1,105 @@
+package skyglass.query.composer.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SearchTemplateTest {
+
+	private static final Pattern SEARCH_TERM_PATTERN = Pattern.compile("(\\w+?)(:|<|>|=|!)(\\**\\w+?\\**)(,|\\|)", Pattern.UNICODE_CHARACTER_CLASS);
+
+	@Test
+	public void testSameTermsAsPattern() {
+		String[] searches = { "test", "name:test", "name:test|", "name:*test*,id>5", "name=*test,id<5|code!3", "a:b:c,", "ab-cd:x,", "a:-b:c,",
+				"x:**,y:z", "ünïcödé:wörld,число=42", "имя:*тест*|", "a\u0301:b", "f:\uD835\uDFCE,", "n=\u0661\u0662", "n=99999999999", "n=-5",
+				"", ",", "|", ":x," };
+		for (String search : searches) {
+			checkTerms(search);
+		}
+		Random random = new Random(42);
+		char[] chars = { 'a', 'b', '1', '_', ':', '<', '>', '=', '!', '*', ',', '|', ' ', '-', 'é', '\u0301' };
+		for (int i = 0; i < 2000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(12);
+			for (int j = 0; j < length; j++) {
+				sb.append(chars[random.nextInt(chars.length)]);
+			}
+			checkTerms(sb.toString());
+		}
+	}
+
+	@Test
+	public void testParsedSearchIsCached() {
+		Assert.assertSame(SearchTemplate.forSearch("name:test,id>5"), SearchTemplate.forSearch("name:test,id>5"));
+	}
+
+	@Test
+	public void testFieldNamesAreResolvedOnBind() {
+		SearchTemplate template = SearchTemplate.forSearch("name:test,name=*other*|");
+		Map<String, Integer> indexes = new HashMap<>();
+		Pair<Combination, List<SearchTerm>> result = template.bind(field -> {
+			int index = indexes.merge(field, 1, Integer::sum);
+			return index == 1 ? field : field + index;
+		});
+		Assert.assertEquals(Combination.Or, result.getLeft());
+		Assert.assertEquals("name", result.getRight().get(0).getField());
+		Assert.assertEquals("name2", result.getRight().get(1).getField());
+		Assert.assertEquals("name", result.getRight().get(1).getAlias());
+		Assert.assertEquals(SearchOperator.Contains, result.getRight().get(1).getOperator());
+		Assert.assertEquals(Combination.And, result.getRight().get(1).getCombination());
+
+		result = template.bind(field -> field);
+		Assert.assertEquals("name", result.getRight().get(1).getField());
+	}
+
+	@Test
+	public void testIntegerValues() {
+		List<SearchTerm> terms = SearchTemplate.forSearch("a=12,b>2147483648,c<x1,d:5").bind(field -> field).getRight();
+		Assert.assertEquals(12, terms.get(0).getValue());
+		Assert.assertTrue(terms.get(0).isNumeric());
+		Assert.assertEquals("2147483648", terms.get(1).getValue());
+		Assert.assertEquals("x1", terms.get(2).getValue());
+		Assert.assertEquals("5", terms.get(3).getValue());
+		Assert.assertEquals(-5, new SearchTerm(null, null, "=", "-5", null).getValue());
+		Assert.assertEquals("+", new SearchTerm(null, null, "=", "+", null).getValue());
+		Assert.assertEquals(42, new SearchTerm(null, null, "=", "00000000042", null).getValue());
+		Assert.assertEquals(Integer.MIN_VALUE, new SearchTerm(null, null, "=", "-0002147483648", null).getValue());
+		Assert.assertEquals("0002147483648", new SearchTerm(null, null, "=", "0002147483648", null).getValue());
+	}
+
+	private void checkTerms(String search) {
+		List<SearchTerm> expected = parseWithPattern(search);
+		List<SearchTerm> actual = SearchTemplate.forSearch(search).bind(field -> field).getRight();
+		Assert.assertEquals(search, expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			Assert.assertEquals(search, expected.get(i).getField(), actual.get(i).getField());
+			Assert.assertEquals(search, expected.get(i).getOperator(), actual.get(i).getOperator());
+			Assert.assertEquals(search, expected.get(i).getValue(), actual.get(i).getValue());
+			Assert.assertEquals(search, expected.get(i).getCombination(), actual.get(i).getCombination());
+		}
+	}
+
+	private List<SearchTerm> parseWithPattern(String searchTerm) {
+		List<SearchTerm> result = new ArrayList<>();
+		String search = searchTerm.endsWith(",") || searchTerm.endsWith("|") ? searchTerm : (searchTerm + ",");
+		Matcher matcher = SEARCH_TERM_PATTERN.matcher(search);
+		while (matcher.find()) {
+			result.add(new SearchTerm(matcher.group(1), matcher.group(1), matcher.group(2), matcher.group(3), matcher.group(4)));
+		}
+		if (result.isEmpty()) {
+			result.add(new SearchTerm(searchTerm));
+		} else if (result.size() > 1) {
+			result.get(result.size() - 1).adaptCombination(result.get(result.size() - 2).getCombination());
+		}
+		return result;
+	}
+
+}
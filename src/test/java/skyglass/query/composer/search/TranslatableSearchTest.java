@@ -0,0 +1,55 @@
+package skyglass.query.composer.search;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EmbeddableType;
+import javax.persistence.metamodel.Metamodel;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.query.composer.config.Language;
+import skyglass.query.composer.result.MockPersistence;
+import skyglass.query.composer.util.QueryTranslationUtil;
+
+public class TranslatableSearchTest {
+
+	@Test
+	public void testRequestLanguageColumns() {
+		TranslatableSearch translatableSearch = TranslatableSearch.requestLanguage(Language.EN);
+		Assert.assertEquals(Arrays.asList("de", "en"), translatableSearch.getColumns("DE"));
+		Assert.assertEquals(Arrays.asList("en"), translatableSearch.getColumns("en"));
+		Assert.assertEquals(Arrays.asList("en"), translatableSearch.getColumns(null));
+	}
+
+	@Test
+	public void testMappedLanguages() {
+		Metamodel metamodel = createMetamodel("en", "de", "id");
+		Assert.assertEquals(Arrays.asList("en", "de"), TranslatableSearch.mappedLanguages(metamodel, Object.class).getColumns("fr"));
+		Assert.assertEquals(" (LOWER(sm.name.EN) LIKE LOWER(?searchTerm) OR LOWER(sm.name.DE) LIKE LOWER(?searchTerm) ) ",
+				QueryTranslationUtil.getNativeSearchLikeTerm("sm.name", "searchTerm", TranslatableSearch.mappedLanguages(metamodel, Object.class), "fr"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoMappedLanguages() {
+		TranslatableSearch.mappedLanguages(createMetamodel("id"), Object.class);
+	}
+
+	private Metamodel createMetamodel(String... attributeNames) {
+		Set<Attribute<?, ?>> attributes = new HashSet<>();
+		for (String attributeName : attributeNames) {
+			attributes.add(MockPersistence.proxy(Attribute.class, (proxy, method, args) -> {
+				if (method.getName().equals("hashCode")) {
+					return attributeName.hashCode();
+				}
+				return method.getName().equals("getName") ? attributeName : null;
+			}));
+		}
+		EmbeddableType<?> embeddableType = MockPersistence.proxy(EmbeddableType.class, (proxy, method, args) -> method.getName().equals("getAttributes") ? attributes : null);
+		return MockPersistence.proxy(Metamodel.class, (proxy, method, args) -> method.getName().equals("embeddable") ? embeddableType : null);
+	}
+
+}
@@ -0,0 +1,146 @@
+package skyglass.query.composer.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TrigramIndexTest {
+
+	@Test
+	public void testSearch() {
+		TrigramIndex<String[]> index = createIndex();
+		index.load(Arrays.asList(new String[] { "uuid-1", "Apollo", "Moon landing" },
+				new String[] { "uuid-2", "Gemini", "Orbital rendezvous" },
+				new String[] { "uuid-3", "Artemis", null }));
+		Assert.assertEquals(3, index.size());
+		Assert.assertEquals(Arrays.asList("uuid-1"), search(index, "POLL"));
+		Assert.assertEquals(Arrays.asList("uuid-2", "uuid-3"), search(index, "EMI"));
+		Assert.assertEquals(Arrays.asList("uuid-2"), search(index, "emi", "ren"));
+		Assert.assertEquals(Arrays.asList("uuid-2"), search(index, "ren", "gem"));
+		Assert.assertEquals(Arrays.asList("uuid-3"), search(index, "temi"));
+		Assert.assertEquals(Collections.emptyList(), search(index, "mars"));
+		// trigrams don't span the values of two paths
+		Assert.assertEquals(Collections.emptyList(), search(index, "llom"));
+		Assert.assertNull(search(index, "ap"));
+		Assert.assertNull(index.search(Collections.emptyList()));
+	}
+
+	@Test
+	public void testPutAndRemove() {
+		TrigramIndex<String[]> index = createIndex();
+		index.load(Collections.emptyList());
+		index.put(new String[] { "uuid-1", "Apollo", null });
+		index.put(new String[] { "uuid-2", "Gemini", null });
+		index.put(new String[] { "uuid-1", "Mercury", null });
+		Assert.assertEquals(2, index.size());
+		Assert.assertEquals(Collections.emptyList(), search(index, "apollo"));
+		Assert.assertEquals(Arrays.asList("uuid-1"), search(index, "mercury"));
+		index.remove(new String[] { "uuid-2", null, null });
+		index.remove("uuid-3");
+		Assert.assertEquals(Collections.emptyList(), search(index, "gemini"));
+		Assert.assertEquals(1, index.size());
+		index.clear();
+		Assert.assertEquals(0, index.size());
+		Assert.assertEquals(Collections.emptyList(), search(index, "mercury"));
+	}
+
+	@Test
+	public void testCompaction() {
+		TrigramIndex<String[]> index = createIndex();
+		List<String[]> entities = new ArrayList<>();
+		for (int i = 0; i < 3000; i++) {
+			entities.add(new String[] { "uuid-" + i, "mission " + (i % 2 == 0 ? "even" : "odd"), "number" + i });
+		}
+		index.load(entities);
+		for (int i = 0; i < 3000; i += 3) {
+			index.remove("uuid-" + i);
+		}
+		for (int i = 1; i < 3000; i += 3) {
+			index.remove("uuid-" + i);
+		}
+		Assert.assertEquals(1000, index.size());
+		List<String> expected = new ArrayList<>();
+		for (int i = 2; i < 3000; i += 3) {
+			if (i % 2 == 1) {
+				expected.add("uuid-" + i);
+			}
+		}
+		Assert.assertEquals(expected, search(index, "odd"));
+		Assert.assertEquals(Arrays.asList("uuid-2999"), search(index, "mission", "number2999"));
+		index.put(new String[] { "uuid-0", "mission odd", null });
+		Assert.assertEquals("uuid-0", search(index, "odd").get(expected.size()));
+	}
+
+	@Test
+	public void testInvalidIndex() {
+		TrigramIndex<String[]> index = createIndex();
+		index.put(new String[] { "uuid-1", "Apollo", null });
+		// the index, which was not loaded, doesn't narrow the search
+		Assert.assertFalse(index.isValid());
+		Assert.assertNull(search(index, "apollo"));
+		index.load(Arrays.<String[]> asList(new String[] { "uuid-1", "Apollo", null }));
+		Assert.assertEquals(Arrays.asList("uuid-1"), search(index, "apollo"));
+		index.invalidate();
+		Assert.assertNull(search(index, "apollo"));
+		Assert.assertNull(search(index, "mars"));
+	}
+
+	@Test
+	public void testMaxCandidates() {
+		TrigramIndex<String[]> index = createIndex().setMaxCandidates(2);
+		index.load(Arrays.asList(new String[] { "uuid-1", "Apollo 11", null },
+				new String[] { "uuid-2", "Apollo 13", null },
+				new String[] { "uuid-3", "Apollo 15", null }));
+		Assert.assertNull(search(index, "apollo"));
+		Assert.assertEquals(Arrays.asList("uuid-3"), search(index, "apollo 15"));
+		index.setMaxCandidates(3);
+		Assert.assertEquals(Arrays.asList("uuid-1", "uuid-2", "uuid-3"), search(index, "apollo"));
+	}
+
+	@Test
+	public void testDottedAndDotlessI() {
+		TrigramIndex<String[]> index = createIndex();
+		index.load(Arrays.asList(new String[] { "uuid-1", "\u0130STANBUL", null },
+				new String[] { "uuid-2", "D\u0131YARBAKIR", null },
+				new String[] { "uuid-3", "izmir", null }));
+		// LOWER() of the database may fold I to the dotted or to the dotless i, so both are candidates
+		Assert.assertEquals(Arrays.asList("uuid-1"), search(index, "istanbul"));
+		Assert.assertEquals(Arrays.asList("uuid-1"), search(index, "\u0131stanbul"));
+		Assert.assertEquals(Arrays.asList("uuid-2"), search(index, "diyarbakir"));
+		Assert.assertEquals(Arrays.asList("uuid-3"), search(index, "\u0130ZM\u0130R"));
+	}
+
+	@Test
+	public void testAccentInsensitive() {
+		TrigramIndex<String[]> index = createIndex();
+		index.load(Arrays.asList(new String[] { "uuid-1", "Caf\u00e9 Mir", null },
+				new String[] { "uuid-2", "Cafe\u0301 Soyuz", null },
+				new String[] { "uuid-3", "Cafeteria", null }));
+		// accent insensitive collations match the accented and the plain letters
+		Assert.assertEquals(Arrays.asList("uuid-1", "uuid-2", "uuid-3"), search(index, "cafe"));
+		Assert.assertEquals(Arrays.asList("uuid-1", "uuid-2", "uuid-3"), search(index, "CAF\u00c9"));
+		Assert.assertEquals(Arrays.asList("uuid-1"), search(index, "caf\u00e9 mir"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testPathsAreAddedBeforeLoad() {
+		TrigramIndex<String[]> index = createIndex();
+		index.put(new String[] { "uuid-1", "Apollo", null });
+		index.addPath("sm.code", entity -> entity[1]);
+	}
+
+	private TrigramIndex<String[]> createIndex() {
+		return new TrigramIndex<>(String[].class, entity -> entity[0])
+				.addPath("sm.name", entity -> entity[1])
+				.addPath("sm.description", entity -> entity[2]);
+	}
+
+	private List<String> search(TrigramIndex<String[]> index, String... texts) {
+		return index.search(Arrays.asList(texts));
+	}
+
+}
@@ -0,0 +1,112 @@
+package skyglass.query.composer.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EnumDecoderTest {
+
+	private enum Status {
+		Active, Closed, Archived;
+	}
+
+	private enum Priority implements CodedEnum {
+		Low(10), Normal(20), High(30) {
+
+			@Override
+			public String toString() {
+				return "high priority";
+			}
+		};
+
+		private final int code;
+
+		private Priority(int code) {
+			this.code = code;
+		}
+
+		@Override
+		public Object getCode() {
+			return code;
+		}
+	}
+
+	private enum Country implements CodedEnum {
+		Germany("DE"), Austria("AT");
+
+		private final String code;
+
+		private Country(String code) {
+			this.code = code;
+		}
+
+		@Override
+		public Object getCode() {
+			return code;
+		}
+	}
+
+	@Test
+	public void testNamesAndOrdinals() {
+		EnumDecoder<Status> decoder = EnumDecoder.of(Status.class);
+		Assert.assertSame(decoder, EnumDecoder.of(Status.class));
+		Assert.assertEquals(Status.Closed, decoder.decode("Closed"));
+		Assert.assertEquals(Status.Closed, decoder.decode(Status.Closed));
+		Assert.assertEquals(Status.Active, decoder.decode(0));
+		Assert.assertEquals(Status.Closed, decoder.decode(1L));
+		Assert.assertEquals(Status.Archived, decoder.decode(BigInteger.valueOf(2)));
+		Assert.assertEquals(Status.Archived, decoder.decode(new BigDecimal("2.0")));
+		Assert.assertEquals(Status.Archived, decoder.decode(new StringBuilder("Archived")));
+		Assert.assertNull(decoder.decode(null));
+		Assert.assertNull(decoder.decode(" "));
+	}
+
+	@Test
+	public void testNumericCodes() {
+		EnumDecoder<Priority> decoder = EnumDecoder.of(Priority.class);
+		Assert.assertEquals(Priority.Low, decoder.decode(10));
+		Assert.assertEquals(Priority.High, decoder.decode(30L));
+		Assert.assertEquals(Priority.High, decoder.decode("High"));
+		Assert.assertEquals(Priority.High, decoder.decodeOrdinal(2));
+		// constant with a body
+		Assert.assertEquals(Priority.High, EnumDecoder.ofClass(Priority.High.getClass().getSuperclass()).decode(30));
+	}
+
+	@Test
+	public void testStringCodes() {
+		EnumDecoder<Country> decoder = EnumDecoder.of(Country.class);
+		Assert.assertEquals(Country.Austria, decoder.decode("AT"));
+		Assert.assertEquals(Country.Germany, decoder.decode("Germany"));
+		Assert.assertEquals(Country.Austria, decoder.decode(1));
+	}
+
+	@Test
+	public void testEnumUtil() {
+		Assert.assertEquals(Status.Closed, EnumUtil.getEnumInstance(1, Status.class));
+		Assert.assertEquals(Status.Closed, EnumUtil.getEnumInstanceObject("Closed", Status.class));
+		Assert.assertNull(EnumUtil.getEnumInstance("", Status.class));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownName() {
+		EnumDecoder.of(Status.class).decode("Open");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownOrdinal() {
+		EnumDecoder.of(Status.class).decode(3);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownCode() {
+		EnumDecoder.of(Priority.class).decode(2);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testFractionalOrdinal() {
+		EnumDecoder.of(Status.class).decode(1.5);
+	}
+
+}
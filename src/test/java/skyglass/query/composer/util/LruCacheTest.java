@@ -0,0 +1,40 @@
+package skyglass.query.composer.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LruCacheTest {
+
+	@Test
+	public void testLeastRecentlyUsedIsEvicted() throws InterruptedException {
+		LruCache<String, Integer> cache = new LruCache<>(2);
+		cache.put("a", 1);
+		Thread.sleep(1);
+		cache.put("b", 2);
+		Thread.sleep(1);
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		cache.put("c", 3);
+		Assert.assertEquals(2, cache.size());
+		Assert.assertEquals(Integer.valueOf(1), cache.get("a"));
+		Assert.assertNull(cache.get("b"));
+		Assert.assertEquals(Integer.valueOf(3), cache.get("c"));
+	}
+
+	@Test
+	public void testFullCacheEvictsPartOfEntries() {
+		LruCache<Integer, Integer> cache = new LruCache<>(64);
+		for (int i = 0; i < 64; i++) {
+			cache.put(i, i);
+		}
+		Assert.assertEquals(64, cache.size());
+		cache.put(64, 64);
+		Assert.assertEquals(60, cache.size());
+		Assert.assertEquals(Integer.valueOf(64), cache.get(64));
+		cache.setMaxSize(10);
+		Assert.assertTrue(cache.size() <= 10);
+		cache.setMaxSize(0);
+		cache.put(1, 1);
+		Assert.assertEquals(0, cache.size());
+	}
+
+}
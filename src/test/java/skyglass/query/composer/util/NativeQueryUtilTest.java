@@ -0,0 +1,110 @@
+package skyglass.query.composer.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import skyglass.data.common.model.IdObject;
+import skyglass.query.composer.result.MockEnum;
+
+public class NativeQueryUtilTest {
+
+	private static final String SELECT = "SELECT DISTINCT sm.UUID, sm.name, sm.status AS status, COUNT(1) AS total, sm.code AS missing";
+
+	@Test
+	public void testBuildDtoFromSelectFields() {
+		TestDTO dto = NativeQueryUtil.buildDtoFromSelectFields(TestDTO::new, new Object[] { "uuid-1", "Apollo", "Test2", BigInteger.valueOf(7), "code" }, SELECT);
+		Assert.assertEquals("uuid-1", dto.getUuid());
+		Assert.assertEquals("Apollo", dto.getName());
+		Assert.assertEquals(MockEnum.Test2, dto.getStatus());
+		Assert.assertEquals(Long.valueOf(7), dto.getTotal());
+	}
+
+	@Test
+	public void testBuildDtoListFromSelectFields() {
+		List<TestDTO> dtoList = NativeQueryUtil.buildDtoListFromSelectFields(TestDTO::new,
+				Arrays.asList(new Object[] { "uuid-1", "Apollo", null, null, null }, new Object[] { "uuid-2", "Gemini", "Test1", BigInteger.ONE, null }), SELECT);
+		Assert.assertEquals(2, dtoList.size());
+		Assert.assertNull(dtoList.get(0).getStatus());
+		Assert.assertEquals("Gemini", dtoList.get(1).getName());
+		Assert.assertEquals(MockEnum.Test1, dtoList.get(1).getStatus());
+		Assert.assertEquals(Long.valueOf(1), dtoList.get(1).getTotal());
+	}
+
+	@Test
+	public void testNumberConversion() {
+		// numbers are converted by the same rules as in the DTO conversion of the query results
+		TestDTO dto = NativeQueryUtil.buildDtoFromSelectFields(TestDTO::new, new Object[] { "uuid-1", new BigDecimal("7.0") }, "SELECT sm.UUID, COUNT(1) AS total");
+		Assert.assertEquals(Long.valueOf(7), dto.getTotal());
+		try {
+			NativeQueryUtil.buildDtoFromSelectFields(TestDTO::new, new Object[] { "uuid-1", BigInteger.ONE.shiftLeft(64) }, "SELECT sm.UUID, COUNT(1) AS total");
+			Assert.fail("conversion error was expected");
+		} catch (IllegalArgumentException e) {
+			Assert.assertEquals("Value 18446744073709551616 of the column total is out of the range of Long", e.getMessage());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testTypeMismatch() {
+		NativeQueryUtil.buildDtoFromSelectFields(TestDTO::new, new Object[] { "uuid-1", 1 }, "SELECT sm.UUID, sm.name");
+	}
+
+	public static class BaseDTO implements IdObject {
+
+		private static final long serialVersionUID = 1L;
+
+		private String uuid;
+
+		private String name;
+
+		@Override
+		public String getUuid() {
+			return uuid;
+		}
+
+		@Override
+		public void setUuid(String uuid) {
+			this.uuid = uuid;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+	}
+
+	public static class TestDTO extends BaseDTO {
+
+		private static final long serialVersionUID = 1L;
+
+		private MockEnum status;
+
+		private Long total;
+
+		public MockEnum getStatus() {
+			return status;
+		}
+
+		public void setStatus(MockEnum status) {
+			this.status = status;
+		}
+
+		public Long getTotal() {
+			return total;
+		}
+
+		public void setTotal(Long total) {
+			this.total = total;
+		}
+
+	}
+
+}